@@ -4,7 +4,9 @@ import static org.basex.core.Text.*;
 
 import java.io.*;
 import java.net.*;
+import java.nio.channels.*;
 import java.util.*;
+import java.util.concurrent.*;
 
 import org.basex.api.client.*;
 import org.basex.core.*;
@@ -31,6 +33,8 @@ public final class BaseXServer extends CLI implements Runnable {
   private volatile boolean stop;
   /** Server socket. */
   private ServerSocket socket;
+  /** Selector for client connections. */
+  private ClientSelector selector;
   /** Start as service. */
   private boolean service;
   /** Daemon flag. */
@@ -95,7 +99,8 @@ public final class BaseXServer extends CLI implements Runnable {
     }
 
     try {
-      socket = new ServerSocket();
+      // open channel: idle client connections will be monitored by the selector
+      socket = ServerSocketChannel.open().socket();
       socket.setReuseAddress(true);
       socket.bind(new InetSocketAddress(addr, port));
       stopFile = stopFile(getClass(), port);
@@ -111,6 +116,8 @@ public final class BaseXServer extends CLI implements Runnable {
       throw new BaseXException(ex.getLocalizedMessage());
     }
 
+    selector = new ClientSelector(sopts.get(StaticOptions.SERVERTHREADS));
+    selector.start();
     new Thread(this).start();
 
     // show info that server has been started
@@ -149,17 +156,13 @@ public final class BaseXServer extends CLI implements Runnable {
             }
           }
           // create client listener, stop authentication after timeout
-          final ClientListener cl = new ClientListener(s, context, this);
+          final ClientListener cl = new ClientListener(s, context, this, selector);
           if(ka > 0) {
-            cl.timeout.schedule(new TimerTask() {
-              @Override
-              public void run() {
-                cl.close();
-              }
-            }, ka);
+            // close connection in a separate thread (timer actions must be short-running)
+            cl.timeout = context.jobs.timer.schedule(() -> new Thread(cl::close).start(), ka);
             authorizing.add(cl);
           }
-          cl.start();
+          selector.execute(cl);
         }
       } catch(final SocketException ex) {
         Util.debug(ex);
@@ -194,6 +197,7 @@ public final class BaseXServer extends CLI implements Runnable {
       cl.close();
     }
     context.sessions.close();
+    selector.close();
 
     try {
       // close interactive input if server was stopped by another process
@@ -342,7 +346,8 @@ public final class BaseXServer extends CLI implements Runnable {
    */
   public void remove(final ClientListener client) {
     synchronized(authorizing) {
-      client.timeout.cancel();
+      final ScheduledFuture<?> timeout = client.timeout;
+      if(timeout != null) timeout.cancel(false);
       authorizing.remove(client);
     }
   }
@@ -18,6 +18,8 @@ import org.basex.util.*;
  * This class defines all methods for iteratively evaluating queries with the
  * client/server architecture. All sent data is received by the
  * {@link ClientListener} and interpreted by the {@link ServerQuery}.
+ * Results are read from the server while they are iterated. If another request is sent via
+ * the same session, pending results will be cached.
  *
  * @author BaseX Team 2005-18, BSD License
  * @author Christian Gruen
@@ -59,6 +61,7 @@ public class ClientQuery extends Query {
 
   @Override
   public void bind(final String name, final Object value, final String type) throws IOException {
+    drain(false);
     cache = null;
 
     final Object vl = value instanceof BXNode ? ((BXNode) value).getNode() : value;
@@ -105,18 +108,26 @@ public class ClientQuery extends Query {
 
   @Override
   public void close() throws IOException {
+    drain(false);
     cs.exec(ServerCmd.CLOSE, id, null);
   }
 
   @Override
   public void cache(final boolean full) throws IOException {
+    drain(false);
+    cs.drain();
     cs.sout.write((full ? ServerCmd.FULL : ServerCmd.RESULTS).code);
     cs.send(id);
     cs.sout.flush();
 
-    @SuppressWarnings("resource")
-    final BufferInput bi = BufferInput.get(cs.sin);
-    cache(bi, full);
-    if(!ClientSession.ok(bi)) throw new BaseXException(bi.readString());
+    // results are read when they are requested; until then, the session is reserved
+    stream(BufferInput.get(cs.sin), full);
+    cs.streaming = this;
+  }
+
+  @Override
+  String finish(final BufferInput in) throws IOException {
+    cs.streaming = null;
+    return ClientSession.ok(in) ? null : in.readString();
   }
 }
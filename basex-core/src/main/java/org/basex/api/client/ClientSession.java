@@ -33,6 +33,8 @@ public class ClientSession extends Session {
   final PrintOutput sout;
   /** Server input. */
   final InputStream sin;
+  /** Query with pending results (if not {@code null}, the results must be read first). */
+  ClientQuery streaming;
 
   /** Socket reference. */
   private final Socket socket;
@@ -156,6 +158,7 @@ public class ClientSession extends Session {
 
   @Override
   protected void execute(final String command, final OutputStream output) throws IOException {
+    drain();
     send(command);
     sout.flush();
     receive(output);
@@ -212,6 +215,7 @@ public class ClientSession extends Session {
   private void send(final ServerCmd command, final InputStream input, final String... args)
       throws IOException {
 
+    drain();
     sout.write(command.code);
     for(final String arg : args) send(arg);
     send(input);
@@ -228,6 +232,14 @@ public class ClientSession extends Session {
     for(int b; (b = si.read()) != -1;) output.write(b);
   }
 
+  /**
+   * Reads the pending results of a query before a new request is sent to the server.
+   * @throws IOException I/O exception
+   */
+  void drain() throws IOException {
+    if(streaming != null) streaming.drain(true);
+  }
+
   /**
    * Sends a string to the server.
    * @param string string to be sent
@@ -250,6 +262,7 @@ public class ClientSession extends Session {
   String exec(final ServerCmd command, final String arg, final OutputStream output)
       throws IOException {
 
+    drain();
     final OutputStream o = output == null ? new ArrayOutput() : output;
     sout.write(command.code);
     send(arg);
@@ -2,6 +2,7 @@ package org.basex.api.client;
 
 import java.io.*;
 
+import org.basex.core.*;
 import org.basex.io.in.*;
 import org.basex.query.value.type.*;
 import org.basex.query.value.type.Type.ID;
@@ -29,6 +30,12 @@ public abstract class Query implements Closeable {
   private ByteList types;
   /** Cache pointer. */
   private int pos;
+  /** Input with pending results ({@code null} if all results have been read). */
+  private BufferInput input;
+  /** Retrieve full type information. */
+  private boolean full;
+  /** Error message of a query whose results have been read in advance. */
+  private String error;
 
   /**
    * Binds a value to an external variable.
@@ -74,13 +81,25 @@ public abstract class Query implements Closeable {
   public boolean more() throws IOException {
     if(cache == null) cache(false);
     if(pos < cache.size()) return true;
+    if(input != null) {
+      // streamed results: read next item
+      cache.reset();
+      types.reset();
+      pos = 0;
+      if(item(input, true)) return true;
+      error = finish(input);
+      input = null;
+    }
     cache = null;
     types = null;
-    return false;
+    if(error == null) return false;
+    final String msg = error;
+    error = null;
+    throw new BaseXException(msg);
   }
 
   /**
-   * Caches the query result.
+   * Caches or streams the query result.
    * @param full retrieve full type information
    * @throws IOException I/O exception
    */
@@ -116,24 +135,92 @@ public abstract class Query implements Closeable {
    * @throws IOException I/O exception
    */
   void cache(final InputStream input, final boolean full) throws IOException {
+    init(full);
+    while(item(input, true));
+  }
+
+  /**
+   * Prepares the iterative retrieval of the query results. Items will only be read from the
+   * specified input if they are requested.
+   * @param in input stream
+   * @param fll retrieve full type information
+   */
+  final void stream(final BufferInput in, final boolean fll) {
+    init(fll);
+    input = in;
+  }
+
+  /**
+   * Reads all pending results from the input stream.
+   * The results will either be cached, or discarded if they are not needed anymore.
+   * @param keep cache results
+   * @throws IOException I/O exception
+   */
+  final void drain(final boolean keep) throws IOException {
+    final BufferInput in = input;
+    if(in == null) return;
+    input = null;
+    while(item(in, keep));
+    final String msg = finish(in);
+    if(keep) {
+      error = msg;
+    } else {
+      cache = null;
+      types = null;
+    }
+  }
+
+  /**
+   * Finishes the retrieval of streamed results.
+   * @param in input stream
+   * @return error message or {@code null}
+   * @throws IOException I/O exception
+   */
+  @SuppressWarnings("unused")
+  String finish(final BufferInput in) throws IOException {
+    return null;
+  }
+
+  /**
+   * Initializes the result cache.
+   * @param fll retrieve full type information
+   */
+  private void init(final boolean fll) {
     cache = new TokenList();
     types = new ByteList();
-    final ByteList bl = new ByteList();
-    for(int t; (t = input.read()) > 0;) {
-      // skip type information
-      if(full) {
-        final ID id = ID.get(t);
-        if(id != null && id.isExtended()) {
-          while(input.read() > 0);
-        }
+    full = fll;
+    pos = 0;
+    error = null;
+  }
+
+  /**
+   * Reads the next item from the specified input.
+   * @param in input stream
+   * @param keep cache item (otherwise, it will be skipped)
+   * @return {@code true} if an item was found
+   * @throws IOException I/O exception
+   */
+  private boolean item(final InputStream in, final boolean keep) throws IOException {
+    final int t = in.read();
+    if(t <= 0) return false;
+    // skip type information
+    if(full) {
+      final ID id = ID.get(t);
+      if(id != null && id.isExtended()) {
+        while(in.read() > 0);
       }
-      // read and decode result
-      final ServerInput si = new ServerInput(input);
+    }
+    // read and decode result
+    final ServerInput si = new ServerInput(in);
+    if(keep) {
+      final ByteList bl = new ByteList();
       for(int b; (b = si.read()) != -1;) bl.add(b);
-      cache.add(bl.next());
+      cache.add(bl.finish());
       types.add(t);
+    } else {
+      si.flush();
     }
-    pos = 0;
+    return true;
   }
 
   /**
@@ -90,6 +90,8 @@ public final class MainOptions extends Options {
   public static final StringOption TOKENINCLUDE = new StringOption("TOKENINCLUDE", "");
   /** Full-text index: names to include. */
   public static final StringOption FTINCLUDE = new StringOption("FTINCLUDE", "");
+  /** Typed range index: names to include. */
+  public static final StringOption RANGEINCLUDE = new StringOption("RANGEINCLUDE", "");
 
   /** Maximum length of index entries. */
   public static final NumberOption MAXLEN = new NumberOption("MAXLEN", 96);
@@ -127,6 +129,10 @@ public final class MainOptions extends Options {
   public static final NumberOption INLINELIMIT = new NumberOption("INLINELIMIT", 100);
   /** Flag for tail-call optimization. */
   public static final NumberOption TAILCALLS = new NumberOption("TAILCALLS", 256);
+  /** Maximum number of tuples that will be sorted in main memory (0: no limit). */
+  public static final NumberOption SORTBUFFER = new NumberOption("SORTBUFFER", 0);
+  /** Maximum number of groups that will be built in main memory (0: no limit). */
+  public static final NumberOption GROUPBUFFER = new NumberOption("GROUPBUFFER", 0);
   /** Favor global database when opening resources. */
   public static final BooleanOption DEFAULTDB = new BooleanOption("DEFAULTDB", false);
   /** Forces database creation for unknown documents. */
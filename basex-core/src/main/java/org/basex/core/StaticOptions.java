@@ -33,6 +33,14 @@ public final class StaticOptions extends Options {
   public static final BooleanOption FAIRLOCK = new BooleanOption("FAIRLOCK", false);
   /** Timeout (seconds) for remembering result of asynchronous queries. */
   public static final NumberOption CACHETIMEOUT = new NumberOption("CACHETIMEOUT", 3600);
+  /** Number of table pages that are buffered for each opened database. */
+  public static final NumberOption TABLECACHE = new NumberOption("TABLECACHE", 16);
+  /** Maximum number of cached entries for each opened index. */
+  public static final NumberOption INDEXCACHE = new NumberOption("INDEXCACHE", 1 << 16);
+  /** Maximum number of cached query plans; disabled if set to 0. */
+  public static final NumberOption PLANCACHE = new NumberOption("PLANCACHE", 0);
+  /** Use memory-mapped files for reading database tables and texts; not recommended on Windows. */
+  public static final BooleanOption MMAP = new BooleanOption("MMAP", false);
 
   /** Comment: written to options file. */
   public static final Comment C_CLIENT = new Comment("Client/Server Architecture");
@@ -64,8 +72,16 @@ public final class StaticOptions extends Options {
   public static final NumberOption TIMEOUT = new NumberOption("TIMEOUT", 30);
   /** Keep alive time (seconds) for clients; deactivated if set to 0. */
   public static final NumberOption KEEPALIVE = new NumberOption("KEEPALIVE", 600);
+  /** Maximum number of threads for processing client requests; unlimited if set to 0. */
+  public static final NumberOption SERVERTHREADS = new NumberOption("SERVERTHREADS", 0);
   /** Defines the number of parallel readers. */
   public static final NumberOption PARALLEL = new NumberOption("PARALLEL", 8);
+  /** Maximum number of registered jobs per user; unlimited if set to 0. */
+  public static final NumberOption USERJOBS = new NumberOption("USERJOBS", 0);
+  /** Maximum number of threads for building index structures; all processors if set to 0. */
+  public static final NumberOption INDEXTHREADS = new NumberOption("INDEXTHREADS", 1);
+  /** Maximum number of threads for evaluating queries in parallel; all processors if set to 0. */
+  public static final NumberOption PARALLELISM = new NumberOption("PARALLELISM", 0);
   /** Logging flag. */
   public static final BooleanOption LOG = new BooleanOption("LOG", true);
   /** Log message cut-off. */
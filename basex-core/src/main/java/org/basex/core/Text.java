@@ -1180,6 +1180,8 @@ public interface Text {
   String INDEXES = lang("indexes");
   /** Full-text index. */
   String FULLTEXT = lang("fulltext");
+  /** Caches. */
+  String CACHES = lang("caches");
 
   /** General info. */
   String PARSER_X = lang("parser_%");
@@ -1344,6 +1346,12 @@ public interface Text {
 
   /** Info on used main memory. */
   String USED_MEM = lang("used_mem");
+  /** Info on jobs. */
+  String JOBS = lang("jobs");
+  /** Info on parallel tasks. */
+  String PARALLEL_TASKS = lang("parallel_tasks");
+  /** Info on timers. */
+  String TIMERS = lang("timers");
   /** Memory information. */
   String TOTAL_MEM_C = lang("total_mem") + COLS;
   /** Memory information. */
@@ -42,4 +42,16 @@ abstract class AInfo extends Command {
   static void info(final TokenBuilder tb, final MetaProp prop, final MetaData meta) {
     info(tb, prop.name(), prop.value(meta));
   }
+
+  /**
+   * Adds cache statistics.
+   * @param tb token builder
+   * @param name name of cache
+   * @param stats cache statistics
+   */
+  static void info(final TokenBuilder tb, final String name, final CacheStats stats) {
+    info(tb, name + "HITS", stats.hits());
+    info(tb, name + "MISSES", stats.misses());
+    info(tb, name + "EVICTIONS", stats.evictions());
+  }
 }
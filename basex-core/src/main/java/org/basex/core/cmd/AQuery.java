@@ -166,7 +166,7 @@ public abstract class AQuery extends Command {
    */
   private void init(final String query, final Context ctx) throws QueryException {
     final Performance perf = new Performance();
-    if(qp == null) qp = pushJob(new QueryProcessor(query, uri, ctx));
+    if(qp == null) qp = pushJob(new QueryProcessor(query, uri, ctx).cachePlans());
     if(info == null) {
       info = qp.qc.info;
       info.locks = jc().locks;
@@ -265,6 +265,11 @@ public abstract class AQuery extends Command {
     }
   }
 
+  @Override
+  public boolean deferLocks() {
+    return qp != null && qp.deferLocks();
+  }
+
   @Override
   public void build(final CmdBuilder cb) {
     cb.init().add(0);
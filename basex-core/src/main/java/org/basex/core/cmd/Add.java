@@ -6,6 +6,7 @@ import java.io.*;
 
 import org.basex.build.*;
 import org.basex.core.*;
+import org.basex.core.locks.*;
 import org.basex.core.parse.*;
 import org.basex.core.users.*;
 import org.basex.data.*;
@@ -52,6 +53,8 @@ public final class Add extends ACreate {
   protected boolean run() {
     if(!build()) return false;
     try {
+      // documents have been parsed: acquire deferred write lock
+      context.locking.upgrade();
       final Data data = context.data();
       return update(data, new Code() {
         @Override
@@ -163,6 +166,17 @@ public final class Add extends ACreate {
     return fl > (max - rt.freeMemory()) / 2;
   }
 
+  @Override
+  public void addLocks() {
+    // documents are only added to the opened database
+    jc().locks.appends.add(Locking.CONTEXT);
+  }
+
+  @Override
+  public boolean deferLocks() {
+    return true;
+  }
+
   @Override
   public void build(final CmdBuilder cb) {
     cb.init().arg(S_TO, 0).add(1);
@@ -3,6 +3,7 @@ package org.basex.core.cmd;
 import static org.basex.core.Text.*;
 
 import java.io.*;
+import java.util.*;
 
 import org.basex.core.*;
 import org.basex.core.parse.*;
@@ -10,6 +11,7 @@ import org.basex.core.parse.Commands.*;
 import org.basex.core.users.*;
 import org.basex.data.*;
 import org.basex.index.*;
+import org.basex.util.*;
 import org.basex.util.ft.*;
 
 /**
@@ -64,6 +66,7 @@ public final class CreateIndex extends ACreate {
     return update(data, new Code() {
       @Override
       boolean run() throws IOException {
+        DropIndex.commit(data);
         create(type, data, CreateIndex.this);
         return info(INDEX_CREATED_X_X, type, jc().performance);
       }
@@ -82,10 +85,39 @@ public final class CreateIndex extends ACreate {
    * @throws IOException I/O exception
    */
   static void create(final Data data, final ACreate cmd) throws IOException {
-    if(data.meta.createtext) create(IndexType.TEXT, data, cmd);
-    if(data.meta.createattr) create(IndexType.ATTRIBUTE, data, cmd);
-    if(data.meta.createtoken) create(IndexType.TOKEN, data, cmd);
-    if(data.meta.createft) create(IndexType.FULLTEXT, data, cmd);
+    final ArrayList<IndexType> types = new ArrayList<>();
+    if(data.meta.createtext) types.add(IndexType.TEXT);
+    if(data.meta.createattr) types.add(IndexType.ATTRIBUTE);
+    if(data.meta.createtoken) types.add(IndexType.TOKEN);
+    if(data.meta.createft) types.add(IndexType.FULLTEXT);
+    create(data, cmd, types);
+    if(!data.meta.rangeinclude.isEmpty()) data.createRangeIndex();
+  }
+
+  /**
+   * Builds the specified index structures. If more than one thread may be used for building
+   * index structures, the value indexes of disk-based databases are built in parallel.
+   * Pending updates are committed once before the index structures are built.
+   * @param data data reference
+   * @param cmd calling command (can be {@code null})
+   * @param types index types
+   * @throws IOException I/O exception
+   */
+  static void create(final Data data, final ACreate cmd, final ArrayList<IndexType> types)
+      throws IOException {
+
+    DropIndex.commit(data);
+    final StaticOptions sopts = data.meta.soptions;
+    final boolean parallel = sopts != null && sopts.get(StaticOptions.INDEXTHREADS) != 1;
+    final ArrayList<Parallel.Task> tasks = new ArrayList<>();
+    for(final IndexType type : types) {
+      if(parallel && type != IndexType.FULLTEXT) tasks.add(() -> create(type, data, cmd));
+    }
+    new Parallel().run(Util.className(CreateIndex.class), tasks.toArray(new Parallel.Task[0]));
+    // build remaining indexes (full-text index, or all indexes if only one thread is used)
+    for(final IndexType type : types) {
+      if(!parallel || type == IndexType.FULLTEXT) create(type, data, cmd);
+    }
   }
 
   /**
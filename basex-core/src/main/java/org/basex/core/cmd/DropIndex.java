@@ -51,6 +51,7 @@ public final class DropIndex extends ACreate {
     return update(data, new Code() {
       @Override
       boolean run() throws IOException {
+        commit(data);
         drop(type, data);
         return info(INDEX_DROPPED_X_X, type, jc().performance);
       }
@@ -73,4 +74,14 @@ public final class DropIndex extends ACreate {
     data.meta.index(type, false);
     data.dropIndex(type);
   }
+
+  /**
+   * Commits pending updates of a disk-based database.
+   * Must be called before index structures are dropped or rebuilt.
+   * @param data data reference
+   * @throws IOException I/O exception
+   */
+  static void commit(final Data data) throws IOException {
+    if(data instanceof DiskData) ((DiskData) data).commit();
+  }
 }
@@ -6,6 +6,7 @@ import java.io.*;
 
 import org.basex.core.*;
 import org.basex.core.users.*;
+import org.basex.query.*;
 import org.basex.util.*;
 import org.basex.util.options.*;
 
@@ -46,6 +47,11 @@ public final class Info extends AInfo {
 
     final User user = context.user();
     info(tb, USED_MEM, Performance.getMemory());
+    if(user.has(Perm.ADMIN)) {
+      info(tb, JOBS, context.jobs);
+      info(tb, PARALLEL_TASKS, context.jobs.parallel);
+      info(tb, TIMERS, context.jobs.timer);
+    }
 
     if(user.has(Perm.ADMIN)) {
       final StaticOptions sopts = context.soptions;
@@ -53,6 +59,12 @@ public final class Info extends AInfo {
       for(final Option<?> o : sopts) info(tb, o.name(), sopts.get(o));
     }
 
+    final PlanCache plans = context.plans;
+    if(plans.enabled()) {
+      tb.add(NL + CACHES + COL + NL);
+      info(tb, "PLAN", plans.stats());
+    }
+
     final MainOptions opts = context.options;
     tb.add(NL + LOCAL_OPTIONS + NL);
     for(final Option<?> o : opts) info(tb, o.name(), opts.get(o));
@@ -27,7 +27,7 @@ public final class InfoDB extends AInfo {
 
   @Override
   protected boolean run() throws IOException {
-    out.print(db(context.data().meta, false, true));
+    out.print(db(context.data(), false, true));
     return true;
   }
 
@@ -45,7 +45,7 @@ public final class InfoDB extends AInfo {
    */
   public static String db(final MetaData meta, final boolean bold, final boolean index) {
     final TokenBuilder tb = new TokenBuilder();
-    final String header = (bold ? new TokenBuilder().bold().add('%').norm().toString() : "%") + NL;
+    final String header = header(bold);
     tb.addExt(header, DB_PROPS);
     info(tb, MetaProp.NAME, meta);
     info(tb, MetaProp.SIZE.name(), Performance.format(meta.dbsize()));
@@ -76,6 +76,33 @@ public final class InfoDB extends AInfo {
     return tb.toString();
   }
 
+  /**
+   * Creates a database information string, including cache statistics of opened databases.
+   * @param data data reference
+   * @param bold header bold header flag
+   * @param index add index information
+   * @return info string
+   */
+  public static String db(final Data data, final boolean bold, final boolean index) {
+    final TokenBuilder tb = new TokenBuilder().add(db(data.meta, bold, index));
+    if(data instanceof DiskData) {
+      tb.add(NL).addExt(header(bold), CACHES);
+      final DiskData dd = (DiskData) data;
+      info(tb, "TABLE", dd.tableCache());
+      info(tb, "INDEX", dd.indexCache());
+    }
+    return tb.toString();
+  }
+
+  /**
+   * Returns a header string.
+   * @param bold bold header flag
+   * @return header
+   */
+  private static String header(final boolean bold) {
+    return (bold ? new TokenBuilder().bold().add('%').norm().toString() : "%") + NL;
+  }
+
   @Override
   public void build(final CmdBuilder cb) {
     cb.init(Cmd.INFO + " " + CmdInfo.DB);
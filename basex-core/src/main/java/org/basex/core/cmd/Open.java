@@ -8,6 +8,7 @@ import org.basex.core.*;
 import org.basex.core.locks.*;
 import org.basex.core.users.*;
 import org.basex.data.*;
+import org.basex.io.random.*;
 import org.basex.query.value.seq.*;
 import org.basex.util.*;
 
@@ -91,8 +92,9 @@ public final class Open extends Command {
         // check if the addressed database exists
         if(!context.soptions.dbExists(name)) throw new BaseXException(DB_NOT_FOUND_X, name);
 
-        // do not open a database that is currently updated
+        // restore last committed state; do not open a database that is currently updated
         final MetaData meta = new MetaData(name, options, context.soptions);
+        PageLog.recover(meta);
         if(meta.updateFile().exists()) throw new BaseXException(DB_UPDATED_X, meta.name);
 
         // open database
@@ -99,6 +99,7 @@ public final class OptimizeAll extends ACreate {
     options.set(MainOptions.ATTRINCLUDE, ometa.attrinclude);
     options.set(MainOptions.TOKENINCLUDE, ometa.tokeninclude);
     options.set(MainOptions.FTINCLUDE, ometa.ftinclude);
+    options.set(MainOptions.RANGEINCLUDE, ometa.rangeinclude);
     // adopt original full-text index options
     options.set(MainOptions.STEMMING, ometa.stemming);
     options.set(MainOptions.CASESENS, ometa.casesens);
@@ -1,6 +1,7 @@
 package org.basex.core.jobs;
 
 import java.util.*;
+import java.util.concurrent.*;
 
 import org.basex.core.*;
 import org.basex.core.users.*;
@@ -17,15 +18,15 @@ public abstract class Job {
   private final List<Job> children = Collections.synchronizedList(new ArrayList<>(0));
   /** Job context. */
   private JobContext jc = new JobContext(this);
-  /** Timer. */
-  private Timer timer;
+  /** Timeout (can be {@code null}). */
+  private ScheduledFuture<?> timer;
 
   /** This flag indicates that a job is updating. */
   public boolean updating;
   /** State of job. */
   public JobState state = JobState.SCHEDULED;
-  /** Stopped flag. */
-  private boolean stopped;
+  /** Stopped flag (may be checked by parallel tasks). */
+  private volatile boolean stopped;
 
   /**
    * Returns the job context.
@@ -47,7 +48,7 @@ public abstract class Job {
     state(JobState.RUNNING);
     jc.performance = new Performance();
     // non-admin users: stop process after timeout
-    if(!ctx.user().has(Perm.ADMIN)) startTimeout(ctx.soptions.get(StaticOptions.TIMEOUT));
+    if(!ctx.user().has(Perm.ADMIN)) startTimeout(ctx, ctx.soptions.get(StaticOptions.TIMEOUT));
   }
 
   /**
@@ -65,7 +66,9 @@ public abstract class Job {
    * @return job
    */
   public final Job active() {
-    return children.isEmpty() ? this : children.get(0).active();
+    synchronized(children) {
+      return children.isEmpty() ? this : children.get(0).active();
+    }
   }
 
   /**
@@ -87,6 +90,14 @@ public abstract class Job {
     children.remove(children.size() - 1);
   }
 
+  /**
+   * Pops the specified job. Must be called if child jobs are run in parallel.
+   * @param job job to be removed
+   */
+  public final void popJob(final Job job) {
+    children.remove(job);
+  }
+
   /**
    * Stops a job or sub job.
    */
@@ -128,7 +139,10 @@ public abstract class Job {
    * @param js new state
    */
   public void state(final JobState js) {
-    for(final Job job : children) job.state(js);
+    // child jobs may be added and removed concurrently
+    synchronized(children) {
+      for(final Job job : children) job.state(js);
+    }
     state = js;
     if(js == JobState.STOPPED || js == JobState.TIMEOUT || js == JobState.MEMORY) {
       stopped = true;
@@ -144,6 +158,23 @@ public abstract class Job {
     jc.locks.writes.addGlobal();
   }
 
+  /**
+   * Indicates if the write lock of this job can be deferred until updates are applied
+   * (see {@link org.basex.core.locks.Locks#defer}).
+   * @return result of check
+   */
+  public boolean deferLocks() {
+    return false;
+  }
+
+  /**
+   * Returns the priority of this job.
+   * @return priority
+   */
+  public JobPriority priority() {
+    return JobPriority.INTERACTIVE;
+  }
+
   /**
    * Returns short progress information.
    * Can be overwritten to give more specific feedback.
@@ -183,24 +214,21 @@ public abstract class Job {
   // PRIVATE FUNCTIONS ============================================================================
 
   /**
-   * Starts a timeout thread.
+   * Starts a timeout.
+   * @param ctx database context
    * @param sec seconds wait; deactivated if set to 0
    */
-  private void startTimeout(final long sec) {
+  private void startTimeout(final Context ctx, final long sec) {
     if(sec == 0) return;
-    timer = new Timer(true);
-    timer.schedule(new TimerTask() {
-      @Override
-      public void run() { timeout(); }
-    }, sec * 1000L);
+    timer = ctx.jobs.timer.schedule(this::timeout, sec * 1000L);
   }
 
   /**
-   * Stops the timeout thread.
+   * Stops the timeout.
    */
   private void stopTimeout() {
     if(timer != null) {
-      timer.cancel();
+      timer.cancel(false);
       timer = null;
     }
   }
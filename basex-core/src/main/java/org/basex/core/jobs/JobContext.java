@@ -1,5 +1,7 @@
 package org.basex.core.jobs;
 
+import java.util.concurrent.atomic.*;
+
 import org.basex.core.*;
 import org.basex.core.locks.*;
 import org.basex.query.*;
@@ -27,6 +29,10 @@ public final class JobContext {
   public final Locks locks = new Locks();
   /** Time of creation. */
   public final long time = System.currentTimeMillis();
+  /** Number of pending parallel tasks (see {@link ParallelPool}). */
+  public final AtomicInteger tasks = new AtomicInteger();
+  /** Id of the job by which this job was started (can be {@code null}). */
+  public String parent;
 
   /** Root job. */
   private final Job job;
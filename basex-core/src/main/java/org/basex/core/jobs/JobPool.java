@@ -4,16 +4,25 @@ import java.util.*;
 import java.util.concurrent.*;
 
 import org.basex.core.*;
-import org.basex.util.Performance;
+import org.basex.core.users.*;
+import org.basex.util.*;
 
 /**
  * Job pool.
  *
+ * The number of registered jobs is limited by {@link #MAXQUERIES}, and the number of registered
+ * jobs per user is limited by {@link StaticOptions#USERJOBS}. Further jobs will be queued until
+ * they can be admitted. Queued jobs are admitted by their priority and, for identical
+ * priorities, by their arrival; jobs that are blocked by the limit of their user will be passed.
+ * A queued job that was started by a running job of the same user is admitted without being
+ * counted against the limit if the running job waits for its completion (see
+ * {@link #await(Job, String, boolean)}): otherwise, the running job would block forever.
+ *
  * @author BaseX Team 2005-18, BSD License
  * @author Christian Gruen
  */
 public final class JobPool {
-  /** Number of queries to be queued. */
+  /** Maximum number of registered jobs. */
   public static final int MAXQUERIES = 1000;
   /** Queued or running jobs. */
   public final Map<String, Job> active = new ConcurrentHashMap<>();
@@ -22,25 +31,83 @@ public final class JobPool {
   /** Timer tasks. */
   public final Map<String, QueryJobTask> tasks = new ConcurrentHashMap<>();
 
-  /** Timer. */
-  final Timer timer = new Timer(true);
+  /** Shared pool for evaluating query tasks in parallel. */
+  public final ParallelPool parallel;
+
+  /** Shared timer. */
+  public final JobTimer timer = new JobTimer();
   /** Timeout (ms). */
   private final long timeout;
 
+  /** Maximum number of registered jobs per user (0: unlimited). */
+  private final int userjobs;
+  /** Jobs waiting for admission: queue keys and user names (see {@link JobPriority#key}). */
+  private final TreeMap<Long, String> queue = new TreeMap<>();
+  /** Number of registered jobs per user. */
+  private final HashMap<String, Integer> users = new HashMap<>();
+  /** Ids of registered child jobs, which are not counted against the limit of their user. */
+  private final HashSet<String> children = new HashSet<>();
+  /** Ids of awaited jobs, and ids of the jobs that wait for them. */
+  private final HashMap<String, String> awaited = new HashMap<>();
+  /** Number of registered jobs. */
+  private int registered;
+  /** Number of registration requests (used for creating queue keys). */
+  private long requests;
+  /** Number of jobs that have been registered. */
+  private long admitted;
+  /** Number of jobs that have been queued. */
+  private long queued;
+  /** Total time spent in the queue (ms). */
+  private long waitTime;
+  /** Maximum time spent in the queue (ms). */
+  private long maxWaitTime;
+
   /**
    * Constructor.
    * @param sopts static options
    */
   public JobPool(final StaticOptions sopts) {
     timeout = sopts.get(StaticOptions.CACHETIMEOUT) * 1000L;
+    userjobs = sopts.get(StaticOptions.USERJOBS);
+    parallel = new ParallelPool(sopts);
   }
 
   /**
-   * Registers a job (puts it on a queue).
+   * Registers a job. If the job cannot be admitted yet, it is put on a queue.
    * @param job job
+   * @throws JobException if the thread is interrupted while the job is queued
    */
   public void register(final Job job) {
-    while(active.size() >= MAXQUERIES) Performance.sleep(1);
+    final String user = user(job);
+    synchronized(queue) {
+      final long key = job.priority().key(requests++);
+      if(!admissible(key, job, user)) {
+        final long start = System.currentTimeMillis();
+        queue.put(key, user);
+        try {
+          do {
+            queue.wait();
+          } while(!admissible(key, job, user));
+        } catch(final InterruptedException ex) {
+          Util.debug(ex);
+          Thread.currentThread().interrupt();
+          throw new JobException(Text.INTERRUPTED);
+        } finally {
+          queue.remove(key);
+          // jobs with a lower priority may be admissible now
+          queue.notifyAll();
+        }
+        final long time = System.currentTimeMillis() - start;
+        waitTime += time;
+        maxWaitTime = Math.max(maxWaitTime, time);
+        queued++;
+      }
+      // limit of user has been reached: job is an awaited child job
+      if(allowed(user)) users.merge(user, 1, Integer::sum);
+      else children.add(job.jc().id());
+      registered++;
+      admitted++;
+    }
     active.put(job.jc().id(), job);
   }
 
@@ -49,7 +116,30 @@ public final class JobPool {
    * @param job job
    */
   public void unregister(final Job job) {
-    active.remove(job.jc().id());
+    if(active.remove(job.jc().id()) == null) return;
+    synchronized(queue) {
+      if(!children.remove(job.jc().id())) {
+        users.computeIfPresent(user(job), (name, count) -> count == 1 ? null : count - 1);
+      }
+      registered--;
+      queue.notifyAll();
+    }
+  }
+
+  /**
+   * Registers or unregisters a job that waits for the completion of another job.
+   * @param job waiting job
+   * @param id id of the awaited job
+   * @param wait start or stop waiting
+   */
+  public void await(final Job job, final String id, final boolean wait) {
+    final String parent = job.jc().id();
+    synchronized(queue) {
+      if(wait) awaited.put(id, parent);
+      else awaited.remove(id, parent);
+      // awaited child job may be admissible now
+      queue.notifyAll();
+    }
   }
 
   /**
@@ -57,9 +147,10 @@ public final class JobPool {
    */
   public synchronized void close() {
     // stop running tasks and queries
-    timer.cancel();
+    timer.close();
     for(final Job job : active.values()) job.stop();
     while(!active.isEmpty()) Performance.sleep(1);
+    parallel.close();
   }
 
   /**
@@ -67,11 +158,63 @@ public final class JobPool {
    * @param job job
    */
   public void scheduleResult(final Job job) {
-    timer.schedule(new TimerTask() {
-      @Override
-      public void run() {
-        results.remove(job.jc().id());
-      }
-    }, timeout);
+    timer.schedule(() -> results.remove(job.jc().id()), timeout);
+  }
+
+  /**
+   * Checks if a job can be registered. This is the case if the job limits have not been reached,
+   * and if no job with a higher rank is waiting that could be registered as well.
+   * @param key queue key
+   * @param job job
+   * @param user user name
+   * @return result of check
+   */
+  private boolean admissible(final long key, final Job job, final String user) {
+    if(registered >= MAXQUERIES || !allowed(user) && !awaited(job, user)) return false;
+    for(final String name : queue.headMap(key).values()) {
+      if(allowed(name)) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Checks if the limit for the specified user has not been reached yet.
+   * @param user user name
+   * @return result of check
+   */
+  private boolean allowed(final String user) {
+    return userjobs == 0 || users.getOrDefault(user, 0) < userjobs;
+  }
+
+  /**
+   * Checks if a job was started by a running job of the same user that waits for its completion.
+   * @param job job
+   * @param user user name
+   * @return result of check
+   */
+  private boolean awaited(final Job job, final String user) {
+    final String parent = job.jc().parent;
+    if(parent == null || !parent.equals(awaited.get(job.jc().id()))) return false;
+    final Job pj = active.get(parent);
+    return pj != null && user(pj).equals(user);
+  }
+
+  /**
+   * Returns the name of the user who started a job.
+   * @param job job
+   * @return user name
+   */
+  private static String user(final Job job) {
+    final User user = job.jc().context.user();
+    return user != null ? user.name() : "";
+  }
+
+  @Override
+  public String toString() {
+    synchronized(queue) {
+      return Util.className(this) + "[registered: " + registered + ", queued: " + queue.size() +
+        ", admitted: " + admitted + ", waited: " + queued + ", wait time: " + waitTime +
+        " ms, max wait time: " + maxWaitTime + " ms]";
+    }
   }
 }
@@ -0,0 +1,26 @@
+package org.basex.core.jobs;
+
+/**
+ * Job priority. Queued jobs with a higher priority will be started first.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public enum JobPriority {
+  /** Interactive requests (commands, client queries, REST, RESTXQ). */
+  INTERACTIVE,
+  /** Background jobs. */
+  BACKGROUND,
+  /** Scheduled and repeated jobs, services. */
+  SCHEDULED;
+
+  /**
+   * Returns a queue key. Keys are ordered by priority and, for identical priorities,
+   * by the specified sequence number.
+   * @param seq sequence number
+   * @return key
+   */
+  public long key(final long seq) {
+    return (long) ordinal() << 56 | seq;
+  }
+}
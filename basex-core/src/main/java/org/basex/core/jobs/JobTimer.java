@@ -0,0 +1,138 @@
+package org.basex.core.jobs;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import org.basex.util.*;
+
+/**
+ * Shared timer for job timeouts, scheduled jobs, expiring results and other delayed actions.
+ *
+ * All timers are managed by a single daemon thread, which is created when the first timer
+ * is scheduled. Cancelled timers are removed from the queue immediately. Timer actions must
+ * be short-running; longer or blocking operations must be delegated to separate threads
+ * (see {@link #execute(Runnable)}).
+ * All methods can be called concurrently.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class JobTimer {
+  /** Number of scheduled timers. */
+  private final LongAdder scheduled = new LongAdder();
+  /** Number of executed timer actions. */
+  private final LongAdder executed = new LongAdder();
+  /** Executor (created when the first timer is scheduled). */
+  private ScheduledThreadPoolExecutor executor;
+  /** Executor for delegated actions (created when the first action is delegated). */
+  private ExecutorService worker;
+
+  /**
+   * Schedules an action.
+   * @param action action to be executed
+   * @param delay delay (ms)
+   * @return future, which can be cancelled
+   */
+  public ScheduledFuture<?> schedule(final Runnable action, final long delay) {
+    scheduled.increment();
+    return executor().schedule(wrap(action), delay, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Schedules an action that will be executed repeatedly at a fixed rate.
+   * @param action action to be executed
+   * @param delay delay (ms)
+   * @param interval interval (ms)
+   * @return future, which can be cancelled
+   */
+  public ScheduledFuture<?> schedule(final Runnable action, final long delay,
+      final long interval) {
+    scheduled.increment();
+    return executor().scheduleAtFixedRate(wrap(action), delay, interval, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Executes an action in a separate thread. Can be called by timer actions in order to
+   * delegate operations that may take longer or block.
+   * @param action action to be executed
+   */
+  public void execute(final Runnable action) {
+    worker().execute(wrap(action));
+  }
+
+  /**
+   * Returns the number of pending timers.
+   * @return number of timers
+   */
+  public synchronized int pending() {
+    return executor != null ? executor.getQueue().size() : 0;
+  }
+
+  /**
+   * Cancels all timers and stops the timer thread.
+   */
+  public synchronized void close() {
+    if(executor != null) executor.shutdownNow();
+    if(worker != null) worker.shutdownNow();
+  }
+
+  /**
+   * Wraps an action. Counts executions and catches exceptions, which would otherwise
+   * suppress further executions of a repeated action.
+   * @param action action
+   * @return wrapped action
+   */
+  private Runnable wrap(final Runnable action) {
+    return () -> {
+      executed.increment();
+      try {
+        action.run();
+      } catch(final RuntimeException ex) {
+        Util.stack(ex);
+      }
+    };
+  }
+
+  /**
+   * Returns the executor.
+   * @return executor
+   */
+  private synchronized ScheduledThreadPoolExecutor executor() {
+    if(executor == null) {
+      executor = new ScheduledThreadPoolExecutor(1, factory(Util.className(this)));
+      executor.setRemoveOnCancelPolicy(true);
+      executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+    return executor;
+  }
+
+  /**
+   * Returns the executor for delegated actions.
+   * @return executor
+   */
+  private synchronized ExecutorService worker() {
+    if(worker == null) {
+      worker = Executors.newCachedThreadPool(factory(Util.className(this) + "Worker"));
+    }
+    return worker;
+  }
+
+  /**
+   * Returns a factory for daemon threads.
+   * @param name thread name
+   * @return thread factory
+   */
+  private static ThreadFactory factory(final String name) {
+    return action -> {
+      final Thread thread = new Thread(action, name);
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  @Override
+  public String toString() {
+    return Util.className(this) + "[pending: " + pending() + ", scheduled: " + scheduled.sum() +
+        ", executed: " + executed.sum() + ']';
+  }
+}
@@ -104,7 +104,7 @@ public final class Jobs {
     for(int l = 0; l < list.size(); l++) {
       final QueryJobSpec spec = list.get(l);
       try {
-        new QueryJob(spec, null, context);
+        new QueryJob(spec, null, context, null);
       } catch(final QueryException ex) {
         // drop failing jobs
         Util.errln(ex);
@@ -0,0 +1,103 @@
+package org.basex.core.jobs;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import org.basex.core.*;
+import org.basex.util.*;
+
+/**
+ * Shared work-stealing pool for the parallel evaluation of query tasks.
+ *
+ * The number of worker threads is limited by {@link StaticOptions#PARALLELISM}. The pool is
+ * created when the first task is submitted. A single job can occupy at most the same number
+ * of pending tasks: if its quota is exhausted, further tasks will be evaluated by the calling
+ * thread. All methods can be called concurrently.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class ParallelPool {
+  /** Maximum number of worker threads and pending tasks per job. */
+  private final int parallelism;
+  /** Number of submitted tasks. */
+  private final LongAdder submitted = new LongAdder();
+  /** Number of tasks that were evaluated by the calling thread. */
+  private final LongAdder inline = new LongAdder();
+  /** Number of completed tasks. */
+  private final LongAdder completed = new LongAdder();
+  /** Pool (created when the first task is submitted). */
+  private ForkJoinPool pool;
+
+  /**
+   * Constructor.
+   * @param sopts static options
+   */
+  public ParallelPool(final StaticOptions sopts) {
+    final int threads = sopts.get(StaticOptions.PARALLELISM);
+    parallelism = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+  }
+
+  /**
+   * Returns the maximum number of worker threads.
+   * @return number of threads
+   */
+  public int parallelism() {
+    return parallelism;
+  }
+
+  /**
+   * Submits a task. The task will be evaluated by the calling thread if the pending tasks of
+   * the specified job exceed the quota. Exceptions will be raised when the task is joined.
+   * @param <T> result type
+   * @param task task
+   * @param job job
+   * @return future task
+   */
+  public <T> ForkJoinTask<T> submit(final Callable<T> task, final Job job) {
+    final AtomicInteger tasks = job.jc().tasks;
+    final ForkJoinTask<T> fjt = ForkJoinTask.adapt(() -> {
+      try {
+        job.checkStop();
+        return task.call();
+      } finally {
+        tasks.decrementAndGet();
+        completed.increment();
+      }
+    });
+    submitted.increment();
+    if(tasks.incrementAndGet() > parallelism) {
+      inline.increment();
+      fjt.quietlyInvoke();
+    } else {
+      pool().execute(fjt);
+    }
+    return fjt;
+  }
+
+  /**
+   * Shuts down the pool.
+   */
+  public synchronized void close() {
+    if(pool != null) pool.shutdownNow();
+  }
+
+  /**
+   * Returns the pool.
+   * @return pool
+   */
+  private synchronized ForkJoinPool pool() {
+    if(pool == null) pool = new ForkJoinPool(parallelism);
+    return pool;
+  }
+
+  @Override
+  public synchronized String toString() {
+    final int active = pool != null ? pool.getActiveThreadCount() : 0;
+    final long queued = pool != null ? pool.getQueuedSubmissionCount() +
+        pool.getQueuedTaskCount() : 0;
+    return Util.className(this) + "[parallelism: " + parallelism + ", active: " + active +
+        ", queued: " + queued + ", submitted: " + submitted.sum() + ", inline: " +
+        inline.sum() + ", completed: " + completed.sum() + ']';
+  }
+}
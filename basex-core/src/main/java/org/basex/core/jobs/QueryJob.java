@@ -35,13 +35,15 @@ public final class QueryJob extends Job implements Runnable {
    * @param job job info
    * @param info input info
    * @param ctx database context
+   * @param parent job by which this job is started (can be {@code null})
    * @throws QueryException query exception
    */
-  public QueryJob(final QueryJobSpec job, final InputInfo info, final Context ctx)
-      throws QueryException {
+  public QueryJob(final QueryJobSpec job, final InputInfo info, final Context ctx,
+      final Job parent) throws QueryException {
 
     this.job = job;
     jc().context = ctx;
+    if(parent != null) jc().parent = parent.jc().id();
 
     // check when job is to be started
     final JobsOptions opts = job.options;
@@ -84,11 +86,7 @@ public final class QueryJob extends Job implements Runnable {
       // create and schedule job task
       final QueryJobTask task = new QueryJobTask(this, jobs, delay, interval, duration);
       jobs.tasks.put(id, task);
-      if(interval > 0) {
-        jobs.timer.scheduleAtFixedRate(task, delay, interval);
-      } else {
-        jobs.timer.schedule(task, delay);
-      }
+      task.schedule(delay);
     }
   }
 
@@ -140,7 +138,7 @@ public final class QueryJob extends Job implements Runnable {
     final JobContext jc = jc();
     final Context ctx = jc.context;
     final JobsOptions opts = job.options;
-    qp = new QueryProcessor(job.query, opts.get(JobsOptions.BASE_URI), ctx);
+    qp = new QueryProcessor(job.query, opts.get(JobsOptions.BASE_URI), ctx).cachePlans();
     try {
       // parse, push and register query. order is important!
       final Performance perf = new Performance();
@@ -197,6 +195,20 @@ public final class QueryJob extends Job implements Runnable {
     qp.addLocks();
   }
 
+  @Override
+  public boolean deferLocks() {
+    return qp.deferLocks();
+  }
+
+  @Override
+  public JobPriority priority() {
+    // jobs with a start time or an interval are scheduled; others are run in the background
+    final String start = job.options.get(JobsOptions.START);
+    final String interval = job.options.get(JobsOptions.INTERVAL);
+    return start != null && !start.isEmpty() || interval != null && !interval.isEmpty() ?
+      JobPriority.SCHEDULED : JobPriority.BACKGROUND;
+  }
+
   /**
    * Creates a materialized, context-independent version of the iterator results.
    * @param iter result iterator
@@ -1,6 +1,6 @@
 package org.basex.core.jobs;
 
-import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * Scheduled job.
@@ -8,7 +8,7 @@ import java.util.*;
  * @author BaseX Team 2005-18, BSD License
  * @author Christian Gruen
  */
-public final class QueryJobTask extends TimerTask {
+public final class QueryJobTask implements Runnable {
   /** Job. */
   public final QueryJob job;
   /** Job pool. */
@@ -20,6 +20,10 @@ public final class QueryJobTask extends TimerTask {
 
   /** Next start time. */
   public long start;
+  /** Scheduled timer (can be {@code null}). */
+  private ScheduledFuture<?> timer;
+  /** Cancel flag. */
+  private boolean cancelled;
 
   /**
    * Constructor.
@@ -40,6 +44,24 @@ public final class QueryJobTask extends TimerTask {
     end = duration == Long.MAX_VALUE ? duration : time + duration;
   }
 
+  /**
+   * Schedules the task.
+   * @param delay delay (ms)
+   */
+  synchronized void schedule(final long delay) {
+    final JobTimer jt = jobs.timer;
+    timer = interval > 0 ? jt.schedule(this, delay, interval) : jt.schedule(this, delay);
+    if(cancelled) timer.cancel(false);
+  }
+
+  /**
+   * Cancels the task.
+   */
+  public synchronized void cancel() {
+    cancelled = true;
+    if(timer != null) timer.cancel(false);
+  }
+
   @Override
   public void run() {
     // check if job needs to be evaluated repeatedly
@@ -2,6 +2,8 @@ package org.basex.core.locks;
 
 import java.util.*;
 
+import org.basex.core.jobs.*;
+
 /**
  * Lock queue for fair locking.
  *
@@ -10,7 +12,7 @@ import java.util.*;
  */
 public final class FairLockQueue extends LockQueue {
   /** Queue. */
-  private final Queue<Long> queue = new LinkedList<>();
+  private final TreeSet<Long> queue = new TreeSet<>();
 
   /**
    * Constructor.
@@ -21,26 +23,27 @@ public final class FairLockQueue extends LockQueue {
   }
 
   @Override
-  public synchronized void acquire(final Long id, final boolean read, final boolean write)
-      throws InterruptedException {
+  public synchronized void acquire(final JobPriority priority, final boolean read,
+      final boolean write) throws InterruptedException {
 
-    // add job id to queue and wait
+    // add job to queue and wait
     if(jobs >= parallel) {
-      queue.add(id);
+      final long key = key(priority);
+      queue.add(key);
 
       // loop until job is placed first
       do {
         wait();
-      } while(!id.equals(queue.peek()));
+      } while(queue.first() != key);
 
       // remove job from queue
-      queue.remove(id);
+      queue.remove(key);
     }
     jobs++;
   }
 
   @Override
   public synchronized String toString() {
-    return "Jobs: " + jobs + ", queue: " + queue;
+    return "Jobs: " + jobs + ", queued: " + queue.size();
   }
 }
@@ -9,6 +9,11 @@ import java.util.concurrent.locks.*;
  * @author Christian Gruen
  */
 final class LocalReadWriteLock extends ReentrantReadWriteLock {
+  /**
+   * Lock for writers (acquired before the write lock, which may be deferred). Exclusive, or
+   * shared by jobs that only add documents (see {@link Locks#append}).
+   */
+  final ReentrantReadWriteLock writer;
   /** Pins. */
   private int pins;
 
@@ -18,6 +23,7 @@ final class LocalReadWriteLock extends ReentrantReadWriteLock {
    */
   LocalReadWriteLock(final boolean fair) {
     super(fair);
+    writer = new ReentrantReadWriteLock(fair);
   }
 
   /**
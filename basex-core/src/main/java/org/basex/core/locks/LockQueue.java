@@ -1,7 +1,10 @@
 package org.basex.core.locks;
 
+import org.basex.core.jobs.*;
+
 /**
- * Lock queue.
+ * Lock queue. Queued jobs are ordered by their priority and, for identical priorities,
+ * by their arrival.
  *
  * @author BaseX Team 2005-18, BSD License
  * @author Christian Gruen
@@ -11,6 +14,8 @@ public abstract class LockQueue {
   protected final int parallel;
   /** Number of currently running jobs. */
   protected int jobs;
+  /** Number of queued jobs (used for creating queue keys). */
+  private long queued;
 
   /**
    * Constructor.
@@ -22,12 +27,13 @@ public abstract class LockQueue {
 
   /**
    * Queues the job until it can be started.
-   * @param id job id
+   * @param priority job priority
    * @param read read flag
    * @param write write flag
    * @throws InterruptedException interrupted exception
    */
-  public abstract void acquire(Long id, boolean read, boolean write) throws InterruptedException;
+  public abstract void acquire(JobPriority priority, boolean read, boolean write)
+      throws InterruptedException;
 
   /**
    * Notifies other jobs that a job has been completed.
@@ -36,4 +42,13 @@ public abstract class LockQueue {
     notifyAll();
     jobs--;
   }
+
+  /**
+   * Returns a new queue key for a job.
+   * @param priority job priority
+   * @return key
+   */
+  final long key(final JobPriority priority) {
+    return priority.key(queued++);
+  }
 }
@@ -23,6 +23,12 @@ import org.basex.util.list.*;
  *
  * Locks can only be released by the same thread which acquired it.
  *
+ * Updating queries that write to a single database can defer their exclusive write lock
+ * (see {@link Locks#defer}): until the pending updates are applied (see {@link #upgrade()}),
+ * other writers will be blocked, but readers will be able to access the database in parallel.
+ * As all readers keep their locks until they have been completed, they will never see
+ * intermediate states of the database.
+ *
  * Locking methods are not synchronized to each other. The user must make sure not to call them in
  * parallel by the same thread (it is fine to call arbitrary locking methods by different threads at
  * the same time).
@@ -92,6 +98,8 @@ public final class Locking {
     // prepare lock strings and acquire locks
     final Locks locks = job.jc().locks;
     locks.finish(ctx);
+    locks.defer = job.deferLocks();
+    locks.priority = job.priority();
     try {
       acquire(locks);
     } catch(final InterruptedException ex) {
@@ -114,7 +122,13 @@ public final class Locking {
     // queue job if the job limit has been reached
     final LockList reads = locks.reads, writes = locks.writes;
     final boolean write = writes.locking(), read = reads.locking(), lock = read || write;
-    queue.acquire(id, read, write);
+    queue.acquire(locks.priority, read, write);
+
+    // write locks can only be deferred if a single database is locked (otherwise, deadlocks
+    // could occur if locks are upgraded in a different order)
+    locks.defer &= !read && writes.size() == 1 && !writes.global() && !special(writes.get(0));
+    // writers that only add documents share the lock until updates are applied
+    locks.append &= locks.defer;
 
     // apply exclusive lock (global write), or shared lock otherwise
     if(lock) (writes.global() ? globalLocks.writeLock() : globalLocks.readLock()).lock();
@@ -137,13 +151,32 @@ public final class Locking {
     final int rs = reads.size(), ws = writes.size();
     while(r < rs || w < ws) {
       if(w < ws && (r == rs || writes.get(w).compareTo(reads.get(r)) <= 0)) {
-        pin(writes.get(w++)).writeLock().lock();
+        final LocalReadWriteLock lck = pin(writes.get(w++));
+        (locks.append ? lck.writer.readLock() : lck.writer.writeLock()).lock();
+        if(!locks.defer) lck.writeLock().lock();
       } else {
         pin(reads.get(r++)).readLock().lock();
       }
     }
   }
 
+  /**
+   * Acquires the deferred write lock of the current thread (see {@link Locks#defer}).
+   * Waits until all readers of the locked database have been completed.
+   * Does nothing if no write lock has been deferred.
+   */
+  public void upgrade() {
+    final Locks locks = locked.get(Thread.currentThread().getId());
+    if(locks == null || !locks.defer) return;
+
+    final LocalReadWriteLock lock;
+    synchronized(localLocks) {
+      lock = localLocks.get(locks.writes.get(0));
+    }
+    lock.writeLock().lock();
+    locks.defer = false;
+  }
+
   /**
    * Removes locks for the specified job, all in reverse order.
    */
@@ -155,7 +188,11 @@ public final class Locking {
 
     // release all local locks
     for(final String string : reads) unpin(string).readLock().unlock();
-    for(final String string : writes) unpin(string).writeLock().unlock();
+    for(final String string : writes) {
+      final LocalReadWriteLock lck = unpin(string);
+      if(!locks.defer) lck.writeLock().unlock();
+      (locks.append ? lck.writer.readLock() : lck.writer.writeLock()).unlock();
+    }
 
     // allow next global reader to resume
     synchronized(globalLock) {
@@ -207,6 +244,16 @@ public final class Locking {
     }
   }
 
+  /**
+   * Checks if the specified lock string is a special identifier (no database name).
+   * @param string lock string
+   * @return result of check
+   */
+  private static boolean special(final String string) {
+    return string.startsWith(PREFIX) || string.startsWith(QUERY_PREFIX) ||
+        string.startsWith(JAVA_PREFIX);
+  }
+
   /**
    * Returns query lock keys.
    * @param string string with lock keys
@@ -1,6 +1,7 @@
 package org.basex.core.locks;
 
 import org.basex.core.*;
+import org.basex.core.jobs.*;
 import org.basex.data.*;
 
 /**
@@ -14,6 +15,22 @@ public final class Locks {
   public final LockList reads = new LockList();
   /** Write locks. */
   public final LockList writes = new LockList();
+  /** Write locks for databases to which documents will only be added. */
+  public final LockList appends = new LockList();
+  /**
+   * Indicates if the write lock will be deferred until updates are applied
+   * (see {@link Locking#upgrade()}). Will be reset if the lock cannot be deferred, or
+   * if it has been acquired.
+   */
+  public boolean defer;
+  /** Priority of the job, which is considered if the job needs to be queued. */
+  public JobPriority priority = JobPriority.INTERACTIVE;
+  /**
+   * Indicates if documents will only be added to the locked database. In this case, other jobs
+   * that add documents can be run in parallel until updates are applied. Will be assigned by
+   * {@link #finish(Context)}, and reset if the write lock cannot be deferred.
+   */
+  public boolean append;
 
   /**
    * Finalizes locks. Replaces context references with current database, sorts entries,
@@ -21,12 +38,19 @@ public final class Locks {
    * @param ctx database context
    */
   public void finish(final Context ctx) {
+    // resolve context references
+    final Data data = ctx.data();
+    final String name = data == null ? null : data.meta.name;
+    appends.finish(name);
+
+    // documents are only added if no other database is accessed
+    append = appends.size() == 1 && !writes.locking() && !reads.locking();
+    writes.add(appends);
+
     // global write lock: no read locks required
     if(writes.global()) reads.reset();
 
-    // resolve context references, sort, remove duplicates
-    final Data data = ctx.data();
-    final String name = data == null ? null : data.meta.name;
+    // sort, remove duplicates
     writes.finish(name);
     reads.finish(name);
 
@@ -36,6 +60,7 @@ public final class Locks {
 
   @Override
   public String toString() {
-    return "Reads: " + reads + ", Writes: " + writes;
+    return "Reads: " + reads + ", Writes: " + writes + (defer ? " (deferred)" : "") +
+        (append ? " (append)" : "");
   }
 }
@@ -2,6 +2,8 @@ package org.basex.core.locks;
 
 import java.util.*;
 
+import org.basex.core.jobs.*;
+
 /**
  * Lock queue for non-fair locking.
  *
@@ -10,9 +12,9 @@ import java.util.*;
  */
 public final class NonfairLockQueue extends LockQueue {
   /** Queued readers. */
-  private final Queue<Long> readers = new LinkedList<>();
+  private final TreeSet<Long> readers = new TreeSet<>();
   /** Queued writers. */
-  private final Queue<Long> writers = new LinkedList<>();
+  private final TreeSet<Long> writers = new TreeSet<>();
 
   /**
    * Constructor.
@@ -23,28 +25,30 @@ public final class NonfairLockQueue extends LockQueue {
   }
 
   @Override
-  public synchronized void acquire(final Long id, final boolean read, final boolean write)
-      throws InterruptedException {
+  public synchronized void acquire(final JobPriority priority, final boolean read,
+      final boolean write) throws InterruptedException {
 
     // only wait if job is locking
     if(jobs >= parallel && (read || write)) {
-      // add job id to queue and wait
-      final Queue<Long> queue = write ? writers : readers;
-      queue.add(id);
+      // add job to queue and wait
+      final TreeSet<Long> queue = write ? writers : readers;
+      final long key = key(priority);
+      queue.add(key);
 
       // loop until job is placed first (prefer readers)
       do {
         wait();
-      } while(jobs >= parallel || write && !readers.isEmpty() || !id.equals(queue.peek()));
+      } while(jobs >= parallel || write && !readers.isEmpty() || queue.first() != key);
 
       // remove job from queue
-      queue.remove(id);
+      queue.remove(key);
     }
     jobs++;
   }
 
   @Override
   public synchronized String toString() {
-    return "Jobs: " + jobs + ", queued readers: " + readers + ", queued writers: " + writers;
+    return "Jobs: " + jobs + ", queued readers: " + readers.size() + ", queued writers: " +
+        writers.size();
   }
 }
@@ -107,11 +107,15 @@ public abstract class Data {
   public ValueIndex tokenIndex;
   /** Full-text index. */
   public ValueIndex ftIndex;
+  /** Typed range index (only available for disk-based databases). */
+  public TypedValues rangeIndex;
 
   /** Indicates if distances are to be updated. */
   public boolean updateDists = true;
   /** ID-PRE mapping. */
   public IdPreMap idmap;
+  /** Read-only ID-PRE mapping (built on demand if the updatable mapping is disabled). */
+  private volatile IdPreRuns idruns;
 
   /** Table access file. */
   protected TableAccess table;
@@ -156,6 +160,13 @@ public abstract class Data {
    */
   public abstract void dropIndex(IndexType type) throws BaseXException;
 
+  /**
+   * Builds the typed range index if names are included in {@link MetaData#rangeinclude},
+   * or drops the existing index.
+   * @throws IOException I/O exception
+   */
+  public abstract void createRangeIndex() throws IOException;
+
   /**
    * Starts an update operation: writes a file to disk to indicate that an update is going on,
    * and exclusively locks the table file.
@@ -272,17 +283,25 @@ public abstract class Data {
   public final int pre(final int id) {
     if(meta.updindex) return idmap.pre(id);
 
-    // find pre value in the table; start with specified id
-    final int size = meta.size;
-    for(int p = Math.max(0, id); p < meta.size; ++p) {
-      if(id == id(p)) return p;
-    }
-    final int ps = Math.min(size, id);
-    for(int p = 0; p < ps; ++p) {
-      if(id == id(p)) return p;
+    IdPreRuns runs = idruns;
+    if(runs == null || !runs.valid(meta)) {
+      synchronized(this) {
+        runs = idruns;
+        if(runs == null || !runs.valid(meta)) {
+          runs = idPreRuns();
+          idruns = runs;
+        }
+      }
     }
-    // id not found
-    return -1;
+    return runs.pre(id);
+  }
+
+  /**
+   * Returns a new read-only ID-PRE mapping.
+   * @return mapping
+   */
+  protected IdPreRuns idPreRuns() {
+    return new IdPreRuns(this);
   }
 
   /**
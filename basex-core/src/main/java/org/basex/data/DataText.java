@@ -42,6 +42,8 @@ public interface DataText {
   String DBTOKIDX = "TOKINDEX";
   /** Full-text index. */
   String DBFTXIDX = "FTXINDEX";
+  /** Typed range index. */
+  String DBRNGIDX = "RNGINDEX";
   /** Text index: names. */
   String DBTXTINC = "TXTINC";
   /** Attribute index: names. */
@@ -50,6 +52,8 @@ public interface DataText {
   String DBTOKINC = "TOKINC";
   /** Full-text index: names. */
   String DBFTXINC = "FTXINC";
+  /** Typed range index: names. */
+  String DBRNGINC = "RNGINC";
   /** Full-text stemming. */
   String DBFTST = "FTSTEM";
   /** Full-text language. */
@@ -106,14 +110,20 @@ public interface DataText {
   String DATATOK = "tok";
   /** Database - Full-text index. */
   String DATAFTX = "ftx";
+  /** Database - Typed range index. */
+  String DATARNG = "rng";
   /** Database - Stopword list. */
   String DATASWL = "swl";
   /** Database - Updating flag. */
   String DATAUPD = "upd";
+  /** Database - Write-ahead log. */
+  String DATALOG = "log";
   /** Database - Document path index. */
   String DATAPTH = "pth";
   /** Database - ID-PRE mapping. */
   String DATAIDP = "idp";
+  /** Database - read-only ID-PRE mapping. */
+  String DATAIDR = "idr";
 
   // XML SERIALIZATION ============================================================================
 
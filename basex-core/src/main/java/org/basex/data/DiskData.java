@@ -16,6 +16,7 @@ import org.basex.index.path.*;
 import org.basex.index.value.*;
 import org.basex.io.*;
 import org.basex.io.in.DataInput;
+import org.basex.io.out.*;
 import org.basex.io.out.DataOutput;
 import org.basex.io.random.*;
 import org.basex.util.*;
@@ -56,6 +57,10 @@ public final class DiskData extends Data {
   private DataAccess texts;
   /** Values access file. */
   private DataAccess values;
+  /** Statistics of the index caches. */
+  private final CacheStats indexCache = new CacheStats();
+  /** Write-ahead log. */
+  private final PageLog log;
 
   /**
    * Default constructor, called from {@link Open#open}.
@@ -64,6 +69,7 @@ public final class DiskData extends Data {
    */
   public DiskData(final MetaData meta) throws IOException {
     super(meta);
+    log = new PageLog(meta);
 
     try(DataInput in = new DataInput(meta.dbfile(DATAINF))) {
       meta.read(in);
@@ -93,6 +99,7 @@ public final class DiskData extends Data {
       if(meta.tokenindex) tokenIndex = new DiskValues(this, IndexType.TOKEN);
     }
     if(meta.ftindex) ftIndex = new FTIndex(this);
+    if(meta.rangeindex) rangeIndex = new TypedValues(this);
   }
 
   /**
@@ -114,6 +121,7 @@ public final class DiskData extends Data {
     this.nspaces = nspaces;
     paths.data(this);
     if(meta.updindex) idmap = new IdPreMap(meta.lastid);
+    log = new PageLog(meta);
     init();
   }
 
@@ -122,9 +130,52 @@ public final class DiskData extends Data {
    * @throws IOException I/O exception
    */
   private void init() throws IOException {
-    table = new TableDiskAccess(meta, false);
-    texts = new DataAccess(meta.dbfile(DATATXT));
-    values = new DataAccess(meta.dbfile(DATAATV));
+    final boolean map = meta.soptions.get(StaticOptions.MMAP);
+    table = new TableDiskAccess(meta, false, log);
+    texts = new DataAccess(meta.dbfile(DATATXT), map, log);
+    values = new DataAccess(meta.dbfile(DATAATV), map, log);
+  }
+
+  /**
+   * Returns the write-ahead log.
+   * @return log
+   */
+  public PageLog log() {
+    return log;
+  }
+
+  /**
+   * Returns the statistics of the table cache.
+   * @return cache statistics
+   */
+  public CacheStats tableCache() {
+    return ((TableDiskAccess) table).stats();
+  }
+
+  /**
+   * Returns the statistics of the index caches.
+   * @return cache statistics
+   */
+  public CacheStats indexCache() {
+    return indexCache;
+  }
+
+  @Override
+  protected IdPreRuns idPreRuns() {
+    // use persistent mapping if it is still valid; otherwise, rebuild and store it
+    final IOFile file = meta.dbfile(DATAIDR);
+    try {
+      if(file.exists()) {
+        final IdPreRuns runs = new IdPreRuns(file);
+        if(runs.valid(meta)) return runs;
+      }
+      final IdPreRuns runs = super.idPreRuns();
+      runs.write(file);
+      return runs;
+    } catch(final IOException ex) {
+      Util.debug(ex);
+      return super.idPreRuns();
+    }
   }
 
   /**
@@ -134,7 +185,8 @@ public final class DiskData extends Data {
   private void write() throws IOException {
     if(!meta.dirty) return;
 
-    try(DataOutput out = new DataOutput(meta.dbfile(DATAINF))) {
+    final ArrayOutput ao = new ArrayOutput();
+    try(DataOutput out = new DataOutput(ao)) {
       meta.write(out);
       out.writeToken(token(DBTAGS));
       elemNames.write(out);
@@ -148,7 +200,14 @@ public final class DiskData extends Data {
       resources.write(out);
       out.write(0);
     }
-    if(meta.updindex) idmap.write(meta.dbfile(DATAIDP));
+    log.file(meta.dbfile(DATAINF).name(), ao.finish());
+    if(meta.updindex) {
+      final ArrayOutput ids = new ArrayOutput();
+      try(DataOutput out = new DataOutput(ids)) {
+        idmap.write(out);
+      }
+      log.file(meta.dbfile(DATAIDP).name(), ids.finish());
+    }
     meta.dirty = false;
   }
 
@@ -157,7 +216,7 @@ public final class DiskData extends Data {
     if(closed) return;
     super.close();
     try {
-      write();
+      commit();
       table.close();
       texts.close();
       values.close();
@@ -165,6 +224,7 @@ public final class DiskData extends Data {
       close(IndexType.ATTRIBUTE);
       close(IndexType.TOKEN);
       close(IndexType.FULLTEXT);
+      if(rangeIndex != null) rangeIndex.close();
     } catch(final IOException ex) {
       Util.stack(ex);
     }
@@ -185,7 +245,6 @@ public final class DiskData extends Data {
 
   @Override
   public void createIndex(final IndexType type, final Command cmd) throws IOException {
-    // close existing index
     close(type);
     final IndexBuilder ib;
     switch(type) {
@@ -197,7 +256,8 @@ public final class DiskData extends Data {
       if(cmd != null) cmd.pushJob(ib);
       set(type, ib.build());
     } finally {
-      if(cmd != null) cmd.popJob();
+      // indexes may be built in parallel: remove this builder
+      if(cmd != null) cmd.popJob(ib);
     }
   }
 
@@ -208,6 +268,21 @@ public final class DiskData extends Data {
     if(index != null && !index.drop()) throw new BaseXException(INDEX_NOT_DROPPED_X, type);
   }
 
+  @Override
+  public void createRangeIndex() throws IOException {
+    if(rangeIndex != null) {
+      rangeIndex.close();
+      rangeIndex.drop();
+      rangeIndex = null;
+    }
+    meta.rangeindex = !meta.rangeinclude.isEmpty();
+    if(meta.rangeindex) {
+      TypedValues.build(this);
+      rangeIndex = new TypedValues(this);
+    }
+    meta.dirty = true;
+  }
+
   /**
    * Assigns the specified index.
    * @param type index to be opened
@@ -231,6 +306,12 @@ public final class DiskData extends Data {
       final IOFile upd = meta.updateFile();
       if(upd.exists()) throw new BaseXException(DB_UPDATED_X, meta.name);
       if(!upd.touch()) throw Util.notExpected("%: could not create lock file.", meta.name);
+      // create log: if the update is interrupted, the last committed state can be restored
+      try {
+        log.open();
+      } catch(final IOException ex) {
+        throw new BaseXException(ex);
+      }
     }
   }
 
@@ -254,19 +335,36 @@ public final class DiskData extends Data {
   @Override
   public synchronized void flush(final boolean all) {
     try {
-      table.flush(all);
-      if(all) {
-        write();
-        texts.flush();
-        values.flush();
-        if(textIndex != null) textIndex.flush();
-        if(attrIndex != null) attrIndex.flush();
-      }
+      if(all) commit();
+      else table.flush(false);
     } catch(final IOException ex) {
       Util.stack(ex);
     }
   }
 
+  /**
+   * Writes all buffers and meta data to the log and commits the log.
+   * Must be called before index structures are dropped or rebuilt: otherwise, logged pages of
+   * the old index files would be lost or applied to the new files.
+   * @throws IOException I/O exception
+   */
+  public synchronized void commit() throws IOException {
+    table.flush(true);
+    texts.flush();
+    values.flush();
+    if(textIndex != null) textIndex.flush();
+    if(attrIndex != null) attrIndex.flush();
+    if(tokenIndex != null) tokenIndex.flush();
+    write();
+    log.commit();
+    // memory mapping: map updated files
+    if(meta.soptions.get(StaticOptions.MMAP)) {
+      table.flush(false);
+      texts.flush();
+      values.flush();
+    }
+  }
+
   @Override
   public byte[] text(final int pre, final boolean text) {
     final long value = textRef(pre);
@@ -290,10 +388,10 @@ public final class DiskData extends Data {
     final long value = textRef(pre);
     if(Inline.inlined(value)) return Inline.unpackLength(value);
 
-    final DataAccess da = text ? texts : values;
-    final int l = da.readNum(value & Compress.COMPRESS - 1);
+    final DataReader dr = (text ? texts : values).reader(value & Compress.COMPRESS - 1);
+    final int l = dr.readNum();
     // if text is compressed, read number of compressed bytes
-    return Compress.compressed(value) ? da.readNum() : l;
+    return Compress.compressed(value) ? dr.readNum() : l;
   }
 
   /**
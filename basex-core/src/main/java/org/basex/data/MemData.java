@@ -101,6 +101,12 @@ public final class MemData extends Data {
     set(type, null);
   }
 
+  @Override
+  public void createRangeIndex() {
+    // typed range index is only available for disk-based databases
+    meta.rangeindex = false;
+  }
+
   /**
    * Assigns the specified index.
    * @param type index to be opened
@@ -26,6 +26,8 @@ import org.basex.util.list.*;
 public final class MetaData {
   /** Database path. Set to {@code null} if database is in main memory. */
   public final IOFile path;
+  /** Static options. Set to {@code null} if database is in main memory. */
+  public final StaticOptions soptions;
 
   /** Database name. */
   public String name;
@@ -47,6 +49,8 @@ public final class MetaData {
   public boolean tokenindex;
   /** Indicates if a full-text index exists. */
   public boolean ftindex;
+  /** Indicates if a typed range index exists. */
+  public boolean rangeindex;
 
   /** Flag for activated automatic index update. */
   public boolean updindex;
@@ -69,6 +73,8 @@ public final class MetaData {
   public String tokeninclude;
   /** Full-text index: names to include. */
   public String ftinclude;
+  /** Typed range index: names to include. */
+  public String rangeinclude;
 
   /** Flag for full-text stemming. */
   public boolean stemming;
@@ -121,6 +127,7 @@ public final class MetaData {
   public MetaData(final String name, final MainOptions options, final StaticOptions sopts) {
     this.name = name;
     path = sopts != null ? sopts.dbPath(name) : null;
+    soptions = sopts;
     createtext = options.get(MainOptions.TEXTINDEX);
     createattr = options.get(MainOptions.ATTRINDEX);
     createtoken = options.get(MainOptions.TOKENINDEX);
@@ -138,6 +145,7 @@ public final class MetaData {
     attrinclude = options.get(MainOptions.ATTRINCLUDE);
     tokeninclude = options.get(MainOptions.TOKENINCLUDE);
     ftinclude = options.get(MainOptions.FTINCLUDE);
+    rangeinclude = options.get(MainOptions.RANGEINCLUDE);
     splitsize = options.get(MainOptions.SPLITSIZE);
   }
 
@@ -397,10 +405,12 @@ public final class MetaData {
         case DBATVIDX:   attrindex = toBoolean(v); break;
         case DBTOKIDX:   tokenindex = toBoolean(v); break;
         case DBFTXIDX:   ftindex = toBoolean(v); break;
+        case DBRNGIDX:   rangeindex = toBoolean(v); break;
         case DBTXTINC:   textinclude = v; break;
         case DBATVINC:   attrinclude = v; break;
         case DBTOKINC:   tokeninclude = v; break;
         case DBFTXINC:   ftinclude = v; break;
+        case DBRNGINC:   rangeinclude = v; break;
         case DBSPLITS:   splitsize = toInt(v); break;
         case DBCRTTXT:   createtext = toBoolean(v); break;
         case DBCRTATV:   createattr = toBoolean(v); break;
@@ -440,10 +450,12 @@ public final class MetaData {
     writeInfo(out, DBATVIDX,   attrindex);
     writeInfo(out, DBTOKIDX,   tokenindex);
     writeInfo(out, DBFTXIDX,   ftindex);
+    writeInfo(out, DBRNGIDX,   rangeindex);
     writeInfo(out, DBTXTINC,   textinclude);
     writeInfo(out, DBATVINC,   attrinclude);
     writeInfo(out, DBTOKINC,   tokeninclude);
     writeInfo(out, DBFTXINC,   ftinclude);
+    writeInfo(out, DBRNGINC,   rangeinclude);
     writeInfo(out, DBSPLITS,   splitsize);
     writeInfo(out, DBCRTTXT,   createtext);
     writeInfo(out, DBCRTATV,   createattr);
@@ -475,6 +487,7 @@ public final class MetaData {
       tokenindex = false;
     }
     ftindex = false;
+    rangeindex = false;
   }
 
   /**
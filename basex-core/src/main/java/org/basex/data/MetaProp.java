@@ -85,6 +85,11 @@ public enum MetaProp {
     public Boolean value(final MetaData meta) { return meta.ftindex; }
   },
   /** Property. */
+  RANGEINDEX(true) {
+    @Override
+    public Boolean value(final MetaData meta) { return meta.rangeindex; }
+  },
+  /** Property. */
   TEXTINCLUDE(true) {
     @Override
     public String value(final MetaData meta) { return meta.textinclude; }
@@ -105,6 +110,11 @@ public enum MetaProp {
     public String value(final MetaData meta) { return meta.ftinclude; }
   },
   /** Property. */
+  RANGEINCLUDE(true) {
+    @Override
+    public String value(final MetaData meta) { return meta.rangeinclude; }
+  },
+  /** Property. */
   LANGUAGE(true) {
     @Override
     public String value(final MetaData meta) { return meta.language.toString(); }
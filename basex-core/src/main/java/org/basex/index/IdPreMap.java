@@ -71,16 +71,25 @@ public class IdPreMap {
    */
   public final void write(final IOFile file) throws IOException {
     try(DataOutput out = new DataOutput(file)) {
-      out.writeNum(baseid);
-      out.writeNum(rows);
-      out.writeNums(pres);
-      out.writeNums(fids);
-      out.writeNums(nids);
-      out.writeNums(incs);
-      out.writeNums(oids);
+      write(out);
     }
   }
 
+  /**
+   * Write the map to the specified output.
+   * @param out output
+   * @throws IOException I/O error while writing to the output
+   */
+  public final void write(final DataOutput out) throws IOException {
+    out.writeNum(baseid);
+    out.writeNum(rows);
+    out.writeNums(pres);
+    out.writeNums(fids);
+    out.writeNums(nids);
+    out.writeNums(incs);
+    out.writeNums(oids);
+  }
+
   /**
    * Finishes database creation.
    * @param base last id
@@ -0,0 +1,148 @@
+package org.basex.index;
+
+import java.io.*;
+
+import org.basex.data.*;
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
+import org.basex.util.*;
+import org.basex.util.list.*;
+
+/**
+ * Read-only ID-PRE mapping, which is used if the updatable mapping ({@link IdPreMap}) is
+ * disabled. The table is split into runs of nodes with consecutive PRE and ID values.
+ * The runs are sorted by their first ID, so PRE values can be found via binary search.
+ * A database that has not been updated consists of a single run.
+ *
+ * The mapping is bound to the size and the last ID of the database, which change with every
+ * insertion or deletion of nodes. It is invalid as soon as one of these values differs.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class IdPreRuns {
+  /** Number of table entries. */
+  private final int size;
+  /** Last ID. */
+  private final int lastid;
+  /** First ID of each run (sorted). */
+  private final int[] ids;
+  /** First PRE value of each run. */
+  private final int[] pres;
+  /** Number of nodes of each run. */
+  private final int[] counts;
+
+  /**
+   * Constructor, building the mapping from the database table.
+   * @param data data reference
+   */
+  public IdPreRuns(final Data data) {
+    size = data.meta.size;
+    lastid = data.meta.lastid;
+
+    final IntList il = new IntList(), pl = new IntList(), cl = new IntList();
+    int id = 0, count = 0;
+    for(int pre = 0; pre < size; pre++) {
+      final int i = data.id(pre);
+      if(count == 0 || i != id + count) {
+        if(count != 0) cl.add(count);
+        il.add(i);
+        pl.add(pre);
+        id = i;
+        count = 0;
+      }
+      count++;
+    }
+    if(count != 0) cl.add(count);
+
+    // sort runs by their first ids
+    ids = il.finish();
+    final int[] order = Array.createOrder(ids, true), ps = pl.finish(), cs = cl.finish();
+    final int rl = order.length;
+    pres = new int[rl];
+    counts = new int[rl];
+    for(int r = 0; r < rl; r++) {
+      pres[r] = ps[order[r]];
+      counts[r] = cs[order[r]];
+    }
+  }
+
+  /**
+   * Constructor, reading the mapping from a file.
+   * @param file file to read from
+   * @throws IOException I/O error while reading from the file
+   */
+  public IdPreRuns(final IOFile file) throws IOException {
+    try(DataInput in = new DataInput(file)) {
+      size = in.readNum();
+      lastid = in.readNum();
+      ids = in.readNums();
+      pres = in.readNums();
+      counts = in.readNums();
+    }
+    // ids are stored as distances
+    final int rl = ids.length;
+    for(int r = 1; r < rl; r++) ids[r] += ids[r - 1];
+  }
+
+  /**
+   * Writes the mapping to the specified file.
+   * @param file file to write to
+   * @throws IOException I/O error while writing to the file
+   */
+  public void write(final IOFile file) throws IOException {
+    final int rl = ids.length;
+    final int[] dist = new int[rl];
+    for(int r = 0; r < rl; r++) dist[r] = r == 0 ? ids[r] : ids[r] - ids[r - 1];
+    try(DataOutput out = new DataOutput(file)) {
+      out.writeNum(size);
+      out.writeNum(lastid);
+      out.writeNums(dist);
+      out.writeNums(pres);
+      out.writeNums(counts);
+    }
+  }
+
+  /**
+   * Checks if the mapping is valid for the specified database.
+   * @param meta meta data
+   * @return result of check
+   */
+  public boolean valid(final MetaData meta) {
+    return size == meta.size && lastid == meta.lastid;
+  }
+
+  /**
+   * Finds the PRE value of a given ID.
+   * @param id ID
+   * @return PRE value or -1 if the ID does not exist
+   */
+  public int pre(final int id) {
+    int l = 0, h = ids.length - 1;
+    while(l <= h) {
+      final int m = l + h >>> 1, d = id - ids[m];
+      if(d < 0) {
+        h = m - 1;
+      } else if(d >= counts[m]) {
+        l = m + 1;
+      } else {
+        return pres[m] + d;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the number of runs.
+   * @return number of runs
+   */
+  public int size() {
+    return ids.length;
+  }
+
+  @Override
+  public String toString() {
+    return Util.className(this) + "[runs: " + ids.length + ", size: " + size + ']';
+  }
+}
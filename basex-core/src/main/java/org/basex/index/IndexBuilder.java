@@ -18,6 +18,9 @@ import org.basex.util.*;
  * @author Christian Gruen
  */
 public abstract class IndexBuilder extends Job {
+  /** Minimum number of database nodes per partition. */
+  private static final int PARTITION = 1 << 12;
+
   /** Performance. */
   private final Performance perf = new Performance();
 
@@ -29,6 +32,8 @@ public abstract class IndexBuilder extends Job {
   protected final IndexType type;
   /** Text node flag. */
   protected final boolean text;
+  /** Number of partitions, which will be indexed in parallel. */
+  protected final int threads;
 
   /** Number of index operations to perform before writing a partial index to disk. */
   private final int splitSize;
@@ -46,6 +51,8 @@ public abstract class IndexBuilder extends Job {
   protected int splits;
   /** Threshold for freeing memory when estimating main memory consumption. */
   private int gcCount;
+  /** Parallel indexing of partitions. */
+  private final Parallel parallel = new Parallel();
 
   /**
    * Constructor.
@@ -60,6 +67,11 @@ public abstract class IndexBuilder extends Job {
     includeNames = new IndexNames(type, data);
     text = type == IndexType.TEXT || type == IndexType.FULLTEXT;
 
+    final StaticOptions sopts = data.meta.soptions;
+    int t = sopts != null ? sopts.get(StaticOptions.INDEXTHREADS) : 1;
+    if(t <= 0) t = Runtime.getRuntime().availableProcessors();
+    threads = Math.max(1, Math.min(t, size / PARTITION));
+
     // run garbage collection if memory maximum is already reached
     if(Performance.memory() >= maxMem) clean();
   }
@@ -86,7 +98,16 @@ public abstract class IndexBuilder extends Job {
    * @return result of check
    */
   protected final boolean indexEntry() {
-    return data.kind(pre) == (text ? Data.TEXT : Data.ATTR) && includeNames.contains(pre, text);
+    return indexEntry(pre);
+  }
+
+  /**
+   * Checks if the specified entry should be indexed.
+   * @param pr pre value
+   * @return result of check
+   */
+  protected final boolean indexEntry(final int pr) {
+    return data.kind(pr) == (text ? Data.TEXT : Data.ATTR) && includeNames.contains(pr, text);
   }
 
   /**
@@ -103,20 +124,41 @@ public abstract class IndexBuilder extends Job {
     } else {
       // if not, estimate how much main memory is left
       split = Performance.memory() >= maxMem;
-      // stop operation if index splitting degenerates
-      int gc = gcCount;
-      if(split) {
-        if(gc >= 0) throw new BaseXException(OUT_OF_MEM + H_OUT_OF_MEM);
-        gc = 30;
-      } else {
-        gc = Math.max(-1, gc - 1);
-      }
-      gcCount = gc;
+      gcCount = gc(split, gcCount);
     }
     if(split && Prop.debug) Util.err("|");
     return split;
   }
 
+  /**
+   * Updates the threshold for freeing memory.
+   * @param split split flag
+   * @param gc current threshold
+   * @return new threshold
+   * @throws IOException I/O Exception
+   */
+  private static int gc(final boolean split, final int gc) throws IOException {
+    // stop operation if index splitting degenerates
+    if(!split) return Math.max(-1, gc - 1);
+    if(gc >= 0) throw new BaseXException(OUT_OF_MEM + H_OUT_OF_MEM);
+    return 30;
+  }
+
+  /**
+   * Indexes the specified partitions. If more than one partition is supplied,
+   * each partition is indexed by a separate thread.
+   * @param partitions partitions
+   * @throws IOException I/O Exception
+   */
+  protected final void build(final Partition... partitions) throws IOException {
+    final int pl = partitions.length;
+    final Parallel.Task[] tasks = new Parallel.Task[pl];
+    for(int p = 0; p < pl; p++) tasks[p] = partitions[p]::build;
+    parallel.run(Util.className(this), tasks);
+    for(final Partition partition : partitions) count += partition.count;
+    pre = size;
+  }
+
   /**
    * Performs memory cleanup after writing partial memory if necessary.
    */
@@ -153,6 +195,71 @@ public abstract class IndexBuilder extends Job {
     return type == IndexType.FULLTEXT ? 1000000 : 100000;
   }
 
+  /**
+   * Range of database nodes that is indexed by a single thread.
+   */
+  protected abstract class Partition {
+    /** Partition number. */
+    protected final int id;
+    /** First pre value. */
+    protected final int start;
+    /** Pre value after the last node. */
+    protected final int end;
+    /** Number of index operations. */
+    protected long count;
+    /** Number of partial index structures. */
+    protected int splits;
+    /** Threshold for freeing memory when estimating main memory consumption. */
+    private int gc;
+
+    /**
+     * Constructor.
+     * @param id partition number (must be smaller than {@link #threads})
+     */
+    protected Partition(final int id) {
+      this.id = id;
+      start = (int) ((long) size * id / threads);
+      end = (int) ((long) size * (id + 1) / threads);
+    }
+
+    /**
+     * Indexes the nodes of this partition.
+     * @throws IOException I/O Exception
+     */
+    protected abstract void build() throws IOException;
+
+    /**
+     * Checks if the command was interrupted or if another partition has failed,
+     * and registers the progress. Must be called every {@code 0x1000} nodes.
+     */
+    protected final void check() {
+      checkStop();
+      if(parallel.failed()) throw new JobException(INTERRUPTED);
+      synchronized(IndexBuilder.this) {
+        pre += 0x1000;
+      }
+      if(Prop.debug && (pre & 0x1FFFFF) == 0) Util.err(".");
+    }
+
+    /**
+     * Decides whether the in-memory structures of this partition must be flushed to disk.
+     * If a fixed split size has been specified, it is shared by all partitions.
+     * @return true if structures shall be flushed to disk
+     * @throws IOException I/O Exception
+     */
+    protected final boolean splitRequired() throws IOException {
+      final boolean split;
+      if(splitSize > 0) {
+        split = count >= (splits + 1L) * Math.max(1, splitSize / threads);
+      } else {
+        split = Performance.memory() >= maxMem;
+        gc = gc(split, gc);
+      }
+      if(split && Prop.debug) Util.err("|");
+      return split;
+    }
+  }
+
   @Override
   public final String shortInfo() {
     return CREATING_INDEXES;
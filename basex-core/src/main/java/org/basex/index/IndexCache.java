@@ -2,26 +2,65 @@ package org.basex.index;
 
 import static org.basex.util.Token.*;
 
-import java.lang.ref.*;
+import java.util.*;
 import java.util.concurrent.locks.*;
 
+import org.basex.core.*;
+import org.basex.data.*;
 import org.basex.util.*;
 
 /**
  * This class caches sizes and offsets from index results.
  *
+ * The cache is split into segments. Lookups are optimistic and do not block; entries are
+ * added, updated and deleted with a segment lock. The number of entries is bounded.
+ * If a segment is full, the victim is chosen by a clock hand, which gives recently used entries
+ * a second chance. A new entry is only admitted if it has been requested more often than the
+ * victim (TinyLFU). Request frequencies are approximated by a small counting sketch.
+ *
  * @author BaseX Team 2005-18, BSD License
  * @author Dimitar Popov
  */
 public final class IndexCache {
-  /** Queue used to collect unused keys. */
-  private final ReferenceQueue<IndexEntry> queue = new ReferenceQueue<>();
-  /** Read-write lock. */
-  private final ReentrantReadWriteLock rwl = new ReentrantReadWriteLock(true);
-  /** Hash table buckets. */
-  private BucketEntry[] buckets = new BucketEntry[Array.CAPACITY];
-  /** Number of entries in the cache. */
-  private int size;
+  /** Number of segments (must be 1 << n). */
+  private static final int SEGMENTS = 1 << 4;
+  /** Bit shift for computing segment indexes. */
+  private static final int SHIFT = Integer.numberOfLeadingZeros(SEGMENTS) + 1;
+
+  /** Segments. */
+  private final Segment[] segments = new Segment[SEGMENTS];
+  /** Cache statistics. */
+  private final CacheStats stats;
+
+  /**
+   * Constructor with default capacity.
+   */
+  public IndexCache() {
+    this(StaticOptions.INDEXCACHE.value(), new CacheStats());
+  }
+
+  /**
+   * Constructor for an index of the specified database.
+   * The capacity is taken from the static options; statistics are shared by all caches of
+   * a database.
+   * @param data data reference
+   */
+  public IndexCache(final Data data) {
+    this(data.meta.soptions != null ? data.meta.soptions.get(StaticOptions.INDEXCACHE) :
+      StaticOptions.INDEXCACHE.value(),
+      data instanceof DiskData ? ((DiskData) data).indexCache() : new CacheStats());
+  }
+
+  /**
+   * Constructor.
+   * @param capacity maximum number of entries
+   * @param stats cache statistics
+   */
+  public IndexCache(final int capacity, final CacheStats stats) {
+    this.stats = stats;
+    final int c = Math.max(1, (capacity + SEGMENTS - 1) / SEGMENTS);
+    for(int s = 0; s < SEGMENTS; s++) segments[s] = new Segment(c);
+  }
 
   /**
    * Gets cached entry for the specified key.
@@ -30,25 +69,17 @@ public final class IndexCache {
    */
   public IndexEntry get(final byte[] key) {
     final int hash = hash(key);
-    rwl.readLock().lock();
-
-    try {
-      final int i = indexFor(hash, buckets.length);
-      BucketEntry e = buckets[i];
-      while(e != null) {
-        final IndexEntry entry = e.get();
-        if(entry != null && e.hash == hash && eq(entry.key, key)) return entry;
-        e = e.next;
-      }
-    } finally {
-      rwl.readLock().unlock();
-    }
-    return null;
+    final Segment segment = segment(hash);
+    segment.record(hash);
+    final IndexEntry entry = segment.get(key, hash);
+    if(entry != null) stats.hit();
+    else stats.miss();
+    return entry;
   }
 
   /**
    * Adds a new cache entry. If an entry with the specified key already exists,
-   * it will be updated.
+   * it will be updated. The new entry may be rejected if the cache is full.
    * @param key key
    * @param count number of index hits
    * @param offset offset to id list
@@ -56,31 +87,7 @@ public final class IndexCache {
    */
   public IndexEntry add(final byte[] key, final int count, final long offset) {
     final int hash = hash(key);
-    rwl.writeLock().lock();
-
-    try {
-      purge();
-      final int i = indexFor(hash, buckets.length);
-      BucketEntry current = buckets[i], prev = current;
-      while(current != null) {
-        final BucketEntry next = current.next;
-        final IndexEntry entry = current.get();
-        if(entry == null) {
-          delete(i, current, prev, next);
-        } else if(current.hash == hash && eq(entry.key, key)) {
-          update(entry, count, offset);
-          return entry;
-        }
-        prev = current;
-        current = next;
-      }
-
-      final IndexEntry entry = new IndexEntry(key, count, offset);
-      add(i, hash, entry);
-      return entry;
-    } finally {
-      rwl.writeLock().unlock();
-    }
+    return segment(hash).add(key, count, offset, hash);
   }
 
   /**
@@ -89,142 +96,308 @@ public final class IndexCache {
    */
   public void delete(final byte[] key) {
     final int hash = hash(key);
-    rwl.writeLock().lock();
-
-    try {
-      purge();
-      final int i = indexFor(hash, buckets.length);
-      BucketEntry e = buckets[i], prev = e;
-      while(e != null) {
-        final BucketEntry next = e.next;
-        final IndexEntry entry = e.get();
-        if(entry == null) {
-          delete(i, e, prev, next);
-        } else if(e.hash == hash && eq(entry.key, key)) {
-          delete(i, e, prev, next);
-          break;
-        }
-        prev = e;
-        e = next;
-      }
-    } finally {
-      rwl.writeLock().unlock();
-    }
+    segment(hash).delete(key, hash);
   }
 
   /**
-   * Purges stale entries from the cache.
+   * Returns the number of cached entries.
+   * @return number of entries
    */
-  private void purge() {
-    for(Object x; (x = queue.poll()) != null;) {
-      final BucketEntry e = (BucketEntry) x;
-      final int i = indexFor(e.hash, buckets.length);
-      BucketEntry prev = buckets[i], p = prev;
-      while(p != null) {
-        final BucketEntry next = p.next;
-        if(p == e) {
-          delete(i, e, prev, next);
-          break;
-        }
-        prev = p;
-        p = next;
-      }
-    }
+  public int size() {
+    int size = 0;
+    for(final Segment segment : segments) size += segment.size();
+    return size;
   }
 
   /**
-   * Add a new index entry to the bucket with the specified index.
-   * @param i bucket index
-   * @param hash hash of the new index key
-   * @param entry index entry
+   * Returns the cache statistics.
+   * @return statistics
    */
-  private void add(final int i, final int hash, final IndexEntry entry) {
-    buckets[i] = new BucketEntry(hash, buckets[i], entry, queue);
-    if(++size == buckets.length) rehash();
+  public CacheStats stats() {
+    return stats;
   }
 
   /**
-   * Update an existing index entry.
-   * @param entry index entry to update
-   * @param size new size
-   * @param offset new offset
+   * Returns the segment for the specified hash value.
+   * @param hash hash value
+   * @return segment
    */
-  private static void update(final IndexEntry entry, final int size, final long offset) {
-    entry.size = size;
-    entry.offset = offset;
+  private Segment segment(final int hash) {
+    return segments[hash * 0x9E3779B9 >>> SHIFT];
   }
 
   /**
-   * Deletes a cached entry from the buckets with the specified index.
-   * @param i buckets index
-   * @param e cached entry to delete
-   * @param p previous cache entry
-   * @param n next cache entry
+   * Computes the hash value for the specified key.
+   * @param key key
+   * @return hash value
    */
-  private void delete(final int i, final BucketEntry e, final BucketEntry p, final BucketEntry n) {
-    if(p == e) buckets[i] = n;
-    else p.next = n;
-    e.next = null;
-    --size;
+  private static int hash(final byte[] key) {
+    final int h = Token.hash(key);
+    return h ^ h >>> 16;
   }
 
-  /**
-   * Resizes the hash table.
-   */
-  private void rehash() {
-    purge();
-
-    final int s = size << 1;
-    final BucketEntry[] tmp = new BucketEntry[s];
-
-    final int l = buckets.length;
-    for(int i = 0; i < l; ++i) {
-      BucketEntry e = buckets[i];
-      buckets[i] = null;
-      while(e != null) {
-        final BucketEntry next = e.next;
-        final int p = indexFor(e.hash, tmp.length);
-        e.next = tmp[p];
-        tmp[p] = e;
-        e = next;
+  /** Cache segment. */
+  private final class Segment {
+    /** Lock. */
+    private final StampedLock lock = new StampedLock();
+    /** Maximum number of entries. */
+    private final int capacity;
+    /** Hash table buckets. */
+    private Node[] buckets = new Node[8];
+    /** Cached nodes, traversed by the clock hand. */
+    private Node[] nodes = new Node[8];
+    /** Frequency sketch (four 4-bit counters per hash value, stored in bytes). */
+    private byte[] sketch = new byte[64];
+    /** Number of recorded requests since the last aging of the sketch. */
+    private int requests;
+    /** Number of entries. */
+    private int size;
+    /** Clock hand. */
+    private int hand;
+
+    /**
+     * Constructor.
+     * @param capacity maximum number of entries
+     */
+    Segment(final int capacity) {
+      this.capacity = capacity;
+    }
+
+    /**
+     * Returns the entry for the specified key.
+     * @param key key
+     * @param hash hash value
+     * @return entry or {@code null}
+     */
+    IndexEntry get(final byte[] key, final int hash) {
+      long stamp = lock.tryOptimisticRead();
+      if(stamp != 0) {
+        final Node node = find(key, hash);
+        if(lock.validate(stamp)) return entry(node);
+      }
+      stamp = lock.readLock();
+      try {
+        return entry(find(key, hash));
+      } finally {
+        lock.unlockRead(stamp);
       }
     }
-    buckets = tmp;
-  }
 
-  /**
-   * Returns buckets index for a hash code.
-   * @param h hash code
-   * @param n number of available buckets
-   * @return index of a buckets
-   */
-  private static int indexFor(final int h, final int n) {
-    return h & n - 1;
+    /**
+     * Adds or updates an entry.
+     * @param key key
+     * @param count number of index hits
+     * @param offset offset to id list
+     * @param hash hash value
+     * @return entry
+     */
+    IndexEntry add(final byte[] key, final int count, final long offset, final int hash) {
+      final long stamp = lock.writeLock();
+      try {
+        final Node node = find(key, hash);
+        if(node != null) {
+          final IndexEntry entry = node.entry;
+          entry.size = count;
+          entry.offset = offset;
+          node.used = true;
+          return entry;
+        }
+
+        final IndexEntry entry = new IndexEntry(key, count, offset);
+        final Node nd = new Node(hash, entry);
+        if(size < capacity) {
+          if(size == nodes.length) resize();
+          nd.slot = size;
+          nodes[size++] = nd;
+        } else {
+          // admit new entry only if it is requested more frequently than the victim
+          final int v = victim();
+          final Node old = nodes[v];
+          if(frequency(hash) <= frequency(old.hash)) return entry;
+          unlink(old);
+          nd.slot = v;
+          nodes[v] = nd;
+          stats.evict();
+        }
+        final int b = hash & buckets.length - 1;
+        nd.next = buckets[b];
+        buckets[b] = nd;
+        return entry;
+      } finally {
+        lock.unlockWrite(stamp);
+      }
+    }
+
+    /**
+     * Deletes an entry.
+     * @param key key
+     * @param hash hash value
+     */
+    void delete(final byte[] key, final int hash) {
+      final long stamp = lock.writeLock();
+      try {
+        final Node node = find(key, hash);
+        if(node == null) return;
+        unlink(node);
+        // move last node to the free slot
+        final Node last = nodes[--size];
+        last.slot = node.slot;
+        nodes[node.slot] = last;
+        nodes[size] = null;
+      } finally {
+        lock.unlockWrite(stamp);
+      }
+    }
+
+    /**
+     * Returns the number of entries.
+     * @return number of entries
+     */
+    int size() {
+      final long stamp = lock.readLock();
+      try {
+        return size;
+      } finally {
+        lock.unlockRead(stamp);
+      }
+    }
+
+    /**
+     * Records a request. This method is not synchronized; concurrent updates of the
+     * sketch may get lost, which only affects the accuracy of the estimated frequencies.
+     * @param hash hash value
+     */
+    void record(final int hash) {
+      final byte[] sk = sketch;
+      final int mask = sk.length - 1;
+      int h = hash;
+      for(int i = 0; i < 4; i++) {
+        h = h * 0x9E3779B9 + i;
+        final int s = (h ^ h >>> 17) & mask;
+        if(sk[s] < 15) sk[s]++;
+      }
+      // age sketch: halve all counters
+      if(++requests >= sk.length << 2) {
+        requests = 0;
+        for(int s = 0; s <= mask; s++) sk[s] >>>= 1;
+      }
+    }
+
+    /**
+     * Returns the estimated request frequency of a hash value.
+     * @param hash hash value
+     * @return frequency
+     */
+    private int frequency(final int hash) {
+      final byte[] sk = sketch;
+      final int mask = sk.length - 1;
+      int h = hash, f = Integer.MAX_VALUE;
+      for(int i = 0; i < 4; i++) {
+        h = h * 0x9E3779B9 + i;
+        f = Math.min(f, sk[(h ^ h >>> 17) & mask]);
+      }
+      return f;
+    }
+
+    /**
+     * Returns the entry of a node and marks it as used.
+     * @param node node (can be {@code null})
+     * @return entry or {@code null}
+     */
+    private IndexEntry entry(final Node node) {
+      if(node == null) return null;
+      node.used = true;
+      return node.entry;
+    }
+
+    /**
+     * Returns the node with the specified key.
+     * @param key key
+     * @param hash hash value
+     * @return node or {@code null}
+     */
+    private Node find(final byte[] key, final int hash) {
+      // limit number of steps: chains may be inconsistent during optimistic reads
+      final Node[] bckts = buckets;
+      int s = capacity;
+      for(Node n = bckts[hash & bckts.length - 1]; n != null && s-- >= 0; n = n.next) {
+        if(n.hash == hash && eq(n.entry.key, key)) return n;
+      }
+      return null;
+    }
+
+    /**
+     * Advances the clock hand and returns the slot of the next node to be replaced.
+     * @return slot
+     */
+    private int victim() {
+      while(true) {
+        if(hand >= size) hand = 0;
+        final Node node = nodes[hand++];
+        if(!node.used) return node.slot;
+        node.used = false;
+      }
+    }
+
+    /**
+     * Removes a node from its hash chain.
+     * @param node node
+     */
+    private void unlink(final Node node) {
+      final int b = node.hash & buckets.length - 1;
+      Node n = buckets[b];
+      if(n == node) {
+        buckets[b] = node.next;
+      } else {
+        while(n.next != node) n = n.next;
+        n.next = node.next;
+      }
+    }
+
+    /**
+     * Doubles the size of the hash table and the node array, and enlarges the sketch.
+     */
+    private void resize() {
+      final int s = nodes.length << 1;
+      nodes = Arrays.copyOf(nodes, s);
+
+      final Node[] tmp = new Node[s];
+      for(int n = 0; n < size; n++) {
+        final Node nd = nodes[n];
+        final int b = nd.hash & s - 1;
+        nd.next = tmp[b];
+        tmp[b] = nd;
+      }
+      buckets = tmp;
+
+      // frequencies are transferred to the larger sketch
+      final byte[] sk = new byte[Math.max(sketch.length, s << 2)];
+      for(int i = 0; i < sk.length; i++) sk[i] = sketch[i & sketch.length - 1];
+      sketch = sk;
+    }
   }
 
-  /**
-   * Cache buckets entry. Used to implement a linked list of cache entries for
-   * each buckets. It also stores the hash of the current entry for better
-   * performance.
-   */
-  private static class BucketEntry extends SoftReference<IndexEntry> {
-    /** Hash code of the stored cache entry key. */
+  /** Cache node. */
+  private static final class Node {
+    /** Hash value. */
     final int hash;
-    /** Next buckets entry or {@code null} if the last one for this buckets. */
-    BucketEntry next;
+    /** Index entry. */
+    final IndexEntry entry;
+    /** Next node in the hash chain. */
+    Node next;
+    /** Slot in the node array. */
+    int slot;
+    /** Reference flag. */
+    boolean used;
 
     /**
      * Constructor.
-     * @param h hash code of the cache entry key
-     * @param n next buckets entry or {@code null} if the last one
-     * @param v stored cache entry
-     * @param rq reference queue
+     * @param hash hash value
+     * @param entry index entry
      */
-    BucketEntry(final int h, final BucketEntry n, final IndexEntry v,
-        final ReferenceQueue<IndexEntry> rq) {
-      super(v, rq);
-      hash = h;
-      next = n;
+    Node(final int hash, final IndexEntry entry) {
+      this.hash = hash;
+      this.entry = entry;
     }
   }
 }
@@ -21,6 +21,8 @@ public final class IndexNames {
   private final Atts qnames = new Atts();
   /** Data reference. */
   private final Data data;
+  /** Indicates if no names are accepted. */
+  private final boolean none;
 
   /**
    * Constructor.
@@ -28,9 +30,28 @@ public final class IndexNames {
    * @param data data reference
    */
   public IndexNames(final IndexType type, final Data data) {
+    this(toSet(data.meta.names(type).trim()), false, data);
+  }
+
+  /**
+   * Constructor for the names of the typed range index ({@link MetaData#rangeinclude}).
+   * Attribute names are prefixed with {@code @}. No names are accepted if the list is empty.
+   * @param text text flag (element or attribute names)
+   * @param data data reference
+   */
+  public IndexNames(final boolean text, final Data data) {
+    this(ranges(data.meta.rangeinclude, text), true, data);
+  }
+
+  /**
+   * Constructor.
+   * @param inc names to include
+   * @param none accept no names if the list is empty
+   * @param data data reference
+   */
+  private IndexNames(final HashSet<String> inc, final boolean none, final Data data) {
     this.data = data;
-    final String names = data.meta.names(type);
-    final HashSet<String> inc = toSet(names.trim());
+    this.none = none && inc.isEmpty();
     for(final String entry : inc) {
       // global wildcard: ignore all assignments
       if(entry.equals("*") || entry.equals("*:*")) {
@@ -62,7 +83,7 @@ public final class IndexNames {
    * @return result of check
    */
   public boolean isEmpty() {
-    return qnames.isEmpty();
+    return !none && qnames.isEmpty();
   }
 
   /**
@@ -84,6 +105,7 @@ public final class IndexNames {
    * @return result of check
    */
   public boolean contains(final byte[][] qname) {
+    if(none) return false;
     if(isEmpty()) return true;
 
     if(qname != null) {
@@ -128,6 +150,21 @@ public final class IndexNames {
     return set;
   }
 
+  /**
+   * Returns the element or attribute entries of the names of the typed range index.
+   * @param names names
+   * @param text text flag (element or attribute names)
+   * @return map
+   */
+  private static HashSet<String> ranges(final String names, final boolean text) {
+    final HashSet<String> set = new HashSet<>();
+    for(final String entry : toSet(names.trim())) {
+      final boolean att = entry.startsWith("@");
+      if(att != text) set.add(att ? entry.substring(1) : entry);
+    }
+    return set;
+  }
+
   /**
    * Checks if the index names contain all relevant id or idref attributes.
    * @param idref idref flag
@@ -21,12 +21,8 @@ import org.basex.util.list.*;
  * @author Christian Gruen
  */
 public final class FTBuilder extends IndexBuilder {
-  /** Value trees. */
-  private final FTIndexTrees tree;
-  /** Word parser. */
-  private final FTLexer lexer;
-  /** Number of indexed tokens. */
-  private long ntok;
+  /** Full-text options. */
+  private final FTOpt fto;
 
   /**
    * Constructor.
@@ -36,9 +32,8 @@ public final class FTBuilder extends IndexBuilder {
   public FTBuilder(final Data data) throws IOException {
     super(data, IndexType.FULLTEXT);
     final MetaData meta = data.meta;
-    tree = new FTIndexTrees(data.meta.maxlen);
 
-    final FTOpt fto = new FTOpt();
+    fto = new FTOpt();
     fto.set(FTFlag.DC, meta.diacritics);
     fto.set(FTFlag.ST, meta.stemming);
     fto.cs = meta.casesens ? FTCase.SENSITIVE : FTCase.INSENSITIVE;
@@ -49,8 +44,6 @@ public final class FTBuilder extends IndexBuilder {
       throw new BaseXException(NO_TOKENIZER_X, fto.ln);
     if(meta.stemming && !Stemmer.supportFor(fto.ln))
       throw new BaseXException(NO_STEMMER_X, fto.ln);
-
-    lexer = new FTLexer(fto);
   }
 
   @Override
@@ -58,33 +51,22 @@ public final class FTBuilder extends IndexBuilder {
     Util.debug(detailedInfo());
 
     try {
-      for(pre = 0; pre < size; ++pre) {
-        if((pre & 0x0FFF) == 0) check();
-        if(!indexEntry()) continue;
-
-        // current lexer position
-        final StopWords sw = lexer.ftOpt().sw;
-        lexer.init(data.text(pre, true));
-        int pos = -1;
-        while(lexer.hasNext()) {
-          final byte[] tok = lexer.nextToken();
-          ++pos;
-          // skip too long and stopword tokens
-          if(tok.length <= data.meta.maxlen && !sw.contains(tok)) {
-            // check if main memory is exhausted
-            if((ntok++ & 0xFFFF) == 0 && splitRequired()) {
-              writeIndex(true);
-              clean();
-            }
-            tree.index(tok, pre, pos, splits);
-            count++;
-          }
-        }
+      // index all partitions
+      final FTPartition[] partitions = new FTPartition[threads];
+      for(int p = 0; p < threads; p++) partitions[p] = new FTPartition(p);
+      build(partitions);
+
+      // merge partial index structures in document order
+      final StringList files = new StringList();
+      for(final FTPartition partition : partitions) partition.files(files);
+      splits = files.size();
+      if(splits > 0) {
+        merge(files);
+      } else {
+        // single partition without partial index structures, or no tokens found
+        partitions[0].writeIndex(DATAFTX);
       }
 
-      // finalize partial or all index structures
-      write(splits > 0);
-
       finishIndex();
       return new FTIndex(data);
 
@@ -96,14 +78,11 @@ public final class FTBuilder extends IndexBuilder {
   }
 
   /**
-   * Writes the index data to disk.
-   * @param partial write partial index
+   * Merges partial index structures.
+   * @param files names of the partial index files, sorted by the indexed pre values
    * @throws IOException I/O exception
    */
-  private void write(final boolean partial) throws IOException {
-    writeIndex(partial);
-    if(!partial) return;
-
+  private void merge(final StringList files) throws IOException {
     // merges temporary index files
     try(DataOutput outX = new DataOutput(data.meta.dbfile(DATAFTX + 'x'));
         DataOutput outY = new DataOutput(data.meta.dbfile(DATAFTX + 'y'));
@@ -112,16 +91,18 @@ public final class FTBuilder extends IndexBuilder {
       final IntList ind = new IntList();
 
       // open all temporary sorted lists
-      final FTList[] v = new FTList[splits];
-      for(int b = 0; b < splits; ++b) v[b] = new FTList(data, b);
+      final int fs = files.size();
+      final FTList[] v = new FTList[fs];
+      for(int b = 0; b < fs; ++b) v[b] = new FTList(data, files.get(b));
 
       final IntList il = new IntList();
       while(check(v)) {
+        checkStop();
         il.reset();
         int m = 0;
         il.add(m);
         // find next token to write on disk
-        for(int i = 0; i < splits; ++i) {
+        for(int i = 0; i < fs; ++i) {
           if(m == i || v[i].tok.length == 0) continue;
           final int l = v[i].tok.length - v[m].tok.length;
           final int d = diff(v[m].tok, v[i].tok);
@@ -171,51 +152,6 @@ public final class FTBuilder extends IndexBuilder {
     outX.write4(lp);
   }
 
-  /**
-   * Writes the current index to disk.
-   * @param partial partial flag
-   * @throws IOException I/O exception
-   */
-  private void writeIndex(final boolean partial) throws IOException {
-    final String name = DATAFTX + (partial ? splits : "");
-    try(DataOutput outX = new DataOutput(data.meta.dbfile(name + 'x'));
-        DataOutput outY = new DataOutput(data.meta.dbfile(name + 'y'));
-        DataOutput outZ = new DataOutput(data.meta.dbfile(name + 'z'))) {
-
-      final IntList ind = new IntList();
-      tree.init();
-      long dr = 0;
-      int tr = 0, j = 0;
-      while(tree.more(splits)) {
-        final FTIndexTree t = tree.nextTree();
-        t.next();
-        final byte[] key = t.nextTok();
-
-        if(j < key.length) {
-          j = key.length;
-          // write index and pointer on first token
-          ind.add(j);
-          ind.add(tr);
-        }
-        for(int i = 0; i < j; ++i) outY.write1(key[i]);
-        // write pointer on full-text data
-        outY.write5(dr);
-        // write full-text data size (number of pre values)
-        outY.write4(t.nextNumPre());
-        // write compressed pre and pos arrays
-        writeFTData(outZ, t.nextPres(), t.nextPoss());
-
-        dr = outZ.size();
-        tr = (int) outY.size();
-      }
-      writeInd(outX, ind, ++j, tr);
-    }
-    tree.initFT();
-
-    // increase split counter
-    splits++;
-  }
-
   /**
    * Merges temporary indexes for the current token.
    * @param out full-text data
@@ -281,4 +217,119 @@ public final class FTBuilder extends IndexBuilder {
     }
     return false;
   }
+
+  /**
+   * Range of text nodes that is tokenized and indexed by a single thread.
+   */
+  private final class FTPartition extends Partition {
+    /** Value trees. */
+    private final FTIndexTrees tree = new FTIndexTrees(data.meta.maxlen);
+    /** Word parser. */
+    private final FTLexer lexer = new FTLexer(fto);
+    /** Number of index operations that have been written to disk. */
+    private long written;
+
+    /**
+     * Constructor.
+     * @param id partition number
+     */
+    FTPartition(final int id) {
+      super(id);
+    }
+
+    @Override
+    protected void build() throws IOException {
+      final StopWords sw = fto.sw;
+      final int maxlen = data.meta.maxlen;
+      long ntok = 0;
+      for(int pr = start; pr < end; ++pr) {
+        if((pr - start & 0x0FFF) == 0) check();
+        if(!indexEntry(pr)) continue;
+
+        // current lexer position
+        lexer.init(data.text(pr, true));
+        int pos = -1;
+        while(lexer.hasNext()) {
+          final byte[] tok = lexer.nextToken();
+          ++pos;
+          // skip too long and stopword tokens
+          if(tok.length <= maxlen && !sw.contains(tok)) {
+            // check if main memory is exhausted
+            if((ntok++ & 0xFFFF) == 0 && splitRequired()) {
+              writeIndex(file(splits));
+              clean();
+            }
+            tree.index(tok, pr, pos, splits);
+            count++;
+          }
+        }
+      }
+
+      // write remaining index structures (the final index of a single partition will be
+      // written after all partitions have been indexed)
+      if(count > written && (threads > 1 || splits > 0)) writeIndex(file(splits));
+    }
+
+    /**
+     * Adds the names of all partial index files to the specified list.
+     * @param files list of names
+     */
+    void files(final StringList files) {
+      for(int s = 0; s < splits; s++) files.add(file(s));
+    }
+
+    /**
+     * Returns the name of a partial index file.
+     * @param split number of the partial index structure
+     * @return name
+     */
+    String file(final int split) {
+      return DATAFTX + id + '-' + split;
+    }
+
+    /**
+     * Writes the current index to disk.
+     * @param name name of the index files
+     * @throws IOException I/O exception
+     */
+    void writeIndex(final String name) throws IOException {
+      try(DataOutput outX = new DataOutput(data.meta.dbfile(name + 'x'));
+          DataOutput outY = new DataOutput(data.meta.dbfile(name + 'y'));
+          DataOutput outZ = new DataOutput(data.meta.dbfile(name + 'z'))) {
+
+        final IntList ind = new IntList();
+        tree.init();
+        long dr = 0;
+        int tr = 0, j = 0;
+        while(tree.more(splits)) {
+          final FTIndexTree t = tree.nextTree();
+          t.next();
+          final byte[] key = t.nextTok();
+
+          if(j < key.length) {
+            j = key.length;
+            // write index and pointer on first token
+            ind.add(j);
+            ind.add(tr);
+          }
+          for(int i = 0; i < j; ++i) outY.write1(key[i]);
+          // write pointer on full-text data
+          outY.write5(dr);
+          // write full-text data size (number of pre values)
+          outY.write4(t.nextNumPre());
+          // write compressed pre and pos arrays
+          writeFTData(outZ, t.nextPres(), t.nextPoss());
+
+          dr = outZ.size();
+          tr = (int) outY.size();
+        }
+        writeInd(outX, ind, ++j, tr);
+      }
+      tree.initFT();
+
+      // increase split counter
+      written = count;
+      splits++;
+    }
+  }
 }
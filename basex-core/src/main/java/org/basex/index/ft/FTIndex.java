@@ -68,7 +68,7 @@ public final class FTIndex extends ValueIndex {
   private final DataAccess inZ;
 
   /** Cache for number of hits and data reference per token. */
-  private final IndexCache cache = new IndexCache();
+  private final IndexCache cache;
   /** Token positions. */
   private final int[] tp;
 
@@ -79,6 +79,7 @@ public final class FTIndex extends ValueIndex {
    */
   public FTIndex(final Data data) throws IOException {
     super(data, IndexType.FULLTEXT);
+    cache = new IndexCache(data);
     // cache token length index
     inY = new DataAccess(data.meta.dbfile(DATAFTX + 'y'));
     inZ = new DataAccess(data.meta.dbfile(DATAFTX + 'z'));
@@ -0,0 +1,51 @@
+package org.basex.index.query;
+
+import org.basex.index.*;
+import org.basex.query.value.type.*;
+
+/**
+ * This class stores a range of typed values of a single element or attribute name for
+ * accessing the typed range index.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class TypedRange implements IndexToken {
+  /** Index type ({@link IndexType#TEXT} or {@link IndexType#ATTRIBUTE}). */
+  private final IndexType type;
+  /** Key type ({@link AtomType#DBL}, {@link AtomType#DTM} or {@link AtomType#DAT}). */
+  public final AtomType kind;
+  /** Local name of the element or attribute. */
+  public final byte[] name;
+  /** Minimum value (number, or seconds of dates and timestamps). */
+  public final double min;
+  /** Maximum value (number, or seconds of dates and timestamps). */
+  public final double max;
+
+  /**
+   * Constructor.
+   * @param type index type
+   * @param kind key type
+   * @param name local name of the element or attribute
+   * @param min minimum value
+   * @param max maximum value
+   */
+  public TypedRange(final IndexType type, final AtomType kind, final byte[] name,
+      final double min, final double max) {
+    this.type = type;
+    this.kind = kind;
+    this.name = name;
+    this.min = min;
+    this.max = max;
+  }
+
+  @Override
+  public IndexType type() {
+    return type;
+  }
+
+  @Override
+  public byte[] get() {
+    return name;
+  }
+}
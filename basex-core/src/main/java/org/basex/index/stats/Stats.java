@@ -164,6 +164,49 @@ public final class Stats {
     leaf = l;
   }
 
+  /**
+   * Estimates the number of numeric values in the specified range. The exact number is
+   * returned for categories; otherwise, a uniform distribution of the values is assumed.
+   * @param mn minimum (inclusive)
+   * @param mx maximum (inclusive)
+   * @return estimated number of values
+   */
+  public int count(final double mn, final double mx) {
+    if(isCategory(type)) {
+      int c = 0;
+      for(final byte[] value : values) {
+        final double d = toDouble(value);
+        if(d >= mn && d <= mx) c += values.get(value);
+      }
+      return c;
+    }
+    final double l = Math.max(mn, min), h = Math.min(mx, max);
+    if(l > h) return 0;
+    // integers: count both boundaries
+    final int i = isInteger(type) ? 1 : 0;
+    final double range = max - min + i;
+    return range > 0 ? (int) Math.max(1, Math.ceil(count * (h - l + i) / range)) : count;
+  }
+
+  /**
+   * Estimates the number of strings in the specified range. The exact number is
+   * returned for string categories; otherwise, the number of occurrences is returned.
+   * @param mn minimum
+   * @param mni include minimum
+   * @param mx maximum
+   * @param mxi include maximum
+   * @return estimated number of values
+   */
+  public int count(final byte[] mn, final boolean mni, final byte[] mx, final boolean mxi) {
+    if(type != STRING_CATEGORY) return count;
+    int c = 0;
+    for(final byte[] value : values) {
+      final int l = diff(value, mn), h = diff(value, mx);
+      if((mni ? l >= 0 : l > 0) && (mxi ? h <= 0 : h < 0)) c += values.get(value);
+    }
+    return c;
+  }
+
   @Override
   public String toString() {
     final StringBuilder sb = new StringBuilder(count + "x");
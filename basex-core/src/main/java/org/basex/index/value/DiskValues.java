@@ -31,15 +31,15 @@ public class DiskValues extends ValueIndex {
   /** ID lists. */
   final DataAccess idxl;
   /** Cached index entries: mapping between keys and index entries. */
-  final IndexCache cache = new IndexCache();
-  /** Cached texts: mapping between key positions in the reference file, and the indexed texts. */
+  final IndexCache cache;
+  /**
+   * Cached texts: mapping between key positions in the reference file, and the indexed texts.
+   * Synchronized during read operations.
+   */
   final IntObjMap<byte[]> ctext = new IntObjMap<>();
   /** Number of current index entries. */
   final AtomicInteger size = new AtomicInteger();
 
-  /** Synchronization object. */
-  private final Object monitor = new Object();
-
   /**
    * Constructor, initializing the index structure.
    * @param data data reference
@@ -60,8 +60,11 @@ public class DiskValues extends ValueIndex {
    */
   DiskValues(final Data data, final IndexType type, final String pref) throws IOException {
     super(data, type);
-    idxl = new DataAccess(data.meta.dbfile(pref + 'l'));
-    idxr = new DataAccess(data.meta.dbfile(pref + 'r'));
+    cache = new IndexCache(data);
+    // updates will be written to the log of the database
+    final PageLog log = data instanceof DiskData ? ((DiskData) data).log() : null;
+    idxl = new DataAccess(data.meta.dbfile(pref + 'l'), false, log);
+    idxr = new DataAccess(data.meta.dbfile(pref + 'r'), false, log);
     size.set(idxl.read4());
   }
 
@@ -72,15 +75,13 @@ public class DiskValues extends ValueIndex {
     tb.add(LI_NAMES).add(data.meta.names(type)).add(NL);
 
     final IndexStats stats = new IndexStats(options.get(MainOptions.MAXSTAT));
-    synchronized(monitor) {
-      final long l = idxl.length() + idxr.length();
-      tb.add(LI_SIZE).add(Performance.format(l)).add(NL);
-      final int entries = size();
-      for(int index = 0; index < entries; index++) {
-        final long pos = idxr.read5(index * 5L);
-        final int count = idxl.readNum(pos);
-        if(stats.adding(count)) stats.add(key(idxl.readNum()), count);
-      }
+    final long l = idxl.length() + idxr.length();
+    tb.add(LI_SIZE).add(Performance.format(l)).add(NL);
+    final DataReader refs = idxr.reader(0), ids = idxl.reader(0);
+    final int entries = size();
+    for(int index = 0; index < entries; index++) {
+      final int count = ids.cursor(refs.read5()).readNum();
+      if(stats.adding(count)) stats.add(key(ids.readNum(), ids), count);
     }
     stats.print(tb);
     return tb.finish();
@@ -130,10 +131,8 @@ public class DiskValues extends ValueIndex {
 
   @Override
   public final void close() {
-    synchronized(monitor) {
-      idxl.close();
-      idxr.close();
-    }
+    idxl.close();
+    idxr.close();
   }
 
   @Override
@@ -189,15 +188,13 @@ public class DiskValues extends ValueIndex {
    */
   protected final int get(final byte[] key, final int first, final int last) {
     int l = first, h = last - 1;
-    synchronized(monitor) {
-      while(l <= h) {
-        final int m = l + h >>> 1;
-        final byte[] txt = indexEntry(m).key;
-        final int d = diff(txt, key);
-        if(d == 0) return m;
-        if(d < 0) l = m + 1;
-        else h = m - 1;
-      }
+    while(l <= h) {
+      final int m = l + h >>> 1;
+      final byte[] txt = indexEntry(m).key;
+      final int d = diff(txt, key);
+      if(d == 0) return m;
+      if(d < 0) l = m + 1;
+      else h = m - 1;
     }
     return -(l + 1);
   }
@@ -217,17 +214,10 @@ public class DiskValues extends ValueIndex {
     final long index = get(key);
     if(index < 0) return new IndexEntry(key, 0, 0);
 
-    final int count;
-    final long offset;
-
-    synchronized(monitor) {
-      // get position in heap file
-      final long pos = idxr.read5(index * 5L);
-      count = idxl.readNum(pos);
-      offset = idxl.cursor();
-    }
-
-    return cache.add(key, count, offset);
+    // get position in heap file
+    final DataReader ids = idxl.reader(idxr.reader(index * 5L).read5());
+    final int count = ids.readNum();
+    return cache.add(key, count, ids.cursor());
   }
 
   /**
@@ -268,12 +258,10 @@ public class DiskValues extends ValueIndex {
       @Override
       public byte[] next() {
         if(++ix < s) {
-          synchronized(monitor) {
-            final IndexEntry entry = indexEntry(ix);
-            if(startsWith(entry.key, prefix)) {
-              count = entry.size;
-              return entry.key;
-            }
+          final IndexEntry entry = indexEntry(ix);
+          if(startsWith(entry.key, prefix)) {
+            count = entry.size;
+            return entry.key;
           }
         }
         count = -1;
@@ -301,11 +289,9 @@ public class DiskValues extends ValueIndex {
       @Override
       public byte[] next() {
         if(++ix <= last) {
-          synchronized(monitor) {
-            final IndexEntry entry = indexEntry(ix);
-            count = entry.size;
-            return entry.key;
-          }
+          final IndexEntry entry = indexEntry(ix);
+          count = entry.size;
+          return entry.key;
         }
         count = -1;
         return null;
@@ -332,11 +318,9 @@ public class DiskValues extends ValueIndex {
       @Override
       public byte[] next() {
         if(--ix >= first) {
-          synchronized(monitor) {
-            final IndexEntry entry = indexEntry(ix);
-            count = entry.size;
-            return entry.key;
-          }
+          final IndexEntry entry = indexEntry(ix);
+          count = entry.size;
+          return entry.key;
         }
         count = -1;
         return null;
@@ -351,24 +335,30 @@ public class DiskValues extends ValueIndex {
 
   /**
    * Read a key at the given position.
-   * <p><em>Important:</em> This method is NOT thread-safe, since it is used in loops.</p>
+   * <p><em>Important:</em> This method is thread-safe.</p>
    * @param index key position
    * @return index entry
    */
   private IndexEntry indexEntry(final int index) {
     // try the cache first
-    byte[] key = ctext.get(index);
+    byte[] key;
+    synchronized(ctext) {
+      key = ctext.get(index);
+    }
     if(key != null) {
       final IndexEntry entry = cache.get(key);
       if(entry != null) return entry;
     }
 
     // read text and cache result
-    final long pos = idxr.read5(index * 5L);
-    final int count = idxl.readNum(pos);
+    final long pos = idxr.reader(index * 5L).read5();
+    final DataReader ids = idxl.reader(pos);
+    final int count = ids.readNum();
     if(key == null) {
-      key = key(idxl.readNum());
-      ctext.put(index, key);
+      key = key(ids.readNum(), ids);
+      synchronized(ctext) {
+        ctext.put(index, key);
+      }
     }
     return cache.add(key, count, pos + Num.length(count));
   }
@@ -382,14 +372,12 @@ public class DiskValues extends ValueIndex {
    */
   protected IntList pres(final int sz, final long offset) {
     final IntList pres = new IntList(sz);
-    synchronized(monitor) {
-      idxl.cursor(offset);
-      for(int i = 0, id = 0; i < sz; i++) {
-        id += idxl.readNum();
-        // token index: skip position
-        if(type == IndexType.TOKEN) idxl.readNum();
-        pres.add(pre(id));
-      }
+    final DataReader ids = idxl.reader(offset);
+    for(int i = 0, id = 0; i < sz; i++) {
+      id += ids.readNum();
+      // token index: skip position
+      if(type == IndexType.TOKEN) ids.readNum();
+      pres.add(pre(id));
     }
     return pres;
   }
@@ -403,20 +391,20 @@ public class DiskValues extends ValueIndex {
   private IntList idRange(final StringRange tok) {
     // check if min and max are positive integers with the same number of digits
     final IntList pres = new IntList();
-    synchronized(monitor) {
-      final int i = get(tok.min);
-      final int entries = size();
-      for(int index = i < 0 ? -i - 1 : tok.mni ? i : i + 1; index < entries; index++) {
-        final int count = idxl.readNum(idxr.read5(index * 5L));
-        int id = idxl.readNum();
-        // skip traversal if value is too large
-        final int diff = diff(key(id), tok.max);
-        if(diff > 0 || !tok.mxi && diff == 0) break;
-        // add pre values
-        for(int c = 0; c < count; c++) {
-          pres.add(pre(id));
-          id += idxl.readNum();
-        }
+    final int i = get(tok.min);
+    final int entries = size(), first = i < 0 ? -i - 1 : tok.mni ? i : i + 1;
+    final DataReader refs = idxr.reader(first * 5L), ids = idxl.reader(0);
+    for(int index = first; index < entries; index++) {
+      final int count = ids.cursor(refs.read5()).readNum();
+      int id = ids.readNum();
+      // skip traversal if value is too large
+      final int diff = diff(key(id, ids), tok.max);
+      if(diff > 0 || !tok.mxi && diff == 0) break;
+      // add pre values
+      pres.add(pre(id));
+      for(int c = 1; c < count; c++) {
+        id += ids.readNum();
+        pres.add(pre(id));
       }
     }
     return pres.sort();
@@ -435,27 +423,27 @@ public class DiskValues extends ValueIndex {
     final boolean simple = len != 0 && min > 0 && (long) min == min && token(min).length == len;
 
     final IntList pres = new IntList();
-    synchronized(monitor) {
-      final int entries = size();
-      final boolean text = type == IndexType.TEXT;
-      for(int index = 0; index < entries; ++index) {
-        final int count = idxl.readNum(idxr.read5(index * 5L));
-        int id = idxl.readNum();
-        final int pre = pre(id);
-
-        final double v = data.textDbl(pre, text);
-        if(v >= min && v <= max) {
-          // value is in range
-          for(int c = 0; c < count; c++) {
-            pres.add(pre(id));
-            id += idxl.readNum();
-          }
-        } else if(simple && v > max && data.textLen(pre, text) == len) {
-          // if limits are integers, if min, max and current value have the same
-          // string length, and if current value is larger than max, test can be
-          // skipped, as all remaining values will be bigger
-          break;
+    final int entries = size();
+    final boolean text = type == IndexType.TEXT;
+    final DataReader refs = idxr.reader(0), ids = idxl.reader(0);
+    for(int index = 0; index < entries; ++index) {
+      final int count = ids.cursor(refs.read5()).readNum();
+      int id = ids.readNum();
+      final int pre = pre(id);
+
+      final double v = data.textDbl(pre, text);
+      if(v >= min && v <= max) {
+        // value is in range
+        pres.add(pre(id));
+        for(int c = 1; c < count; c++) {
+          id += ids.readNum();
+          pres.add(pre(id));
         }
+      } else if(simple && v > max && data.textLen(pre, text) == len) {
+        // if limits are integers, if min, max and current value have the same
+        // string length, and if current value is larger than max, test can be
+        // skipped, as all remaining values will be bigger
+        break;
       }
     }
     return pres.sort();
@@ -464,11 +452,12 @@ public class DiskValues extends ValueIndex {
   /**
    * Returns the specified key, considering tokenization.
    * @param id id of key
+   * @param ids reader for the id list, positioned after the id (used for reading token positions)
    * @return key token
    */
-  private byte[] key(final int id) {
+  private byte[] key(final int id, final DataReader ids) {
     final byte[] text = data.text(pre(id), type == IndexType.TEXT);
-    return type == IndexType.TOKEN ? distinctTokens(text)[idxl.readNum()] : text;
+    return type == IndexType.TOKEN ? distinctTokens(text)[ids.readNum()] : text;
   }
 
   /**
@@ -481,19 +470,20 @@ public class DiskValues extends ValueIndex {
     final TokenBuilder tb = new TokenBuilder();
     tb.add(type).add(" INDEX, '").add(data.meta.name).add("':\n");
     final int entries = size();
+    final DataReader refs = idxr.reader(0), ids = idxl.reader(0);
     for(int index = 0; index < entries; index++) {
-      final long pos = idxr.read5(index * 5L);
-      final int count = idxl.readNum(pos);
-      int id = idxl.readNum();
+      final long pos = refs.read5();
+      final int count = ids.cursor(pos).readNum();
+      int id = ids.readNum();
       tb.add("  ").addInt(index).add(". offset: ").addLong(pos);
       if(all) {
-        tb.add(", key: \"").add(key(id)).add('"');
+        tb.add(", key: \"").add(key(id, ids)).add('"');
         tb.add(", ids").add("/pres").add(": ").addInt(id).add('/').addInt(pre(id));
       } else {
         tb.add(", ids").add(": ").addInt(id);
       }
       for(int c = 1; c < count; c++) {
-        id += idxl.readNum();
+        id += ids.readNum();
         tb.add(",").addInt(id);
         if(all) tb.add('/').addInt(pre(id));
       }
@@ -32,9 +32,6 @@ import org.basex.util.list.*;
  * @author Christian Gruen
  */
 public final class DiskValuesBuilder extends ValuesBuilder {
-  /** Temporary value tree. */
-  private IndexTree index;
-
   /**
    * Constructor.
    * @param data data reference
@@ -42,7 +39,6 @@ public final class DiskValuesBuilder extends ValuesBuilder {
    */
   public DiskValuesBuilder(final Data data, final IndexType type) {
     super(data, type);
-    index = new IndexTree(type);
   }
 
   @Override
@@ -50,33 +46,24 @@ public final class DiskValuesBuilder extends ValuesBuilder {
     Util.debug(detailedInfo());
 
     try {
-      final boolean updindex = data.meta.updindex;
-      for(pre = 0; pre < size; ++pre) {
-        if((pre & 0x0FFF) == 0) check();
-        if(indexEntry()) {
-          final int id = updindex ? data.id(pre) : pre;
-          if(tokenize) {
-            int pos = 0;
-            for(final byte[] token : distinctTokens(data.text(pre, text))) {
-              index.add(token, id, pos++);
-              count++;
-            }
-          } else if(data.textLen(pre, text) <= data.meta.maxlen) {
-            index.add(data.text(pre, text), id, 0);
-            count++;
-          }
-        }
-      }
+      // index all partitions
+      final ValuesPartition[] partitions = new ValuesPartition[threads];
+      for(int p = 0; p < threads; p++) partitions[p] = new ValuesPartition(p);
+      build(partitions);
 
-      writeIndex(splits > 0);
-      if(splits > 1) {
-        index = null;
+      final StringList files = new StringList();
+      for(final ValuesPartition partition : partitions) partition.files(files);
+      splits = files.size();
+      if(splits > 0) {
         clean();
-        merge();
+        merge(files);
+      } else {
+        // single partition without partial index structures, or no entries found
+        partitions[0].writeIndex(DiskValues.fileSuffix(type), false);
       }
 
       finishIndex();
-      return updindex ? new UpdatableDiskValues(data, type) : new DiskValues(data, type);
+      return data.meta.updindex ? new UpdatableDiskValues(data, type) : new DiskValues(data, type);
 
     } catch(final Throwable th) {
       // drop index files
@@ -85,22 +72,12 @@ public final class DiskValuesBuilder extends ValuesBuilder {
     }
   }
 
-  @Override
-  protected void check() throws IOException {
-    super.check();
-    // check if main memory is exhausted
-    if(splitRequired()) {
-      writeIndex(true);
-      index = new IndexTree(type);
-      clean();
-    }
-  }
-
   /**
    * Merges cached index files.
+   * @param files names of the partial index files
    * @throws IOException I/O exception
    */
-  private void merge() throws IOException {
+  private void merge(final StringList files) throws IOException {
     final String f = DiskValues.fileSuffix(type);
     int entries = 0;
     try(DataOutput outL = new DataOutput(data.meta.dbfile(f + 'l'));
@@ -110,8 +87,9 @@ public final class DiskValuesBuilder extends ValuesBuilder {
       // initialize cached index iterators
       final IntList ml = new IntList();
       final IntList id = new IntList(), pos = tokenize ? new IntList() : null;
-      final DiskValuesMerger[] vm = new DiskValuesMerger[splits];
-      for(int i = 0; i < splits; ++i) vm[i] = new DiskValuesMerger(data, type, i);
+      final int fs = files.size();
+      final DiskValuesMerger[] vm = new DiskValuesMerger[fs];
+      for(int i = 0; i < fs; ++i) vm[i] = new DiskValuesMerger(data, type, files.get(i));
 
       // parse through all values
       while(true) {
@@ -119,12 +97,12 @@ public final class DiskValuesBuilder extends ValuesBuilder {
 
         // find first index which has not completely been parsed yet
         int min = -1;
-        while(++min < splits && vm[min].values.length == 0);
-        if(min == splits) break;
+        while(++min < fs && vm[min].values.length == 0);
+        if(min == fs) break;
 
         // find index entry with smallest key
         ml.reset();
-        for(int i = min; i < splits; ++i) {
+        for(int i = min; i < fs; ++i) {
           if(vm[i].values.length == 0) continue;
           final int d = diff(vm[min].key, vm[i].key);
           if(d < 0) continue;
@@ -162,54 +140,6 @@ public final class DiskValuesBuilder extends ValuesBuilder {
     }
   }
 
-  /**
-   * Writes the current index tree to disk.
-   * @param partial partial flag
-   * @throws IOException I/O exception
-   */
-  private void writeIndex(final boolean partial) throws IOException {
-    // write id arrays and references
-    final String name = DiskValues.fileSuffix(type) + (partial ? splits : "");
-    try(DataOutput outL = new DataOutput(data.meta.dbfile(name + 'l'));
-        DataOutput outR = new DataOutput(data.meta.dbfile(name + 'r'))) {
-      outL.write4(index.size());
-
-      final IntList id = new IntList(), pos = tokenize ? new IntList() : null;
-      index.init();
-      while(index.more()) {
-        final byte[] values = index.ids.get(index.next());
-        final int vs = Num.size(values);
-
-        if(partial) {
-          // write temporary structure to disk: number of entries, absolute values
-          outR.write5(outL.size());
-          outL.write(values, 0, vs);
-        } else {
-          // cache and sort all values
-          for(int ip = 4; ip < vs; ip += Num.length(values, ip)) {
-            id.add(Num.get(values, ip));
-            if(pos != null) {
-              ip += Num.length(values, ip);
-              pos.add(Num.get(values, ip));
-            }
-          }
-          // write final structure to disk
-          write(outL, outR, id, pos);
-        }
-      }
-    }
-
-    // temporarily write texts
-    if(partial) {
-      try(DataOutput outT = new DataOutput(data.meta.dbfile(name + 't'))) {
-        index.init();
-        while(index.more()) outT.writeToken(index.keys.get(index.next()));
-      }
-    }
-    // increase split counter
-    splits++;
-  }
-
   /**
    * Writes the final value structure to disk.
    * @param outL index values
@@ -243,4 +173,120 @@ public final class DiskValuesBuilder extends ValuesBuilder {
     id.reset();
     if(pos != null) pos.reset();
   }
+
+  /**
+   * Range of database nodes that is indexed by a single thread.
+   */
+  private final class ValuesPartition extends Partition {
+    /** Temporary value tree. */
+    private IndexTree index = new IndexTree(type);
+    /** Number of index operations that have been written to disk. */
+    private long written;
+
+    /**
+     * Constructor.
+     * @param id partition number
+     */
+    ValuesPartition(final int id) {
+      super(id);
+    }
+
+    @Override
+    protected void build() throws IOException {
+      final boolean updindex = data.meta.updindex;
+      for(int pr = start; pr < end; ++pr) {
+        if((pr - start & 0x0FFF) == 0) {
+          check();
+          // check if main memory is exhausted
+          if(count > written && splitRequired()) {
+            writeIndex(file(splits), true);
+            clean();
+          }
+        }
+        if(indexEntry(pr)) {
+          final int id = updindex ? data.id(pr) : pr;
+          if(tokenize) {
+            int pos = 0;
+            for(final byte[] token : distinctTokens(data.text(pr, text))) {
+              index.add(token, id, pos++);
+              count++;
+            }
+          } else if(data.textLen(pr, text) <= data.meta.maxlen) {
+            index.add(data.text(pr, text), id, 0);
+            count++;
+          }
+        }
+      }
+
+      // write remaining index structures (the final index of a single partition will be
+      // written after all partitions have been indexed)
+      if(count > written && (threads > 1 || splits > 0)) writeIndex(file(splits), true);
+    }
+
+    /**
+     * Adds the names of all partial index files to the specified list.
+     * @param files list of names
+     */
+    void files(final StringList files) {
+      for(int s = 0; s < splits; s++) files.add(file(s));
+    }
+
+    /**
+     * Returns the name of a partial index file.
+     * @param split number of the partial index structure
+     * @return name
+     */
+    String file(final int split) {
+      return DiskValues.fileSuffix(type) + id + '-' + split;
+    }
+
+    /**
+     * Writes the current index tree to disk.
+     * @param name name of the index files
+     * @param partial partial flag
+     * @throws IOException I/O exception
+     */
+    void writeIndex(final String name, final boolean partial) throws IOException {
+      // write id arrays and references
+      try(DataOutput outL = new DataOutput(data.meta.dbfile(name + 'l'));
+          DataOutput outR = new DataOutput(data.meta.dbfile(name + 'r'))) {
+        outL.write4(index.size());
+
+        final IntList id = new IntList(), pos = tokenize ? new IntList() : null;
+        index.init();
+        while(index.more()) {
+          final byte[] values = index.ids.get(index.next());
+          final int vs = Num.size(values);
+
+          if(partial) {
+            // write temporary structure to disk: number of entries, absolute values
+            outR.write5(outL.size());
+            outL.write(values, 0, vs);
+          } else {
+            // cache and sort all values
+            for(int ip = 4; ip < vs; ip += Num.length(values, ip)) {
+              id.add(Num.get(values, ip));
+              if(pos != null) {
+                ip += Num.length(values, ip);
+                pos.add(Num.get(values, ip));
+              }
+            }
+            // write final structure to disk
+            write(outL, outR, id, pos);
+          }
+        }
+      }
+
+      // temporarily write texts
+      if(partial) {
+        try(DataOutput outT = new DataOutput(data.meta.dbfile(name + 't'))) {
+          index.init();
+          while(index.more()) outT.writeToken(index.keys.get(index.next()));
+        }
+        index = new IndexTree(type);
+        written = count;
+        splits++;
+      }
+    }
+  }
 }
@@ -33,11 +33,12 @@ final class DiskValuesMerger {
    * Constructor.
    * @param data data reference
    * @param type index type
-   * @param i merge id
+   * @param name name of the partial index files
    * @throws IOException I/O exception
    */
-  DiskValuesMerger(final Data data, final IndexType type, final int i) throws IOException {
-    pref = DiskValues.fileSuffix(type) + i;
+  DiskValuesMerger(final Data data, final IndexType type, final String name)
+      throws IOException {
+    pref = name;
     dk = new DataInput(data.meta.dbfile(pref + 't'));
     dv = new DiskValues(data, type, pref);
     this.data = data;
@@ -0,0 +1,259 @@
+package org.basex.index.value;
+
+import static org.basex.core.Text.*;
+import static org.basex.data.DataText.*;
+import static org.basex.util.Token.*;
+
+import java.io.*;
+
+import org.basex.core.*;
+import org.basex.data.*;
+import org.basex.index.*;
+import org.basex.index.name.*;
+import org.basex.index.query.*;
+import org.basex.io.out.DataOutput;
+import org.basex.io.random.*;
+import org.basex.query.*;
+import org.basex.query.value.item.*;
+import org.basex.query.util.*;
+import org.basex.query.value.type.*;
+import org.basex.util.*;
+import org.basex.util.list.*;
+
+/**
+ * This class provides access to the typed range index, which contains the numbers, timestamps
+ * and dates of the text and attribute values whose names are included in
+ * {@link MetaData#rangeinclude}. The index is only valid as long as the database is up-to-date.
+ *
+ * The index file consists of fixed-size entries, which are sorted by their bucket and key:
+ *
+ * <pre>
+ * - bucket: 4 bytes (name id * 6 + 3 [attribute] + 0 [number], 1 [timestamp] or 2 [date])
+ * - key:    8 bytes (order-preserving bits of the double value)
+ * - pre:    4 bytes
+ * </pre>
+ *
+ * Dates and timestamps are represented by their total number of seconds
+ * (see {@link ADate#key()}).
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class TypedValues implements Index {
+  /** Size of an index entry. */
+  private static final int ENTRY = 16;
+
+  /** Data reference. */
+  private final Data data;
+  /** Index entries. */
+  private final DataAccess entries;
+  /** Number of index entries. */
+  private final int size;
+
+  /**
+   * Constructor, opening the index structure.
+   * @param data data reference
+   * @throws IOException I/O Exception
+   */
+  public TypedValues(final Data data) throws IOException {
+    this.data = data;
+    entries = new DataAccess(data.meta.dbfile(DATARNG));
+    size = (int) (entries.length() / ENTRY);
+  }
+
+  /**
+   * Builds the index structure and writes it to disk.
+   * @param data data reference
+   * @throws IOException I/O Exception
+   */
+  public static void build(final Data data) throws IOException {
+    final IndexNames texts = new IndexNames(true, data), attrs = new IndexNames(false, data);
+    // cached name checks (0: unknown, 1: indexed, 2: ignored)
+    final byte[] elems = new byte[data.elemNames.size() + 1];
+    final byte[] atts = new byte[data.attrNames.size() + 1];
+
+    final IntList buckets = new IntList(), pres = new IntList();
+    final LongList keys = new LongList();
+    final int sz = data.meta.size;
+    for(int pre = 0; pre < sz; pre++) {
+      final int kind = data.kind(pre);
+      final boolean text = kind == Data.TEXT;
+      if(!text && kind != Data.ATTR) continue;
+
+      final int par = text ? data.parent(pre, kind) : pre;
+      final int id = data.nameId(par);
+      final byte[] cache = text ? elems : atts;
+      if(cache[id] == 0) {
+        final byte[][] qname = data.qname(par, text ? Data.ELEM : Data.ATTR);
+        qname[0] = local(qname[0]);
+        cache[id] = (byte) ((text ? texts : attrs).contains(qname) ? 1 : 2);
+      }
+      if(cache[id] != 1) continue;
+
+      final byte[] value = trim(data.text(pre, text));
+      final int k = kind(value);
+      if(k == -1) continue;
+      final double key = key(value, k);
+      if(Double.isNaN(key)) continue;
+
+      buckets.add(id * 6 + (text ? 0 : 3) + k);
+      keys.add(sortable(key));
+      pres.add(pre);
+    }
+
+    // sort entries by keys, and (stable counting sort) by buckets
+    final long[] sorted = keys.finish();
+    final int[] order = Array.createOrder(sorted, true);
+    final int es = order.length;
+    final int[] counts = new int[Math.max(elems.length, atts.length) * 6 + 1];
+    for(int e = 0; e < es; e++) counts[buckets.get(e) + 1]++;
+    final int cl = counts.length;
+    for(int c = 1; c < cl; c++) counts[c] += counts[c - 1];
+    final int[] positions = new int[es];
+    for(int e = 0; e < es; e++) positions[counts[buckets.get(order[e])]++] = e;
+
+    try(DataOutput out = new DataOutput(data.meta.dbfile(DATARNG))) {
+      for(final int e : positions) {
+        final long key = sorted[e];
+        out.write4(buckets.get(order[e]));
+        out.write4((int) (key >>> 32));
+        out.write4((int) key);
+        out.write4(pres.get(order[e]));
+      }
+    }
+  }
+
+  @Override
+  public byte[] info(final MainOptions options) {
+    final TokenBuilder tb = new TokenBuilder();
+    tb.add(LI_STRUCTURE).add(SORTED_LIST).add(NL);
+    tb.add(LI_NAMES).add(data.meta.rangeinclude).add(NL);
+    tb.add(LI_SIZE).add(Performance.format(entries.length())).add(NL);
+    tb.add(LI_ENTRIES).add(Integer.toString(size)).add(NL);
+    return tb.finish();
+  }
+
+  @Override
+  public EntryIterator entries(final IndexEntries input) {
+    throw Util.notExpected();
+  }
+
+  @Override
+  public IndexIterator iter(final IndexToken token) {
+    final IntList pres = new IntList();
+    final int[] range = range((TypedRange) token);
+    for(int e = range[0]; e < range[1]; e++) pres.add(entries.read4(e * (long) ENTRY + 12));
+    pres.sort();
+
+    return new IndexIterator() {
+      final int s = pres.size();
+      int p;
+      @Override
+      public boolean more() { return p < s; }
+      @Override
+      public int pre() { return pres.get(p++); }
+      @Override
+      public int size() { return s; }
+    };
+  }
+
+  @Override
+  public IndexCosts costs(final IndexToken token) {
+    final int[] range = range((TypedRange) token);
+    return IndexCosts.get(range[1] - range[0]);
+  }
+
+  @Override
+  public boolean drop() {
+    return data.meta.drop(DATARNG);
+  }
+
+  @Override
+  public void close() {
+    entries.close();
+  }
+
+  /**
+   * Returns the offset of the key type of a trimmed value.
+   * @param value value
+   * @return offset of the key type, or {@code -1} if the value will not be indexed
+   */
+  private static int kind(final byte[] value) {
+    if(!Double.isNaN(toDouble(value)) || eq(value, INF) || eq(value, NINF)) return 0;
+    // dates and timestamps: [-]YYYY-MM-DD...
+    return value.length >= 10 && (digit(value[0]) || value[0] == '-') ?
+      contains(value, 'T') ? 1 : 2 : -1;
+  }
+
+  /**
+   * Returns the offset of the specified key type.
+   * @param kind key type
+   * @return offset
+   */
+  private static int kind(final AtomType kind) {
+    return kind == AtomType.DBL ? 0 : kind == AtomType.DTM ? 1 : 2;
+  }
+
+  /**
+   * Returns the key of a trimmed value.
+   * @param value value
+   * @param kind offset of the key type
+   * @return key, or {@link Double#NaN} if the value cannot be converted
+   */
+  private static double key(final byte[] value, final int kind) {
+    try {
+      return kind == 0 ? Dbl.parse(value, null) :
+        (kind == 1 ? (ADate) new Dtm(value, null) : new Dat(value, null)).key();
+    } catch(final QueryException ex) {
+      Util.debug(ex);
+      return Double.NaN;
+    }
+  }
+
+  /**
+   * Converts a double to a long value with the same sort order.
+   * @param value value
+   * @return converted value
+   */
+  private static long sortable(final double value) {
+    // positive and negative zero are treated as identical
+    final long bits = Double.doubleToLongBits(value == 0 ? 0 : value);
+    return bits < 0 ? bits ^ Long.MAX_VALUE : bits;
+  }
+
+  /**
+   * Returns the start and end offset of the index entries in the specified range.
+   * @param range typed range
+   * @return offsets
+   */
+  private int[] range(final TypedRange range) {
+    final boolean text = range.type() == IndexType.TEXT;
+    final Names names = text ? data.elemNames : data.attrNames;
+    final int id = names.id(range.name);
+    if(id == 0 || !(range.min <= range.max)) return new int[2];
+
+    final int bucket = id * 6 + (text ? 0 : 3) + kind(range.kind);
+    return new int[] { find(bucket, sortable(range.min)), find(bucket, sortable(range.max) + 1) };
+  }
+
+  /**
+   * Returns the offset of the first index entry that is equal to or greater than the
+   * specified bucket and key.
+   * @param bucket bucket
+   * @param key key
+   * @return offset
+   */
+  private int find(final int bucket, final long key) {
+    int l = 0, h = size;
+    while(l < h) {
+      final int m = l + h >>> 1;
+      final long pos = m * (long) ENTRY;
+      final int b = entries.read4(pos);
+      final int c = b != bucket ? Integer.compare(b, bucket) : Long.compare(
+          (long) entries.read4(pos + 4) << 32 | entries.read4(pos + 8) & 0xFFFFFFFFL, key);
+      if(c < 0) l = m + 1;
+      else h = m;
+    }
+    return l;
+  }
+}
@@ -16,13 +16,26 @@ import java.io.*;
 public final class ServerOutput extends OutputStream {
   /** Output stream. */
   private final OutputStream os;
+  /** Propagate flush requests to the wrapped stream. */
+  private final boolean flush;
 
   /**
    * Constructor.
    * @param os output stream to be wrapped
    */
   public ServerOutput(final OutputStream os) {
+    this(os, true);
+  }
+
+  /**
+   * Constructor.
+   * @param os output stream to be wrapped
+   * @param flush propagate flush requests to the wrapped stream. If {@code false},
+   *   the caller decides when the wrapped stream will be flushed
+   */
+  public ServerOutput(final OutputStream os, final boolean flush) {
     this.os = os;
+    this.flush = flush;
   }
 
   @Override
@@ -33,7 +46,7 @@ public final class ServerOutput extends OutputStream {
 
   @Override
   public void flush() throws IOException {
-    os.flush();
+    if(flush) os.flush();
   }
 
   @Override
@@ -15,4 +15,6 @@ final class Buffer {
   long pos = -1;
   /** Dirty flag. */
   boolean dirty;
+  /** Reference flag (set if the buffer was accessed since the last sweep of the clock hand). */
+  boolean used;
 }
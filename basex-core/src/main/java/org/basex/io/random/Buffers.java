@@ -1,24 +1,54 @@
 package org.basex.io.random;
 
+import org.basex.util.*;
+
 /**
- * This class provides a simple, clock-based buffer management.
+ * This class provides a clock-based buffer management.
+ * Buffers that have been accessed since the last sweep of the clock hand get a second chance.
+ * Buffers are found via a hash index. {@link #find} may be called without synchronization,
+ * provided that the result is validated by the caller; all other methods must be synchronized.
  *
  * @author BaseX Team 2005-18, BSD License
  * @author Christian Gruen
  */
 final class Buffers {
-  /** Number of buffers (must be 1 << n). */
-  private static final int BUFFERS = 1 << 4;
+  /** Default number of buffers (must be 1 << n). */
+  static final int BUFFERS = 1 << 4;
+
   /** Buffers. */
-  private final Buffer[] buf = new Buffer[BUFFERS];
+  private final Buffer[] buf;
+  /** Hash buckets: index of first buffer + 1 (0: empty bucket). */
+  private final int[] buckets;
+  /** Bucket chains: index of next buffer + 1 (0: end of chain). */
+  private final int[] next;
+  /** Shift for computing hash values. */
+  private final int shift;
+  /** Cache statistics. */
+  final CacheStats stats = new CacheStats();
   /** Current buffer offset. */
   private int off;
+  /** Clock hand. */
+  private int hand;
 
   /**
    * Constructor.
    */
   Buffers() {
-    for(int b = 0; b < BUFFERS; ++b) buf[b] = new Buffer();
+    this(BUFFERS);
+  }
+
+  /**
+   * Constructor.
+   * @param count number of buffers (will be rounded up to the next power of two)
+   */
+  Buffers(final int count) {
+    int s = 2;
+    while(s < count) s <<= 1;
+    buf = new Buffer[s];
+    for(int b = 0; b < s; ++b) buf[b] = new Buffer();
+    buckets = new int[s];
+    next = new int[s];
+    shift = Integer.numberOfLeadingZeros(s) + 1;
   }
 
   /**
@@ -37,17 +67,150 @@ final class Buffers {
     return buf[off];
   }
 
+  /**
+   * Returns the buffer with the specified index.
+   * @param b index
+   * @return buffer
+   */
+  Buffer get(final int b) {
+    return buf[b];
+  }
+
   /**
    * Chooses a buffer and sets the offset.
+   * If a new buffer is chosen, its position must be assigned via {@link #pos(int, long)}.
    * @param p buffer pointer
    * @return true if cursor has changed
    */
   boolean cursor(final long p) {
-    final int o = off;
-    do {
-      if(buf[off].pos == p) return false;
-    } while((off = off + 1 & BUFFERS - 1) != o);
-    off = o + 1 & BUFFERS - 1;
+    if(buf[off].pos == p) {
+      stats.hit();
+      return false;
+    }
+    final int b = index(p);
+    if(b != -1) {
+      buf[b].used = true;
+      off = b;
+      stats.hit();
+      return false;
+    }
+
+    off = victim();
     return true;
   }
+
+  /**
+   * Chooses a buffer for the specified position without changing the current buffer.
+   * If the position of the returned buffer differs, the buffer must be filled and assigned
+   * via {@link #pos(int, long)}.
+   * @param p buffer pointer
+   * @return buffer index
+   */
+  int choose(final long p) {
+    final int b = index(p);
+    if(b != -1) {
+      buf[b].used = true;
+      stats.hit();
+      return b;
+    }
+    return victim();
+  }
+
+  /**
+   * Assigns a new position to the specified buffer.
+   * @param b buffer index
+   * @param p buffer pointer
+   */
+  void pos(final int b, final long p) {
+    final Buffer bf = buf[b];
+    if(bf.pos != -1) unlink(b, bf.pos);
+    bf.pos = p;
+    final int h = hash(p);
+    next[b] = buckets[h];
+    buckets[h] = b + 1;
+  }
+
+  /**
+   * Assigns a new position to the current buffer.
+   * @param p buffer pointer
+   */
+  void pos(final long p) {
+    pos(off, p);
+  }
+
+  /**
+   * Returns the buffer with the specified position.
+   * This method does not modify any state and may be called without synchronization;
+   * in that case, the result may be inconsistent and must be validated.
+   * @param p buffer pointer
+   * @return buffer or {@code null}
+   */
+  Buffer find(final long p) {
+    final int b = index(p);
+    if(b == -1) return null;
+    final Buffer bf = buf[b];
+    bf.used = true;
+    return bf;
+  }
+
+  /**
+   * Returns the index of the buffer with the specified position.
+   * @param p buffer pointer
+   * @return index or {@code -1}
+   */
+  private int index(final long p) {
+    // limit number of steps: chains may be inconsistent during unsynchronized accesses
+    int s = buf.length;
+    for(int i = buckets[hash(p)]; i != 0 && s-- > 0; i = next[i - 1]) {
+      if(buf[i - 1].pos == p) return i - 1;
+    }
+    return -1;
+  }
+
+  /**
+   * Advances the clock hand and returns the index of the next buffer to be replaced.
+   * Recently used buffers get a second chance; the current buffer is skipped.
+   * @return buffer index
+   */
+  private int victim() {
+    final int mask = buf.length - 1;
+    int o = hand;
+    Buffer bf;
+    while((bf = buf[o = o + 1 & mask]).used || o == off) bf.used = false;
+    if(bf.pos != -1) stats.evict();
+    stats.miss();
+    hand = o;
+    return o;
+  }
+
+  /**
+   * Removes a buffer from its hash chain.
+   * @param b buffer index
+   * @param p old buffer pointer
+   */
+  private void unlink(final int b, final long p) {
+    final int h = hash(p);
+    int i = buckets[h];
+    if(i == b + 1) {
+      buckets[h] = next[b];
+    } else {
+      while(i != 0) {
+        if(next[i - 1] == b + 1) {
+          next[i - 1] = next[b];
+          break;
+        }
+        i = next[i - 1];
+      }
+    }
+    next[b] = 0;
+  }
+
+  /**
+   * Computes the hash bucket for the specified position.
+   * @param p buffer pointer
+   * @return bucket
+   */
+  private int hash(final long p) {
+    return (int) (p ^ p >>> 32) * 0x9E3779B9 >>> shift;
+  }
 }
@@ -1,6 +1,7 @@
 package org.basex.io.random;
 
 import java.io.*;
+import java.util.concurrent.locks.*;
 
 import org.basex.io.*;
 import org.basex.util.*;
@@ -8,12 +9,24 @@ import org.basex.util.*;
 /**
  * This class allows positional read and write access to a database file.
  *
+ * Most read and write operations move a single cursor. Readers with separate cursors can be
+ * created via {@link #reader(long)}; they can be used concurrently, and they read buffered
+ * blocks without locking. {@link #readToken(long)} does not change the cursor either.
+ *
+ * If memory mapping is enabled, the file will be mapped after opening and flushing it, and
+ * readers will access the mapped file. The mapping is discarded as soon as data is written.
+ *
+ * If a write-ahead log is assigned, modified blocks will be written to the log
+ * (see {@link PageLog}).
+ *
  * @author BaseX Team 2005-18, BSD License
  * @author Christian Gruen
  */
 public final class DataAccess implements Closeable {
   /** Buffer manager. */
   private final Buffers bm = new Buffers();
+  /** Lock for replacing buffers; allows optimistic reads of buffered blocks. */
+  private final StampedLock lock = new StampedLock();
   /** Reference to the data input stream. */
   private final RandomAccessFile raf;
   /** File length. */
@@ -22,6 +35,14 @@ public final class DataAccess implements Closeable {
   private boolean changed;
   /** Offset. */
   private int off;
+  /** Memory mapping flag. */
+  private final boolean map;
+  /** Memory-mapped file (can be {@code null}). */
+  private volatile Mapping mapping;
+  /** Write-ahead log (can be {@code null}). */
+  private final PageLog log;
+  /** File name. */
+  private final String name;
 
   /**
    * Constructor, initializing the file reader.
@@ -29,12 +50,38 @@ public final class DataAccess implements Closeable {
    * @throws IOException I/O Exception
    */
   public DataAccess(final IOFile file) throws IOException {
+    this(file, false);
+  }
+
+  /**
+   * Constructor, initializing the file reader.
+   * @param file the file to be read
+   * @param map map file into memory
+   * @throws IOException I/O Exception
+   */
+  public DataAccess(final IOFile file, final boolean map) throws IOException {
+    this(file, map, null);
+  }
+
+  /**
+   * Constructor, initializing the file reader.
+   * @param file the file to be read
+   * @param map map file into memory
+   * @param log write-ahead log (can be {@code null})
+   * @throws IOException I/O Exception
+   */
+  public DataAccess(final IOFile file, final boolean map, final PageLog log) throws IOException {
+    this.map = map;
+    this.log = log;
+    name = file.name();
     RandomAccessFile f = null;
     try {
       f = new RandomAccessFile(file.file(), "rw");
       length = f.length();
       raf = f;
+      if(log != null) log.register(name, f);
       cursor(0);
+      if(map) mapping = new Mapping(f.getChannel());
     } catch(final IOException ex) {
       if(f != null) f.close();
       throw ex;
@@ -45,22 +92,31 @@ public final class DataAccess implements Closeable {
    * Flushes the buffered data.
    */
   public synchronized void flush() {
+    final long stamp = lock.writeLock();
     try {
       for(final Buffer b : bm.all()) {
         if(b.dirty) writeBlock(b);
       }
       if(changed) {
-        raf.setLength(length);
+        if(log != null) log.length(name, length);
+        else raf.setLength(length);
         changed = false;
       }
+      if(map && mapping == null && (log == null || !log.pending(name))) {
+        mapping = new Mapping(raf.getChannel());
+      }
     } catch(final IOException ex) {
       Util.stack(ex);
+    } finally {
+      lock.unlockWrite(stamp);
     }
   }
 
   @Override
   public synchronized void close() {
     flush();
+    mapping = null;
+    if(log != null) log.unregister(name);
     try {
       raf.close();
     } catch(final IOException ex) {
@@ -157,13 +213,22 @@ public final class DataAccess implements Closeable {
   }
 
   /**
-   * Reads a token from disk.
+   * Reads a token from disk. The cursor is not changed, and the method can be called concurrently.
    * @param p text position
    * @return text as byte array
    */
-  public synchronized byte[] readToken(final long p) {
-    cursor(p);
-    return readToken();
+  public byte[] readToken(final long p) {
+    final Mapping mp = mapping;
+    return mp != null ? mp.readToken(p) : reader(p).readToken();
+  }
+
+  /**
+   * Returns a reader with a separate cursor.
+   * @param pos initial position
+   * @return reader
+   */
+  public DataReader reader(final long pos) {
+    return new DataReader(this, pos);
   }
 
   /**
@@ -215,20 +280,73 @@ public final class DataAccess implements Closeable {
   public void cursor(final long pos) {
     off = (int) (pos & IO.BLOCKSIZE - 1);
     final long b = pos - off;
-    if(!bm.cursor(b)) return;
+    if(bm.current().pos == b) return;
 
-    final Buffer bf = bm.current();
+    final long stamp = lock.writeLock();
     try {
+      if(!bm.cursor(b)) return;
+      final Buffer bf = bm.current();
       if(bf.dirty) writeBlock(bf);
-      bf.pos = b;
-      raf.seek(bf.pos);
-      if(bf.pos < raf.length())
-        raf.readFully(bf.data, 0, (int) Math.min(length - bf.pos, IO.BLOCKSIZE));
+      bm.pos(b);
+      readBlock(bf);
     } catch(final IOException ex) {
       Util.stack(ex);
+    } finally {
+      lock.unlockWrite(stamp);
     }
   }
 
+  /**
+   * Copies bytes from the specified position into an array. Bytes will at most be copied
+   * until the end of the addressed block. The cursor is not changed, and the method can be
+   * called concurrently.
+   * @param pos position
+   * @param array target array
+   * @param offset offset in the target array
+   * @param len maximum number of bytes to copy
+   * @return number of copied bytes
+   */
+  int read(final long pos, final byte[] array, final int offset, final int len) {
+    final int l = (int) Math.min(len, length - pos);
+    if(l <= 0) return 0;
+    final Mapping mp = mapping;
+    if(mp != null && pos + l <= mp.length()) {
+      mp.read(pos, array, offset, l);
+      return l;
+    }
+
+    final int o = (int) (pos & IO.BLOCKSIZE - 1), n = Math.min(l, IO.BLOCKSIZE - o);
+    final long b = pos - o;
+    long stamp = lock.tryOptimisticRead();
+    if(stamp != 0) {
+      final Buffer bf = bm.find(b);
+      if(bf != null) {
+        System.arraycopy(bf.data, o, array, offset, n);
+        if(lock.validate(stamp)) {
+          bm.stats.hit();
+          return n;
+        }
+      }
+    }
+
+    stamp = lock.writeLock();
+    try {
+      final int i = bm.choose(b);
+      final Buffer bf = bm.get(i);
+      if(bf.pos != b) {
+        if(bf.dirty) writeBlock(bf);
+        bm.pos(i, b);
+        readBlock(bf);
+      }
+      System.arraycopy(bf.data, o, array, offset, n);
+    } catch(final IOException ex) {
+      Util.stack(ex);
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+    return n;
+  }
+
   /**
    * Reads the next compressed number and returns it as integer.
    * @return next integer
@@ -306,6 +424,7 @@ public final class DataAccess implements Closeable {
    * @param len token length
    */
   public void writeBytes(final byte[] buffer, final int offset, final int len) {
+    unmap();
     final int last = offset + len;
     int o = offset;
 
@@ -375,6 +494,7 @@ public final class DataAccess implements Closeable {
    * @param len file length
    */
   private synchronized void length(final long len) {
+    unmap();
     if(len != length) {
       changed = true;
       length = len;
@@ -397,6 +517,7 @@ public final class DataAccess implements Closeable {
    * @param value byte to be written
    */
   private void write(final int value) {
+    unmap();
     final Buffer bf = buffer();
     bf.dirty = true;
     bf.data[off++] = (byte) value;
@@ -415,6 +536,27 @@ public final class DataAccess implements Closeable {
     writeBytes(buffer, offset, len);
   }
 
+  /**
+   * Discards the memory mapping.
+   */
+  private void unmap() {
+    if(mapping != null) mapping = null;
+  }
+
+  /**
+   * Reads the specified block from disk.
+   * @param buffer buffer to read
+   * @throws IOException I/O exception
+   */
+  private void readBlock(final Buffer buffer) throws IOException {
+    final long pos = buffer.pos;
+    if(log != null && log.read(name, pos, buffer.data) != -1) return;
+    raf.seek(pos);
+    if(pos < raf.length()) {
+      raf.readFully(buffer.data, 0, (int) Math.min(length - pos, IO.BLOCKSIZE));
+    }
+  }
+
   /**
    * Writes the specified block to disk.
    * @param buffer buffer to write
@@ -422,8 +564,12 @@ public final class DataAccess implements Closeable {
    */
   private void writeBlock(final Buffer buffer) throws IOException {
     final long pos = buffer.pos, len = Math.min(IO.BLOCKSIZE, length - pos);
-    raf.seek(pos);
-    raf.write(buffer.data, 0, (int) len);
+    if(log != null) {
+      if(len > 0) log.write(name, pos, buffer.data, (int) len);
+    } else {
+      raf.seek(pos);
+      raf.write(buffer.data, 0, (int) len);
+    }
     buffer.dirty = false;
   }
 
@@ -0,0 +1,138 @@
+package org.basex.io.random;
+
+import org.basex.util.*;
+
+/**
+ * This class provides sequential read access to a database file, using a separate cursor.
+ * Readers are cheap to create. A single reader must not be shared by multiple threads,
+ * but different readers of the same file can be used concurrently.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class DataReader {
+  /** Size of the local buffer. */
+  private static final int SIZE = 64;
+
+  /** Data access. */
+  private final DataAccess da;
+  /** Local buffer. */
+  private final byte[] buffer = new byte[SIZE];
+  /** File position of the local buffer. */
+  private long pos;
+  /** Current offset in the local buffer. */
+  private int off;
+  /** Number of bytes in the local buffer. */
+  private int len;
+
+  /**
+   * Constructor.
+   * @param da data access
+   * @param pos initial position
+   */
+  DataReader(final DataAccess da, final long pos) {
+    this.da = da;
+    this.pos = pos;
+  }
+
+  /**
+   * Returns the current file position.
+   * @return position in the file
+   */
+  public long cursor() {
+    return pos + off;
+  }
+
+  /**
+   * Sets the file position.
+   * @param p position in the file
+   * @return self reference
+   */
+  public DataReader cursor(final long p) {
+    pos = p;
+    off = 0;
+    len = 0;
+    return this;
+  }
+
+  /**
+   * Reads the next byte.
+   * @return next byte
+   */
+  public int read1() {
+    if(off == len) {
+      pos += len;
+      off = 0;
+      len = da.read(pos, buffer, 0, SIZE);
+      if(len == 0) throw Util.notExpected("Position % exceeds file length.", pos);
+    }
+    return buffer[off++] & 0xFF;
+  }
+
+  /**
+   * Reads the next 4-byte value.
+   * @return integer value
+   */
+  public int read4() {
+    return (read1() << 24) + (read1() << 16) + (read1() << 8) + read1();
+  }
+
+  /**
+   * Reads the next 5-byte value.
+   * @return long value
+   */
+  public long read5() {
+    return ((long) read1() << 32) + ((long) read1() << 24) + (read1() << 16) +
+        (read1() << 8) + read1();
+  }
+
+  /**
+   * Reads the next compressed number and returns it as integer.
+   * @return next integer
+   */
+  public int readNum() {
+    final int value = read1();
+    switch(value & 0xC0) {
+    case 0:
+      return value;
+    case 0x40:
+      return (value - 0x40 << 8) + read1();
+    case 0x80:
+      return (value - 0x80 << 24) + (read1() << 16) + (read1() << 8) + read1();
+    default:
+      return read4();
+    }
+  }
+
+  /**
+   * Reads the next token.
+   * @return token
+   */
+  public byte[] readToken() {
+    return readBytes(readNum());
+  }
+
+  /**
+   * Reads the specified number of bytes.
+   * @param l number of bytes
+   * @return byte array
+   */
+  public byte[] readBytes(final int l) {
+    final byte[] bytes = new byte[l];
+    // copy locally buffered bytes, read remaining bytes directly into the array
+    int o = Math.min(l, len - off);
+    System.arraycopy(buffer, off, bytes, 0, o);
+    off += o;
+    if(o < l) {
+      long p = cursor();
+      while(o < l) {
+        final int n = da.read(p, bytes, o, l - o);
+        if(n == 0) throw Util.notExpected("Position % exceeds file length.", p);
+        o += n;
+        p += n;
+      }
+      cursor(p);
+    }
+    return bytes;
+  }
+}
@@ -0,0 +1,129 @@
+package org.basex.io.random;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.channels.FileChannel.MapMode;
+
+/**
+ * This class provides read-only access to a memory-mapped file.
+ * Files larger than 2 GB are mapped in several segments.
+ * All methods are stateless and can be called concurrently.
+ *
+ * Mappings are not released explicitly when they are discarded: as readers access them without
+ * locking, a mapping may still be in use, and accessing an unmapped buffer would crash the JVM.
+ * The mapped memory is released when the mapping is garbage collected. Until then, some operating
+ * systems (in particular Windows) reject resizing, renaming or deleting the mapped file, which
+ * means that updates, renames and drops of databases may fail if
+ * {@link org.basex.core.StaticOptions#MMAP} is enabled.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+final class Mapping {
+  /** Segment size (power of two). */
+  private static final int SEGMENT = 1 << 30;
+  /** Bit shift for computing segment indexes. */
+  private static final int SHIFT = Integer.numberOfTrailingZeros(SEGMENT);
+
+  /** Mapped segments. */
+  private final ByteBuffer[] segments;
+  /** Length of mapped file. */
+  private final long length;
+
+  /**
+   * Constructor, mapping the current contents of the specified file.
+   * @param channel file channel
+   * @throws IOException I/O exception
+   */
+  Mapping(final FileChannel channel) throws IOException {
+    length = channel.size();
+    final int sl = (int) (length + SEGMENT - 1 >>> SHIFT);
+    segments = new ByteBuffer[sl];
+    for(int s = 0; s < sl; s++) {
+      final long pos = (long) s << SHIFT;
+      segments[s] = channel.map(MapMode.READ_ONLY, pos, Math.min(SEGMENT, length - pos));
+    }
+  }
+
+  /**
+   * Returns the length of the mapped file.
+   * @return length
+   */
+  long length() {
+    return length;
+  }
+
+  /**
+   * Reads a token, preceded by its compressed length.
+   * @param pos position
+   * @return token
+   */
+  byte[] readToken(final long pos) {
+    final int v = read1(pos);
+    final int len, nl;
+    switch(v & 0xC0) {
+      case 0:
+        len = v;
+        nl = 1;
+        break;
+      case 0x40:
+        len = (v - 0x40 << 8) + read1(pos + 1);
+        nl = 2;
+        break;
+      case 0x80:
+        len = (v - 0x80 << 24) + (int) read(pos + 1, 3);
+        nl = 4;
+        break;
+      default:
+        len = (int) read(pos + 1, 4);
+        nl = 5;
+    }
+    final byte[] token = new byte[len];
+    read(pos + nl, token, 0, len);
+    return token;
+  }
+
+  /**
+   * Returns the byte at the specified position.
+   * @param pos position
+   * @return byte
+   */
+  int read1(final long pos) {
+    return segments[(int) (pos >>> SHIFT)].get((int) (pos & SEGMENT - 1)) & 0xFF;
+  }
+
+  /**
+   * Returns an unsigned value of the specified length.
+   * @param pos position
+   * @param len number of bytes
+   * @return value
+   */
+  long read(final long pos, final int len) {
+    long v = 0;
+    for(int l = 0; l < len; l++) v = v << 8 | read1(pos + l);
+    return v;
+  }
+
+  /**
+   * Copies bytes to the specified array.
+   * @param pos position
+   * @param array target array
+   * @param off offset in the target array
+   * @param len number of bytes to copy
+   */
+  void read(final long pos, final byte[] array, final int off, final int len) {
+    long p = pos;
+    int o = off, l = len;
+    while(l > 0) {
+      // copy bytes from current segment; duplicate buffer to keep position thread-local
+      final ByteBuffer bb = segments[(int) (p >>> SHIFT)].duplicate();
+      final int sp = (int) (p & SEGMENT - 1), n = Math.min(l, SEGMENT - sp);
+      bb.position(sp);
+      bb.get(array, o, n);
+      p += n;
+      o += n;
+      l -= n;
+    }
+  }
+}
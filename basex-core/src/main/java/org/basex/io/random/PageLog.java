@@ -0,0 +1,364 @@
+package org.basex.io.random;
+
+import static org.basex.data.DataText.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.Map.*;
+
+import org.basex.data.*;
+import org.basex.io.*;
+import org.basex.util.*;
+
+/**
+ * Write-ahead log of a database.
+ *
+ * Modified pages of the database files (table, texts, attribute values, updatable indexes) are
+ * appended to the log instead of being written in place, and the new contents of small files
+ * (meta data, page directory, id/pre mapping) are cached until the log is committed.
+ * Pages that have been written to the log, but not committed yet, will be read from the log.
+ *
+ * A commit writes all remaining entries to the log and forces it to disk with a single sync.
+ * After that, the pages are copied to the database files in ascending order, with adjacent pages
+ * being combined to larger writes, and the log is deleted. When a database is opened that is not
+ * accessed by another process, a committed log will be replayed, and an incomplete log will be
+ * discarded (see {@link #recover(MetaData)}).
+ *
+ * The log consists of the following records:
+ *
+ * <pre>
+ * - page:   PAGE,   file name (UTF), position (8 bytes), length (4 bytes), bytes
+ * - length: LENGTH, file name (UTF), file length (8 bytes)
+ * - file:   FILE,   file name (UTF), length (4 bytes), bytes
+ * - commit: COMMIT, number of preceding records (4 bytes)
+ * </pre>
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class PageLog {
+  /** Record type: page. */
+  private static final int PAGE = 1;
+  /** Record type: file length. */
+  private static final int LENGTH = 2;
+  /** Record type: file contents. */
+  private static final int FILE = 3;
+  /** Record type: commit. */
+  private static final int COMMIT = 4;
+  /** Maximum size of a combined write operation. */
+  private static final int CHUNK = IO.BLOCKSIZE << 6;
+
+  /** Log file. */
+  private final IOFile file;
+  /** Database directory. */
+  private final IOFile dir;
+  /** Open database files, indexed by their names. */
+  private final HashMap<String, RandomAccessFile> targets = new HashMap<>();
+  /** Logged pages: file names, page positions, offsets of the page contents in the log. */
+  private final HashMap<String, TreeMap<Long, Long>> pages = new HashMap<>();
+  /** Logged file lengths. */
+  private final HashMap<String, Long> lengths = new HashMap<>();
+  /** Cached file contents. */
+  private final LinkedHashMap<String, byte[]> files = new LinkedHashMap<>();
+  /** Log output (can be {@code null}). */
+  private RandomAccessFile raf;
+  /** Number of written records. */
+  private int records;
+
+  /**
+   * Constructor.
+   * @param meta meta data
+   */
+  public PageLog(final MetaData meta) {
+    file = meta.dbfile(DATALOG);
+    dir = meta.path;
+  }
+
+  /**
+   * Recovers the files of the specified database. If a committed log exists, it will be
+   * replayed; otherwise, the log will be discarded. In both cases, the database will be in the
+   * state of the last commit, and the file indicating ongoing updates will be deleted.
+   * Nothing will be done if the database is opened by another process: in this case, the log
+   * belongs to the other process, and the table will be locked.
+   * @param meta meta data
+   * @throws IOException I/O exception
+   */
+  public static void recover(final MetaData meta) throws IOException {
+    final IOFile table = meta.dbfile(DATATBL);
+    if(!meta.dbfile(DATALOG).exists() || !table.exists()) return;
+
+    // keep exclusive lock on the table until the database files have been recovered
+    try(RandomAccessFile target = new RandomAccessFile(table.file(), "rw")) {
+      if(TableDiskAccess.lock(target) == null) return;
+      final PageLog log = new PageLog(meta);
+      log.register(table.name(), target);
+      log.recover();
+    }
+  }
+
+  /**
+   * Registers a database file. Its pages will be read from and written to the log.
+   * @param name name of the file
+   * @param target file access
+   */
+  synchronized void register(final String name, final RandomAccessFile target) {
+    targets.put(name, target);
+  }
+
+  /**
+   * Unregisters a database file that has been closed.
+   * @param name name of the file
+   */
+  synchronized void unregister(final String name) {
+    targets.remove(name);
+  }
+
+  /**
+   * Creates the log file, indicating that the database is being updated.
+   * @throws IOException I/O exception
+   */
+  public synchronized void open() throws IOException {
+    if(raf != null) return;
+    raf = new RandomAccessFile(file.file(), "rw");
+    raf.setLength(0);
+  }
+
+  /**
+   * Writes a page to the log.
+   * @param name name of the file
+   * @param pos position of the page in the file
+   * @param data page contents
+   * @param len number of bytes to write
+   * @throws IOException I/O exception
+   */
+  synchronized void write(final String name, final long pos, final byte[] data, final int len)
+      throws IOException {
+    open();
+    final long off = raf.length();
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream(len + name.length() + 20);
+    try(DataOutputStream out = new DataOutputStream(bytes)) {
+      out.write(PAGE);
+      out.writeUTF(name);
+      out.writeLong(pos);
+      out.writeInt(len);
+      out.write(data, 0, len);
+    }
+    final byte[] record = bytes.toByteArray();
+    raf.seek(off);
+    raf.write(record);
+    pages.computeIfAbsent(name, k -> new TreeMap<>()).put(pos, off + record.length - len);
+    records++;
+  }
+
+  /**
+   * Reads a page from the log.
+   * @param name name of the file
+   * @param pos position of the page in the file
+   * @param data array for the page contents
+   * @return number of read bytes, or {@code -1} if the page has not been logged
+   * @throws IOException I/O exception
+   */
+  synchronized int read(final String name, final long pos, final byte[] data) throws IOException {
+    final TreeMap<Long, Long> map = pages.get(name);
+    final Long off = map != null ? map.get(pos) : null;
+    if(off == null) return -1;
+
+    raf.seek(off - 4);
+    final int len = raf.readInt();
+    raf.readFully(data, 0, len);
+    return len;
+  }
+
+  /**
+   * Logs the new length of a file.
+   * @param name name of the file
+   * @param len file length
+   * @throws IOException I/O exception
+   */
+  synchronized void length(final String name, final long len) throws IOException {
+    open();
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try(DataOutputStream out = new DataOutputStream(bytes)) {
+      out.write(LENGTH);
+      out.writeUTF(name);
+      out.writeLong(len);
+    }
+    raf.seek(raf.length());
+    raf.write(bytes.toByteArray());
+    lengths.put(name, len);
+    records++;
+  }
+
+  /**
+   * Caches the new contents of a file.
+   * @param name name of the file
+   * @param contents file contents
+   */
+  public synchronized void file(final String name, final byte[] contents) {
+    files.put(name, contents);
+  }
+
+  /**
+   * Checks if uncommitted pages or lengths exist for the specified file.
+   * @param name name of the file
+   * @return result of check
+   */
+  synchronized boolean pending(final String name) {
+    return pages.containsKey(name) || lengths.containsKey(name);
+  }
+
+  /**
+   * Commits the log: writes the cached file contents and a commit record, forces the log to
+   * disk, copies all entries to the database files and deletes the log.
+   * @throws IOException I/O exception
+   */
+  public synchronized void commit() throws IOException {
+    if(raf == null && files.isEmpty()) return;
+    open();
+
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try(DataOutputStream out = new DataOutputStream(bytes)) {
+      for(final Entry<String, byte[]> entry : files.entrySet()) {
+        final byte[] contents = entry.getValue();
+        out.write(FILE);
+        out.writeUTF(entry.getKey());
+        out.writeInt(contents.length);
+        out.write(contents);
+        records++;
+      }
+      out.write(COMMIT);
+      out.writeInt(records);
+    }
+    raf.seek(raf.length());
+    raf.write(bytes.toByteArray());
+    raf.getFD().sync();
+
+    apply();
+    close();
+  }
+
+  /**
+   * Closes and deletes the log.
+   * @throws IOException I/O exception
+   */
+  private void close() throws IOException {
+    if(raf != null) {
+      raf.close();
+      raf = null;
+    }
+    if(!file.delete()) throw new IOException("Log could not be deleted: " + file);
+    pages.clear();
+    lengths.clear();
+    files.clear();
+    records = 0;
+  }
+
+  /**
+   * Replays a committed log and deletes it.
+   * @throws IOException I/O exception
+   */
+  private void recover() throws IOException {
+    if(!file.exists()) return;
+
+    raf = new RandomAccessFile(file.file(), "rw");
+    boolean committed = false;
+    try {
+      final long length = raf.length();
+      while(raf.getFilePointer() < length) {
+        final int type = raf.read();
+        if(type == COMMIT) {
+          committed = raf.readInt() == records;
+          break;
+        }
+        final String name = raf.readUTF();
+        if(type == PAGE) {
+          final long pos = raf.readLong();
+          final int len = raf.readInt();
+          final long off = raf.getFilePointer();
+          pages.computeIfAbsent(name, k -> new TreeMap<>()).put(pos, off);
+          raf.seek(off + len);
+        } else if(type == LENGTH) {
+          lengths.put(name, raf.readLong());
+        } else if(type == FILE) {
+          final byte[] contents = new byte[raf.readInt()];
+          raf.readFully(contents);
+          files.put(name, contents);
+        } else {
+          break;
+        }
+        records++;
+      }
+    } catch(final EOFException ex) {
+      // incomplete log
+      Util.debug(ex);
+    }
+
+    if(committed) apply();
+    else Util.debug("%: incomplete log discarded.", dir.name());
+    close();
+    new IOFile(dir, DATAUPD + IO.BASEXSUFFIX).delete();
+  }
+
+  /**
+   * Copies the logged entries to the database files and forces them to disk.
+   * @throws IOException I/O exception
+   */
+  private void apply() throws IOException {
+    final HashSet<String> names = new HashSet<>(pages.keySet());
+    names.addAll(lengths.keySet());
+    for(final String name : names) {
+      final RandomAccessFile target = targets.get(name);
+      final RandomAccessFile ra = target != null ? target :
+        new RandomAccessFile(new IOFile(dir, name).file(), "rw");
+      try {
+        final TreeMap<Long, Long> map = pages.get(name);
+        if(map != null) write(ra, map);
+        final Long len = lengths.get(name);
+        if(len != null) ra.setLength(len);
+        ra.getFD().sync();
+      } finally {
+        if(target == null) ra.close();
+      }
+    }
+
+    for(final Entry<String, byte[]> entry : files.entrySet()) {
+      try(FileOutputStream fos = new FileOutputStream(new IOFile(dir, entry.getKey()).file())) {
+        fos.write(entry.getValue());
+        fos.getFD().sync();
+      }
+    }
+  }
+
+  /**
+   * Copies logged pages to a database file. Adjacent pages are written in a single operation.
+   * @param target database file
+   * @param map page positions and offsets in the log
+   * @throws IOException I/O exception
+   */
+  private void write(final RandomAccessFile target, final TreeMap<Long, Long> map)
+      throws IOException {
+
+    final byte[] chunk = new byte[CHUNK];
+    long start = -1;
+    int size = 0;
+    for(final Entry<Long, Long> entry : map.entrySet()) {
+      final long pos = entry.getKey();
+      raf.seek(entry.getValue() - 4);
+      final int len = raf.readInt();
+      if(start + size != pos || size + len > CHUNK) {
+        if(size > 0) {
+          target.seek(start);
+          target.write(chunk, 0, size);
+        }
+        start = pos;
+        size = 0;
+      }
+      raf.readFully(chunk, size, len);
+      size += len;
+    }
+    if(size > 0) {
+      target.seek(start);
+      target.write(chunk, 0, size);
+    }
+  }
+}
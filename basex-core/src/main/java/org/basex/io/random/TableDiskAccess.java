@@ -5,32 +5,57 @@ import static org.basex.data.DataText.*;
 import java.io.*;
 import java.nio.channels.*;
 import java.util.*;
+import java.util.concurrent.locks.*;
 
 import org.basex.core.*;
 import org.basex.data.*;
 import org.basex.io.*;
 import org.basex.io.in.DataInput;
+import org.basex.io.out.*;
 import org.basex.io.out.DataOutput;
 import org.basex.util.*;
 
 /**
  * This class stores the table on disk and reads it page-wise.
  *
- * NOTE: this class is not thread-safe.
+ * Pages are buffered in a cache, the size of which is specified by
+ * {@link StaticOptions#TABLECACHE}. Read operations on buffered pages are optimistic and
+ * lock-free. Pages are loaded, and the table is flushed and closed, with an exclusive lock.
+ * Updates (writes, insertions, deletions) are performed without locking: they must not be
+ * performed concurrently to read operations or other updates (this is ensured by the database
+ * locks).
+ *
+ * If {@link StaticOptions#MMAP} is enabled, the table file is mapped into memory, and pages are
+ * read without buffering and locking. As soon as the table is updated, the mapping is discarded.
+ * It will be recreated when the table is flushed.
+ *
+ * If a write-ahead log is assigned, modified pages and the page index will be written to the log
+ * (see {@link PageLog}).
  *
  * @author BaseX Team 2005-18, BSD License
  * @author Christian Gruen
  * @author Tim Petrowsky
  */
 public final class TableDiskAccess extends TableAccess {
+  /** Name of the table file. */
+  private static final String TABLE = DATATBL + IO.BASEXSUFFIX;
+
+  /** Lock for loading pages, flushing and closing the table. */
+  private final StampedLock lock = new StampedLock();
   /** Buffer manager. */
-  private final Buffers bm = new Buffers();
+  private final Buffers bm;
   /** File storing all pages. */
   private final RandomAccessFile file;
   /** Bitmap storing free (=0) and used (=1) pages. */
   private BitArray usedPages;
   /** File lock. */
   private FileLock fl;
+  /** Memory mapping flag. */
+  private final boolean map;
+  /** Memory-mapped table file (can be {@code null}). */
+  private volatile Mapping mapping;
+  /** Write-ahead log (can be {@code null}). */
+  private final PageLog log;
 
   /** First pre values (ascending order); will be initialized with the first update. */
   private int[] fpres;
@@ -55,7 +80,20 @@ public final class TableDiskAccess extends TableAccess {
    * @throws IOException I/O exception
    */
   public TableDiskAccess(final MetaData md, final boolean write) throws IOException {
+    this(md, write, null);
+  }
+
+  /**
+   * Constructor.
+   * @param md meta data
+   * @param write write lock
+   * @param log write-ahead log (can be {@code null})
+   * @throws IOException I/O exception
+   */
+  public TableDiskAccess(final MetaData md, final boolean write, final PageLog log)
+      throws IOException {
     super(md);
+    this.log = log;
 
     // read meta and index data
     try(DataInput in = new DataInput(meta.dbfile(DATATBL + 'i'))) {
@@ -81,9 +119,13 @@ public final class TableDiskAccess extends TableAccess {
       }
     }
 
-    // initialize data file
+    // initialize buffers and data file
+    bm = new Buffers(md.soptions.get(StaticOptions.TABLECACHE));
     file = new RandomAccessFile(meta.dbfile(DATATBL).file(), "rw");
     if(!lock(write)) throw new BaseXException(Text.DB_PINNED_X, md.name);
+    if(log != null) log.register(TABLE, file);
+    map = md.soptions.get(StaticOptions.MMAP);
+    if(map) mapping = new Mapping(file.getChannel());
   }
 
   /**
@@ -96,22 +138,65 @@ public final class TableDiskAccess extends TableAccess {
     final IOFile table = MetaData.file(ctx.soptions.dbPath(db), DATATBL);
     if(!table.exists()) return false;
 
-    try(FileChannel fc = new RandomAccessFile(table.file(), "rw").getChannel()) {
-      return fc.tryLock() == null;
+    try(RandomAccessFile file = new RandomAccessFile(table.file(), "rw")) {
+      return lock(file) == null;
     } catch(final IOException ex) {
       Util.debug(ex);
       return true;
     }
   }
 
+  /**
+   * Tries to acquire an exclusive lock on the specified table file.
+   * The lock will be released when the file is closed.
+   * @param file table file
+   * @return lock, or {@code null} if the table is locked by another process or context
+   * @throws IOException I/O exception
+   */
+  static FileLock lock(final RandomAccessFile file) throws IOException {
+    try {
+      return file.getChannel().tryLock();
+    } catch(final OverlappingFileLockException ex) {
+      Util.debug(ex);
+      return null;
+    }
+  }
+
+  /**
+   * Returns the statistics of the page cache.
+   * @return cache statistics
+   */
+  public CacheStats stats() {
+    return bm.stats;
+  }
+
   @Override
-  public synchronized void flush(final boolean all) throws IOException {
+  public void flush(final boolean all) throws IOException {
+    final long stamp = lock.writeLock();
+    try {
+      flushPages(all);
+      if(map && mapping == null && (log == null || !log.pending(TABLE))) {
+        mapping = new Mapping(file.getChannel());
+      }
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Flushes the buffered pages and, optionally, the page index.
+   * @param all flush all contents or only buffers
+   * @throws IOException I/O exception
+   */
+  private void flushPages(final boolean all) throws IOException {
     for(final Buffer b : bm.all()) {
       if(b.dirty) write(b);
     }
     if(!dirty || !all) return;
 
-    try(DataOutput out = new DataOutput(meta.dbfile(DATATBL + 'i'))) {
+    final IOFile index = meta.dbfile(DATATBL + 'i');
+    final ArrayOutput ao = new ArrayOutput();
+    try(DataOutput out = log != null ? new DataOutput(ao) : new DataOutput(index)) {
       final int sz = size;
       out.writeNum(sz);
       out.writeNum(used);
@@ -123,13 +208,21 @@ public final class TableDiskAccess extends TableAccess {
 
       out.writeLongs(usedPages.toArray());
     }
+    if(log != null) log.file(index.name(), ao.finish());
     dirty = false;
   }
 
   @Override
-  public synchronized void close() throws IOException {
-    flush(true);
-    file.close();
+  public void close() throws IOException {
+    final long stamp = lock.writeLock();
+    try {
+      flushPages(true);
+      mapping = null;
+      if(log != null) log.unregister(TABLE);
+      file.close();
+    } finally {
+      lock.unlockWrite(stamp);
+    }
   }
 
   @Override
@@ -141,43 +234,37 @@ public final class TableDiskAccess extends TableAccess {
       }
       fl = file.getChannel().tryLock(0, Long.MAX_VALUE, !write);
       return fl != null;
+    } catch(final OverlappingFileLockException ex) {
+      Util.debug(ex);
+      return false;
     } catch(final IOException ex) {
       throw Util.notExpected(ex);
     }
   }
 
   @Override
-  public synchronized int read1(final int pre, final int off) {
-    final int o = off + cursor(pre);
-    final byte[] b = bm.current().data;
-    return b[o] & 0xFF;
+  public int read1(final int pre, final int off) {
+    return (int) read(pre, off, 1);
   }
 
   @Override
-  public synchronized int read2(final int pre, final int off) {
-    final int o = off + cursor(pre);
-    final byte[] b = bm.current().data;
-    return ((b[o] & 0xFF) << 8) + (b[o + 1] & 0xFF);
+  public int read2(final int pre, final int off) {
+    return (int) read(pre, off, 2);
   }
 
   @Override
-  public synchronized int read4(final int pre, final int off) {
-    final int o = off + cursor(pre);
-    final byte[] b = bm.current().data;
-    return ((b[o] & 0xFF) << 24) + ((b[o + 1] & 0xFF) << 16) +
-      ((b[o + 2] & 0xFF) << 8) + (b[o + 3] & 0xFF);
+  public int read4(final int pre, final int off) {
+    return (int) read(pre, off, 4);
   }
 
   @Override
-  public synchronized long read5(final int pre, final int off) {
-    final int o = off + cursor(pre);
-    final byte[] b = bm.current().data;
-    return ((long) (b[o] & 0xFF) << 32) + ((long) (b[o + 1] & 0xFF) << 24) +
-      ((b[o + 2] & 0xFF) << 16) + ((b[o + 3] & 0xFF) << 8) + (b[o + 4] & 0xFF);
+  public long read5(final int pre, final int off) {
+    return read(pre, off, 5);
   }
 
   @Override
   public void write1(final int pre, final int off, final int v) {
+    mapping = null;
     final int o = off + cursor(pre);
     final Buffer bf = bm.current();
     final byte[] b = bf.data;
@@ -187,6 +274,7 @@ public final class TableDiskAccess extends TableAccess {
 
   @Override
   public void write2(final int pre, final int off, final int v) {
+    mapping = null;
     final int o = off + cursor(pre);
     final Buffer bf = bm.current();
     final byte[] b = bf.data;
@@ -197,6 +285,7 @@ public final class TableDiskAccess extends TableAccess {
 
   @Override
   public void write4(final int pre, final int off, final int v) {
+    mapping = null;
     final int o = off + cursor(pre);
     final Buffer bf = bm.current();
     final byte[] b = bf.data;
@@ -209,6 +298,7 @@ public final class TableDiskAccess extends TableAccess {
 
   @Override
   public void write5(final int pre, final int off, final long v) {
+    mapping = null;
     final int o = off + cursor(pre);
     final Buffer bf = bm.current();
     final byte[] b = bf.data;
@@ -429,18 +519,107 @@ public final class TableDiskAccess extends TableAccess {
       }
       usedPages = new BitArray(used, true);
     }
+    mapping = null;
     dirty = true;
   }
 
   // PRIVATE METHODS ==============================================================================
 
+  /**
+   * Reads a value. If the table is memory-mapped, or if the addressed page is buffered,
+   * the value is read without locking. Otherwise, the page is loaded with an exclusive lock.
+   * @param pre pre value
+   * @param off offset
+   * @param len number of bytes to read
+   * @return value
+   */
+  private long read(final int pre, final int off, final int len) {
+    final Mapping mp = mapping;
+    if(mp != null) {
+      final int m = pageIndex(pre);
+      if(m != -1) {
+        final long pos = (long) page(m) * IO.BLOCKSIZE + (pre - fpre(m) << IO.NODEPOWER) + off;
+        if(pos + len <= mp.length()) return mp.read(pos, len);
+      }
+    }
+
+    long stamp = lock.tryOptimisticRead();
+    if(stamp != 0) {
+      final long v = cached(pre, off, len);
+      if(v != -1 && lock.validate(stamp)) {
+        bm.stats.hit();
+        return v;
+      }
+    }
+    stamp = lock.writeLock();
+    try {
+      final int o = off + cursor(pre);
+      return value(bm.current().data, o, len);
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Reads a value from a buffered page without changing the cursor.
+   * As this method is called without lock, the returned value must be validated.
+   * @param pre pre value
+   * @param off offset
+   * @param len number of bytes to read
+   * @return value, or {@code -1} if the page is not buffered
+   */
+  private long cached(final int pre, final int off, final int len) {
+    // check current page first; search page index otherwise
+    int m = page;
+    if(pre < firstPre || pre >= nextPre) {
+      m = pageIndex(pre);
+      if(m == -1) return -1;
+    }
+    final Buffer bf = bm.find(page(m));
+    if(bf == null) return -1;
+    final int o = (pre - fpre(m) << IO.NODEPOWER) + off;
+    return o < 0 || o + len > IO.BLOCKSIZE ? -1 : value(bf.data, o, len);
+  }
+
+  /**
+   * Returns the index of the page containing the entry for the specified pre value.
+   * Does not change the cursor.
+   * @param pre pre value
+   * @return page index, or {@code -1} if the pre value is out of bounds
+   */
+  private int pageIndex(final int pre) {
+    if(pre >= meta.size) return -1;
+    final int last = used - 1;
+    int l = 0, h = last;
+    while(l <= h) {
+      final int m = h + l >>> 1;
+      if(pre < fpre(m)) h = m - 1;
+      else if(m < last && pre >= fpre(m + 1)) l = m + 1;
+      else return m;
+    }
+    return -1;
+  }
+
+  /**
+   * Returns an unsigned value from the specified array.
+   * @param data page data
+   * @param off offset
+   * @param len number of bytes to read
+   * @return value
+   */
+  private static long value(final byte[] data, final int off, final int len) {
+    long v = 0;
+    for(int l = 0; l < len; l++) v = v << 8 | data[off + l] & 0xFF;
+    return v;
+  }
+
   /**
    * Searches for the page containing the entry for the specified pre value.
    * Reads the page and returns its offset inside the page.
    * @param pre pre of the entry to search for
    * @return offset of the entry in the page
    */
-  private synchronized int cursor(final int pre) {
+  private int cursor(final int pre) {
     int fp = firstPre, np = nextPre;
     if(pre < fp || pre >= np) {
       final int last = used - 1;
@@ -469,7 +648,7 @@ public final class TableDiskAccess extends TableAccess {
    * Updates the page pointers.
    * @param p page index
    */
-  private synchronized void setPage(final int p) {
+  private void setPage(final int p) {
     page = p;
     firstPre = fpre(p);
     nextPre = p + 1 >= used ? meta.size : fpre(p + 1);
@@ -479,7 +658,7 @@ public final class TableDiskAccess extends TableAccess {
    * Updates the index pointers and fetches the requested page.
    * @param p page index
    */
-  private synchronized void readPage(final int p) {
+  private void readPage(final int p) {
     setPage(p);
     read(page(p));
   }
@@ -489,7 +668,7 @@ public final class TableDiskAccess extends TableAccess {
    * @param p index of the page to fetch
    * @return pre value
    */
-  private synchronized int page(final int p) {
+  private int page(final int p) {
     return pages == null ? p : pages[p];
   }
 
@@ -498,7 +677,7 @@ public final class TableDiskAccess extends TableAccess {
    * @param p index of the page to fetch
    * @return pre value
    */
-  private synchronized int fpre(final int p) {
+  private int fpre(final int p) {
     return fpres == null ? p * IO.ENTRIES : fpres[p];
   }
 
@@ -506,16 +685,16 @@ public final class TableDiskAccess extends TableAccess {
    * Reads a page from disk.
    * @param p page to fetch
    */
-  private synchronized void read(final int p) {
+  private void read(final int p) {
     if(!bm.cursor(p)) return;
 
     final Buffer bf = bm.current();
     try {
       if(bf.dirty) write(bf);
-      bf.pos = p;
+      bm.pos(p);
       if(p >= size) {
         size = p + 1;
-      } else {
+      } else if(log == null || log.read(TABLE, bf.pos * IO.BLOCKSIZE, bf.data) == -1) {
         file.seek(bf.pos * IO.BLOCKSIZE);
         file.readFully(bf.data);
       }
@@ -541,8 +720,13 @@ public final class TableDiskAccess extends TableAccess {
    * @throws IOException I/O exception
    */
   private void write(final Buffer bf) throws IOException {
-    file.seek(bf.pos * IO.BLOCKSIZE);
-    file.write(bf.data);
+    final long pos = bf.pos * IO.BLOCKSIZE;
+    if(log != null) {
+      log.write(TABLE, pos, bf.data, IO.BLOCKSIZE);
+    } else {
+      file.seek(pos);
+      file.write(bf.data);
+    }
     bf.dirty = false;
   }
 
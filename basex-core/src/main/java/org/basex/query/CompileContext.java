@@ -36,6 +36,8 @@ public final class CompileContext {
   private final ArrayDeque<VarScope> scopes = new ArrayDeque<>();
   /** Query focus list. */
   private final ArrayDeque<QueryFocus> focuses = new ArrayDeque<>();
+  /** Copies of static variables (only assigned if a query plan is copied). */
+  private IdentityHashMap<StaticVar, StaticVar> statics;
 
   /**
    * Constructor.
@@ -154,6 +156,27 @@ public final class CompileContext {
     return vr;
   }
 
+  /**
+   * Registers the copy of a static variable. References to the original variable will be
+   * replaced with the copy when expressions are copied.
+   * @param var original variable
+   * @param copy copied variable
+   */
+  public void copy(final StaticVar var, final StaticVar copy) {
+    if(statics == null) statics = new IdentityHashMap<>();
+    statics.put(var, copy);
+  }
+
+  /**
+   * Returns the registered copy of a static variable.
+   * @param var static variable
+   * @return copy, or the variable itself if no copy has been registered
+   */
+  public StaticVar copy(final StaticVar var) {
+    final StaticVar copy = statics != null ? statics.get(var) : null;
+    return copy != null ? copy : var;
+  }
+
   /**
    * Pre-evaluates the specified expression.
    * @param expr expression
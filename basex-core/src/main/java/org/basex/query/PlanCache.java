@@ -0,0 +1,146 @@
+package org.basex.query;
+
+import java.util.*;
+
+import org.basex.query.scope.*;
+import org.basex.query.var.*;
+import org.basex.util.*;
+import org.basex.util.hash.*;
+
+/**
+ * This class caches the parsed plans of main modules.
+ *
+ * Cached plans are independent of databases and query-specific options: databases are
+ * opened and index rewritings are applied when a query is compiled. Plans are never compiled;
+ * instead, each query compiles its own copy. External variables are bound to the copied
+ * declarations, so a plan can be reused for different bindings.
+ *
+ * Plans are only cached if they are self-contained (see {@link QueryParser#reusable()}),
+ * and a plan is only reused if the static context has been created with the same options.
+ * If the cache is full, the least recently used plan is dropped.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class PlanCache {
+  /** Cached plans, ordered by their last access. */
+  private final LinkedHashMap<String, Plan> plans = new LinkedHashMap<>(16, 0.75f, true);
+  /** Cache statistics. */
+  private final CacheStats stats = new CacheStats();
+  /** Maximum number of plans. */
+  private final int capacity;
+
+  /**
+   * Constructor.
+   * @param capacity maximum number of cached plans (no plans will be cached if {@code 0})
+   */
+  public PlanCache(final int capacity) {
+    this.capacity = capacity;
+  }
+
+  /**
+   * Indicates if plans will be cached.
+   * @return result of check
+   */
+  public boolean enabled() {
+    return capacity > 0;
+  }
+
+  /**
+   * Assigns a copy of a cached plan to the specified query context.
+   * If no plan is found, the query is parsed, and the resulting plan is cached.
+   * @param query query string
+   * @param sc static context
+   * @param qc query context
+   * @return static context of the assigned plan
+   * @throws QueryException query exception
+   */
+  StaticContext parse(final String query, final StaticContext sc, final QueryContext qc)
+      throws QueryException {
+
+    final String key = Token.string(sc.baseURI().string()) + '\n' + query;
+    final Plan plan;
+    synchronized(plans) {
+      plan = plans.get(key);
+    }
+    qc.info.query = query;
+    if(plan != null && plan.sc.mixUpdates == sc.mixUpdates) {
+      stats.hit();
+      plan.assign(qc);
+      return plan.sc;
+    }
+
+    stats.miss();
+    final QueryParser qp = new QueryParser(query, null, qc, sc);
+    final MainModule root = qc.parseMain(qp);
+    if(qp.reusable()) {
+      final Plan pl = new Plan(root, qc);
+      synchronized(plans) {
+        plans.put(key, pl);
+        if(plans.size() > capacity) {
+          final Iterator<Plan> iter = plans.values().iterator();
+          iter.next();
+          iter.remove();
+          stats.evict();
+        }
+      }
+    }
+    return sc;
+  }
+
+  /**
+   * Returns the number of cached plans.
+   * @return number of plans
+   */
+  public int size() {
+    synchronized(plans) {
+      return plans.size();
+    }
+  }
+
+  /**
+   * Returns the cache statistics.
+   * @return statistics
+   */
+  public CacheStats stats() {
+    return stats;
+  }
+
+  /** Cached plan. */
+  private static final class Plan {
+    /** Main module (never compiled). */
+    private final MainModule root;
+    /** Static variables. */
+    private final TokenObjMap<StaticVar> vars;
+    /** Static context. */
+    private final StaticContext sc;
+    /** Updating flag. */
+    private final boolean updating;
+
+    /**
+     * Constructor. Creates a copy of the specified main module, which will be left untouched
+     * when the original query is compiled.
+     * @param root main module
+     * @param qc query context
+     * @throws QueryException query exception
+     */
+    Plan(final MainModule root, final QueryContext qc) throws QueryException {
+      final CompileContext cc = new CompileContext(new QueryContext(qc.context));
+      vars = cc.qc.vars.copy(root.vars(), cc);
+      this.root = root.copy(cc, vars);
+      sc = root.sc;
+      updating = qc.updating;
+    }
+
+    /**
+     * Assigns a copy of the plan to the specified query context.
+     * @param qc query context
+     * @throws QueryException query exception
+     */
+    void assign(final QueryContext qc) throws QueryException {
+      final CompileContext cc = new CompileContext(qc);
+      qc.root = root.copy(cc, qc.vars.copy(vars, cc));
+      qc.updating = updating;
+    }
+  }
+}
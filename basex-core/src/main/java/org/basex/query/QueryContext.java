@@ -7,6 +7,7 @@ import static org.basex.util.Token.*;
 import java.io.*;
 import java.util.*;
 import java.util.Map.*;
+import java.util.concurrent.*;
 
 import org.basex.build.json.*;
 import org.basex.build.json.JsonOptions.*;
@@ -214,7 +215,16 @@ public final class QueryContext extends Job implements Closeable {
       throws QueryException {
 
     info.query = query;
-    final QueryParser qp = new QueryParser(query, uri, this, sc);
+    return parseMain(new QueryParser(query, uri, this, sc));
+  }
+
+  /**
+   * Parses a main module.
+   * @param qp query parser
+   * @return main module
+   * @throws QueryException query exception
+   */
+  MainModule parseMain(final QueryParser qp) throws QueryException {
     root = qp.parseMain();
     // updating expression: check if an updating expression is left in the expression tree
     if(updating) updating = (qp.sc.mixUpdates && qp.sc.dynFuncCall) || root.expr.has(Flag.UPD);
@@ -346,6 +356,10 @@ public final class QueryContext extends Job implements Closeable {
         materialize(items, datas, dbs);
         materialize(items2, datas, dbs);
 
+        // acquire deferred write lock: wait for completion of parallel readers
+        // (new documents have been parsed in the previous step)
+        context.locking.upgrade();
+
         // invalidate current node set in context, apply updates
         if(context.data() != null) context.invalidate();
         updates.apply(this);
@@ -576,6 +590,51 @@ public final class QueryContext extends Job implements Closeable {
     updating = true;
   }
 
+  /**
+   * Evaluates tasks in parallel, using the shared pool of the database context
+   * ({@link JobPool#parallel}). Each task is evaluated with a separate query context, which
+   * adopts the variable bindings of the current stack frame, the focus and the date/time context.
+   * If a task fails, the remaining tasks will be stopped.
+   * @param tasks number of tasks
+   * @param task task
+   * @return results, concatenated in the order of the tasks
+   * @throws QueryException query exception
+   */
+  public Value parallel(final int tasks, final ParallelTask task) throws QueryException {
+    final ParallelPool pool = context.jobs.parallel;
+    final ArrayList<QueryContext> qcs = new ArrayList<>(tasks);
+    final ArrayList<ForkJoinTask<Value>> futures = new ArrayList<>(tasks);
+    try {
+      // create query contexts in the current thread
+      for(int t = 0; t < tasks; t++) {
+        final QueryContext qc = new QueryContext(this);
+        qc.stack.enterFrame(stack);
+        qc.focus = focus.copy();
+        qc.dateTime = dateTime();
+        qc.maxCalls = maxCalls;
+        qcs.add(qc);
+        final int n = t;
+        futures.add(pool.submit(() -> task.eval(n, qc), this));
+      }
+      final ValueBuilder vb = new ValueBuilder(this);
+      for(final ForkJoinTask<Value> future : futures) vb.add(future.join());
+      return vb.value();
+    } catch(final RuntimeException | Error ex) {
+      for(final QueryContext qc : qcs) qc.stop();
+      for(final ForkJoinTask<Value> future : futures) future.quietlyJoin();
+      // pass on query and job exceptions
+      final Throwable th = Util.rootException(ex);
+      if(th instanceof QueryException) throw (QueryException) th;
+      if(th instanceof JobException) {
+        checkStop();
+        throw (JobException) th;
+      }
+      throw ex;
+    } finally {
+      for(int q = qcs.size() - 1; q >= 0; q--) qcs.get(q).close();
+    }
+  }
+
   @Override
   public void close() {
     if(closed) return;
@@ -814,4 +873,19 @@ public final class QueryContext extends Job implements Closeable {
   private static QNm qname(final String name, final StaticContext sc) throws QueryException {
     return QNm.resolve(token(Strings.startsWith(name, '$') ? name.substring(1) : name), sc);
   }
+
+  /**
+   * Task that is evaluated in parallel (see {@link #parallel(int, ParallelTask)}).
+   */
+  @FunctionalInterface
+  public interface ParallelTask {
+    /**
+     * Evaluates the task.
+     * @param task number of the task
+     * @param qc query context of the task
+     * @return result
+     * @throws QueryException query exception
+     */
+    Value eval(int task, QueryContext qc) throws QueryException;
+  }
 }
@@ -107,6 +107,8 @@ public class QueryParser extends InputParser {
 
   /** Declared flags. */
   private final HashSet<String> decl = new HashSet<>();
+  /** Indicates if query-specific options or resources have been assigned. */
+  private boolean assigned;
   /** QName cache. */
   private final QNmCache qnames = new QNmCache();
   /** Local variable. */
@@ -165,6 +167,16 @@ public class QueryParser extends InputParser {
     }
   }
 
+  /**
+   * Checks if the parsed main module is self-contained, and if it can be copied and reused by
+   * other queries. This is the case if no modules have been imported, and if the prolog contains
+   * no function, context and option declarations.
+   * @return result of check
+   */
+  boolean reusable() {
+    return modules.isEmpty() && !assigned && qc.ctxItem == null && qc.funcs.funcs().length == 0;
+  }
+
   /**
    * Parses a library module.
    * Parses the "ModuleDecl" rule.
@@ -329,6 +341,7 @@ public class QueryParser extends InputParser {
           final FTOpt fto = new FTOpt();
           while(ftMatchOption(fto));
           qc.ftOpt().assign(fto);
+          assigned = true;
         } else {
           pos = p;
           return;
@@ -520,6 +533,7 @@ public class QueryParser extends InputParser {
     final QNm qnm = eQName(QNAME_X, XQ_URI);
     final byte[] value = stringLiteral();
     final String name = string(qnm.local());
+    assigned = true;
 
     if(eq(qnm.uri(), OUTPUT_URI)) {
       // output declaration
@@ -3579,6 +3593,7 @@ public class QueryParser extends InputParser {
               final String fn = string(stringLiteral());
               // optional: resolve URI reference
               final IO fl = qc.resources.stopWords(fn, sc);
+              assigned = true;
               try {
                 opt.sw.read(fl, except);
               } catch(final IOException ex) {
@@ -3619,6 +3634,7 @@ public class QueryParser extends InputParser {
     final String fn = string(stringLiteral());
     // optional: resolve URI reference
     final IO fl = qc.resources.thesaurus(fn, sc);
+    assigned = true;
     final byte[] rel = wsConsumeWs(RELATIONSHIP) ? stringLiteral() : EMPTY;
     final Expr[] range = ftRange(true);
     long min = 0, max = Long.MAX_VALUE;
@@ -25,14 +25,16 @@ public final class QueryProcessor extends Job implements Closeable {
   private static final Pattern LIBMOD_PATTERN = Pattern.compile(
   "^(xquery( version ['\"].*?['\"])?( encoding ['\"].*?['\"])? ?; ?)?module namespace.*");
 
-  /** Static context. */
-  public final StaticContext sc;
+  /** Static context (will be replaced if a cached plan is used). */
+  public StaticContext sc;
   /** Expression context. */
   public final QueryContext qc;
   /** Query. */
   private final String query;
   /** Parsed flag. */
   private boolean parsed;
+  /** Plan cache ({@code null} if no plans will be cached). */
+  private PlanCache plans;
 
   /**
    * Default constructor.
@@ -63,13 +65,26 @@ public final class QueryProcessor extends Job implements Closeable {
   public void parse() throws QueryException {
     if(parsed) return;
     try {
-      qc.parseMain(query, null, sc);
+      if(plans != null && sc.resolver == null) sc = plans.parse(query, sc, qc);
+      else qc.parseMain(query, null, sc);
     } finally {
       parsed = true;
       updating = qc.updating;
     }
   }
 
+  /**
+   * Enables the plan cache (see {@link StaticOptions#PLANCACHE}). Parsed queries will be
+   * cached, and cached plans will be reused. This function must only be called if the static
+   * context will not be modified before the query is parsed.
+   * @return self reference
+   */
+  public QueryProcessor cachePlans() {
+    final PlanCache pc = qc.context.plans;
+    if(pc.enabled()) plans = pc;
+    return this;
+  }
+
   /**
    * Compiles the query.
    * @throws QueryException query exception
@@ -255,6 +270,11 @@ public final class QueryProcessor extends Job implements Closeable {
     qc.addLocks();
   }
 
+  @Override
+  public boolean deferLocks() {
+    return updating;
+  }
+
   /**
    * Returns the number of performed updates after query execution, or {@code 0}.
    * @return number of updates
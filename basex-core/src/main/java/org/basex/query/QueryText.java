@@ -199,6 +199,7 @@ public interface QueryText {
   /** Parser token. */ String READ_LOCK = "read-lock";
   /** Parser token. */ String WRITE_LOCK = "write-lock";
   /** Parser token. */ String NON_DETERMNISTIC = "non-deterministic";
+  /** Parser token. */ String PARALLEL = "parallel";
 
   // PARSER KEYWORDS (IGNORED BY THE SYNTAX HIGHLIGHTER) ==========================================
 
@@ -396,6 +397,7 @@ public interface QueryText {
   /** Query Info. */ String ENTRIES = "entries";
   /** Query Info. */ String PROMOTE = "promote";
   /** Query Info. */ String DATABASE = "database";
+  /** Query Info. */ String AGGREGATE = "aggregate";
 
   /** Query Info. */ String MAPASG = ": ";
   /** Query Info. */ String SEP = ", ";
@@ -417,12 +419,17 @@ public interface QueryText {
   /** Optimization info. */ String OPTINLINE_X = "inline %";
   /** Optimization info. */ String OPTREMOVE_X_X = "remove % from %";
   /** Optimization info. */ String OPTWHERE = "rewrite where clause(s)";
+  /** Optimization info. */ String OPTJOIN_X = "rewrite for clause to hash join: %";
+  /** Optimization info. */ String OPTAGGR_X = "aggregate values of non-grouping variable: %";
+  /** Optimization info. */ String OPTPARALLEL_X = "evaluate iterations in parallel: %";
   /** Optimization info. */ String OPTPRED_X = "rewrite % to predicate(s)";
   /** Optimization info. */ String OPTVAR_X = "remove variable %";
   /** Optimization info. */ String OPTNAME_X = "remove unknown element/attribute %";
   /** Optimization info. */ String OPTPATH_X = "remove non-existing path %";
   /** Optimization info. */ String OPTINDEX_X_X = "apply % index for %";
   /** Optimization info. */ String OPTNORESULTS_X = "no index results: %";
+  /** Optimization info. */ String OPTSCAN_X = "skip index access, scan is cheaper: %";
+  /** Optimization info. */ String OPTSELECT_X = "reorder predicates by selectivity: %";
   /** Optimization info. */ String OPTCHILD_X = "convert to child steps: %";
   /** Optimization info. */ String OPTUNROLL_X = "unroll: %";
 
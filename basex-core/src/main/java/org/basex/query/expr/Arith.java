@@ -3,8 +3,10 @@ package org.basex.query.expr;
 import static org.basex.query.QueryText.*;
 
 import org.basex.query.*;
+import org.basex.query.value.*;
 import org.basex.query.value.item.*;
 import org.basex.query.value.node.*;
+import org.basex.query.value.seq.*;
 import org.basex.query.value.type.*;
 import org.basex.query.var.*;
 import org.basex.util.*;
@@ -64,6 +66,86 @@ public final class Arith extends Arr {
     return item2 == null ? null : calc.eval(item1, item2, info);
   }
 
+  /**
+   * Evaluates the expression for all items of a numeric sequence without creating intermediate
+   * items. This is possible if one operand is the context value, and if the other operand is
+   * an integer or double.
+   * @param value context value (integer or double sequence, or integer range)
+   * @return resulting sequence or {@code null} if the operands cannot be processed in bulk
+   * @throws QueryException query exception
+   */
+  Value vector(final Value value) throws QueryException {
+    final boolean ctx1 = exprs[0] instanceof ContextValue, ctx2 = exprs[1] instanceof ContextValue;
+    final Expr expr = exprs[ctx1 ? 1 : 0];
+    final long size = value.size();
+    if(ctx1 == ctx2 || !(expr instanceof Int || expr instanceof Dbl) || size > Integer.MAX_VALUE)
+      return null;
+
+    final double[] dbls = value instanceof DblSeq ? ((DblSeq) value).values() : null;
+    final long[] itrs = value instanceof IntSeq ? ((IntSeq) value).values() :
+      value instanceof RangeSeq ? (long[]) value.toJava() : null;
+    if(dbls == null && itrs == null) return null;
+
+    final int sz = (int) size;
+    if(dbls != null || expr instanceof Dbl) {
+      // double arithmetics
+      if(calc == Calc.IDIV) return null;
+      final double dbl = ((Item) expr).dbl(info);
+      final double[] tmp = new double[sz];
+      for(int i = 0; i < sz; i++) {
+        final double d = dbls != null ? dbls[i] : itrs[i];
+        tmp[i] = ctx1 ? calc(d, dbl) : calc(dbl, d);
+      }
+      return DblSeq.get(tmp);
+    }
+
+    // integer arithmetics
+    if(calc == Calc.DIV) return null;
+    final long itr = ((Item) expr).itr(info);
+    final long[] tmp = new long[sz];
+    for(int i = 0; i < sz; i++) tmp[i] = ctx1 ? calc(itrs[i], itr) : calc(itr, itrs[i]);
+    return IntSeq.get(tmp, AtomType.ITR);
+  }
+
+  /**
+   * Performs the calculation for two doubles.
+   * @param dbl1 first operand
+   * @param dbl2 second operand
+   * @return result
+   */
+  private double calc(final double dbl1, final double dbl2) {
+    switch(calc) {
+      case PLUS:  return dbl1 + dbl2;
+      case MINUS: return dbl1 - dbl2;
+      case MULT:  return dbl1 * dbl2;
+      case DIV:   return dbl1 / dbl2;
+      default:    return dbl1 % dbl2;
+    }
+  }
+
+  /**
+   * Performs the calculation for two integers.
+   * @param itr1 first operand
+   * @param itr2 second operand
+   * @return result
+   * @throws QueryException query exception
+   */
+  private long calc(final long itr1, final long itr2) throws QueryException {
+    try {
+      switch(calc) {
+        case PLUS:  return Math.addExact(itr1, itr2);
+        case MINUS: return Math.subtractExact(itr1, itr2);
+        case MULT:  return Math.multiplyExact(itr1, itr2);
+        case IDIV:  if(itr2 != 0 && itr2 != -1) return itr1 / itr2; break;
+        default:    if(itr2 != 0) return itr1 % itr2; break;
+      }
+    } catch(final ArithmeticException ex) {
+      Util.debug(ex);
+    }
+    // overflows, divisions by zero: evaluate items and raise error
+    return calc.eval(Int.get(itr1), Int.get(itr2), info).itr(info);
+  }
+
   @Override
   public Arith copy(final CompileContext cc, final IntObjMap<Var> vm) {
     return copyType(new Arith(info, exprs[0].copy(cc, vm), exprs[1].copy(cc, vm), calc));
@@ -4,13 +4,16 @@ import static org.basex.query.QueryError.*;
 import static org.basex.query.QueryText.*;
 
 import org.basex.index.*;
+import org.basex.index.query.*;
 import org.basex.query.*;
 import org.basex.query.expr.CmpV.*;
+import org.basex.query.expr.index.*;
 import org.basex.query.func.*;
 import org.basex.query.func.fn.*;
 import org.basex.query.iter.*;
 import org.basex.query.util.*;
 import org.basex.query.util.collation.*;
+import org.basex.query.value.*;
 import org.basex.query.value.item.*;
 import org.basex.query.value.node.*;
 import org.basex.query.value.seq.*;
@@ -26,6 +29,9 @@ import org.basex.util.hash.*;
  * @author Christian Gruen
  */
 public class CmpG extends Cmp {
+  /** Tolerance for typed index access to dates (in seconds, covering all implicit timezones). */
+  private static final double TOLERANCE = 28 * 60 * 60 + 1;
+
   /** Comparators. */
   public enum OpG {
     /** General comparison: less or equal. */
@@ -233,6 +239,8 @@ public class CmpG extends Cmp {
     if(single1) {
       // first iterator yields single result
       final Item item1 = ir1.next();
+      final Bln bln = compare(ir2.value(), item1, op.swap());
+      if(bln != null) return bln;
       for(Item item2; (item2 = qc.next(ir2)) != null;) {
         if(eval(item1, item2)) return Bln.TRUE;
       }
@@ -242,6 +250,8 @@ public class CmpG extends Cmp {
     if(single2) {
       // second iterator yields single result
       final Item item2 = ir2.next();
+      final Bln bln = compare(ir1.value(), item2, op);
+      if(bln != null) return bln;
       for(Item item1; (item1 = qc.next(ir1)) != null;) {
         if(eval(item1, item2)) return Bln.TRUE;
       }
@@ -268,6 +278,59 @@ public class CmpG extends Cmp {
 
   }
 
+  /**
+   * Compares the values of a numeric sequence with a numeric item without creating
+   * intermediate items.
+   * @param value value of the iterator (can be {@code null})
+   * @param item item
+   * @param opG comparison operator (the values of the sequence will be the first operands)
+   * @return result of check or {@code null} if the operands cannot be compared in bulk
+   * @throws QueryException query exception
+   */
+  private Bln compare(final Value value, final Item item, final OpG opG) throws QueryException {
+    final boolean itr = item instanceof Int;
+    if(!itr && !(item instanceof Dbl)) return null;
+
+    if(value instanceof IntSeq && itr) {
+      final long l = item.itr(info);
+      for(final long v : ((IntSeq) value).values()) {
+        if(eval(opG, Long.compare(v, l), 0)) return Bln.TRUE;
+      }
+    } else if(value instanceof IntSeq || value instanceof DblSeq) {
+      final double d = item.dbl(info);
+      if(value instanceof IntSeq) {
+        for(final long v : ((IntSeq) value).values()) {
+          if(eval(opG, v, d)) return Bln.TRUE;
+        }
+      } else {
+        for(final double v : ((DblSeq) value).values()) {
+          if(eval(opG, v, d)) return Bln.TRUE;
+        }
+      }
+    } else {
+      return null;
+    }
+    return Bln.FALSE;
+  }
+
+  /**
+   * Compares two numbers.
+   * @param opG comparison operator
+   * @param dbl1 first number
+   * @param dbl2 second number
+   * @return result of check
+   */
+  private static boolean eval(final OpG opG, final double dbl1, final double dbl2) {
+    switch(opG) {
+      case LE: return dbl1 <= dbl2;
+      case LT: return dbl1 < dbl2;
+      case GE: return dbl1 >= dbl2;
+      case GT: return dbl1 > dbl2;
+      case EQ: return dbl1 == dbl2;
+      default: return dbl1 != dbl2;
+    }
+  }
+
   /**
    * Compares a single item.
    * @param item1 first item to be compared
@@ -294,6 +357,14 @@ public class CmpG extends Cmp {
       new CmpG(expr1, expr2, op.invert(), coll, sc, info).optimize(cc) : this;
   }
 
+  /**
+   * Checks if this is an equality comparison with the default collation.
+   * @return result of check
+   */
+  public final boolean equality() {
+    return op == OpG.EQ && coll == null;
+  }
+
   @Override
   public final OpV opV() {
     return op.opV;
@@ -315,8 +386,25 @@ public class CmpG extends Cmp {
 
   @Override
   public final boolean indexAccessible(final IndexInfo ii) throws QueryException {
+    // dates and timestamps: typed range index
+    final Expr expr2 = exprs[1];
+    if(op != OpG.NE && (expr2 instanceof Dtm || expr2 instanceof Dat)) {
+      // keys of values without timezone depend on the implicit timezone: filter results
+      final double key = ((ADate) expr2).key();
+      final double min = op == OpG.LT || op == OpG.LE ? Double.NEGATIVE_INFINITY : key - TOLERANCE;
+      final double max = op == OpG.GT || op == OpG.GE ? Double.POSITIVE_INFINITY : key + TOLERANCE;
+      final TypedRange tr = ii.range(exprs[0], expr2 instanceof Dtm ? AtomType.DTM : AtomType.DAT,
+          min, max);
+      if(tr == null) return false;
+
+      final CmpG cmp = new CmpG(new ContextValue(info), expr2, op, null, sc, info);
+      final Expr filter = Filter.get(info, new TypedAccess(info, tr, cmp, ii.db), cmp);
+      ii.create((ParseExpr) filter, true, info, Util.info(OPTINDEX_X_X, "typed range", this));
+      return true;
+    }
+
     // only equality expressions on default collation can be rewritten
-    if(op != OpG.EQ || coll != null) return false;
+    if(!equality()) return false;
 
     Expr expr1 = exprs[0];
     final boolean tokenize = Function.TOKENIZE.is(expr1);
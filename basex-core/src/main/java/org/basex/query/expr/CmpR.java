@@ -6,14 +6,11 @@ import static org.basex.util.Token.*;
 
 import org.basex.data.*;
 import org.basex.index.*;
-import org.basex.index.name.*;
 import org.basex.index.query.*;
 import org.basex.index.stats.*;
 import org.basex.query.*;
 import org.basex.query.expr.CmpV.*;
 import org.basex.query.expr.index.*;
-import org.basex.query.expr.path.*;
-import org.basex.query.expr.path.Test.*;
 import org.basex.query.func.*;
 import org.basex.query.iter.*;
 import org.basex.query.util.*;
@@ -198,11 +195,22 @@ public final class CmpR extends Single {
     // sequential main memory scan is usually faster than range index access
     if(data == null ? !ii.enforce() : data.inMemory()) return false;
 
+    // typed range index: exact numeric ranges
+    final TokenBuilder tb = new TokenBuilder();
+    tb.add('[').add(min).add(',').add(max).add(']');
+    final TypedRange tr = ii.range(expr, AtomType.DBL, min, max);
+    if(tr != null) {
+      final CmpR cmp = new CmpR(new ContextValue(info), min, max, info);
+      ii.create(new TypedAccess(info, tr, cmp, ii.db), true, info,
+          Util.info(OPTINDEX_X_X, "typed range", tb));
+      return true;
+    }
+
     final IndexType type = ii.type(expr, null);
     if(type == null) return false;
 
-    final Stats key = key(ii, type);
-    if(key == null) return false;
+    final Stats key = ii.stats(type);
+    if(key == null || !StatsType.isNumeric(key.type)) return false;
 
     // estimate costs for range access; all values out of range: no results
     final NumericRange nr = new NumericRange(type, Math.max(min, key.min), Math.min(max, key.max));
@@ -212,9 +220,9 @@ public final class CmpR extends Single {
       return true;
     }
 
-    // estimate costs
-    ii.costs = ii.costs(data, nr);
-    if(ii.costs == null) return false;
+    // estimate costs: number of values in the range
+    ii.costs = ii.enforce() ? IndexCosts.ENFORCE_STATIC :
+      IndexCosts.get(Math.max(1, key.count(nr.min, nr.max)));
 
     // skip if numbers are negative, doubles, or of different string length
     final int mnl = min >= 0 && (long) min == min ? token(min).length : -1;
@@ -225,44 +233,10 @@ public final class CmpR extends Single {
     if(min == NEGATIVE_INFINITY && max == POSITIVE_INFINITY ||
         token((int) nr.min).length != token((int) nr.max).length) return false;
 
-    final TokenBuilder tb = new TokenBuilder();
-    tb.add('[').add(min).add(',').add(max).add(']');
     ii.create(new RangeAccess(info, nr, ii.db), true, info, Util.info(OPTINDEX_X_X, "range", tb));
     return true;
   }
 
-  /**
-   * Retrieves the statistics key for the element/attribute name.
-   * @param ii index info
-   * @param type index type
-   * @return key, or {@code null} if statistics are not available
-   */
-  private Stats key(final IndexInfo ii, final IndexType type) {
-    // statistics are not up-to-date
-    final Data data = ii.db.data();
-    if(data == null || !data.meta.uptodate || !data.nspaces.isEmpty() ||
-        !(expr instanceof AxisPath)) return null;
-
-    NameTest test = ii.test;
-    if(test == null) {
-      final Step step;
-      final AxisPath path = (AxisPath) expr;
-      final int st = path.steps.length - 1;
-      if(type == IndexType.TEXT) {
-        step = st == 0 ? ii.step : path.step(st - 1);
-        if(step.test.kind != Kind.NAME) return null;
-      } else {
-        step = path.step(st);
-        if(!step.simple(Axis.ATTRIBUTE, true)) return null;
-      }
-      test = (NameTest) step.test;
-    }
-
-    final Names names = type == IndexType.TEXT ? data.elemNames : data.attrNames;
-    final Stats stats = names.stats(names.id(test.name.local()));
-    return stats == null || StatsType.isNumeric(stats.type) ? stats : null;
-  }
-
   @Override
   public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
     final CmpR cmp = new CmpR(expr.copy(cc, vm), min, max, info);
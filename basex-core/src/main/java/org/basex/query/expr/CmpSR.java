@@ -8,6 +8,7 @@ import java.util.*;
 import org.basex.data.*;
 import org.basex.index.*;
 import org.basex.index.query.*;
+import org.basex.index.stats.*;
 import org.basex.query.*;
 import org.basex.query.expr.CmpG.*;
 import org.basex.query.expr.index.*;
@@ -173,6 +174,10 @@ public final class CmpSR extends Single {
     final StringRange sr = new StringRange(type, min, mni, max, mxi);
     ii.costs = ii.costs(data, sr);
     if(ii.costs == null) return false;
+    // refine costs with the distinct values of the compared nodes
+    final Stats stats = ii.stats(type);
+    if(stats != null && !ii.enforce()) ii.costs = IndexCosts.get(Math.max(1,
+        Math.min(ii.costs.results(), stats.count(min, mni, max, mxi))));
 
     final TokenBuilder tb = new TokenBuilder();
     tb.add(mni ? '[' : '(').add(min).add(',').add(max).add(mxi ? ']' : ')');
@@ -3,6 +3,7 @@ package org.basex.query.expr;
 import static org.basex.query.QueryText.*;
 
 import org.basex.query.*;
+import org.basex.query.expr.gflwor.*;
 import org.basex.query.iter.*;
 import org.basex.query.util.*;
 import org.basex.query.value.*;
@@ -21,6 +22,8 @@ import org.basex.util.hash.*;
 public final class Extension extends Single {
   /** Pragma. */
   private final Pragma pragma;
+  /** Indicates if the iterations of the enclosed FLWOR expression are evaluated in parallel. */
+  private boolean parallel;
 
   /**
    * Constructor.
@@ -51,6 +54,10 @@ public final class Extension extends Single {
 
   @Override
   public Expr optimize(final CompileContext cc) {
+    final boolean par = pragma instanceof BaseXPragma && ((BaseXPragma) pragma).parallel() &&
+        expr instanceof GFLWOR && ((GFLWOR) expr).parallel();
+    if(par && !parallel) cc.info(OPTPARALLEL_X, expr);
+    parallel = par;
     return adoptType(expr);
   }
 
@@ -63,7 +70,7 @@ public final class Extension extends Single {
   public Value value(final QueryContext qc) throws QueryException {
     final Object state = pragma.init(qc, info);
     try {
-      return expr.value(qc);
+      return parallel ? ((GFLWOR) expr).parallel(qc) : expr.value(qc);
     } finally {
       pragma.finish(qc, state);
     }
@@ -71,7 +78,9 @@ public final class Extension extends Single {
 
   @Override
   public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
-    return copyType(new Extension(info, pragma.copy(), expr.copy(cc, vm)));
+    final Extension ext = new Extension(info, pragma.copy(), expr.copy(cc, vm));
+    ext.parallel = parallel;
+    return copyType(ext);
   }
 
   @Override
@@ -93,7 +102,7 @@ public final class Extension extends Single {
 
   @Override
   public void plan(final FElem plan) {
-    addPlan(plan, planElem(), pragma, expr);
+    addPlan(plan, planElem(PARALLEL, parallel ? true : null), pragma, expr);
   }
 
   @Override
@@ -39,6 +39,25 @@ public final class IterFilter extends Filter {
         }
         return null;
       }
+
+      @Override
+      public int next(final Item[] items, final int start) throws QueryException {
+        if(iter == null) iter = root.iter(qc);
+        // request items in batches, filter them in place
+        final int il = items.length;
+        int n = start;
+        for(boolean more = true; more && n < il;) {
+          qc.checkStop();
+          final int e = iter.next(items, n);
+          more = e == il;
+          for(int i = n; i < e; i++) {
+            final Item item = items[i];
+            items[i] = null;
+            if(preds(item, qc)) items[n++] = item;
+          }
+        }
+        return n;
+      }
     };
   }
 
@@ -4,6 +4,7 @@ import org.basex.query.*;
 import org.basex.query.iter.*;
 import org.basex.query.value.*;
 import org.basex.query.value.item.*;
+import org.basex.query.value.seq.*;
 import org.basex.query.var.*;
 import org.basex.util.*;
 import org.basex.util.hash.*;
@@ -57,6 +58,57 @@ public final class IterMap extends SimpleMap {
         }
       }
 
+      @Override
+      public int next(final Item[] items, final int start) throws QueryException {
+        final QueryFocus qf = qc.focus;
+        if(iter == null) init(qf);
+        final int il = items.length;
+        int n = start;
+        if(pos == -1) return n;
+        qc.focus = focus;
+
+        try {
+          final int last = sz - 1;
+          while(n < il) {
+            focus.value = values[pos];
+            if(pos == last) {
+              // last operand: request results in a batch
+              n = iter[pos].next(items, n);
+              if(n < il && --pos == -1) break;
+            } else {
+              final Item item = qc.next(iter[pos]);
+              if(item == null) {
+                if(--pos == -1) break;
+              } else {
+                focus.value = item;
+                values[++pos] = item;
+                iter[pos] = exprs[pos].iter(qc);
+              }
+            }
+          }
+        } finally {
+          qc.focus = qf;
+        }
+        return n;
+      }
+
+      @Override
+      public Value value(final QueryContext q) throws QueryException {
+        if(iter == null) {
+          init(qc.focus);
+          // numeric sequences: compute all results of arithmetic expressions in bulk. This is
+          // only done if all results are requested, as errors must not be raised for results
+          // that would not be consumed otherwise
+          final Value value = iter[0].value();
+          if(sz == 2 && exprs[1] instanceof Arith && (value instanceof IntSeq ||
+              value instanceof DblSeq || value instanceof RangeSeq)) {
+            final Value vector = ((Arith) exprs[1]).vector(value);
+            if(vector != null) return vector;
+          }
+        }
+        return super.value(q);
+      }
+
       private void init(final QueryFocus qf) throws QueryException {
         sz = exprs.length;
         iter = new Iter[sz];
@@ -16,6 +16,7 @@ import org.basex.query.value.node.*;
 import org.basex.query.value.seq.*;
 import org.basex.query.value.type.*;
 import org.basex.query.var.*;
+import org.basex.util.*;
 import org.basex.util.hash.*;
 
 /**
@@ -49,11 +50,23 @@ public final class For extends ForLet {
 
   @Override
   Eval eval(final Eval sub) {
+    // deterministic expressions: request items in batches
+    final boolean batch = !scoring && !expr.has(Flag.NDT);
     return new Eval() {
       /** Expression iterator. */
       private Iter iter;
       /** Current position. */
       private long p;
+      /** Buffered items (assigned if items are requested in batches). */
+      private final Item[] items = batch ? new Item[Iter.BATCH] : null;
+      /** Position of the next buffered item. */
+      private int ipos;
+      /** Number of buffered items. */
+      private int isize;
+      /** Indicates if the iterator may return more items. */
+      private boolean more;
+      /** Indicates if items are currently requested in batches. */
+      private boolean batched;
 
       @Override
       public boolean next(final QueryContext qc) throws QueryException {
@@ -69,6 +82,8 @@ public final class For extends ForLet {
               } finally {
                 qc.scoring = s;
               }
+            } else if(batched) {
+              item = item(qc);
             } else {
               item = qc.next(iter);
             }
@@ -105,8 +120,45 @@ public final class For extends ForLet {
             iter = expr.iter(qc);
           }
           p = 0;
+          ipos = 0;
+          isize = 0;
+          more = true;
+          batched = batch;
         }
       }
+
+      /**
+       * Returns the next buffered item. Requests a new batch if the buffer is exhausted.
+       * @param qc query context
+       * @return next item or {@code null}
+       * @throws QueryException query exception
+       */
+      private Item item(final QueryContext qc) throws QueryException {
+        if(ipos == isize) {
+          if(!more) return null;
+          qc.checkStop();
+          try {
+            isize = iter.next(items, 0);
+          } catch(final QueryException ex) {
+            // the items that were collected before the error cannot be identified: evaluate the
+            // expression again, skip the items that have been returned so far, and proceed item
+            // by item. The error will only be raised if the failing item is requested
+            Util.debug(ex);
+            Arrays.fill(items, null);
+            batched = false;
+            iter = expr.iter(qc);
+            for(long s = 0; s < p; s++) qc.next(iter);
+            return qc.next(iter);
+          }
+          ipos = 0;
+          more = isize == items.length;
+          if(isize == 0) return null;
+        }
+        final Item item = items[ipos];
+        // free the space occupied by the item
+        items[ipos++] = null;
+        return item;
+      }
     };
   }
 
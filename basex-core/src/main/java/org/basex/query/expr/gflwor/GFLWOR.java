@@ -95,6 +95,72 @@ public final class GFLWOR extends ParseExpr {
     };
   }
 
+  /**
+   * Checks if the iterations of the first for clause can be evaluated in parallel.
+   * This is the case if the expression is deterministic and non-updating, if no nodes are
+   * constructed (as their document order would not reflect the order of the results), and if the
+   * remaining clauses do not depend on the order or number of tuples.
+   * @return result of check
+   */
+  public boolean parallel() {
+    if(clauses.isEmpty() || !(clauses.getFirst() instanceof For) ||
+        has(Flag.NDT, Flag.UPD, Flag.CNS)) return false;
+    final For fr = (For) clauses.getFirst();
+    if(fr.score != null || fr.empty || fr.scoring) return false;
+    for(final Clause clause : clauses) {
+      if(!(clause instanceof For || clause instanceof Let || clause instanceof Where)) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Evaluates the iterations of the first for clause in parallel (see {@link #parallel()}).
+   * The input sequence is split into partitions, which are evaluated by the shared pool of the
+   * database context. The results are returned in their original order.
+   * @param qc query context
+   * @return result
+   * @throws QueryException query exception
+   */
+  public Value parallel(final QueryContext qc) throws QueryException {
+    final Value input = ((For) clauses.getFirst()).expr.value(qc);
+    final long size = input.size();
+    final int parts = (int) Math.min(size, qc.context.jobs.parallel.parallelism() << 2);
+    if(parts < 2) return partition(input, 0, size, qc);
+    return qc.parallel(parts, (p, pqc) ->
+      partition(input, size * p / parts, size * (p + 1) / parts, pqc));
+  }
+
+  /**
+   * Evaluates a partition of the iterations of the first for clause.
+   * @param input input sequence
+   * @param start first item
+   * @param end last item (exclusive)
+   * @param qc query context
+   * @return result
+   * @throws QueryException query exception
+   */
+  private Value partition(final Value input, final long start, final long end,
+      final QueryContext qc) throws QueryException {
+
+    final For fr = (For) clauses.getFirst();
+    Eval eval = new Eval() {
+      private long p = start;
+
+      @Override
+      public boolean next(final QueryContext q) throws QueryException {
+        if(p == end) return false;
+        q.checkStop();
+        q.set(fr.var, input.itemAt(p++));
+        if(fr.pos != null) q.set(fr.pos, Int.get(p));
+        return true;
+      }
+    };
+    for(final Clause clause : clauses.subList(1, clauses.size())) eval = clause.eval(eval);
+    final ValueBuilder vb = new ValueBuilder(qc);
+    while(eval.next(qc)) vb.add(rtrn.value(qc));
+    return vb.value();
+  }
+
   @Override
   public Expr compile(final CompileContext cc) throws QueryException {
     final ListIterator<Clause> iter = clauses.listIterator();
@@ -119,7 +185,7 @@ public final class GFLWOR extends ParseExpr {
     // apply all optimizations in a row until nothing changes anymore
     while(flattenReturn(cc) | flattenFor(cc) | unnestFLWR(cc) | forToLet(cc) | inlineLets(cc) |
         slideLetsOut(cc) | unusedVars(cc) | cleanDeadVars() | optimizeWhere(cc) | optimizePos(cc) |
-        unnestLets(cc) | mergeLastClause());
+        unnestLets(cc) | mergeLastClause() | aggregate(cc));
 
     mergeWheres();
 
@@ -459,7 +525,7 @@ public final class GFLWOR extends ParseExpr {
         if(!curr.skippable(let)) break;
         // insert directly above the highest skippable 'for' or 'window' clause
         // this guarantees that no unnecessary swaps occur
-        if(curr instanceof For || curr instanceof Window) insert = d;
+        if(curr instanceof For || curr instanceof Window || curr instanceof HashJoin) insert = d;
       }
 
       if(insert >= 0) {
@@ -518,7 +584,14 @@ public final class GFLWOR extends ParseExpr {
           final Clause before = clauses.get(b4);
           if(before instanceof For) {
             final For fr = (For) before;
-            if(fr.toPredicate(cc, where.expr)) {
+            final HashJoin join = HashJoin.get(fr, where, clauses.subList(0, b4), cc);
+            if(join != null) {
+              // for $a in A for $b in B where $a/@id = $b/@ref -> hash join
+              clauses.set(b4, join);
+              clauses.remove(newPos);
+              i--;
+              changed = true;
+            } else if(fr.toPredicate(cc, where.expr)) {
               // for $i in ('a', 'b') where $i return $i -> for $i in ('a', 'b')[.] return $i
               fors.add((For) before);
               clauses.remove(newPos);
@@ -738,6 +811,30 @@ public final class GFLWOR extends ParseExpr {
     }
   }
 
+  /**
+   * Detects non-grouping variables of {@code group by} clauses that are only used by aggregate
+   * functions.
+   * @param cc compilation context
+   * @return change flag
+   * @throws QueryException query exception
+   */
+  private boolean aggregate(final CompileContext cc) throws QueryException {
+    boolean changed = false;
+    final ListIterator<Clause> iter = clauses.listIterator();
+    while(iter.hasNext()) {
+      final Clause clause = iter.next();
+      if(clause instanceof GroupBy) {
+        final GroupBy group = ((GroupBy) clause).aggregate(
+            clauses.subList(iter.nextIndex(), clauses.size()), rtrn, cc);
+        if(group != clause) {
+          iter.set(group);
+          changed = true;
+        }
+      }
+    }
+    return changed;
+  }
+
   @Override
   public boolean isVacuous() {
     return rtrn.isVacuous();
@@ -841,7 +938,8 @@ public final class GFLWOR extends ParseExpr {
     // check if an outer clause can prevent the error
     while(iter.hasPrevious()) {
       final Clause b4 = iter.previous();
-      if(b4 instanceof For || b4 instanceof Window || b4 instanceof Where) {
+      if(b4 instanceof For || b4 instanceof Window || b4 instanceof Where ||
+          b4 instanceof HashJoin) {
         iter.next();
         while(iter.hasNext()) {
           iter.next();
@@ -863,6 +961,24 @@ public final class GFLWOR extends ParseExpr {
     return copyType(new GFLWOR(info, cls, rtrn.copy(cc, vm)));
   }
 
+  /**
+   * Limits the number of results. If the expression returns a single item per tuple, and if
+   * its last order by clause is only followed by let and count clauses, the number of sorted
+   * tuples will be limited as well.
+   * @param max maximum number of results
+   */
+  public void limit(final long max) {
+    if(!rtrn.seqType().one()) return;
+    for(final Iterator<Clause> iter = clauses.descendingIterator(); iter.hasNext();) {
+      final Clause clause = iter.next();
+      if(clause instanceof OrderBy) {
+        ((OrderBy) clause).limit(max);
+        return;
+      }
+      if(!(clause instanceof Let || clause instanceof Count)) return;
+    }
+  }
+
   /**
    * Checks if this FLWOR expression has only 'for', 'let' and 'where' clauses.
    * @return result of check
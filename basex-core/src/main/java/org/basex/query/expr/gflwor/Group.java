@@ -12,8 +12,12 @@ import org.basex.query.value.item.*;
 final class Group {
   /** Grouping key, may contain {@code null} values. */
   final Item[] key;
-  /** Non-grouping variables. */
+  /** Non-grouping variables ({@code null} entries for aggregated variables). */
   final ValueBuilder[] ngv;
+  /** Running aggregates of non-grouping variables (can be {@code null}). */
+  final Value[] aggr;
+  /** Number of aggregated items ({@code -1}: the values could not be aggregated). */
+  final long[] sizes;
   /** Overflow list. */
   Group next;
 
@@ -21,9 +25,12 @@ final class Group {
    * Constructor.
    * @param k grouping key
    * @param ng non-grouping variables
+   * @param ag running aggregates (can be {@code null})
    */
-  Group(final Item[] k, final ValueBuilder[] ng) {
+  Group(final Item[] k, final ValueBuilder[] ng, final Value[] ag) {
     key = k;
     ngv = ng;
+    aggr = ag;
+    sizes = ag != null ? new long[ag.length] : null;
   }
 }
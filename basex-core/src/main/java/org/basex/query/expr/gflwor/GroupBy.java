@@ -3,11 +3,16 @@ package org.basex.query.expr.gflwor;
 import static org.basex.query.QueryText.*;
 
 import java.util.*;
+import java.util.List;
 
+import org.basex.core.*;
+import org.basex.data.*;
 import org.basex.query.*;
 import org.basex.query.expr.*;
+import org.basex.query.func.*;
 import org.basex.query.util.*;
 import org.basex.query.util.collation.*;
+import org.basex.query.util.list.*;
 import org.basex.query.value.*;
 import org.basex.query.value.item.*;
 import org.basex.query.value.node.*;
@@ -24,6 +29,11 @@ import org.basex.util.hash.*;
  * @author Leo Woerteler
  */
 public final class GroupBy extends Clause {
+  /** Number of partitions for spilled tuples. */
+  private static final int PARTITIONS = 16;
+  /** Maximum recursion level for partitioning spilled tuples. */
+  private static final int LEVELS = 8;
+
   /** Grouping specs. */
   private final GroupSpec[] specs;
   /** Non-grouping variable expressions. */
@@ -32,6 +42,9 @@ public final class GroupBy extends Clause {
   private Var[] post;
   /** Number of non-occluded grouping variables. */
   private final int nonOcc;
+  /** Aggregate functions of non-grouping variables (can be {@code null}, and can contain
+   * {@code null} entries for variables whose values will be materialized). */
+  private StandardFunc[] aggr;
 
   /**
    * Constructor.
@@ -60,15 +73,17 @@ public final class GroupBy extends Clause {
    * @param pre pre-grouping expressions
    * @param post post-grouping variables
    * @param nonOcc number of non-occluded grouping variables
+   * @param aggr aggregate functions (can be {@code null})
    * @param info input info
    */
   private GroupBy(final GroupSpec[] specs, final Expr[] pre, final Var[] post, final int nonOcc,
-      final InputInfo info) {
+      final StandardFunc[] aggr, final InputInfo info) {
     super(info, SeqType.ITEM_ZM, vars(specs, post));
     this.specs = specs;
     preExpr = pre;
     this.post = post;
     this.nonOcc = nonOcc;
+    this.aggr = aggr;
   }
 
   /**
@@ -88,6 +103,8 @@ public final class GroupBy extends Clause {
   @Override
   Eval eval(final Eval sub) {
     return new Eval() {
+      /** Grouping (assigned when the first tuple is requested). */
+      private Grouping grouping;
       /** Groups to iterate over. */
       private Group[] groups;
       /** Current position. */
@@ -95,8 +112,17 @@ public final class GroupBy extends Clause {
 
       @Override
       public boolean next(final QueryContext qc) throws QueryException {
-        if(groups == null) groups = init(qc);
-        if(pos == groups.length) return false;
+        if(grouping == null) {
+          grouping = new Grouping(sub, qc);
+          groups = grouping.build(null);
+        }
+        // proceed with the groups of the next spilled partition
+        while(pos == groups.length) {
+          final Partition partition = grouping.partitions.poll();
+          if(partition == null) return false;
+          groups = grouping.build(partition);
+          pos = 0;
+        }
 
         final Group curr = groups[pos];
         // be nice to the garbage collector
@@ -110,77 +136,76 @@ public final class GroupBy extends Clause {
           }
         }
         final int pl = post.length;
-        for(int i = 0; i < pl; i++) qc.set(post[i], curr.ngv[i].value());
+        for(int i = 0; i < pl; i++) qc.set(post[i], grouping.value(curr, i));
         return true;
       }
+    };
+  }
 
-      /**
-       * Builds up the groups.
-       * @param qc query context
-       * @throws QueryException query exception
-       */
-      private Group[] init(final QueryContext qc) throws QueryException {
-        final ArrayList<Group> grps = new ArrayList<>();
-        final IntObjMap<Group> map = new IntObjMap<>();
-        final Collation[] colls = new Collation[nonOcc];
-        int c = 0;
-        for(final GroupSpec spec : specs) {
-          if(!spec.occluded) colls[c++] = spec.coll;
-        }
-
-        while(sub.next(qc)) {
-          final Item[] key = new Item[nonOcc];
-          int p = 0, hash = 1;
-          for(final GroupSpec spec : specs) {
-            final Item atom = spec.atomItem(qc, info);
-            if(!spec.occluded) {
-              key[p++] = atom;
-              // If the values are compared using a special collation, we let them collide
-              // here and let the comparison do all the work later.
-              // This enables other non-collation specs to avoid the collision.
-              hash = 31 * hash + (atom == null || spec.coll != null ? 0 : atom.hash(info));
-            }
-            qc.set(spec.var, atom == null ? Empty.SEQ : atom);
-          }
-
-          // find the group for this key
-          final Group fst;
-          Group grp = null;
-          // no collations, so we can use hashing
-          for(Group g = fst = map.get(hash); g != null; g = g.next) {
-            if(eq(key, g.key, colls)) {
-              grp = g;
-              break;
-            }
-          }
-
-          final int pl = preExpr.length;
-          if(grp == null) {
-            // new group, add it to the list
-            final ValueBuilder[] ngs = new ValueBuilder[pl];
-            final int nl = ngs.length;
-            for(int n = 0; n < nl; n++) ngs[n] = new ValueBuilder(qc);
-            grp = new Group(key, ngs);
-            grps.add(grp);
-
-            // insert the group into the hash table
-            if(fst == null) {
-              map.put(hash, grp);
-            } else {
-              final Group nxt = fst.next;
-              fst.next = grp;
-              grp.next = nxt;
-            }
-          }
+  /**
+   * Assigns aggregate functions to non-grouping variables that are only referenced as first
+   * argument of aggregate functions ({@code count}, {@code sum}, {@code avg}, {@code min},
+   * {@code max}). Instead of materializing all values of these variables, a running aggregate
+   * will be computed for each group. If a variable is referenced by different functions,
+   * a new variable will be introduced for each additional function.
+   * @param clauses clauses after this clause
+   * @param rtrn return expression
+   * @param cc compilation context
+   * @return this clause, or a new clause if variables were added
+   * @throws QueryException query exception
+   */
+  GroupBy aggregate(final List<Clause> clauses, final Expr rtrn, final CompileContext cc)
+      throws QueryException {
+    final ExprList pre = new ExprList();
+    final ArrayList<Var> vars = new ArrayList<>();
+    final ArrayList<StandardFunc> funcs = new ArrayList<>();
+    boolean agg = false;
 
-          // add values of non-grouping variables to the group
-          for(int g = 0; g < pl; g++) grp.ngv[g].add(preExpr[g].value(qc));
+    final int pl = post.length;
+    for(int p = 0; p < pl; p++) {
+      final Var var = post[p];
+      final Aggregate aggregate = new Aggregate(var);
+      for(final Clause clause : clauses) clause.accept(aggregate);
+      rtrn.accept(aggregate);
+
+      final ArrayList<StandardFunc> calls = aggregate.calls;
+      final ArrayList<Function> sigs = new ArrayList<>();
+      if(aggregate.refs == 0) {
+        for(final StandardFunc call : calls) {
+          if(!sigs.contains(call.sig)) sigs.add(call.sig);
         }
+      }
+      // values of non-deterministic expressions must only be computed once
+      if(sigs.isEmpty() || sigs.size() > 1 && preExpr[p].has(Flag.NDT)) {
+        pre.add(preExpr[p]);
+        vars.add(var);
+        funcs.add(null);
+        continue;
+      }
 
-        // we're finished, copy the array so the list can be garbage-collected
-        return grps.toArray(new Group[0]);
+      if(aggr == null || aggr[p] == null) cc.info(OPTAGGR_X, var);
+      agg = true;
+      final int sl = sigs.size();
+      for(int s = 0; s < sl; s++) {
+        final Function sig = sigs.get(s);
+        final StandardFunc func = calls.get(0);
+        // first function: keep variable; other functions: create new variables
+        final Var vr = s == 0 ? var : cc.copy(var, new IntObjMap<>());
+        for(final StandardFunc call : calls) {
+          if(call.sig == sig && vr != var) call.exprs[0] = new VarRef(call.info, vr).optimize(cc);
+        }
+        pre.add(s == 0 ? preExpr[p] : preExpr[p].copy(cc, new IntObjMap<>()));
+        vars.add(vr);
+        funcs.add(sig.get(func.sc, info, Empty.SEQ));
       }
-    };
+    }
+
+    if(vars.size() == pl) {
+      aggr = agg ? funcs.toArray(new StandardFunc[0]) : null;
+      return this;
+    }
+    return new GroupBy(specs, pre.finish(), vars.toArray(new Var[0]), nonOcc,
+        funcs.toArray(new StandardFunc[0]), info).optimize(cc);
   }
 
   /**
@@ -264,7 +289,8 @@ public final class GroupBy extends Clause {
     for(int p = 0; p < pl; p++) ps[p] = cc.copy(post[p], vm);
 
     // done
-    return new GroupBy(Arr.copyAll(cc, vm, specs), pEx, ps, nonOcc, info);
+    return new GroupBy(Arr.copyAll(cc, vm, specs), pEx, ps, nonOcc,
+        aggr != null ? aggr.clone() : null, info);
   }
 
   @Override
@@ -286,6 +312,7 @@ public final class GroupBy extends Clause {
     for(int p = 0; p < post.length; p++) {
       if(!used.get(post[p].id)) {
         preExpr = Array.remove(preExpr, p);
+        if(aggr != null) aggr = Array.remove(aggr, p);
         post = Array.remove(post, p--);
       }
     }
@@ -327,7 +354,14 @@ public final class GroupBy extends Clause {
 
   @Override
   public void plan(final FElem plan) {
-    final FElem elem = planElem();
+    final TokenBuilder tb = new TokenBuilder();
+    final int pl = post.length;
+    for(int p = 0; p < pl && aggr != null; p++) {
+      if(aggr[p] == null) continue;
+      if(!tb.isEmpty()) tb.add(SEP);
+      tb.add(aggr[p].sig.local()).add('(').add(post[p].toErrorString()).add(')');
+    }
+    final FElem elem = planElem(AGGREGATE, tb.isEmpty() ? null : tb);
     for(final GroupSpec spec : specs) spec.plan(elem);
     plan.add(elem);
   }
@@ -345,4 +379,321 @@ public final class GroupBy extends Clause {
     for(int s = 0; s < sl; s++) sb.append(s == 0 ? " " : SEP).append(specs[s]);
     return sb.toString();
   }
+
+  /**
+   * Builds groups and computes the values of non-grouping variables.
+   *
+   * If {@link MainOptions#GROUPBUFFER} is assigned a positive value, and if the number of groups
+   * in main memory reaches this value, tuples of new groups are written to hash partitions on
+   * disk, which are grouped one by one after all groups in main memory have been returned.
+   */
+  private final class Grouping {
+    /** Query context. */
+    private final QueryContext qc;
+    /** Incoming tuples. */
+    private final Eval sub;
+    /** Collations of the non-occluded grouping specs. */
+    private final Collation[] colls = new Collation[nonOcc];
+    /** Aggregate functions (instances with the computed arguments, can be {@code null}). */
+    private final StandardFunc[] funcs;
+    /** Maximum number of groups in main memory ({@code 0}: no limit). */
+    private final int buffer;
+    /** Partitions to be grouped. */
+    private final ArrayDeque<Partition> partitions = new ArrayDeque<>();
+    /** Databases referenced by the spilled nodes. */
+    private final ArrayList<Data> datas = new ArrayList<>();
+
+    /**
+     * Constructor.
+     * @param sub incoming tuples
+     * @param qc query context
+     */
+    private Grouping(final Eval sub, final QueryContext qc) {
+      this.sub = sub;
+      this.qc = qc;
+      int c = 0;
+      for(final GroupSpec spec : specs) {
+        if(!spec.occluded) colls[c++] = spec.coll;
+      }
+      final int pl = post.length;
+      funcs = aggr != null ? new StandardFunc[pl] : null;
+      for(int p = 0; p < pl && funcs != null; p++) {
+        final StandardFunc func = aggr[p];
+        if(func != null) funcs[p] = (func.sig == Function.AVG ? Function.SUM : func.sig).
+            get(func.sc, info, Empty.SEQ);
+      }
+      buffer = qc.context.options.get(MainOptions.GROUPBUFFER);
+    }
+
+    /**
+     * Builds up the groups.
+     * @param input partition to be grouped ({@code null} for the incoming tuples)
+     * @return groups
+     * @throws QueryException query exception
+     */
+    private Group[] build(final Partition input) throws QueryException {
+      final ArrayList<Group> grps = new ArrayList<>();
+      final IntObjMap<Group> map = new IntObjMap<>();
+      final int level = input == null ? 0 : input.level + 1;
+      Partition[] parts = null;
+
+      final int pl = preExpr.length;
+      while(true) {
+        final Item[] key = new Item[nonOcc];
+        final Value[] values;
+        if(input == null) {
+          if(!sub.next(qc)) break;
+          int p = 0;
+          for(final GroupSpec spec : specs) {
+            final Item atom = spec.atomItem(qc, info);
+            if(!spec.occluded) key[p++] = atom;
+            qc.set(spec.var, atom == null ? Empty.SEQ : atom);
+          }
+          values = new Value[pl];
+          for(int g = 0; g < pl; g++) values[g] = preExpr[g].value(qc);
+        } else {
+          final Value[] tuple = input.next();
+          if(tuple == null) break;
+          for(int k = 0; k < nonOcc; k++) key[k] = tuple[k].isEmpty() ? null : (Item) tuple[k];
+          values = Arrays.copyOfRange(tuple, nonOcc, tuple.length);
+        }
+
+        // find the group for this key
+        final int hash = hash(key);
+        final Group fst = map.get(hash);
+        Group grp = null;
+        for(Group g = fst; g != null; g = g.next) {
+          if(eq(key, g.key, colls)) {
+            grp = g;
+            break;
+          }
+        }
+
+        if(grp == null) {
+          // maximum number of groups is exceeded: write tuple to a partition
+          if(buffer > 0 && grps.size() >= buffer && level < LEVELS) {
+            if(parts == null) parts = new Partition[PARTITIONS];
+            final int p = hash >>> level * 4 & PARTITIONS - 1;
+            if(parts[p] == null) parts[p] = new Partition(level);
+            parts[p].add(key, values, datas, qc);
+            continue;
+          }
+
+          // new group, add it to the list
+          final ValueBuilder[] ngs = new ValueBuilder[pl];
+          for(int n = 0; n < pl; n++) {
+            if(funcs == null || funcs[n] == null) ngs[n] = new ValueBuilder(qc);
+          }
+          grp = new Group(key, ngs, funcs != null ? new Value[pl] : null);
+          grps.add(grp);
+
+          // insert the group into the hash table
+          if(fst == null) {
+            map.put(hash, grp);
+          } else {
+            final Group nxt = fst.next;
+            fst.next = grp;
+            grp.next = nxt;
+          }
+        }
+
+        // add values of non-grouping variables to the group
+        for(int g = 0; g < pl; g++) {
+          if(grp.ngv[g] != null) {
+            grp.ngv[g].add(values[g]);
+          } else {
+            aggregate(grp, g, values[g]);
+          }
+        }
+      }
+
+      if(parts != null) {
+        for(final Partition part : parts) {
+          if(part != null) partitions.add(part);
+        }
+      }
+      // we're finished, copy the array so the list can be garbage-collected
+      return grps.toArray(new Group[0]);
+    }
+
+    /**
+     * Computes the hash value of a key.
+     * @param key key
+     * @return hash value
+     * @throws QueryException query exception
+     */
+    private int hash(final Item[] key) throws QueryException {
+      int hash = 1;
+      for(int k = 0; k < nonOcc; k++) {
+        // If the values are compared using a special collation, we let them collide
+        // here and let the comparison do all the work later.
+        // This enables other non-collation specs to avoid the collision.
+        final Item atom = key[k];
+        hash = 31 * hash + (atom == null || colls[k] != null ? 0 : atom.hash(info));
+      }
+      return hash;
+    }
+
+    /**
+     * Adds a value to the running aggregate of a non-grouping variable.
+     * @param grp group
+     * @param g index of the variable
+     * @param value value
+     * @throws QueryException query exception
+     */
+    private void aggregate(final Group grp, final int g, final Value value)
+        throws QueryException {
+
+      // skip further values if an error will be raised
+      final long size = grp.sizes[g];
+      if(size == -1) return;
+
+      final Function sig = aggr[g].sig;
+      final Value val = sig == Function.AVG ? value.atomValue(qc, info) : value;
+      if(sig != Function.COUNT && !val.isEmpty()) {
+        final Value acc = grp.aggr[g];
+        final Value arg = acc == null ? val : ValueBuilder.concat(acc, val, qc);
+        try {
+          final StandardFunc func = funcs[g];
+          func.exprs[0] = arg;
+          grp.aggr[g] = func.item(qc, info);
+        } catch(final QueryException ex) {
+          // keep values: the error will be raised when the function is evaluated
+          Util.debug(ex);
+          grp.aggr[g] = arg;
+          grp.sizes[g] = -1;
+          return;
+        }
+      }
+      grp.sizes[g] = size + val.size();
+    }
+
+    /**
+     * Returns the value of a non-grouping variable.
+     * @param grp group
+     * @param p index of the variable
+     * @return value
+     * @throws QueryException query exception
+     */
+    private Value value(final Group grp, final int p) throws QueryException {
+      final ValueBuilder vb = grp.ngv[p];
+      if(vb != null) return vb.value();
+
+      // all values are passed on to the function if an error will be raised
+      final Value acc = grp.aggr[p];
+      final long size = grp.sizes[p];
+      if(size == -1) return acc;
+
+      final Function sig = aggr[p].sig;
+      // count: return compact sequence with the number of values
+      if(sig == Function.COUNT) return RangeSeq.get(1, size, true);
+      if(acc == null) return Empty.SEQ;
+      return sig == Function.AVG ? Calc.DIV.eval((Item) acc, Int.get(size), info) : acc;
+    }
+  }
+
+  /**
+   * Partition with tuples of groups that did not fit into main memory.
+   */
+  private static final class Partition {
+    /** Recursion level. */
+    private final int level;
+    /** Tuples on disk (assigned when the first tuple is written). */
+    private TupleFile file;
+    /** Tuples in main memory (following all tuples on disk). */
+    private final ArrayList<Value[]> tuples = new ArrayList<>();
+    /** Number of read tuples in main memory. */
+    private int read;
+
+    /**
+     * Constructor.
+     * @param level recursion level
+     */
+    private Partition(final int level) {
+      this.level = level;
+    }
+
+    /**
+     * Adds a tuple.
+     * @param key key
+     * @param values values of the non-grouping variables
+     * @param datas databases referenced by the spilled nodes
+     * @param qc query context
+     * @throws QueryException query exception
+     */
+    private void add(final Item[] key, final Value[] values, final ArrayList<Data> datas,
+        final QueryContext qc) throws QueryException {
+
+      final int kl = key.length;
+      final Value[] tuple = new Value[kl + values.length];
+      for(int k = 0; k < kl; k++) tuple[k] = key[k] == null ? Empty.SEQ : key[k];
+      Array.copyFromStart(values, values.length, tuple, kl);
+
+      // preserve order: tuples are only written to disk if no tuples are kept in main memory
+      if(tuples.isEmpty() && TupleFile.spillable(tuple)) {
+        if(file == null) file = new TupleFile(datas, qc);
+        file.write(tuple);
+      } else {
+        tuples.add(tuple);
+      }
+    }
+
+    /**
+     * Returns the next tuple.
+     * @return tuple or {@code null}
+     * @throws QueryException query exception
+     */
+    private Value[] next() throws QueryException {
+      if(file != null) {
+        final Value[] tuple = file.read();
+        if(tuple != null) return tuple;
+        file = null;
+      }
+      if(read == tuples.size()) return null;
+      final Value[] tuple = tuples.get(read);
+      tuples.set(read++, null);
+      return tuple;
+    }
+  }
+
+  /**
+   * Visitor that collects the aggregate function calls that reference a variable.
+   */
+  private static final class Aggregate extends ASTVisitor {
+    /** Variable. */
+    private final Var var;
+    /** Aggregate function calls with the variable as argument. */
+    private final ArrayList<StandardFunc> calls = new ArrayList<>();
+    /** Number of references that are no arguments of aggregate function calls. */
+    private int refs;
+
+    /**
+     * Constructor.
+     * @param var variable
+     */
+    private Aggregate(final Var var) {
+      this.var = var;
+    }
+
+    @Override
+    public boolean used(final VarRef ref) {
+      if(ref.var.is(var)) refs++;
+      return true;
+    }
+
+    @Override
+    public boolean funcCall(final StandardFunc call) {
+      final Expr[] args = call.exprs;
+      final Function sig = call.sig;
+      if(args.length > 0 && args[0] instanceof VarRef && ((VarRef) args[0]).var.is(var) &&
+        (args.length == 1 && (sig == Function.COUNT || sig == Function.SUM ||
+        sig == Function.AVG || sig == Function.MIN || sig == Function.MAX) ||
+        args.length == 2 && sig == Function.SUM)) {
+        calls.add(call);
+        // compensate the reference in the argument, which will be visited next
+        refs--;
+      }
+      return true;
+    }
+  }
 }
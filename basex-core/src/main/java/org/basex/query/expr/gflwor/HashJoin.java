@@ -0,0 +1,288 @@
+package org.basex.query.expr.gflwor;
+
+import static org.basex.query.QueryText.*;
+
+import java.util.*;
+import java.util.List;
+
+import org.basex.data.*;
+import org.basex.query.*;
+import org.basex.query.expr.*;
+import org.basex.query.iter.*;
+import org.basex.query.util.*;
+import org.basex.query.util.hash.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.node.*;
+import org.basex.query.value.type.*;
+import org.basex.query.var.*;
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+
+/**
+ * FLWOR {@code for} clause with an equi-join predicate, which is evaluated as hash join.
+ *
+ * The items of the bound expression are independent of the incoming tuples. When the first
+ * tuple arrives, they are evaluated once, and their join keys are stored in a hash table
+ * (build side). For each incoming tuple, the probe keys are looked up in the table, and the
+ * matching items are bound in their original order (probe side).
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class HashJoin extends Clause {
+  /** Item variable. */
+  final Var var;
+  /** Bound expression. */
+  Expr expr;
+  /** Join key of the bound items (build side). */
+  Expr key;
+  /** Join key of the incoming tuples (probe side). */
+  Expr probe;
+
+  /**
+   * Constructor.
+   * @param var item variable
+   * @param expr bound expression
+   * @param key join key of the bound items
+   * @param probe join key of the incoming tuples
+   */
+  private HashJoin(final Var var, final Expr expr, final Expr key, final Expr probe) {
+    super(var.info, SeqType.ITEM_O, var);
+    this.var = var;
+    this.expr = expr;
+    this.key = key;
+    this.probe = probe;
+  }
+
+  /**
+   * Tries to rewrite a for clause and a subsequent where clause to a hash join.
+   * @param fr for clause
+   * @param where where clause
+   * @param outer clauses preceding the for clause
+   * @param cc compilation context
+   * @return hash join or {@code null}
+   * @throws QueryException query exception
+   */
+  static HashJoin get(final For fr, final Where where, final List<Clause> outer,
+      final CompileContext cc) throws QueryException {
+
+    // for clause must bind single items, and its expression must yield multiple items
+    if(fr.empty || fr.vars().length != 1 || fr.has(Flag.NDT, Flag.UPD)) return null;
+    final Expr expr = fr.expr;
+    if(expr.seqType().zeroOrOne()) return null;
+
+    // skip join if an index may be applied to the predicate
+    final Data data = expr.data();
+    if(data != null && (data.meta.textindex || data.meta.attrindex)) return null;
+
+    // equality comparison with codepoint collation
+    if(!(where.expr instanceof CmpG) || where.has(Flag.NDT, Flag.UPD)) return null;
+    final CmpG cmp = (CmpG) where.expr;
+    if(!cmp.equality()) return null;
+
+    // one operand must depend on the item variable, the other one on outer variables
+    final Expr[] ops = cmp.exprs;
+    final int k = ops[0].uses(fr.var) ? 0 : 1;
+    final Expr key = ops[k], probe = ops[1 - k];
+    if(!key.uses(fr.var) || probe.uses(fr.var)) return null;
+    boolean joined = false, loop = false;
+    for(final Clause clause : outer) {
+      // variables of leading let clauses are bound only once
+      loop |= !(clause instanceof Let);
+      for(final Var v : clause.vars()) {
+        if(loop && (expr.uses(v) || key.uses(v))) return null;
+        joined |= loop && probe.uses(v);
+      }
+    }
+    if(!joined) return null;
+
+    // items must be comparable via their hash values
+    final SeqType st1 = key.seqType(), st2 = probe.seqType();
+    final Type type1 = st1.type, type2 = st2.type;
+    if(st1.mayBeArray() || st2.mayBeArray() || !(type1.isNumber() && type2.isNumber() ||
+      type1.isStringOrUntyped() && type2.isStringOrUntyped())) return null;
+
+    cc.info(OPTJOIN_X, fr.var);
+    return new HashJoin(fr.var, expr, key, probe).optimize(cc);
+  }
+
+  @Override
+  Eval eval(final Eval sub) {
+    return new Eval() {
+      /** Items of the bound expression (assigned when the first tuple arrives). */
+      private Value value;
+      /** Join keys. */
+      private HashItemSet keys;
+      /** Positions of the items, indexed by the ids of the join keys. */
+      private ArrayList<IntList> positions;
+      /** Positions of the items matching the current tuple. */
+      private IntList matches;
+      /** Current match. */
+      private int m;
+
+      @Override
+      public boolean next(final QueryContext qc) throws QueryException {
+        while(true) {
+          if(matches != null && m < matches.size()) {
+            qc.set(var, value.itemAt(matches.get(m++)));
+            return true;
+          }
+          if(!sub.next(qc)) return false;
+          if(value == null) build(qc);
+          matches = match(qc);
+          m = 0;
+        }
+      }
+
+      /**
+       * Evaluates the bound expression and builds the hash table.
+       * @param qc query context
+       * @throws QueryException query exception
+       */
+      private void build(final QueryContext qc) throws QueryException {
+        value = expr.value(qc);
+        keys = new HashItemSet(true);
+        positions = new ArrayList<>();
+        positions.add(null);
+        final long size = value.size();
+        for(int p = 0; p < size; p++) {
+          qc.set(var, value.itemAt(p));
+          final Iter iter = key.atomIter(qc, info);
+          for(Item item; (item = qc.next(iter)) != null;) {
+            final int id = keys.put(item, info);
+            if(id > 0) {
+              positions.add(new IntList(1).add(p));
+            } else {
+              // skip duplicate keys of the same item
+              final IntList list = positions.get(-id);
+              if(list.peek() != p) list.add(p);
+            }
+          }
+        }
+      }
+
+      /**
+       * Returns the positions of all items that match the current tuple.
+       * @param qc query context
+       * @return positions, or {@code null} if no items match
+       * @throws QueryException query exception
+       */
+      private IntList match(final QueryContext qc) throws QueryException {
+        IntList list = null;
+        int lists = 0;
+        final Iter iter = probe.atomIter(qc, info);
+        for(Item item; (item = qc.next(iter)) != null;) {
+          final int id = keys.id(item, info);
+          if(id == 0) continue;
+          final IntList pos = positions.get(id);
+          if(lists++ == 0) {
+            list = pos;
+          } else {
+            if(lists == 2) list = new IntList(list.toArray());
+            list.add(pos.toArray());
+          }
+        }
+        // merge positions of multiple keys
+        return lists > 1 ? list.sort().distinct() : list;
+      }
+    };
+  }
+
+  @Override
+  public boolean has(final Flag... flags) {
+    return expr.has(flags) || key.has(flags) || probe.has(flags);
+  }
+
+  @Override
+  public HashJoin compile(final CompileContext cc) throws QueryException {
+    expr = expr.compile(cc);
+    key = key.compile(cc);
+    probe = probe.compile(cc);
+    return optimize(cc);
+  }
+
+  @Override
+  public HashJoin optimize(final CompileContext cc) {
+    exprType.assign(expr.seqType().type, Occ.ONE);
+    var.data = expr.data();
+    return this;
+  }
+
+  @Override
+  public boolean inlineable(final Var v) {
+    return expr.inlineable(v) && key.inlineable(v) && probe.inlineable(v);
+  }
+
+  @Override
+  public VarUsage count(final Var v) {
+    final VarUsage us = key.count(v);
+    return (us == VarUsage.NEVER ? expr.count(v) : VarUsage.MORE_THAN_ONCE).plus(probe.count(v));
+  }
+
+  @Override
+  public HashJoin inline(final Var v, final Expr ex, final CompileContext cc)
+      throws QueryException {
+
+    final Expr ex1 = expr.inline(v, ex, cc), ex2 = key.inline(v, ex, cc);
+    final Expr ex3 = probe.inline(v, ex, cc);
+    if(ex1 == null && ex2 == null && ex3 == null) return null;
+    if(ex1 != null) expr = ex1;
+    if(ex2 != null) key = ex2;
+    if(ex3 != null) probe = ex3;
+    return optimize(cc);
+  }
+
+  @Override
+  public HashJoin copy(final CompileContext cc, final IntObjMap<Var> vm) {
+    final Expr ex = expr.copy(cc, vm);
+    final Var v = cc.copy(var, vm);
+    return copyType(new HashJoin(v, ex, key.copy(cc, vm), probe.copy(cc, vm)));
+  }
+
+  @Override
+  public boolean accept(final ASTVisitor visitor) {
+    return expr.accept(visitor) && probe.accept(visitor) && visitor.declared(var) &&
+        key.accept(visitor);
+  }
+
+  @Override
+  public void checkUp() throws QueryException {
+    checkNoneUp(expr, key, probe);
+  }
+
+  @Override
+  void calcSize(final long[] minMax) {
+    minMax[0] = 0;
+    final long size = expr.size(), max = minMax[1];
+    if(max > 0) minMax[1] = size < 0 ? -1 : max * size;
+  }
+
+  @Override
+  public int exprSize() {
+    return expr.exprSize() + key.exprSize() + probe.exprSize();
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if(!(obj instanceof HashJoin)) return false;
+    final HashJoin hj = (HashJoin) obj;
+    return var.equals(hj.var) && expr.equals(hj.expr) && key.equals(hj.key) &&
+        probe.equals(hj.probe);
+  }
+
+  @Override
+  public void plan(final FElem plan) {
+    final FElem elem = planElem();
+    var.plan(elem);
+    expr.plan(elem);
+    key.plan(elem);
+    probe.plan(elem);
+    plan.add(elem);
+  }
+
+  @Override
+  public String toString() {
+    return FOR + ' ' + var + ' ' + IN + ' ' + expr + ' ' + WHERE + ' ' + key + " = " + probe;
+  }
+}
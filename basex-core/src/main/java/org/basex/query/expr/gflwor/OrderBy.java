@@ -3,15 +3,13 @@ package org.basex.query.expr.gflwor;
 import static org.basex.query.QueryError.*;
 import static org.basex.query.QueryText.*;
 
-import java.util.*;
-import java.util.List;
-
 import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.util.*;
 import org.basex.query.value.*;
 import org.basex.query.value.item.*;
 import org.basex.query.value.node.*;
+import org.basex.query.value.seq.*;
 import org.basex.query.value.type.*;
 import org.basex.query.var.*;
 import org.basex.util.*;
@@ -28,6 +26,8 @@ public final class OrderBy extends Clause {
   private VarRef[] refs;
   /** Sort keys. */
   private final OrderKey[] keys;
+  /** Maximum number of tuples to be returned. */
+  private long limit = Long.MAX_VALUE;
 
   /**
    * Constructor.
@@ -44,20 +44,16 @@ public final class OrderBy extends Clause {
   @Override
   Eval eval(final Eval sub) {
     return new Eval() {
-      private Value[][] tpls;
-      private Integer[] perm;
-      int pos;
+      /** Sorted tuples (keys are followed by the values of the variables). */
+      private TupleSort tuples;
 
       @Override
       public boolean next(final QueryContext qc) throws QueryException {
-        if(tpls == null) sort(qc);
-        if(pos == tpls.length) return false;
-        final int p = perm[pos++];
-        final Value[] tuple = tpls[p];
-        // free the space occupied by the tuple
-        tpls[p] = null;
-        final int rl = refs.length;
-        for(int r = 0; r < rl; r++) qc.set(refs[r].var, tuple[r]);
+        if(tuples == null) sort(qc);
+        final Value[] tuple = tuples.next();
+        if(tuple == null) return false;
+        final int kl = keys.length, rl = refs.length;
+        for(int r = 0; r < rl; r++) qc.set(refs[r].var, tuple[kl + r]);
         return true;
       }
 
@@ -67,61 +63,45 @@ public final class OrderBy extends Clause {
        * @throws QueryException evaluation exception
        */
       private void sort(final QueryContext qc) throws QueryException {
-        // keys are stored at odd positions, values at even ones
-        List<Value[]> tuples = new ArrayList<>();
-        while(sub.next(qc)) {
-          final int kl = keys.length;
-          final Item[] key = new Item[kl];
-          for(int k = 0; k < kl; k++) key[k] = keys[k].expr.atomItem(qc, keys[k].info);
-          tuples.add(key);
-
-          final int rl = refs.length;
-          final Value[] vals = new Value[rl];
-          for(int r = 0; r < rl; r++) vals[r] = refs[r].value(qc);
-          tuples.add(vals);
-        }
+        final int kl = keys.length, rl = refs.length;
+        tuples = new TupleSort((a, b) -> {
+          for(int k = 0; k < kl; k++) {
+            final OrderKey key = keys[k];
+            Item m = a[k].isEmpty() ? null : (Item) a[k], n = b[k].isEmpty() ? null : (Item) b[k];
+            if(m == Dbl.NAN || m == Flt.NAN) m = null;
+            if(n == Dbl.NAN || n == Flt.NAN) n = null;
+            if(m != null && n != null && !m.comparable(n))
+              throw typeError(n, m.type, key.info);
+
+            final int c = m == null
+                ? n == null ? 0                 : key.least ? -1 : 1
+                : n == null ? key.least ? 1 : -1 : m.diff(n, key.coll, key.info);
+            if(c != 0) return key.desc ? -c : c;
+          }
+          return 0;
+        }, limit, qc);
 
-        final int len = tuples.size() >>> 1;
-        final Item[][] ks = new Item[len][];
-        perm = new Integer[len];
-        tpls = new Value[len][];
-        for(int i = 0; i < len; i++) {
-          perm[i] = i;
-          tpls[i] = tuples.get(i << 1 | 1);
-          ks[i] = (Item[]) tuples.get(i << 1);
-        }
-        // be nice to the garbage collector
-        tuples = null;
-        try {
-          Arrays.sort(perm, (x, y) -> {
-            try {
-              final Item[] a = ks[x], b = ks[y];
-              final int kl = keys.length;
-              for(int k = 0; k < kl; k++) {
-                final OrderKey key = keys[k];
-                Item m = a[k], n = b[k];
-                if(m == Dbl.NAN || m == Flt.NAN) m = null;
-                if(n == Dbl.NAN || n == Flt.NAN) n = null;
-                if(m != null && n != null && !m.comparable(n))
-                  throw typeError(n, m.type, key.info);
-
-                final int c = m == null
-                    ? n == null ? 0                 : key.least ? -1 : 1
-                    : n == null ? key.least ? 1 : -1 : m.diff(n, key.coll, key.info);
-                if(c != 0) return key.desc ? -c : c;
-              }
-              return 0;
-            } catch(final QueryException ex) {
-              throw new QueryRTException(ex);
-            }
-          });
-        } catch(final QueryRTException ex) {
-          throw ex.getCause();
+        while(sub.next(qc)) {
+          final Value[] tuple = new Value[kl + rl];
+          for(int k = 0; k < kl; k++) {
+            final Item item = keys[k].expr.atomItem(qc, keys[k].info);
+            tuple[k] = item == null ? Empty.SEQ : item;
+          }
+          for(int r = 0; r < rl; r++) tuple[kl + r] = refs[r].value(qc);
+          tuples.add(tuple);
         }
       }
     };
   }
 
+  /**
+   * Limits the number of tuples that will be returned.
+   * @param max maximum number of tuples
+   */
+  void limit(final long max) {
+    limit = Math.min(limit, max);
+  }
+
   @Override
   public boolean has(final Flag... flags) {
     for(final OrderKey key : keys) {
@@ -165,7 +145,9 @@ public final class OrderBy extends Clause {
 
   @Override
   public OrderBy copy(final CompileContext cc, final IntObjMap<Var> vm) {
-    return copyType(new OrderBy(Arr.copyAll(cc, vm, refs), Arr.copyAll(cc, vm, keys), info));
+    final OrderBy ob = new OrderBy(Arr.copyAll(cc, vm, refs), Arr.copyAll(cc, vm, keys), info);
+    ob.limit = limit;
+    return copyType(ob);
   }
 
   @Override
@@ -215,12 +197,12 @@ public final class OrderBy extends Clause {
     if(this == obj) return true;
     if(!(obj instanceof OrderBy)) return false;
     final OrderBy o = (OrderBy) obj;
-    return Array.equals(refs, o.refs) && Array.equals(keys, o.keys);
+    return Array.equals(refs, o.refs) && Array.equals(keys, o.keys) && limit == o.limit;
   }
 
   @Override
   public void plan(final FElem plan) {
-    final FElem elem = planElem();
+    final FElem elem = planElem(MAX, limit == Long.MAX_VALUE ? null : limit);
     for(final OrderKey key : keys) key.plan(elem);
     plan.add(elem);
   }
@@ -0,0 +1,90 @@
+package org.basex.query.expr.index;
+
+import static org.basex.query.QueryError.*;
+import static org.basex.query.QueryText.*;
+
+import org.basex.data.*;
+import org.basex.index.*;
+import org.basex.index.query.*;
+import org.basex.index.value.*;
+import org.basex.query.*;
+import org.basex.query.expr.*;
+import org.basex.query.func.*;
+import org.basex.query.iter.*;
+import org.basex.query.value.node.*;
+import org.basex.query.var.*;
+import org.basex.util.*;
+import org.basex.util.hash.*;
+
+/**
+ * This index class retrieves numbers, timestamps and dates from the typed range index.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class TypedAccess extends IndexAccess {
+  /** Index token. */
+  private final TypedRange index;
+  /** Typed comparison of the context value (used for string representations). */
+  private final Expr cmp;
+
+  /**
+   * Constructor.
+   * @param info input info
+   * @param index index token
+   * @param cmp typed comparison of the context value
+   * @param db index database
+   */
+  public TypedAccess(final InputInfo info, final TypedRange index, final Expr cmp,
+      final IndexDb db) {
+    super(db, info, index.type());
+    this.index = index;
+    this.cmp = cmp;
+  }
+
+  @Override
+  public BasicNodeIter iter(final QueryContext qc) throws QueryException {
+    final Data data = db.data(qc);
+    final TypedValues values = data.rangeIndex;
+    if(values == null || !data.meta.rangeindex)
+      throw DB_NOINDEX_X_X.get(info, data.meta.name, "range");
+
+    return new DBNodeIter(data) {
+      final byte kind = index.type() == IndexType.TEXT ? Data.TEXT : Data.ATTR;
+      final IndexIterator ii = values.iter(index);
+      @Override
+      public DBNode next() {
+        return ii.more() ? new DBNode(data, ii.pre(), kind) : null;
+      }
+    };
+  }
+
+  @Override
+  public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
+    return new TypedAccess(info, index, cmp, db.copy(cc, vm));
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if(!(obj instanceof TypedAccess)) return false;
+    final TypedRange tr = ((TypedAccess) obj).index;
+    return index.type() == tr.type() && index.kind == tr.kind &&
+        Token.eq(index.name, tr.name) && index.min == tr.min && index.max == tr.max &&
+        super.equals(obj);
+  }
+
+  @Override
+  public void plan(final FElem plan) {
+    addPlan(plan, planElem(INDEX, index.type(), NAME, index.name, TYPE, index.kind,
+        MIN, index.min, MAX, index.max), db);
+  }
+
+  @Override
+  public String toString() {
+    final TokenBuilder tb = new TokenBuilder();
+    tb.add(Function._DB_OPEN.args(db.source()).substring(1));
+    if(index.type() == IndexType.TEXT) tb.add("//").add(index.name).add("/text()");
+    else tb.add("//@").add(index.name);
+    return tb.add('[').add(cmp).add(']').toString();
+  }
+}
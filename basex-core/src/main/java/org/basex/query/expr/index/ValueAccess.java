@@ -154,8 +154,8 @@ public final class ValueAccess extends IndexAccess {
       }
       @Override
       public long size() {
-        // index access: number of results is known in advance
-        return index ? ii.size() : -1;
+        // index access: number of results is known in advance (unless names are filtered)
+        return index && test == null ? ii.size() : -1;
       }
     };
   }
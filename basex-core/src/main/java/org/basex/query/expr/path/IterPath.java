@@ -70,6 +70,49 @@ public final class IterPath extends AxisPath {
         }
       }
 
+      @Override
+      public int next(final Item[] items, final int start) throws QueryException {
+        final QueryFocus qf = qc.focus;
+        if(iter == null) init(qf);
+        final int il = items.length;
+        int n = start;
+        if(pos == -1) return n;
+        qc.focus = focus;
+
+        try {
+          final int end = sz - 1;
+          while(n < il) {
+            if(pos == end) {
+              // last step: request nodes in a batch; skip identical nodes
+              final int e = iter[pos].next(items, n);
+              for(int i = n; i < e; i++) {
+                final ANode node = (ANode) items[i];
+                items[i] = null;
+                if(last == null || !last.is(node)) {
+                  last = node;
+                  items[n++] = node;
+                }
+              }
+              if(e < il && --pos == -1) break;
+            } else {
+              final Item item = qc.next(iter[pos]);
+              if(item == null) {
+                if(--pos == -1) break;
+              } else {
+                // ensure that the root expression yields nodes
+                if(pos++ == 0 && rt && !(item instanceof ANode))
+                  throw PATHNODE_X_X_X.get(info, steps[0], item.type, item);
+                focus.value = item;
+                iter[pos] = exprs[pos].iter(qc);
+              }
+            }
+          }
+        } finally {
+          qc.focus = qf;
+        }
+        return n;
+      }
+
       private void init(final QueryFocus qf) throws QueryException {
         rt = root != null;
         sz = steps.length + (rt ? 1 : 0);
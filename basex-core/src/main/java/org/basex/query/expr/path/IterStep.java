@@ -4,6 +4,7 @@ package org.basex.query.expr.path;
 import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.iter.*;
+import org.basex.query.value.item.*;
 import org.basex.query.value.node.*;
 import org.basex.query.var.*;
 import org.basex.util.*;
@@ -41,6 +42,18 @@ public final class IterStep extends Step {
         }
         return null;
       }
+
+      @Override
+      public int next(final Item[] items, final int start) throws QueryException {
+        if(iter == null) iter = axis.iter(checkNode(qc));
+        final int il = items.length;
+        int n = start;
+        for(ANode node; n < il && (node = iter.next()) != null;) {
+          qc.checkStop();
+          if(test.eq(node) && preds(node, qc)) items[n++] = node.finish();
+        }
+        return n;
+      }
     };
   }
 
@@ -107,7 +107,7 @@ public abstract class Path extends ParseExpr {
     }
     sl = st.length;
     if(axes == sl) return iterative(rt, st) ? new IterPath(info, rt, st) :
-      new CachedPath(info, rt, st);
+      staircase(rt, st) ? new StaircasePath(info, rt, st) : new CachedPath(info, rt, st);
 
     // if last expression yields no nodes, rewrite mixed path to simple map
     // example: $a/b/string -> $a/b ! string()
@@ -385,6 +385,24 @@ public abstract class Path extends ParseExpr {
     return true;
   }
 
+  /**
+   * Checks if the path can be evaluated set-at-a-time. This is the case if a step with
+   * a descendant, ancestor, following or preceding axis may be evaluated for multiple nodes.
+   * @param root root expression; can be a {@code null} reference
+   * @param steps path steps
+   * @return result of check
+   */
+  private static boolean staircase(final Expr root, final Expr... steps) {
+    boolean single = root == null || root.size() == 1 || root.seqType().zeroOrOne();
+    for(final Expr expr : steps) {
+      final Step step = (Step) expr;
+      if(!single && step instanceof IterStep && StaircasePath.AXES.contains(step.axis))
+        return true;
+      single &= step.axis == Axis.SELF || step.axis == Axis.PARENT;
+    }
+    return false;
+  }
+
   /**
    * Assigns a sequence type and (if statically known) result size.
    * @param rt root value (can be {@code null})
@@ -459,8 +477,9 @@ public abstract class Path extends ParseExpr {
    * @return path nodes, or {@code null} if nodes cannot be retrieved
    */
   private ArrayList<PathNode> pathNodes(final Data data, final int last) {
-    // skip request if no path index exists or might be out-of-date
-    if(data == null || !data.meta.uptodate) return null;
+    // skip request if no path index exists or might be out-of-date, or if several namespaces
+    // occur in the input (path nodes are identified by local names)
+    if(data == null || !data.meta.uptodate || data.nspaces.globalUri() == null) return null;
 
     ArrayList<PathNode> nodes = data.paths.root();
     for(int s = 0; s <= last; s++) {
@@ -692,7 +711,8 @@ public abstract class Path extends ParseExpr {
         final IndexDb db = data != null ? new IndexStaticDb(data, iter, info) :
           new IndexDynDb(info, iter, root == null ? new ContextValue(info) : root);
 
-        // choose cheapest index access
+        // compute costs of index access
+        final IndexInfo[] infos = new IndexInfo[el];
         for(int e = 0; e < el; e++) {
           final IndexInfo ii = new IndexInfo(db, cc.qc, step);
           if(!step.exprs[e].indexAccessible(ii)) continue;
@@ -702,8 +722,14 @@ public abstract class Path extends ParseExpr {
             cc.info(QueryText.OPTNORESULTS_X, ii.step);
             return Empty.SEQ;
           }
+          infos[e] = ii;
+        }
+        select(step, infos, cc);
 
-          if(index == null || index.costs.compareTo(ii.costs) > 0) {
+        // choose cheapest index access
+        for(int e = 0; e < el; e++) {
+          final IndexInfo ii = infos[e];
+          if(ii != null && (index == null || index.costs.compareTo(ii.costs) > 0)) {
             index = ii;
             indexPred = e;
             indexStep = s;
@@ -713,7 +739,11 @@ public abstract class Path extends ParseExpr {
     }
 
     // skip rewriting if no index access is possible, or if it is too expensive
-    if(index == null || data != null && index.costs.tooExpensive(data)) return this;
+    if(index == null) return this;
+    if(data != null && index.costs.tooExpensive(data, scanCosts(data, indexStep))) {
+      cc.info(QueryText.OPTSCAN_X, index.step);
+      return this;
+    }
     // skip optimization if it is not enforced
     if(rt instanceof Dummy && !index.enforce()) return this;
 
@@ -784,6 +814,77 @@ public abstract class Path extends ParseExpr {
     return resultSteps.isEmpty() ? resultRoot : get(info, resultRoot, resultSteps.finish());
   }
 
+  /**
+   * Reorders the predicates of a step that can be rewritten for index access: the most
+   * selective predicates (with the smallest number of index results) will be evaluated first.
+   * Other predicates are not moved.
+   * @param step step
+   * @param infos index infos (entries are {@code null} if predicates are not index-accessible)
+   * @param cc compilation context
+   */
+  private static void select(final Step step, final IndexInfo[] infos,
+      final CompileContext cc) {
+    // positions of the predicates to be reordered
+    final int il = infos.length;
+    final int[] pos = new int[il];
+    int ps = 0;
+    for(int i = 0; i < il; i++) {
+      if(infos[i] != null && infos[i].costs.results() > 0) pos[ps++] = i;
+    }
+    if(ps < 2) return;
+
+    // stable sort by the number of results
+    final Integer[] order = new Integer[ps];
+    for(int p = 0; p < ps; p++) order[p] = pos[p];
+    Arrays.sort(order, (i1, i2) -> infos[i1].costs.compareTo(infos[i2].costs));
+
+    boolean changed = false;
+    final Expr[] preds = step.exprs.clone();
+    final IndexInfo[] iis = infos.clone();
+    for(int p = 0; p < ps; p++) {
+      final int target = pos[p], source = order[p];
+      if(target != source) {
+        step.exprs[target] = preds[source];
+        infos[target] = iis[source];
+        changed = true;
+      }
+    }
+    if(changed) cc.info(QueryText.OPTSELECT_X, step);
+  }
+
+  /**
+   * Estimates the costs of a sequential scan: the number of nodes that will be accessed to
+   * evaluate the steps up to the specified step and the predicates of this step.
+   * Costs are not estimated if the database contains namespaces, as elements with the same
+   * local name may belong to different namespaces.
+   * @param data data reference
+   * @param last last step
+   * @return costs, or {@code -1} if they cannot be estimated
+   */
+  private long scanCosts(final Data data, final int last) {
+    if(!data.meta.uptodate || !data.nspaces.isEmpty()) return -1;
+
+    long costs = 0;
+    ArrayList<PathNode> nodes = data.paths.root();
+    for(int s = 0; s <= last; s++) {
+      final Step curr = axisStep(s);
+      final boolean desc = curr.axis == DESCENDANT;
+      if(!desc && curr.axis != CHILD || curr.test.kind != Kind.NAME) return -1;
+
+      final int name = data.elemNames.id(curr.test.name.local());
+      final ArrayList<PathNode> tmp = new ArrayList<>();
+      for(final PathNode node : PathIndex.desc(nodes, desc)) {
+        // count all traversed nodes
+        if(node.kind != Data.ATTR) costs += node.stats.count;
+        if(node.kind == Data.ELEM && name == node.name) tmp.add(node);
+      }
+      nodes = tmp;
+    }
+    // evaluate predicates: access the children of the candidates
+    for(final PathNode node : PathIndex.desc(nodes, false)) costs += node.stats.count;
+    return costs;
+  }
+
   /**
    * Checks if steps before index step need to be inverted and traversed.
    * @param data data reference
@@ -0,0 +1,232 @@
+package org.basex.query.expr.path;
+
+import static org.basex.query.QueryError.*;
+
+import java.util.*;
+
+import org.basex.data.*;
+import org.basex.query.*;
+import org.basex.query.expr.*;
+import org.basex.query.iter.*;
+import org.basex.query.util.list.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.node.*;
+import org.basex.query.var.*;
+import org.basex.util.*;
+import org.basex.util.hash.*;
+
+/**
+ * Axis path expression, which evaluates all steps set-at-a-time.
+ *
+ * Steps with descendant, ancestor, following and preceding axes and without positional
+ * predicates are evaluated as staircase joins if all context nodes are database nodes of the
+ * same database: context nodes that are covered by other context nodes are pruned, and each
+ * range of the database table is scanned only once. All other steps are evaluated for each
+ * context node.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class StaircasePath extends AxisPath {
+  /** Axes that can be evaluated as staircase joins. */
+  static final EnumSet<Axis> AXES = EnumSet.of(Axis.DESCENDANT, Axis.DESCENDANT_OR_SELF,
+      Axis.ANCESTOR, Axis.ANCESTOR_OR_SELF, Axis.FOLLOWING, Axis.PRECEDING);
+
+  /**
+   * Constructor.
+   * @param info input info
+   * @param root root expression; can be a {@code null} reference
+   * @param steps axis steps
+   */
+  StaircasePath(final InputInfo info, final Expr root, final Expr... steps) {
+    super(info, root, steps);
+  }
+
+  @Override
+  protected NodeIter nodeIter(final QueryContext qc) throws QueryException {
+    final QueryFocus qf = qc.focus, focus = new QueryFocus();
+    final Value rt = root != null ? root.value(qc) : qf.value;
+    qc.focus = focus;
+    try {
+      ANodeBuilder nodes = new ANodeBuilder();
+      if(rt != null) {
+        final ANodeBuilder input = new ANodeBuilder();
+        for(final Item item : rt) {
+          if(item instanceof ANode) {
+            input.add((ANode) item);
+          } else if(root != null) {
+            // check if root returns nodes
+            throw PATHNODE_X_X_X.get(info, steps[0], item.type, item);
+          } else {
+            // raise error for non-node context
+            focus.value = item;
+            add(step(0), nodes, qc);
+          }
+        }
+        nodes = step(0, input, qc);
+      } else {
+        focus.value = null;
+        add(step(0), nodes, qc);
+      }
+      final int sl = steps.length;
+      for(int s = 1; s < sl; s++) nodes = step(s, nodes, qc);
+      return nodes.iter();
+    } finally {
+      qc.focus = qf;
+    }
+  }
+
+  /**
+   * Evaluates a step for all context nodes.
+   * @param s index of the step
+   * @param input context nodes
+   * @param qc query context
+   * @return resulting nodes
+   * @throws QueryException query exception
+   */
+  private ANodeBuilder step(final int s, final ANodeBuilder input, final QueryContext qc)
+      throws QueryException {
+
+    final Step step = step(s);
+    final ANodeBuilder output = new ANodeBuilder();
+    if(!(step instanceof IterStep && AXES.contains(step.axis) && input.dbnodes() &&
+        staircase(step, input, output, qc))) {
+      for(final ANode node : input) {
+        qc.focus.value = node;
+        add(step, output, qc);
+      }
+    }
+    return output;
+  }
+
+  /**
+   * Adds the results of a step for the current context node.
+   * @param step step
+   * @param output resulting nodes
+   * @param qc query context
+   * @throws QueryException query exception
+   */
+  private static void add(final Step step, final ANodeBuilder output, final QueryContext qc)
+      throws QueryException {
+
+    // cast is safe (steps will always return a {@link NodeIter} instance)
+    final NodeIter ni = (NodeIter) step.iter(qc);
+    for(ANode node; (node = ni.next()) != null;) {
+      qc.checkStop();
+      output.add(node);
+    }
+  }
+
+  /**
+   * Evaluates a step as staircase join.
+   * @param step step
+   * @param input context nodes (sorted, duplicate-free, and from the same database)
+   * @param output resulting nodes
+   * @param qc query context
+   * @return {@code false} if the step must be evaluated for each context node
+   * @throws QueryException query exception
+   */
+  private static boolean staircase(final Step step, final ANodeBuilder input,
+      final ANodeBuilder output, final QueryContext qc) throws QueryException {
+
+    final int is = input.size();
+    final int[] pres = new int[is];
+    for(int i = 0; i < is; i++) pres[i] = ((DBNode) input.get(i)).pre();
+    final Data data = input.get(0).data();
+    final DBNode node = new DBNode(data);
+
+    switch(step.axis) {
+      case DESCENDANT:
+      case DESCENDANT_OR_SELF:
+        final boolean self = step.axis == Axis.DESCENDANT_OR_SELF;
+        int end = 0;
+        for(final int pre : pres) {
+          // skip nodes that are descendants of the last context node
+          if(pre < end) continue;
+          final int kind = data.kind(pre);
+          end = pre + data.size(pre, kind);
+          scan(self ? pre : pre + data.attSize(pre, kind), end, -1, step, node, output, qc);
+        }
+        return true;
+      case ANCESTOR:
+      case ANCESTOR_OR_SELF:
+        // stop as soon as an ancestor has already been found
+        final IntSet found = new IntSet();
+        for(final int pre : pres) {
+          int par = step.axis == Axis.ANCESTOR ? data.parent(pre, data.kind(pre)) : pre;
+          while(par != -1 && found.add(par)) par = data.parent(par, data.kind(par));
+        }
+        final int[] ancestors = found.toArray();
+        Arrays.sort(ancestors);
+        for(final int pre : ancestors) {
+          qc.checkStop();
+          node.set(pre, data.kind(pre));
+          if(step.matches(node, qc)) output.add(node.finish());
+        }
+        return true;
+      case FOLLOWING:
+      case PRECEDING:
+        // following and preceding nodes of attributes are computed for each context node
+        for(final int pre : pres) {
+          if(data.kind(pre) == Data.ATTR) return false;
+        }
+        final boolean following = step.axis == Axis.FOLLOWING;
+        for(int i = 0; i < is;) {
+          // find root of current context node
+          int root = pres[i];
+          for(int par; (par = data.parent(root, data.kind(root))) != -1;) root = par;
+          final int last = root + data.size(root, data.kind(root));
+
+          // following: first node after all context nodes of the tree with the smallest subtree.
+          // preceding: last context node of the tree
+          int min = Integer.MAX_VALUE, max = 0;
+          for(; i < is && pres[i] < last; i++) {
+            final int pre = pres[i];
+            min = Math.min(min, pre + data.size(pre, data.kind(pre)));
+            max = pre;
+          }
+          if(following) {
+            scan(min, last, -1, step, node, output, qc);
+          } else {
+            scan(root, max, max, step, node, output, qc);
+          }
+        }
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Scans a range of the database table and adds all non-attribute nodes that match the step.
+   * @param start first pre value
+   * @param end pre value after the last node
+   * @param target if not {@code -1}, ancestors of this node will be skipped
+   * @param step step
+   * @param node node instance used for testing nodes
+   * @param output resulting nodes
+   * @param qc query context
+   * @throws QueryException query exception
+   */
+  private static void scan(final int start, final int end, final int target, final Step step,
+      final DBNode node, final ANodeBuilder output, final QueryContext qc) throws QueryException {
+
+    final Data data = node.data();
+    for(int pre = start; pre < end;) {
+      qc.checkStop();
+      final int kind = data.kind(pre);
+      if(target == -1 || pre + data.size(pre, kind) <= target) {
+        node.set(pre, kind);
+        if(step.matches(node, qc)) output.add(node.finish());
+      }
+      pre += data.attSize(pre, kind);
+    }
+  }
+
+  @Override
+  public AxisPath copy(final CompileContext cc, final IntObjMap<Var> vm) {
+    final Expr rt = root == null ? null : root.copy(cc, vm);
+    return copyType(new StaircasePath(info, rt, Arr.copyAll(cc, vm, steps)));
+  }
+}
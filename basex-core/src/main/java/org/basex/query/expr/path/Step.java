@@ -126,6 +126,18 @@ public abstract class Step extends Preds {
     return copyType(get(info, axis, test, exprs));
   }
 
+  /**
+   * Checks if the specified node matches the test and the predicates of this step.
+   * Must only be called for steps without positional predicates.
+   * @param node node to be checked
+   * @param qc query context
+   * @return result of check
+   * @throws QueryException query exception
+   */
+  final boolean matches(final ANode node, final QueryContext qc) throws QueryException {
+    return test.eq(node) && preds(node, qc);
+  }
+
   @Override
   public Expr inline(final Var var, final Expr ex, final CompileContext cc) throws QueryException {
     return inlineAll(var, ex, exprs, cc) ? optimize(cc) : null;
@@ -172,6 +172,11 @@ public abstract class StandardFunc extends Arr {
     return !has(Flag.UPD) && size() == 0;
   }
 
+  @Override
+  public boolean accept(final ASTVisitor visitor) {
+    return visitor.funcCall(this) && super.accept(visitor);
+  }
+
   /**
    * Refines the type of a function item argument.
    * @param expr expression
@@ -466,8 +471,19 @@ public abstract class StandardFunc extends Arr {
    * @return result of check
    */
   protected final boolean dataLock(final ASTVisitor visitor, final int i) {
+    return dataLock(visitor, i, false);
+  }
+
+  /**
+   * Tries to mark the specified argument for locking.
+   * @param visitor visitor
+   * @param i index of database argument
+   * @param append indicates if documents will only be added to the database
+   * @return result of check
+   */
+  protected final boolean dataLock(final ASTVisitor visitor, final int i, final boolean append) {
     final String db = exprs[i] instanceof Str ? string(((Str) exprs[i]).string()) : null;
-    return visitor.lock(db, false);
+    return append ? visitor.appendLock(db) : visitor.lock(db, false);
   }
 
   /**
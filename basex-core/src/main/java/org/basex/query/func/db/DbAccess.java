@@ -72,6 +72,14 @@ abstract class DbAccess extends DbFn {
 
   @Override
   public boolean accept(final ASTVisitor visitor) {
-    return dataLock(visitor, 0) && super.accept(visitor);
+    return dataLock(visitor, 0, append()) && super.accept(visitor);
+  }
+
+  /**
+   * Indicates if documents will only be added to the accessed database.
+   * @return result of check
+   */
+  boolean append() {
+    return false;
   }
 }
@@ -26,4 +26,9 @@ public final class DbAdd extends DbNew {
     qc.updates().add(new DBAdd(data, input, opts, false, qc, info), qc);
     return null;
   }
+
+  @Override
+  boolean append() {
+    return true;
+  }
 }
@@ -19,6 +19,6 @@ public final class DbInfo extends DbAccess {
   @Override
   public Item item(final QueryContext qc, final InputInfo ii) throws QueryException {
     final Data data = checkData(qc);
-    return toNode(InfoDB.db(data.meta, false, true), DATABASE);
+    return toNode(InfoDB.db(data, false, true), DATABASE);
   }
 }
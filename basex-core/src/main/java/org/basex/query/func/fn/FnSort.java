@@ -8,6 +8,7 @@ import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.func.*;
 import org.basex.query.iter.*;
+import org.basex.query.util.*;
 import org.basex.query.util.collation.*;
 import org.basex.query.util.list.*;
 import org.basex.query.value.*;
@@ -24,43 +25,44 @@ import org.basex.query.value.type.*;
 public final class FnSort extends StandardFunc {
   @Override
   public Value value(final QueryContext qc) throws QueryException {
-    final Value value = exprs[0].value(qc), v = value(value);
-    return v != null ? v : iter(value, qc).value(qc);
+    return iter(qc).value(qc);
   }
 
   @Override
   public Iter iter(final QueryContext qc) throws QueryException {
-    final Value value = exprs[0].value(qc), v = value(value);
-    return v != null ? v.iter() : iter(value, qc);
+    final Iter iter = exprs[0].iter(qc);
+    final Value value = iter.value(), v = value != null ? value(value) : null;
+    return v != null ? v.iter() : iter(iter, qc);
   }
 
   /**
    * Sort the input data and returns an iterator.
-   * @param value value
+   * @param iter input iterator
    * @param qc query context
    * @return item order
    * @throws QueryException query exception
    */
-  private Iter iter(final Value value, final QueryContext qc) throws QueryException {
-    Collation coll = sc.collation;
+  private Iter iter(final Iter iter, final QueryContext qc) throws QueryException {
+    Collation cl = sc.collation;
     if(exprs.length > 1) {
       final byte[] token = toTokenOrNull(exprs[1], qc);
-      if(token != null) coll = Collation.get(token, qc, sc, info, WHICHCOLL_X);
+      if(token != null) cl = Collation.get(token, qc, sc, info, WHICHCOLL_X);
     }
+    final Collation coll = cl;
     final FItem key = exprs.length > 2 ? checkArity(exprs[2], 1, qc) : null;
 
-    final long size = value.size();
-    final ValueList values = new ValueList(size);
-    final Iter iter = value.iter();
+    // tuples: sort key, item
+    final TupleSort tuples = new TupleSort((tuple1, tuple2) ->
+      compare(tuple1[0], tuple2[0], coll, this), Long.MAX_VALUE, qc);
     for(Item item; (item = qc.next(iter)) != null;) {
-      values.add((key == null ? item : key.invokeValue(qc, info, item)).atomValue(qc, info));
+      tuples.add(new Value[] {
+        (key == null ? item : key.invokeValue(qc, info, item)).atomValue(qc, info), item });
     }
-
-    final Integer[] order = sort(values, this, coll, qc);
-    return new BasicIter<Item>(size) {
+    return new Iter() {
       @Override
-      public Item get(final long i) {
-        return value.itemAt(order[(int) i]);
+      public Item next() throws QueryException {
+        final Value[] tuple = tuples.next();
+        return tuple != null ? (Item) tuple[1] : null;
       }
     };
   }
@@ -84,20 +86,7 @@ public final class FnSort extends StandardFunc {
       Arrays.sort(order, (i1, i2) -> {
         qc.checkStop();
         try {
-          final Value value1 = values.get(i1), value2 = values.get(i2);
-          final long size1 = value1.size(), size2 = value2.size(), il = Math.min(size1, size2);
-          for(int i = 0; i < il; i++) {
-            Item item1 = value1.itemAt(i), item2 = value2.itemAt(i);
-            if(item1 == Dbl.NAN || item1 == Flt.NAN) item1 = null;
-            if(item2 == Dbl.NAN || item2 == Flt.NAN) item2 = null;
-            if(item1 != null && item2 != null && !item1.comparable(item2))
-              throw diffError(item1, item2, sf.info);
-
-            final int diff = item1 == null ? item2 == null ? 0 : -1 : item2 == null ? 1 :
-              item1.diff(item2, coll, sf.info);
-            if(diff != 0 && diff != Item.UNDEF) return diff;
-          }
-          return (int) (size1 - size2);
+          return compare(values.get(i1), values.get(i2), coll, sf);
         } catch(final QueryException ex) {
           throw new QueryRTException(ex);
         }
@@ -108,6 +97,33 @@ public final class FnSort extends StandardFunc {
     return order;
   }
 
+  /**
+   * Compares two sort keys.
+   * @param value1 first sort key
+   * @param value2 second sort key
+   * @param coll collation
+   * @param sf calling function
+   * @return result of comparison
+   * @throws QueryException query exception
+   */
+  private static int compare(final Value value1, final Value value2, final Collation coll,
+      final StandardFunc sf) throws QueryException {
+
+    final long size1 = value1.size(), size2 = value2.size(), il = Math.min(size1, size2);
+    for(int i = 0; i < il; i++) {
+      Item item1 = value1.itemAt(i), item2 = value2.itemAt(i);
+      if(item1 == Dbl.NAN || item1 == Flt.NAN) item1 = null;
+      if(item2 == Dbl.NAN || item2 == Flt.NAN) item2 = null;
+      if(item1 != null && item2 != null && !item1.comparable(item2))
+        throw diffError(item1, item2, sf.info);
+
+      final int diff = item1 == null ? item2 == null ? 0 : -1 : item2 == null ? 1 :
+        item1.diff(item2, coll, sf.info);
+      if(diff != 0 && diff != Item.UNDEF) return diff;
+    }
+    return (int) (size1 - size2);
+  }
+
   @Override
   protected Expr opt(final CompileContext cc) throws QueryException {
     // optimize sort on sequences
@@ -2,6 +2,7 @@ package org.basex.query.func.fn;
 
 import org.basex.query.*;
 import org.basex.query.expr.*;
+import org.basex.query.expr.gflwor.*;
 import org.basex.query.func.*;
 import org.basex.query.func.file.*;
 import org.basex.query.iter.*;
@@ -208,6 +209,8 @@ public class FnSubsequence extends StandardFunc {
         return cc.function(Function.TAIL, info, expr);
       if(Function._FILE_READ_TEXT_LINES.is(expr))
         return ((FileReadTextLines) expr).opt(sr.start, sr.length, cc);
+      // only sort the requested tuples
+      if(expr instanceof GFLWOR && sr.end != Long.MAX_VALUE) ((GFLWOR) expr).limit(sr.end);
     }
 
     exprType.assign(st.type, st.occ.union(Occ.ZERO), sz);
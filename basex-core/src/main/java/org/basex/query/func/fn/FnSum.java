@@ -127,6 +127,13 @@ public class FnSum extends StandardFunc {
   Item sum(final Iter iter, final Item item, final boolean avg, final QueryContext qc)
       throws QueryException {
 
+    // numeric sequences: compute result without creating intermediate items
+    final Value value = iter.value();
+    if(value instanceof IntSeq || value instanceof DblSeq) {
+      final Item res = sum(value);
+      return avg ? Calc.DIV.eval(res, Int.get(value.size()), info) : res;
+    }
+
     Item res = item.type.isUntyped() ? Dbl.get(item.dbl(info)) : item;
     final boolean num = res instanceof ANum, dtd = res.type == DTD, ymd = res.type == YMD;
     if(!num && !dtd && !ymd) throw SUM_X_X.get(info, res.type, res);
@@ -147,4 +154,30 @@ public class FnSum extends StandardFunc {
     }
     return avg ? Calc.DIV.eval(res, Int.get(c), info) : res;
   }
+
+  /**
+   * Sums up the values of a numeric sequence.
+   * @param value integer or double sequence
+   * @return summed up item
+   * @throws QueryException query exception
+   */
+  private Item sum(final Value value) throws QueryException {
+    if(value instanceof DblSeq) {
+      final double[] values = ((DblSeq) value).values();
+      double res = values[0];
+      final int vl = values.length;
+      for(int i = 1; i < vl; i++) res += values[i];
+      return Dbl.get(res);
+    }
+    final long[] values = ((IntSeq) value).values();
+    long res = values[0];
+    final int vl = values.length;
+    for(int i = 1; i < vl; i++) {
+      final long v = values[i];
+      if(v > 0 ? res > Long.MAX_VALUE - v : res < Long.MIN_VALUE - v)
+        throw RANGE_X.get(info, res + " + " + v);
+      res += v;
+    }
+    return Int.get(res);
+  }
 }
@@ -5,7 +5,7 @@ import java.util.*;
 import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.iter.*;
-import org.basex.query.util.list.*;
+import org.basex.query.util.*;
 import org.basex.query.value.*;
 import org.basex.query.value.item.*;
 
@@ -23,20 +23,23 @@ public final class HofSortWith extends HofFn {
 
   @Override
   public Value value(final QueryContext qc) throws QueryException {
-    final Value value = exprs[0].value(qc);
+    final Iter iter = exprs[0].iter(qc);
     final Comparator<Item> comp = getComp(1, qc);
-    if(value.size() < 2) return value;
+    final Value value = iter.value();
+    if(value != null && value.size() < 2) return value;
 
-    final ItemList items = new ItemList(value.size());
-    final Iter iter = value.iter();
-    for(Item item; (item = qc.next(iter)) != null;) items.add(item);
+    final TupleSort tuples = new TupleSort((tuple1, tuple2) -> {
+      try {
+        return comp.compare((Item) tuple1[0], (Item) tuple2[0]);
+      } catch(final QueryRTException ex) {
+        throw ex.getCause();
+      }
+    }, Long.MAX_VALUE, qc);
+    for(Item item; (item = qc.next(iter)) != null;) tuples.add(new Value[] { item });
 
-    try {
-      Arrays.sort(items.list, 0, items.size(), comp);
-    } catch(final QueryRTException ex) {
-      throw ex.getCause();
-    }
-    return items.value();
+    final ValueBuilder vb = new ValueBuilder(qc);
+    for(Value[] tuple; (tuple = tuples.next()) != null;) vb.add(tuple[0]);
+    return vb.value();
   }
 
   @Override
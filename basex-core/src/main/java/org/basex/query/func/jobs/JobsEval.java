@@ -63,7 +63,7 @@ public class JobsEval extends StandardFunc {
     }
 
     final QueryJobSpec spec = new QueryJobSpec(opts, bindings, query);
-    final QueryJob job = new QueryJob(spec, info, qc.context);
+    final QueryJob job = new QueryJob(spec, info, qc.context, qc);
 
     // add service
     if(service) {
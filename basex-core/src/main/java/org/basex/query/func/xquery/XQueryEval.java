@@ -5,6 +5,8 @@ import static org.basex.util.Token.*;
 
 import java.util.*;
 import java.util.Map.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 
 import org.basex.core.jobs.*;
 import org.basex.core.users.*;
@@ -82,7 +84,8 @@ public class XQueryEval extends StandardFunc {
 
     final User user = qc.context.user();
     final Perm tmp = user.perm("");
-    Timer to = null;
+    final JobTimer timer = qc.context.jobs.timer;
+    final ArrayList<ScheduledFuture<?>> timers = new ArrayList<>(2);
 
     final Perm perm = Perm.get(opts.get(XQueryOptions.PERMISSION).toString());
     if(!user.has(perm)) throw XQUERY_PERMISSION2_X.get(info, perm);
@@ -94,27 +97,27 @@ public class XQueryEval extends StandardFunc {
       if(mb != 0) {
         Performance.gc(2);
         final long limit = Performance.memory() + (mb << 20);
-        to = new Timer(true);
-        to.schedule(new TimerTask() {
-          @Override
-          // limit reached: stop query if garbage collection does not help
-          public void run() {
-            if(!qctx.stopped() && Performance.memory() > limit) {
-              Performance.gc(1);
-              if(Performance.memory() > limit) qctx.memory();
-            }
+        final AtomicBoolean collecting = new AtomicBoolean();
+        timers.add(timer.schedule(() -> {
+          // limit reached: stop query if garbage collection (in a separate thread) does not help
+          if(!qctx.stopped() && Performance.memory() > limit &&
+              collecting.compareAndSet(false, true)) {
+            timer.execute(() -> {
+              try {
+                Performance.gc(1);
+                if(Performance.memory() > limit) qctx.memory();
+              } finally {
+                collecting.set(false);
+              }
+            });
           }
-        }, 250, 250);
+        }, 250, 250));
       }
 
       // timeout
       final long ms = opts.get(XQueryOptions.TIMEOUT) * 1000L;
       if(ms != 0) {
-        if(to == null) to = new Timer(true);
-        to.schedule(new TimerTask() {
-          @Override
-          public void run() { qctx.timeout(); }
-        }, ms);
+        timers.add(timer.schedule(qctx::timeout, ms));
       }
 
       // base-uri: adopt specified uri, passed on uri, or uri from parent query
@@ -161,7 +164,7 @@ public class XQueryEval extends StandardFunc {
         throw ex;
       }
     } finally {
-      if(to != null) to.cancel();
+      for(final ScheduledFuture<?> future : timers) future.cancel(false);
       user.perm(tmp, "");
     }
   }
@@ -38,6 +38,13 @@ public abstract class BasicIter<I extends Item> extends Iter implements Iterable
     return p < size ? get(p) : null;
   }
 
+  @Override
+  public int next(final Item[] items, final int start) {
+    final int n = (int) Math.min(items.length, start + Math.max(0, size - pos));
+    for(int i = start; i < n; i++) items[i] = get(pos++);
+    return n;
+  }
+
   @Override
   public final long size() {
     return size;
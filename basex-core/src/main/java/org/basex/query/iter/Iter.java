@@ -12,6 +12,9 @@ import org.basex.query.value.seq.*;
  * @author Christian Gruen
  */
 public abstract class Iter {
+  /** Default number of items that are requested in a batch (see {@link #next(Item[], int)}). */
+  public static final int BATCH = 64;
+
   /**
    * Returns the next item.
    * @return resulting item, or {@code null} if all items have been returned
@@ -19,6 +22,24 @@ public abstract class Iter {
    */
   public abstract Item next() throws QueryException;
 
+  /**
+   * Returns the next items in a batch. The array will be filled, starting from the specified
+   * offset, until it is full or until all items have been returned. If the returned offset is
+   * smaller than the array length, the iterator is exhausted. Calls of this method and
+   * {@link #next()} can be mixed. If an error is raised, the contents of the array are undefined,
+   * and items may have been consumed that were neither added nor returned.
+   * @param items array to be filled
+   * @param start offset of the first item to be added
+   * @return offset after the last added item
+   * @throws QueryException query exception
+   */
+  public int next(final Item[] items, final int start) throws QueryException {
+    final int il = items.length;
+    int n = start;
+    for(Item item; n < il && (item = next()) != null;) items[n++] = item;
+    return n;
+  }
+
   /**
    * Returns the specified item, or an arbitrary item if the index is invalid.
    * If this method returns items, {@link #size()} needs to be implemented as well.
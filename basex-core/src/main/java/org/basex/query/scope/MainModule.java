@@ -86,6 +86,25 @@ public final class MainModule extends AModule {
     }
   }
 
+  /**
+   * Creates a copy of this module. Static variables must have been copied before.
+   * @param cc compilation context
+   * @param vars copied static variables
+   * @return copy
+   */
+  public MainModule copy(final CompileContext cc, final TokenObjMap<StaticVar> vars) {
+    final VarScope scope = new VarScope(sc);
+    cc.pushScope(scope);
+    try {
+      final IntObjMap<Var> vm = new IntObjMap<>();
+      vs.copy(cc, vm);
+      return new MainModule(scope, expr.copy(cc, vm), declType, null, info, funcs(), vars,
+          imports);
+    } finally {
+      cc.removeScope();
+    }
+  }
+
   /**
    * Evaluates this module and returns the result as a cached value iterator.
    * @param qc query context
@@ -199,6 +218,14 @@ public final class MainModule extends AModule {
       return true;
     }
 
+    @Override
+    public boolean appendLock(final String db) {
+      // name is unknown at compile time: return false
+      if(db == null) return false;
+      locks.appends.add(db);
+      return true;
+    }
+
     @Override
     public void enterFocus() {
       level++;
@@ -72,6 +72,7 @@ public final class DBOptimize extends DBUpdate {
     options.assignIfAbsent(MainOptions.ATTRINCLUDE, meta.attrinclude);
     options.assignIfAbsent(MainOptions.TOKENINCLUDE, meta.tokeninclude);
     options.assignIfAbsent(MainOptions.FTINCLUDE, meta.ftinclude);
+    options.assignIfAbsent(MainOptions.RANGEINCLUDE, meta.rangeinclude);
     options.assignIfAbsent(MainOptions.SPLITSIZE, meta.splitsize);
     options.assignIfAbsent(MainOptions.UPDINDEX, meta.updindex);
     options.assignIfAbsent(MainOptions.AUTOOPTIMIZE, meta.autooptimize);
@@ -103,6 +104,13 @@ public final class DBOptimize extends DBUpdate {
     meta.maxcats = maxcats;
     meta.maxlen = maxlen;
 
+    // rebuild typed range index if included names have changed
+    final String rangeinclude = opts.get(MainOptions.RANGEINCLUDE);
+    if(!meta.rangeinclude.equals(rangeinclude) && !rangeinclude.isEmpty()) {
+      meta.rangeindex = false;
+    }
+    meta.rangeinclude = rangeinclude;
+
     // check if fulltext indexing options have changed
     final String ftinclude = opts.get(MainOptions.FTINCLUDE);
     final boolean stemming = opts.get(MainOptions.STEMMING);
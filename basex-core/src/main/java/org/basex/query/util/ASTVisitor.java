@@ -64,6 +64,16 @@ public abstract class ASTVisitor {
     return true;
   }
 
+  /**
+   * Notifies the visitor of a call to a built-in function.
+   * @param call function call
+   * @return if more expressions should be visited ({@code true} by default)
+   */
+  @SuppressWarnings("unused")
+  public boolean funcCall(final StandardFunc call) {
+    return true;
+  }
+
   /**
    * Notifies the visitor of a dynamic function call.
    * @param call function call
@@ -96,6 +106,17 @@ public abstract class ASTVisitor {
     return true;
   }
 
+  /**
+   * Notifies the visitor of a database to which documents will only be added.
+   * Overwritten by {@link MainModule}.
+   * Returns {@code false} if database lock cannot be statically detected.
+   * @param db database to be locked ({@code null} if unknown)
+   * @return if more expressions should be visited ({@code true} by default)
+   */
+  public boolean appendLock(final String db) {
+    return lock(db, false);
+  }
+
   /**
    * Notifies the visitor of an expression entering a focus. Overwritten by {@link MainModule}.
    */
@@ -65,12 +65,14 @@ public final class IndexCosts implements Comparable<IndexCosts> {
   }
 
   /**
-   * Checks if index access is too expensive.
-   * @param data data reference (can be {@code null})
+   * Checks if index access is too expensive: if more results are expected than the database
+   * has nodes, or than nodes will be accessed by a sequential scan.
+   * @param data data reference
+   * @param scan estimated number of nodes accessed by a sequential scan ({@code -1}: unknown)
    * @return result of check
    */
-  public boolean tooExpensive(final Data data) {
-    return results > data.meta.size;
+  public boolean tooExpensive(final Data data, final long scan) {
+    return results > data.meta.size || scan != -1 && results > scan;
   }
 
   @Override
@@ -5,6 +5,7 @@ import static org.basex.query.QueryText.*;
 import org.basex.core.*;
 import org.basex.data.*;
 import org.basex.index.*;
+import org.basex.index.name.*;
 import org.basex.index.query.*;
 import org.basex.index.stats.*;
 import org.basex.query.*;
@@ -69,31 +70,46 @@ public final class IndexInfo {
    * @return type of applicable index or {@code null}
    */
   public IndexType type(final Expr input, final IndexType type) {
-    pred = input;
-
-    // find last step that will be evaluated before doing a comparison
-    final Step last = lastStep();
+    final Step last = init(input);
     if(last == null) return null;
 
-    final Data data = db.data();
-    final boolean elem = last.test.type == NodeType.ELM;
-    if(elem) {
-      // stop if database is unknown/out-dated, if namespaces occur, or if name test is not simple
-      if(data == null || !(data.meta.uptodate && data.nspaces.isEmpty() &&
-          last.test.kind == Kind.NAME)) return null;
-
-      test = (NameTest) last.test;
-      final Stats stats = data.elemNames.stats(data.elemNames.id(test.name.local()));
-      if(stats == null || !stats.isLeaf()) return null;
-    }
-    text = elem || last.test.type == NodeType.TXT;
-
     // check if the index contains result for the specified elements or attributes
+    final Data data = db.data();
     final IndexType it = type != null ? type : text ? IndexType.TEXT : IndexType.ATTRIBUTE;
     return data == null ||
         new IndexNames(it, data).contains(qname()) && check(it, last) ? it : null;
   }
 
+  /**
+   * Checks if the specified expression can be rewritten for accessing the typed range index,
+   * computes the costs and returns the index token.
+   * @param input input (if {@code null}, no optimization will be possible)
+   * @param kind key type ({@link AtomType#DBL}, {@link AtomType#DTM} or {@link AtomType#DAT})
+   * @param min minimum value
+   * @param max maximum value
+   * @return index token or {@code null}
+   */
+  public TypedRange range(final Expr input, final AtomType kind, final double min,
+      final double max) {
+
+    // skip if index does not exist or is out-dated
+    final Data data = db.data();
+    if(data == null || data.rangeIndex == null || !data.meta.rangeindex ||
+        !data.nspaces.isEmpty()) return null;
+
+    final Step last = init(input);
+    if(last == null || !text && last.test.type != NodeType.ATT) return null;
+
+    final byte[][] qname = qname();
+    if(qname == null || qname[0] == null || !new IndexNames(text, data).contains(qname))
+      return null;
+
+    final IndexType type = text ? IndexType.TEXT : IndexType.ATTRIBUTE;
+    final TypedRange range = new TypedRange(type, kind, qname[0], min, max);
+    costs = enforce() ? IndexCosts.ENFORCE_STATIC : data.rangeIndex.costs(range);
+    return range;
+  }
+
   /**
    * Tries to rewrite the specified input for index access.
    * @param search expression to find (can be {@code null})
@@ -202,8 +218,66 @@ public final class IndexInfo {
     return qc.context.options.get(MainOptions.ENFORCEINDEX);
   }
 
+  /**
+   * Returns the statistics of the elements or attributes whose values will be compared.
+   * Must be called after {@link #type(Expr, IndexType)}.
+   * @param type index type ({@link IndexType#TEXT} or {@link IndexType#ATTRIBUTE})
+   * @return statistics, or {@code null} if they are not available
+   */
+  public Stats stats(final IndexType type) {
+    // statistics are not up-to-date
+    final Data data = db.data();
+    if(data == null || !data.meta.uptodate || !data.nspaces.isEmpty() ||
+        !(pred instanceof AxisPath)) return null;
+
+    NameTest nt = test;
+    if(nt == null) {
+      final Step st;
+      final AxisPath path = (AxisPath) pred;
+      final int sl = path.steps.length - 1;
+      if(type == IndexType.TEXT) {
+        st = sl == 0 ? step : path.step(sl - 1);
+        if(st.test.kind != Kind.NAME) return null;
+      } else {
+        st = path.step(sl);
+        if(!st.simple(Axis.ATTRIBUTE, true)) return null;
+      }
+      nt = (NameTest) st.test;
+    }
+
+    final Names names = type == IndexType.TEXT ? data.elemNames : data.attrNames;
+    return names.stats(names.id(nt.name.local()));
+  }
+
   // PRIVATE METHODS ==============================================================================
 
+  /**
+   * Assigns the input and returns the last step that will be evaluated before doing a comparison.
+   * @param input input (if {@code null}, no optimization will be possible)
+   * @return step or {@code null}
+   */
+  private Step init(final Expr input) {
+    pred = input;
+
+    // find last step that will be evaluated before doing a comparison
+    final Step last = lastStep();
+    if(last == null) return null;
+
+    final Data data = db.data();
+    final boolean elem = last.test.type == NodeType.ELM;
+    if(elem) {
+      // stop if database is unknown/out-dated, if namespaces occur, or if name test is not simple
+      if(data == null || !(data.meta.uptodate && data.nspaces.isEmpty() &&
+          last.test.kind == Kind.NAME)) return null;
+
+      test = (NameTest) last.test;
+      final Stats stats = data.elemNames.stats(data.elemNames.id(test.name.local()));
+      if(stats == null || !stats.isLeaf()) return null;
+    }
+    text = elem || last.test.type == NodeType.TXT;
+    return last;
+  }
+
   /**
    * Checks if the specified expression can be rewritten for index access.
    * @param type index type
@@ -0,0 +1,258 @@
+package org.basex.query.util;
+
+import java.io.*;
+import java.math.*;
+import java.util.*;
+
+import org.basex.core.*;
+import org.basex.data.*;
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
+import org.basex.query.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.node.*;
+import org.basex.query.value.type.*;
+import org.basex.util.*;
+
+/**
+ * Temporary file, which stores tuples that have been swapped out to disk.
+ *
+ * Tuples must be written before they are read. Only tuples can be written whose items can be
+ * restored (database nodes and atomic items of the most common types, see
+ * {@link #spillable(Value[])}). The file will be deleted when all tuples have been read, or
+ * when the query is closed.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class TupleFile {
+  /** Item tags: database node, integer, double, float, decimal, boolean, string,
+   * untyped atomic, URI. */
+  private static final int NOD = 0, ITR = 1, DBL = 2, FLT = 3, DEC = 4, BLN = 5, STR = 6,
+      ATM = 7, URI = 8;
+
+  /** Query context. */
+  private final QueryContext qc;
+  /** Databases referenced by the stored nodes (shared by all files of an expression). */
+  private final ArrayList<Data> datas;
+  /** File. */
+  private final IOFile file;
+  /** Output stream ({@code null} after all tuples have been written). */
+  private DataOutput out;
+  /** Input stream (assigned when the first tuple is read). */
+  private DataInput in;
+  /** Number of written tuples. */
+  private int size;
+  /** Number of read tuples. */
+  private int read;
+
+  /**
+   * Constructor.
+   * @param datas databases referenced by the stored nodes
+   * @param qc query context
+   * @throws QueryException query exception
+   */
+  public TupleFile(final ArrayList<Data> datas, final QueryContext qc) throws QueryException {
+    this.datas = datas;
+    this.qc = qc;
+    try {
+      file = new IOFile(File.createTempFile(Prop.NAME + '-', IO.TMPSUFFIX));
+      out = new DataOutput(file);
+    } catch(final IOException ex) {
+      throw QueryError.IOERR_X.get(null, ex);
+    }
+    qc.resources.index(Files.class).add(this);
+  }
+
+  /**
+   * Checks if all items of a tuple can be written to disk.
+   * @param tuple tuple
+   * @return result of check
+   */
+  public static boolean spillable(final Value[] tuple) {
+    for(final Value value : tuple) {
+      for(final Item item : value) {
+        if(!(item instanceof DBNode || item instanceof Int || item instanceof Dbl ||
+            item instanceof Flt || item instanceof Dec || item instanceof Bln ||
+            item instanceof Atm || item instanceof Uri ||
+            item instanceof Str && item.type == AtomType.STR)) return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Writes a tuple.
+   * @param tuple tuple
+   * @throws QueryException query exception
+   */
+  public void write(final Value[] tuple) throws QueryException {
+    try {
+      out.writeNum(tuple.length);
+      for(final Value value : tuple) write(value);
+      size++;
+    } catch(final IOException ex) {
+      throw QueryError.IOERR_X.get(null, ex);
+    }
+  }
+
+  /**
+   * Reads the next tuple.
+   * @return tuple, or {@code null} if all tuples have been read
+   * @throws QueryException query exception
+   */
+  public Value[] read() throws QueryException {
+    if(read == size) {
+      close();
+      return null;
+    }
+    read++;
+    try {
+      if(in == null) {
+        finish();
+        in = new DataInput(file);
+      }
+      final Value[] tuple = new Value[in.readNum()];
+      final int tl = tuple.length;
+      for(int t = 0; t < tl; t++) tuple[t] = read(in);
+      return tuple;
+    } catch(final IOException ex) {
+      throw QueryError.IOERR_X.get(null, ex);
+    }
+  }
+
+  /**
+   * Closes the output stream after all tuples have been written.
+   * @throws QueryException query exception
+   */
+  public void finish() throws QueryException {
+    if(out == null) return;
+    try {
+      out.close();
+      out = null;
+    } catch(final IOException ex) {
+      throw QueryError.IOERR_X.get(null, ex);
+    }
+  }
+
+  /**
+   * Returns the number of written tuples.
+   * @return number of tuples
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Closes the streams and deletes the file.
+   */
+  public synchronized void close() {
+    try {
+      if(out != null) out.close();
+      if(in != null) in.close();
+    } catch(final IOException ex) {
+      Util.debug(ex);
+    }
+    out = null;
+    in = null;
+    file.delete();
+  }
+
+  /**
+   * Writes a value.
+   * @param value value
+   * @throws IOException I/O exception
+   * @throws QueryException query exception
+   */
+  private void write(final Value value) throws IOException, QueryException {
+    out.writeNum((int) value.size());
+    for(final Item item : value) {
+      if(item instanceof DBNode) {
+        final DBNode node = (DBNode) item;
+        int d = datas.indexOf(node.data());
+        if(d == -1) {
+          d = datas.size();
+          datas.add(node.data());
+        }
+        out.write1(NOD);
+        out.writeNum(d);
+        out.writeNum(node.pre());
+      } else if(item instanceof Int) {
+        out.write1(ITR);
+        out.write1(item.type.id().asByte());
+        out.writeToken(Token.token(((Int) item).itr()));
+      } else if(item instanceof Dbl) {
+        out.write1(DBL);
+        out.writeToken(Token.token(Double.doubleToRawLongBits(((Dbl) item).dbl())));
+      } else if(item instanceof Flt) {
+        out.write1(FLT);
+        out.writeToken(Token.token(Float.floatToRawIntBits(((Flt) item).flt())));
+      } else if(item instanceof Bln) {
+        out.write1(BLN);
+        out.writeBool(item.bool(null));
+      } else {
+        out.write1(item instanceof Dec ? DEC : item instanceof Atm ? ATM :
+          item instanceof Uri ? URI : STR);
+        out.writeToken(item.string(null));
+      }
+    }
+  }
+
+  /**
+   * Reads a value.
+   * @param input input stream
+   * @return value
+   * @throws IOException I/O exception
+   */
+  private Value read(final DataInput input) throws IOException {
+    final int size = input.readNum();
+    final ValueBuilder vb = new ValueBuilder(qc);
+    for(int i = 0; i < size; i++) {
+      final int tag = input.read();
+      final Item item;
+      if(tag == NOD) {
+        final Data data = datas.get(input.readNum());
+        item = new DBNode(data, input.readNum());
+      } else if(tag == ITR) {
+        final Type type = Type.ID.getType(input.read());
+        item = Int.get(Token.toLong(input.readToken()), type);
+      } else if(tag == DBL) {
+        item = Dbl.get(Double.longBitsToDouble(Token.toLong(input.readToken())));
+      } else if(tag == FLT) {
+        item = Flt.get(Float.intBitsToFloat((int) Token.toLong(input.readToken())));
+      } else if(tag == BLN) {
+        item = Bln.get(input.readBool());
+      } else {
+        final byte[] token = input.readToken();
+        item = tag == DEC ? Dec.get(new BigDecimal(Token.string(token))) :
+          tag == ATM ? new Atm(token) : tag == URI ? Uri.uri(token, false) : Str.get(token);
+      }
+      vb.add(item);
+    }
+    return vb.value();
+  }
+
+  /**
+   * Query resource, which deletes remaining files after query evaluation.
+   */
+  public static final class Files implements QueryResource {
+    /** Files. */
+    private final ArrayList<TupleFile> list = new ArrayList<>();
+
+    /**
+     * Registers a file.
+     * @param file file
+     */
+    private synchronized void add(final TupleFile file) {
+      list.add(file);
+    }
+
+    @Override
+    public synchronized void close() {
+      for(final TupleFile file : list) file.close();
+      list.clear();
+    }
+  }
+}
@@ -0,0 +1,242 @@
+package org.basex.query.util;
+
+import java.util.*;
+
+import org.basex.core.*;
+import org.basex.data.*;
+import org.basex.query.*;
+import org.basex.query.value.*;
+import org.basex.util.*;
+
+/**
+ * This class sorts tuples with a bounded amount of main memory.
+ *
+ * Tuples are buffered in main memory. If the number of buffered tuples reaches
+ * {@link MainOptions#SORTBUFFER}, the buffer is sorted and written to a {@link TupleFile}.
+ * The resulting runs are merged when the tuples are requested. Tuples are only written to disk
+ * if all their items can be restored. Otherwise, all tuples are kept in main memory.
+ *
+ * If a limit is specified, only the given number of smallest tuples will be kept (top-k).
+ * The sort is stable: tuples with equal keys are returned in their insertion order.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class TupleSort {
+  /** Query context. */
+  private final QueryContext qc;
+  /** Comparator. */
+  private final TupleComparator comp;
+  /** Maximum number of tuples to be kept in main memory ({@code 0}: no limit). */
+  private final int buffer;
+  /** Maximum number of tuples to be returned. */
+  private final long limit;
+
+  /** Buffered tuples. */
+  private ArrayList<Value[]> tuples = new ArrayList<>();
+  /** Indicates if the buffered tuples can be written to disk. */
+  private boolean spill = true;
+  /** Sorted runs on disk. */
+  private final ArrayList<Run> runs = new ArrayList<>();
+  /** Databases referenced by the spilled nodes. */
+  private final ArrayList<Data> datas = new ArrayList<>();
+
+  /** Sorted tuples in main memory (assigned when the first tuple is requested). */
+  private Value[][] sorted;
+  /** Position of the next tuple in main memory. */
+  private int pos;
+  /** Runs, ordered by their next tuples (assigned if runs exist). */
+  private MinHeap<Integer, Run> heap;
+  /** Number of returned tuples. */
+  private long returned;
+
+  /**
+   * Constructor.
+   * @param comp comparator
+   * @param limit maximum number of tuples to be returned
+   * @param qc query context
+   */
+  public TupleSort(final TupleComparator comp, final long limit, final QueryContext qc) {
+    this.comp = comp;
+    this.limit = limit;
+    this.qc = qc;
+    buffer = qc.context.options.get(MainOptions.SORTBUFFER);
+  }
+
+  /**
+   * Adds a tuple.
+   * @param tuple tuple
+   * @throws QueryException query exception
+   */
+  public void add(final Value[] tuple) throws QueryException {
+    tuples.add(tuple);
+    if(buffer > 0 && spill) spill = TupleFile.spillable(tuple);
+
+    // top-k: only keep the smallest tuples
+    final int size = tuples.size();
+    if(limit < Integer.MAX_VALUE >>> 1 && size >= Math.max(limit << 1, 16)) {
+      final Value[][] tpls = sort(tuples);
+      tuples = new ArrayList<>((int) limit << 1);
+      for(int t = 0; t < limit; t++) tuples.add(tpls[t]);
+    } else if(buffer > 0 && size >= buffer && spill) {
+      write();
+    }
+  }
+
+  /**
+   * Returns the next tuple in sort order.
+   * @return tuple or {@code null}
+   * @throws QueryException query exception
+   */
+  public Value[] next() throws QueryException {
+    if(sorted == null) finish();
+    if(returned++ >= limit) return null;
+
+    if(heap == null) {
+      if(pos == sorted.length) return null;
+      final Value[] tuple = sorted[pos];
+      // free the space occupied by the tuple
+      sorted[pos++] = null;
+      return tuple;
+    }
+
+    qc.checkStop();
+    if(heap.isEmpty()) return null;
+    try {
+      final Run run = heap.removeMin();
+      final Value[] tuple = run.tuple;
+      if(run.next()) heap.insert(run.id, run);
+      return tuple;
+    } catch(final QueryRTException ex) {
+      throw ex.getCause();
+    }
+  }
+
+  /**
+   * Sorts the buffered tuples and prepares the merge of all runs.
+   * @throws QueryException query exception
+   */
+  private void finish() throws QueryException {
+    sorted = sort(tuples);
+    tuples = null;
+    if(runs.isEmpty()) return;
+
+    // add sorted tuples in main memory as last run
+    runs.add(new Run(runs.size(), null, sorted));
+    sorted = new Value[0][];
+    heap = new MinHeap<>(runs.size(), (id1, id2) -> {
+      try {
+        // stable merge: favor tuples of later runs only if they are smaller
+        final boolean swap = id1 > id2;
+        final Value[] later = runs.get(swap ? id1 : id2).tuple;
+        final Value[] earlier = runs.get(swap ? id2 : id1).tuple;
+        return comp.compare(later, earlier) < 0 == swap ? -1 : 1;
+      } catch(final QueryException ex) {
+        throw new QueryRTException(ex);
+      }
+    });
+    try {
+      for(final Run run : runs) {
+        if(run.next()) heap.insert(run.id, run);
+      }
+    } catch(final QueryRTException ex) {
+      throw ex.getCause();
+    }
+  }
+
+  /**
+   * Sorts the specified tuples.
+   * @param list tuples
+   * @return sorted tuples
+   * @throws QueryException query exception
+   */
+  private Value[][] sort(final ArrayList<Value[]> list) throws QueryException {
+    final int size = list.size();
+    final Value[][] tpls = list.toArray(new Value[size][]);
+    try {
+      // stable sort: preserve order of equal tuples
+      Arrays.sort(tpls, (tuple1, tuple2) -> {
+        qc.checkStop();
+        try {
+          return comp.compare(tuple1, tuple2);
+        } catch(final QueryException ex) {
+          throw new QueryRTException(ex);
+        }
+      });
+    } catch(final QueryRTException ex) {
+      throw ex.getCause();
+    }
+    return tpls;
+  }
+
+  /**
+   * Sorts the buffered tuples and writes them to a new run.
+   * @throws QueryException query exception
+   */
+  private void write() throws QueryException {
+    final Value[][] tpls = sort(tuples);
+    tuples = new ArrayList<>();
+    final TupleFile file = new TupleFile(datas, qc);
+    for(final Value[] tuple : tpls) file.write(tuple);
+    file.finish();
+    runs.add(new Run(runs.size(), file, null));
+  }
+
+  /** Sorted run. */
+  private static final class Run {
+    /** Id (position in the list of runs). */
+    private final int id;
+    /** File ({@code null} for the tuples in main memory). */
+    private final TupleFile file;
+    /** Tuples in main memory ({@code null} for the tuples on disk). */
+    private final Value[][] tpls;
+    /** Number of read tuples in main memory. */
+    private int read;
+    /** Current tuple. */
+    private Value[] tuple;
+
+    /**
+     * Constructor.
+     * @param id id
+     * @param file file ({@code null} for the tuples in main memory)
+     * @param tpls sorted tuples in main memory ({@code null} for the tuples on disk)
+     */
+    private Run(final int id, final TupleFile file, final Value[][] tpls) {
+      this.id = id;
+      this.file = file;
+      this.tpls = tpls;
+    }
+
+    /**
+     * Reads the next tuple.
+     * @return {@code true} if a tuple was read
+     * @throws QueryException query exception
+     */
+    private boolean next() throws QueryException {
+      if(file != null) {
+        tuple = file.read();
+      } else if(read < tpls.length) {
+        tuple = tpls[read];
+        tpls[read++] = null;
+      } else {
+        tuple = null;
+      }
+      return tuple != null;
+    }
+  }
+
+  /**
+   * Comparator for tuples.
+   */
+  @FunctionalInterface
+  public interface TupleComparator {
+    /**
+     * Compares two tuples.
+     * @param tuple1 first tuple
+     * @param tuple2 second tuple
+     * @return result of comparison
+     * @throws QueryException query exception
+     */
+    int compare(Value[] tuple1, Value[] tuple2) throws QueryException;
+  }
+}
@@ -410,6 +410,15 @@ public abstract class ADate extends ADateDur {
       tz == Short.MAX_VALUE ? Integer.MIN_VALUE : tz);
   }
 
+  /**
+   * Returns the total number of seconds, which can be used as numeric sort key.
+   * An undefined timezone is replaced with the implicit timezone.
+   * @return seconds
+   */
+  public final double key() {
+    return seconds().add(days().multiply(DAYSECONDS)).doubleValue();
+  }
+
   /**
    * Returns the date in seconds.
    * @return seconds
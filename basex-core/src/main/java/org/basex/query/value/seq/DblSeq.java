@@ -51,6 +51,14 @@ public final class DblSeq extends NativeSeq {
     return values;
   }
 
+  /**
+   * Returns the internal values.
+   * @return values
+   */
+  public double[] values() {
+    return values;
+  }
+
   // STATIC METHODS ===============================================================================
 
   /**
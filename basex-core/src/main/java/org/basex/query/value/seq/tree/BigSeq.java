@@ -507,6 +507,15 @@ final class BigSeq extends TreeSeq {
         return sub.next();
       }
 
+      @Override
+      public int next(final Item[] items, final int start) {
+        // sequential access: the iterator of the middle tree is not positioned by get(long)
+        final int il = items.length;
+        int n = start;
+        for(Item item; n < il && (item = next()) != null;) items[n++] = item;
+        return n;
+      }
+
       @Override
       public Value value() {
         return BigSeq.this;
@@ -36,6 +36,19 @@ public final class QueryStack {
     return s;
   }
 
+  /**
+   * Enters a new stack frame and assigns the variable bindings of the current frame of
+   * another stack.
+   * @param qs stack
+   * @return stack pointer of the old frame
+   */
+  public int enterFrame(final QueryStack qs) {
+    final int size = qs.end - qs.start, s = enterFrame(size);
+    Array.copy(qs.stack, qs.start, size, stack, start);
+    Array.copy(qs.vars, qs.start, size, vars, start);
+    return s;
+  }
+
   /**
    * Prepares the current stack frame to be reused.
    * @param size new frame size
@@ -13,6 +13,7 @@ import org.basex.query.value.*;
 import org.basex.query.value.node.*;
 import org.basex.query.value.type.*;
 import org.basex.util.*;
+import org.basex.util.hash.*;
 
 /**
  * Static variable to which an expression can be assigned.
@@ -171,6 +172,32 @@ public final class StaticVar extends StaticDecl {
     return res;
   }
 
+  /**
+   * Creates a new variable with the name and type of this declaration.
+   * @param qc query context
+   * @return variable
+   */
+  Var var(final QueryContext qc) {
+    return new Var(name, declType, false, qc, sc, info);
+  }
+
+  /**
+   * Assigns a copy of the expression of this declaration to the specified variable.
+   * @param sv static variable
+   * @param cc compilation context
+   */
+  void copy(final StaticVar sv, final CompileContext cc) {
+    if(expr == null) return;
+    cc.pushScope(sv.vs);
+    try {
+      final IntObjMap<Var> vm = new IntObjMap<>();
+      vs.copy(cc, vm);
+      sv.expr = expr.copy(cc, vm);
+    } finally {
+      cc.removeScope();
+    }
+  }
+
   @Override
   public void plan(final FElem plan) {
     final FElem elem = planElem(NAME, name.string(), TYPE, seqType());
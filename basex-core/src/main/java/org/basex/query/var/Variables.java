@@ -12,6 +12,7 @@ import org.basex.query.value.*;
 import org.basex.query.value.item.*;
 import org.basex.query.value.node.*;
 import org.basex.util.*;
+import org.basex.util.hash.*;
 
 /**
  * Container of global variables of a module.
@@ -41,6 +42,28 @@ public final class Variables extends ExprInfo implements Iterable<StaticVar> {
     return sv;
   }
 
+  /**
+   * Declares copies of the static variables of another query.
+   * References to the original variables will be replaced when expressions are copied.
+   * @param svs static variables to be copied
+   * @param cc compilation context
+   * @return copied variables
+   * @throws QueryException query exception
+   */
+  public TokenObjMap<StaticVar> copy(final TokenObjMap<StaticVar> svs, final CompileContext cc)
+      throws QueryException {
+    // declare all variables first: initializing expressions may reference other variables
+    final TokenObjMap<StaticVar> copies = new TokenObjMap<>();
+    for(final StaticVar sv : svs.values()) {
+      final StaticVar copy = declare(sv.var(cc.qc), sv.anns, null, sv.external, null,
+          new VarScope(sv.sc));
+      cc.copy(sv, copy);
+      copies.put(copy.id(), copy);
+    }
+    for(final StaticVar sv : svs.values()) sv.copy(cc.copy(sv), cc);
+    return copies;
+  }
+
   /**
    * Ensures that none of the variable expressions is updating.
    * @throws QueryException query exception
@@ -4,7 +4,9 @@ import static org.basex.core.Text.*;
 
 import java.io.*;
 import java.net.*;
+import java.nio.channels.*;
 import java.util.*;
+import java.util.concurrent.*;
 
 import org.basex.*;
 import org.basex.core.*;
@@ -25,9 +27,9 @@ import org.basex.util.list.*;
  * @author Andreas Weiler
  * @author Christian Gruen
  */
-public final class ClientListener extends Thread implements ClientInfo {
-  /** Timer for authentication time out. */
-  public final Timer timeout = new Timer();
+public final class ClientListener implements ClientInfo, Runnable {
+  /** Timer for authentication time out (can be {@code null}). */
+  public volatile ScheduledFuture<?> timeout;
   /** Timestamp of last interaction. */
   public long last;
 
@@ -41,6 +43,8 @@ public final class ClientListener extends Thread implements ClientInfo {
   private final BaseXServer server;
   /** Socket reference. */
   private final Socket socket;
+  /** Selector for idle connections ({@code null} if the connection is served by one thread). */
+  private final ClientSelector selector;
 
   /** Input stream. */
   private BufferInput in;
@@ -60,100 +64,38 @@ public final class ClientListener extends Thread implements ClientInfo {
    * @param socket socket
    * @param context database context
    * @param server server reference
+   * @param selector selector for idle connections (can be {@code null})
    */
-  public ClientListener(final Socket socket, final Context context, final BaseXServer server) {
+  public ClientListener(final Socket socket, final Context context, final BaseXServer server,
+      final ClientSelector selector) {
     this.context = new Context(context, this);
     this.socket = socket;
     this.server = server;
+    this.selector = socket.getChannel() != null ? selector : null;
     last = System.currentTimeMillis();
-    setDaemon(true);
   }
 
   @Override
   public void run() {
     if(!authenticate()) return;
+    if(idle()) selector.park(this);
+    else serve();
+  }
 
+  /**
+   * Processes client requests. If the connection is monitored by a selector, the method returns
+   * as soon as no more input is available, and the connection will be parked.
+   * The method must only be called if input is available, or if no selector is assigned.
+   */
+  void serve() {
     try {
       while(authenticated) {
-        command = null;
-        String cmd;
-        final ServerCmd sc;
-        try {
-          final int b = in.read();
-          if(b == -1) {
-            // end of stream: exit session
-            close();
-            break;
-          }
-
-          last = System.currentTimeMillis();
-          perf.ns();
-          sc = ServerCmd.get(b);
-          cmd = null;
-          if(sc == ServerCmd.CREATE) {
-            create();
-          } else if(sc == ServerCmd.ADD) {
-            add();
-          } else if(sc == ServerCmd.REPLACE) {
-            replace();
-          } else if(sc == ServerCmd.STORE) {
-            store();
-          } else if(sc != ServerCmd.COMMAND) {
-            query(sc);
-          } else {
-            // database command
-            cmd = new ByteList().add(b).add(in.readBytes()).toString();
-          }
-        } catch(final IOException ex) {
-          // this exception may be thrown if a session is stopped
-          Util.debug(ex);
-          close();
-          break;
-        }
-        if(sc != ServerCmd.COMMAND) continue;
-
-        // parse input and create command instance
-        try {
-          command = CommandParser.get(cmd, context).parseSingle();
-          command.jc().tracer = QueryTracer.EVALINFO;
-          log(LogType.REQUEST, command.toString(true));
-        } catch(final QueryException ex) {
-          // log invalid command
-          final String msg = ex.getMessage();
-          log(LogType.REQUEST, cmd);
-          log(LogType.ERROR, msg);
-          // send 0 to mark end of potential result
-          out.write(0);
-          // send {INFO}0
-          out.print(msg);
-          out.write(0);
-          // send 1 to mark error
-          send(false);
-          continue;
-        }
-
-        // execute command and send {RESULT}
-        boolean ok = true;
-        String info;
-        try {
-          // run command
-          command.execute(context, new ServerOutput(out));
-          info = command.info();
-        } catch(final BaseXException ex) {
-          Util.debug(ex);
-          ok = false;
-          info = ex.getMessage();
-        }
-
-        // send 0 to mark end of result
-        out.write(0);
-        // send info
-        info(info, ok);
-
-        // stop console
-        if(command instanceof Exit) {
+        if(!process()) break;
+        if(idle()) {
+          // no more buffered input: hand over connection to the selector
           command = null;
-          close();
+          selector.park(this);
+          return;
         }
       }
     } catch(final IOException ex) {
@@ -164,6 +106,112 @@ public final class ClientListener extends Thread implements ClientInfo {
     command = null;
   }
 
+  /**
+   * Processes a single client request.
+   * @return {@code false} if the session has been closed
+   * @throws IOException I/O exception
+   */
+  private boolean process() throws IOException {
+    command = null;
+    String cmd;
+    final ServerCmd sc;
+    try {
+      final int b = in.read();
+      if(b == -1) {
+        // end of stream: exit session
+        close();
+        return false;
+      }
+
+      last = System.currentTimeMillis();
+      perf.ns();
+      sc = ServerCmd.get(b);
+      cmd = null;
+      if(sc == ServerCmd.CREATE) {
+        create();
+      } else if(sc == ServerCmd.ADD) {
+        add();
+      } else if(sc == ServerCmd.REPLACE) {
+        replace();
+      } else if(sc == ServerCmd.STORE) {
+        store();
+      } else if(sc != ServerCmd.COMMAND) {
+        query(sc);
+      } else {
+        // database command
+        cmd = new ByteList().add(b).add(in.readBytes()).toString();
+      }
+    } catch(final IOException ex) {
+      // this exception may be thrown if a session is stopped
+      Util.debug(ex);
+      close();
+      return false;
+    }
+    if(sc != ServerCmd.COMMAND) return true;
+
+    // parse input and create command instance
+    try {
+      command = CommandParser.get(cmd, context).parseSingle();
+      command.jc().tracer = QueryTracer.EVALINFO;
+      log(LogType.REQUEST, command.toString(true));
+    } catch(final QueryException ex) {
+      // log invalid command
+      final String msg = ex.getMessage();
+      log(LogType.REQUEST, cmd);
+      log(LogType.ERROR, msg);
+      // send 0 to mark end of potential result
+      out.write(0);
+      // send {INFO}0
+      out.print(msg);
+      out.write(0);
+      // send 1 to mark error
+      send(false);
+      return true;
+    }
+
+    // execute command and send {RESULT}
+    boolean ok = true;
+    String info;
+    try {
+      // run command
+      command.execute(context, new ServerOutput(out));
+      info = command.info();
+    } catch(final BaseXException ex) {
+      Util.debug(ex);
+      ok = false;
+      info = ex.getMessage();
+    }
+
+    // send 0 to mark end of result
+    out.write(0);
+    // send info
+    info(info, ok);
+
+    // stop console
+    if(command instanceof Exit) {
+      command = null;
+      close();
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Checks if the connection is monitored by a selector and if no buffered input is left.
+   * @return result of check
+   */
+  private boolean idle() {
+    return selector != null && in.available() == 0;
+  }
+
+  /**
+   * Returns the channel of the client connection.
+   * @return channel or {@code null}
+   */
+  SocketChannel channel() {
+    return socket.getChannel();
+  }
+
   /**
    * Initializes a session via digest authentication.
    * @return success flag
@@ -0,0 +1,130 @@
+package org.basex.server;
+
+import java.io.*;
+import java.nio.channels.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.basex.util.*;
+
+/**
+ * This class dispatches client requests to a pool of worker threads.
+ * Idle connections do not occupy a thread: they are parked and monitored by a selector,
+ * and passed on to a worker as soon as the next request arrives. If the number of workers
+ * is limited, requests are queued until a worker is available.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class ClientSelector extends Thread {
+  /** Parked clients that are waiting to be registered. */
+  private final Queue<ClientListener> parked = new ConcurrentLinkedQueue<>();
+  /** Worker threads. */
+  private final ExecutorService workers;
+  /** Selector. */
+  private final Selector selector;
+  /** Indicates if the selector is running. */
+  private volatile boolean running = true;
+
+  /**
+   * Constructor.
+   * @param threads maximum number of worker threads (unlimited if {@code 0})
+   * @throws IOException I/O exception
+   */
+  public ClientSelector(final int threads) throws IOException {
+    super("ClientSelector");
+    setDaemon(true);
+    selector = Selector.open();
+
+    final ThreadFactory tf = r -> {
+      final Thread thread = new Thread(r);
+      thread.setDaemon(true);
+      return thread;
+    };
+    workers = threads > 0 ? Executors.newFixedThreadPool(threads, tf) :
+      Executors.newCachedThreadPool(tf);
+  }
+
+  /**
+   * Runs a client request in a worker thread.
+   * @param request request
+   */
+  public void execute(final Runnable request) {
+    workers.execute(request);
+  }
+
+  /**
+   * Parks an idle client connection until new input is available.
+   * @param client client
+   */
+  void park(final ClientListener client) {
+    if(running) {
+      parked.add(client);
+      selector.wakeup();
+    } else {
+      client.close();
+    }
+  }
+
+  @Override
+  public void run() {
+    try {
+      final Set<SelectionKey> selected = selector.selectedKeys();
+      while(running) {
+        selector.select();
+        register();
+
+        while(!selected.isEmpty()) {
+          // channels must be deregistered before they can be switched back to blocking mode
+          final ArrayList<SelectionKey> keys = new ArrayList<>(selected);
+          selected.clear();
+          for(final SelectionKey key : keys) key.cancel();
+          selector.selectNow();
+
+          for(final SelectionKey key : keys) {
+            final ClientListener client = (ClientListener) key.attachment();
+            try {
+              key.channel().configureBlocking(true);
+              workers.execute(client::serve);
+            } catch(final IOException | RejectedExecutionException ex) {
+              Util.debug(ex);
+              client.close();
+            }
+          }
+        }
+      }
+    } catch(final IOException | ClosedSelectorException ex) {
+      if(running) Util.stack(ex);
+    }
+  }
+
+  /**
+   * Stops the selector and the worker threads.
+   */
+  public void close() {
+    running = false;
+    workers.shutdown();
+    try {
+      selector.close();
+    } catch(final IOException ex) {
+      Util.debug(ex);
+    }
+  }
+
+  /**
+   * Registers parked clients.
+   */
+  private void register() {
+    for(ClientListener client; (client = parked.poll()) != null;) {
+      final SelectableChannel channel = client.channel();
+      try {
+        channel.configureBlocking(false);
+        channel.register(selector, SelectionKey.OP_READ, client);
+      } catch(final IOException ex) {
+        // connection may have been closed in the meantime
+        Util.debug(ex);
+        client.close();
+      }
+    }
+  }
+}
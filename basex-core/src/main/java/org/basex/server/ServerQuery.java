@@ -3,6 +3,8 @@ package org.basex.server;
 import static org.basex.query.QueryError.*;
 
 import java.io.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 
 import org.basex.api.client.*;
 import org.basex.core.*;
@@ -21,6 +23,9 @@ import org.basex.util.*;
  * @author Christian Gruen
  */
 public final class ServerQuery extends Job {
+  /** Maximum time (ms) iterative results are buffered before they are sent. */
+  private static final long LATENCY = 50;
+
   /** Query string. */
   private final String query;
   /** Database context. */
@@ -125,23 +130,61 @@ public final class ServerQuery extends Job {
       final Iter iter = qp.iter();
       qi.evaluating = perf.ns();
 
+      // iterative results are sent in chunks: the first result is sent at once, and a chunk is
+      // sent when it exceeds the buffer size, or if the client has been waiting too long, even
+      // if the evaluation of the next result takes longer. As flushing may block, the timer
+      // delegates it to a separate thread
+      final AtomicBoolean pending = new AtomicBoolean(), flushing = new AtomicBoolean();
+      final JobTimer timer = ctx.jobs.timer;
+      final Runnable flush = () -> {
+        synchronized(out) {
+          try {
+            if(pending.getAndSet(false)) out.flush();
+          } catch(final IOException ex) {
+            // connection was closed: error will be raised when the next result is written
+            Util.debug(ex);
+          } finally {
+            flushing.set(false);
+          }
+        }
+      };
+      final ScheduledFuture<?> flusher = iterative && encode ? timer.schedule(() -> {
+        if(pending.get() && flushing.compareAndSet(false, true)) timer.execute(flush);
+      }, LATENCY, LATENCY) : null;
+
       // iterate through results
       int c = 0;
-      final PrintOutput po = PrintOutput.get(encode ? new ServerOutput(out) : out);
+      final PrintOutput po = PrintOutput.get(encode ? new ServerOutput(out, !iterative) : out);
       final SerializerOptions sopts = full ? SerializerMode.API.get() : qc.serParams();
       try(Serializer ser = Serializer.get(po, sopts)) {
-        for(Item item; (item = qc.next(iter)) != null;) {
-          if(iterative) {
-            if(full) po.write(item.xdmInfo());
-            else po.write(item.typeId().asByte());
-            ser.reset();
-            ser.serialize(item);
-            po.flush();
-            out.write(0);
-          } else {
-            ser.serialize(item);
+        try {
+          for(Item item; (item = qc.next(iter)) != null;) {
+            if(iterative) {
+              synchronized(out) {
+                if(full) po.write(item.xdmInfo());
+                else po.write(item.typeId().asByte());
+                ser.reset();
+                ser.serialize(item);
+                po.flush();
+                out.write(0);
+                if(encode) {
+                  if(c == 0) out.flush();
+                  else pending.set(true);
+                }
+              }
+            } else {
+              ser.serialize(item);
+            }
+            c++;
+          }
+        } finally {
+          // stop timer; remaining output will be flushed by the caller
+          if(flusher != null) {
+            flusher.cancel(false);
+            synchronized(out) {
+              pending.set(false);
+            }
           }
-          c++;
         }
       }
       qi.serializing = perf.ns();
@@ -191,7 +234,7 @@ public final class ServerQuery extends Job {
    */
   private QueryProcessor qp() {
     if(parsed || qp == null) {
-      qp = pushJob(new QueryProcessor(query, ctx));
+      qp = pushJob(new QueryProcessor(query, ctx).cachePlans());
       parsed = false;
     }
     return qp;
@@ -0,0 +1,79 @@
+package org.basex.util;
+
+import java.util.concurrent.atomic.*;
+
+/**
+ * This class records hits, misses and evictions of a cache.
+ * All methods can be called concurrently.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class CacheStats {
+  /** Number of hits. */
+  private final LongAdder hits = new LongAdder();
+  /** Number of misses. */
+  private final LongAdder misses = new LongAdder();
+  /** Number of evictions. */
+  private final LongAdder evictions = new LongAdder();
+
+  /**
+   * Records a hit.
+   */
+  public void hit() {
+    hits.increment();
+  }
+
+  /**
+   * Records a miss.
+   */
+  public void miss() {
+    misses.increment();
+  }
+
+  /**
+   * Records an eviction.
+   */
+  public void evict() {
+    evictions.increment();
+  }
+
+  /**
+   * Returns the number of hits.
+   * @return hits
+   */
+  public long hits() {
+    return hits.sum();
+  }
+
+  /**
+   * Returns the number of misses.
+   * @return misses
+   */
+  public long misses() {
+    return misses.sum();
+  }
+
+  /**
+   * Returns the number of evictions.
+   * @return evictions
+   */
+  public long evictions() {
+    return evictions.sum();
+  }
+
+  /**
+   * Returns the hit ratio.
+   * @return hit ratio in percent
+   */
+  public int ratio() {
+    final long h = hits(), all = h + misses();
+    return all == 0 ? 0 : (int) (h * 100 / all);
+  }
+
+  @Override
+  public String toString() {
+    return Util.className(this) + "[hits: " + hits() + ", misses: " + misses() +
+        ", evictions: " + evictions() + ']';
+  }
+}
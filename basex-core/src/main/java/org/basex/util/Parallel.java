@@ -0,0 +1,98 @@
+package org.basex.util;
+
+import static org.basex.core.Text.*;
+
+import java.io.*;
+
+import org.basex.core.jobs.*;
+
+/**
+ * This class runs tasks in parallel threads and waits until all of them have terminated.
+ * If a task fails, the first error is passed on, and {@link #failed()} will return
+ * {@code true}, which can be checked by the remaining tasks to stop early.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class Parallel {
+  /** Error raised by a task. */
+  private Throwable error;
+  /** Indicates if a task has failed. */
+  private volatile boolean failed;
+
+  /**
+   * Runs the specified tasks. The last task is run by the calling thread.
+   * @param name name prefix of the created threads
+   * @param tasks tasks
+   * @throws IOException I/O exception
+   */
+  public void run(final String name, final Task... tasks) throws IOException {
+    final int tl = tasks.length - 1;
+    if(tl < 0) return;
+
+    final Thread[] threads = new Thread[tl];
+    for(int t = 0; t < tl; t++) {
+      final Task task = tasks[t];
+      threads[t] = new Thread(() -> run(task), name + '-' + t);
+      threads[t].start();
+    }
+    run(tasks[tl]);
+
+    // wait until all threads have terminated
+    for(final Thread thread : threads) {
+      while(thread.isAlive()) {
+        try {
+          thread.join();
+        } catch(final InterruptedException ex) {
+          failed(new JobException(INTERRUPTED));
+        }
+      }
+    }
+
+    final Throwable th = error;
+    if(th instanceof IOException) throw (IOException) th;
+    if(th instanceof RuntimeException) throw (RuntimeException) th;
+    if(th instanceof Error) throw (Error) th;
+  }
+
+  /**
+   * Indicates if a task has failed.
+   * @return result of check
+   */
+  public boolean failed() {
+    return failed;
+  }
+
+  /**
+   * Runs a single task and registers its error.
+   * @param task task
+   */
+  private void run(final Task task) {
+    try {
+      task.run();
+    } catch(final Throwable th) {
+      failed(th);
+    }
+  }
+
+  /**
+   * Registers an error.
+   * @param th error
+   */
+  private synchronized void failed(final Throwable th) {
+    if(error == null) error = th;
+    failed = true;
+  }
+
+  /**
+   * Task that may raise an I/O exception.
+   */
+  @FunctionalInterface
+  public interface Task {
+    /**
+     * Runs the task.
+     * @throws IOException I/O exception
+     */
+    void run() throws IOException;
+  }
+}
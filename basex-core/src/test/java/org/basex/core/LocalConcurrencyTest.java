@@ -2,11 +2,14 @@ package org.basex.core;
 
 import static org.junit.Assert.*;
 
+import java.util.*;
+import java.util.concurrent.*;
 import java.util.concurrent.atomic.*;
 
 import org.basex.*;
 import org.basex.api.client.*;
 import org.basex.core.cmd.*;
+import org.basex.core.jobs.*;
 import org.basex.util.*;
 import org.junit.Test;
 
@@ -49,4 +52,136 @@ public final class LocalConcurrencyTest extends SandboxTest {
       execute(new DropUser("user"));
     }
   }
+
+  /**
+   * Adds documents to the same database in parallel.
+   * @throws InterruptedException interrupted exception
+   */
+  @Test public void appendTest() throws InterruptedException {
+    final int threads = 8, runs = 10;
+    execute(new CreateDB(NAME));
+    try {
+      final AtomicReference<Exception> error = new AtomicReference<>();
+      final CountDownLatch done = new CountDownLatch(threads);
+      for(int t = 0; t < threads; t++) {
+        final int thread = t;
+        new Thread(() -> {
+          try(Session session = new LocalSession(context)) {
+            session.execute(new Open(NAME));
+            for(int r = 0; r < runs; r++) {
+              final String path = thread + "/" + r;
+              session.execute(new XQuery("db:add('" + NAME + "', <x/>, 'q" + path + "')"));
+              session.execute(new Add("c" + path, "<x/>"));
+            }
+          } catch(final Exception ex) {
+            error.set(ex);
+          } finally {
+            done.countDown();
+          }
+        }).start();
+      }
+      assertTrue(done.await(60, TimeUnit.SECONDS));
+      if(error.get() != null) fail(error.get().toString());
+      assertEquals(String.valueOf(threads * runs * 2),
+          query("count(db:open('" + NAME + "'))"));
+    } finally {
+      execute(new DropDB(NAME));
+    }
+  }
+
+  /**
+   * Tests the admission of queued jobs.
+   * @throws InterruptedException interrupted exception
+   */
+  @Test public void admissionTest() throws InterruptedException {
+    final StaticOptions sopts = new StaticOptions(false);
+    sopts.set(StaticOptions.USERJOBS, 1);
+    final JobPool pool = new JobPool(sopts);
+    final Queue<JobPriority> admitted = new ConcurrentLinkedQueue<>();
+
+    final Job running = job(JobPriority.INTERACTIVE);
+    pool.register(running);
+
+    // second job of the same user, and a job with a higher priority, need to wait
+    final JobPriority[] priorities = { JobPriority.BACKGROUND, JobPriority.INTERACTIVE };
+    final CountDownLatch done = new CountDownLatch(priorities.length);
+    for(int p = 0; p < priorities.length; p++) {
+      final JobPriority priority = priorities[p];
+      new Thread(() -> {
+        final Job job = job(priority);
+        pool.register(job);
+        admitted.add(priority);
+        pool.unregister(job);
+        done.countDown();
+      }).start();
+      while(!pool.toString().contains("queued: " + (p + 1))) Performance.sleep(1);
+    }
+    assertTrue(admitted.isEmpty());
+
+    // jobs are admitted one after another, ordered by their priority
+    pool.unregister(running);
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+    assertEquals(Arrays.asList(JobPriority.INTERACTIVE, JobPriority.BACKGROUND),
+        new ArrayList<>(admitted));
+    assertTrue(pool.toString().contains("waited: 2"));
+  }
+
+  /**
+   * Tests the admission of jobs that are started by a running job of the same user.
+   * @throws InterruptedException interrupted exception
+   */
+  @Test public void childAdmissionTest() throws InterruptedException {
+    final StaticOptions sopts = new StaticOptions(false);
+    sopts.set(StaticOptions.USERJOBS, 1);
+    final JobPool pool = new JobPool(sopts);
+
+    final Job running = job(JobPriority.INTERACTIVE);
+    pool.register(running);
+
+    // child jobs are queued as long as the running job does not wait for them
+    final Job[] children = new Job[2];
+    final CountDownLatch[] done = new CountDownLatch[children.length];
+    for(int c = 0; c < children.length; c++) {
+      final Job child = job(JobPriority.BACKGROUND);
+      child.jc().parent = running.jc().id();
+      children[c] = child;
+      final CountDownLatch latch = new CountDownLatch(1);
+      done[c] = latch;
+      new Thread(() -> {
+        pool.register(child);
+        latch.countDown();
+      }).start();
+      while(!pool.toString().contains("queued: " + (c + 1))) Performance.sleep(1);
+    }
+
+    // awaited child job is admitted without being counted; fan-out is still limited
+    pool.await(running, children[0].jc().id(), true);
+    assertTrue(done[0].await(5, TimeUnit.SECONDS));
+    assertTrue(pool.toString().contains("registered: 2, queued: 1"));
+    pool.unregister(children[0]);
+    pool.await(running, children[0].jc().id(), false);
+    assertFalse(done[1].await(100, TimeUnit.MILLISECONDS));
+
+    // second child job is admitted after the running job has been unregistered
+    pool.unregister(running);
+    assertTrue(done[1].await(5, TimeUnit.SECONDS));
+    pool.unregister(children[1]);
+    assertTrue(pool.toString().contains("registered: 0"));
+  }
+
+  /**
+   * Creates a job with the specified priority.
+   * @param priority priority
+   * @return job
+   */
+  private static Job job(final JobPriority priority) {
+    final Job job = new Job() {
+      @Override
+      public JobPriority priority() {
+        return priority;
+      }
+    };
+    job.jc().context = context;
+    return job;
+  }
 }
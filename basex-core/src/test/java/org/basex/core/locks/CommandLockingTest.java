@@ -285,6 +285,29 @@ public final class CommandLockingTest extends SandboxTest {
     ckDBs(new XQuery(_XQUERY_EVAL.args(FILE)), false, null);
   }
 
+  /** Detection of jobs that only add documents. */
+  @Test public void append() {
+    assertTrue(append(new XQuery(_DB_ADD.args(NAME, " <foo/>", FILE))));
+    assertTrue(append(new XQuery(_DB_ADD.args(NAME, FILE, "a") + ',' +
+        _DB_ADD.args(NAME, FILE, "b"))));
+    assertFalse(append(new XQuery(_DB_ADD.args(NAME, _DB_OPEN.args(NAME), FILE))));
+    assertFalse(append(new XQuery(_DB_ADD.args(NAME, FILE) + ',' + _DB_ADD.args(NAME2, FILE))));
+    assertFalse(append(new XQuery(_DB_ADD.args(NAME, FILE) + ',' + _DB_DELETE.args(NAME, FILE))));
+    assertFalse(append(new XQuery(_DB_REPLACE.args(NAME, FILE, " <foo/>"))));
+  }
+
+  /**
+   * Checks if a command will only add documents to a database.
+   * @param cmd command to test
+   * @return result of check
+   */
+  private static boolean append(final Command cmd) {
+    cmd.updating(DUMMY_CONTEXT);
+    cmd.addLocks();
+    cmd.jc().locks.finish(context);
+    return cmd.jc().locks.append;
+  }
+
   /**
    * Test if the right databases are identified for locking. Required databases are exact,
    * no additional ones allowed.
@@ -481,6 +481,97 @@ public final class LockingTest extends SandboxTest {
     else th2.release();
   }
 
+  /**
+   * Deferred write lock: readers can proceed until the lock is upgraded, writers are blocked.
+   * @throws InterruptedException Got interrupted.
+   */
+  @Test public void deferredWriteTest() throws InterruptedException {
+    final CountDownLatch sync = new CountDownLatch(1), read = new CountDownLatch(1),
+        write = new CountDownLatch(1), upgraded = new CountDownLatch(1);
+    final String[] db = Arrays.copyOf(objects, 1);
+
+    final LockTester th1 = new LockTester(null, NONE, db, sync).defer();
+    final LockTester th2 = new LockTester(sync, db, NONE, read);
+    final LockTester th3 = new LockTester(sync, NONE, db, write);
+
+    th1.start();
+    th2.start();
+    th3.start();
+    assertTrue("Thread 2 should be able to acquire lock.",
+        read.await(WAIT, TimeUnit.MILLISECONDS));
+    assertFalse("Thread 3 shouldn't be able to acquire lock yet.",
+        write.await(WAIT, TimeUnit.MILLISECONDS));
+    th1.upgrade(upgraded);
+    assertFalse("Thread 1 shouldn't be able to upgrade lock yet.",
+        upgraded.await(WAIT, TimeUnit.MILLISECONDS));
+    th2.release();
+    assertTrue("Thread 1 should be able to upgrade lock now.",
+        upgraded.await(WAIT, TimeUnit.MILLISECONDS));
+    assertFalse("Thread 3 shouldn't be able to acquire lock yet.",
+        write.await(WAIT, TimeUnit.MILLISECONDS));
+    th1.release();
+    assertTrue("Thread 3 should be able to acquire lock now.",
+        write.await(WAIT, TimeUnit.MILLISECONDS));
+    th3.release();
+  }
+
+  /**
+   * Write locks on multiple strings will not be deferred.
+   * @throws InterruptedException Got interrupted.
+   */
+  @Test public void deferredWritesTest() throws InterruptedException {
+    final CountDownLatch sync = new CountDownLatch(1), test = new CountDownLatch(1);
+    final LockTester th1 = new LockTester(null, NONE, objects, sync).defer();
+    final LockTester th2 = new LockTester(sync, objects, NONE, test);
+
+    th1.start();
+    th2.start();
+    assertFalse("Thread 2 shouldn't be able to acquire lock yet.",
+        test.await(WAIT, TimeUnit.MILLISECONDS));
+    th1.release();
+    assertTrue("Thread 2 should be able to acquire lock now.",
+        test.await(WAIT, TimeUnit.MILLISECONDS));
+    th2.release();
+  }
+
+  /**
+   * Jobs that only add documents share the write lock until it is upgraded.
+   * @throws InterruptedException Got interrupted.
+   */
+  @Test public void appendTest() throws InterruptedException {
+    final CountDownLatch sync = new CountDownLatch(1), append = new CountDownLatch(1),
+        write = new CountDownLatch(1), upgraded1 = new CountDownLatch(1),
+        upgraded2 = new CountDownLatch(1);
+    final String[] db = Arrays.copyOf(objects, 1);
+
+    final LockTester th1 = new LockTester(null, NONE, db, sync).append();
+    final LockTester th2 = new LockTester(sync, NONE, db, append).append();
+    final LockTester th3 = new LockTester(sync, NONE, db, write).defer();
+
+    th1.start();
+    th2.start();
+    assertTrue("Thread 2 should be able to acquire lock.",
+        append.await(WAIT, TimeUnit.MILLISECONDS));
+    th3.start();
+    assertFalse("Thread 3 shouldn't be able to acquire lock yet.",
+        write.await(WAIT, TimeUnit.MILLISECONDS));
+    th1.upgrade(upgraded1);
+    assertTrue("Thread 1 should be able to upgrade lock.",
+        upgraded1.await(WAIT, TimeUnit.MILLISECONDS));
+    th2.upgrade(upgraded2);
+    assertFalse("Thread 2 shouldn't be able to upgrade lock yet.",
+        upgraded2.await(WAIT, TimeUnit.MILLISECONDS));
+    th1.release();
+    assertTrue("Thread 2 should be able to upgrade lock now.",
+        upgraded2.await(WAIT, TimeUnit.MILLISECONDS));
+    assertFalse("Thread 3 shouldn't be able to acquire lock yet.",
+        write.await(WAIT, TimeUnit.MILLISECONDS));
+    th2.release();
+    assertTrue("Thread 3 should be able to acquire lock now.",
+        write.await(WAIT, TimeUnit.MILLISECONDS));
+    th3.release();
+  }
+
   /**
    * Fuzzing test, watch for deadlocks. Uses multiple threads in parallel which all fetch
    * random locks, hold them for a while, release them and fetch the next one.
@@ -540,6 +631,8 @@ public final class LockingTest extends SandboxTest {
     private final Locks locks = new Locks();
     /** Flag indicating to release locks after being notified. */
     private volatile boolean requestRelease;
+    /** Latch to count down after upgrading a deferred write lock (can be {@code null}). */
+    private volatile CountDownLatch upgraded;
 
     /**
      * Setup locking thread. Call {@code start} to lock, notify the thread to unlock.
@@ -584,9 +677,16 @@ public final class LockingTest extends SandboxTest {
         // we hold the lock, count down
         if(countDown != null) countDown.countDown();
 
-        // wait until we're asked to release the lock
+        // wait until we're asked to upgrade or release the lock
         synchronized(this) {
-          while(!requestRelease) wait();
+          while(!requestRelease && upgraded == null) wait();
+        }
+        if(upgraded != null) {
+          locking.upgrade();
+          upgraded.countDown();
+          synchronized(this) {
+            while(!requestRelease) wait();
+          }
         }
 
         locking.release();
@@ -595,6 +695,33 @@ public final class LockingTest extends SandboxTest {
       }
     }
 
+    /**
+     * Defers the write lock until it is upgraded.
+     * @return self reference
+     */
+    LockTester defer() {
+      locks.defer = true;
+      return this;
+    }
+
+    /**
+     * Defers the write lock, which will be shared with other jobs that only add documents.
+     * @return self reference
+     */
+    LockTester append() {
+      locks.append = true;
+      return defer();
+    }
+
+    /**
+     * Upgrades a deferred write lock.
+     * @param latch latch to count down after upgrading the lock
+     */
+    synchronized void upgrade(final CountDownLatch latch) {
+      upgraded = latch;
+      notifyAll();
+    }
+
     /**
      * Releases all locks tester owns. {@code release} gets called by other threads, so it
      * cannot release locks directly (the thread holding the lock must do this). Set flag
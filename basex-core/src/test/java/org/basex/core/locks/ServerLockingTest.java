@@ -162,10 +162,16 @@ public final class ServerLockingTest extends SandboxTest {
         new XQuery(f("insert node %s into db:open('%s')", Q, NAME)),
         new XQuery(f("insert node %s into db:open('%s1')", Q, NAME)),
         true);
-    // Read from and write to the same database
+    // Read from and write to the same database (write lock is deferred until updates are applied)
     testQueries(
         new XQuery(f("(db:open('%s'), %s)", NAME, Q)),
         new XQuery(f("insert node %s into db:open('%s')", Q, NAME)),
+        true);
+    // Read from a database, write to the same and another database
+    testQueries(
+        new XQuery(f("(db:open('%s'), %s)", NAME, Q)),
+        new XQuery(f("insert node %s into db:open('%s'), insert node <a/> into db:open('%2$s1')",
+            Q, NAME)),
         false);
     // Read from and write to different databases
     testQueries(
@@ -4,6 +4,7 @@ import static org.junit.Assert.*;
 
 import java.io.*;
 import java.lang.reflect.*;
+import java.util.*;
 
 import org.basex.*;
 import org.basex.build.*;
@@ -313,6 +314,50 @@ public final class DiskTableTest extends SandboxTest {
     assertEntrysEqual(nodes, 2 * nodes, size - nodes);
   }
 
+  /**
+   * Reads the entries concurrently.
+   * @throws Exception exception
+   */
+  @Test public void concurrentRead() throws Exception {
+    tda.insert(nodes, getTestEntries(nodes));
+    final Thread[] threads = new Thread[8];
+    final Throwable[] errors = new Throwable[threads.length];
+    for(int t = 0; t < threads.length; t++) {
+      final int th = t;
+      threads[t] = new Thread(() -> {
+        try {
+          // start at different offsets to enforce page replacements
+          final int off = th * nodes * 3 % size;
+          for(int i = 0; i < size; i++) {
+            final int pre = (off + i) % size;
+            final byte[] entry = Arrays.copyOfRange(storage, pre << IO.NODEPOWER,
+                pre + 1 << IO.NODEPOWER);
+            assertArrayEquals(entry, entry(pre < nodes ? pre : pre + nodes));
+          }
+        } catch(final Throwable ex) {
+          errors[th] = ex;
+        }
+      });
+      threads[t].start();
+    }
+    for(final Thread thread : threads) thread.join();
+    for(final Throwable error : errors) {
+      if(error != null) throw new AssertionError(error);
+    }
+    assertTrue(tda.stats().hits() > 0);
+  }
+
+  /**
+   * Returns the bytes of a single entry.
+   * @param pre pre value
+   * @return bytes
+   */
+  private byte[] entry(final int pre) {
+    final byte[] entry = new byte[1 << IO.NODEPOWER];
+    for(int i = 0; i < entry.length; i++) entry[i] = (byte) tda.read1(pre, i);
+    return entry;
+  }
+
   /**
    * Asserts that the chosen entries are inserted by a test case.
    * @param startNum first entry
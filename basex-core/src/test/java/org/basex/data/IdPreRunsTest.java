@@ -0,0 +1,64 @@
+package org.basex.data;
+
+import static org.junit.Assert.*;
+
+import org.basex.*;
+import org.basex.core.cmd.*;
+import org.basex.index.*;
+import org.basex.util.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * Tests for the read-only ID -> PRE mapping ({@link IdPreRuns}).
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class IdPreRunsTest extends SandboxTest {
+  /** Test database name. */
+  private static final String DB = Util.className(IdPreRunsTest.class);
+
+  /** Clean up method. */
+  @After public void cleanUp() {
+    execute(new DropDB(DB));
+  }
+
+  /** Mapping of a database without updates. */
+  @Test public void noUpdates() {
+    execute(new CreateDB(DB, "<a><b/><c>x</c><d y='z'/></a>"));
+    final Data data = context.data();
+    check(data);
+    assertEquals(-1, data.pre(data.meta.lastid + 1));
+  }
+
+  /** Mapping after updates. */
+  @Test public void updates() {
+    execute(new CreateDB(DB, "<a><b/><c>x</c><d y='z'/></a>"));
+    check(context.data());
+
+    final int id = context.data().id(2);
+    query("delete node /a/b");
+    query("insert node <e><f/></e> into /a/c");
+    query("insert node <g/> as first into /a");
+    final Data data = context.data();
+    check(data);
+    assertEquals(-1, data.pre(id));
+
+    // reopen database: mapping is read from disk
+    execute(new Close());
+    execute(new Open(DB));
+    check(context.data());
+    query("delete node /a/g");
+    check(context.data());
+  }
+
+  /**
+   * Checks if all ids are mapped to the correct pre values.
+   * @param data data reference
+   */
+  private static void check(final Data data) {
+    final int size = data.meta.size;
+    for(int pre = 0; pre < size; pre++) assertEquals(pre, data.pre(data.id(pre)));
+  }
+}
@@ -0,0 +1,43 @@
+package org.basex.data;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.util.*;
+import org.junit.*;
+
+/**
+ * Test index updates when using disk storage with memory-mapped files ({@link StaticOptions#MMAP}).
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class MappedDataTest extends MemDataTest {
+  /** Test database name. */
+  private final String dbName = Util.className(MappedDataTest.class);
+
+  /**
+   * Enables memory mapping.
+   */
+  @BeforeClass public static void map() {
+    context.soptions.set(StaticOptions.MMAP, true);
+  }
+
+  /**
+   * Disables memory mapping.
+   */
+  @AfterClass public static void unmap() {
+    context.soptions.set(StaticOptions.MMAP, false);
+  }
+
+  @Override
+  @Before public void setUp() {
+    execute(new CreateDB(dbName, XMLSTR));
+  }
+
+  /**
+   * Clean up method; executed after each test; drops the database.
+   */
+  @After public void cleanUp() {
+    execute(new DropDB(dbName));
+  }
+}
@@ -2,9 +2,13 @@ package org.basex.data;
 
 import static org.junit.Assert.*;
 
+import java.io.*;
+import java.nio.file.*;
+
 import org.basex.*;
 import org.basex.core.*;
 import org.basex.core.cmd.*;
+import org.basex.io.*;
 import org.basex.query.func.*;
 import org.junit.*;
 import org.junit.Test;
@@ -98,6 +102,85 @@ public final class StoreTest extends SandboxTest {
     }
   }
 
+  /**
+   * Tests the write-ahead log. Uncommitted updates are discarded when a database is opened,
+   * committed updates are persistent, and logs of databases opened by other instances are
+   * left untouched.
+   * @throws IOException I/O exception
+   */
+  @Test public void log() throws IOException {
+    execute(new CreateDB(NAME, "<X/>"));
+    query("insert node <A/> into /X");
+    final IOFile log = context.data().meta.dbfile(DataText.DATALOG);
+    assertTrue(log.exists());
+
+    // copy files of opened database: incomplete log will be discarded
+    final String copy = NAME + "copy";
+    copy(copy);
+    assertEquals("0", query("count(" + Function._DB_OPEN.args(copy) + "//A)"));
+    assertFalse(MetaData.file(context.soptions.dbPath(copy), DataText.DATALOG).exists());
+
+    // commit log
+    execute(new Flush());
+    assertFalse(log.exists());
+    copy(copy);
+    assertEquals("1", query("count(" + Function._DB_OPEN.args(copy) + "//A)"));
+
+    // committed log that has not been applied yet: log will be replayed
+    query("insert node <A/> into /X");
+    copy(copy);
+    final IOFile copyLog = MetaData.file(context.soptions.dbPath(copy), DataText.DATALOG);
+    assertTrue(copyLog.delete());
+    // link log of test database: the copy will contain the commit record
+    Files.createLink(Paths.get(copyLog.path()), Paths.get(log.path()));
+    execute(new Flush());
+    assertFalse(log.exists());
+    assertTrue(copyLog.exists());
+    assertEquals("2", query("count(" + Function._DB_OPEN.args(copy) + "//A)"));
+    assertFalse(copyLog.exists());
+
+    // database opened by another instance: log will neither be replayed nor discarded
+    query("insert node <A/> into /X");
+    assertTrue(log.exists());
+    final Context ctx = new Context();
+    try {
+      new Open(NAME).execute(ctx);
+      fail("Database should be pinned.");
+    } catch(final BaseXException ex) {
+      assertTrue(log.exists());
+    } finally {
+      ctx.close();
+    }
+    execute(new Flush());
+    assertFalse(log.exists());
+    assertEquals("3", query("count(/X/A)"));
+
+    // autoflush: log is committed after each update
+    set(MainOptions.AUTOFLUSH, true);
+    try {
+      query("insert node <A/> into /X");
+      assertFalse(log.exists());
+      execute(new Close());
+      assertEquals("4", query("count(" + Function._DB_OPEN.args(NAME) + "//A)"));
+    } finally {
+      set(MainOptions.AUTOFLUSH, false);
+      execute(new DropDB(copy));
+    }
+  }
+
+  /**
+   * Copies the files of the test database.
+   * @param target name of the target database
+   * @throws IOException I/O exception
+   */
+  private static void copy(final String target) throws IOException {
+    final IOFile path = context.soptions.dbPath(target);
+    execute(new DropDB(target));
+    for(final IOFile file : context.soptions.dbPath(NAME).children()) {
+      file.copyTo(new IOFile(path, file.name()));
+    }
+  }
+
   /**
    * Tests if the size of the text store has not changed.
    * @param old old size
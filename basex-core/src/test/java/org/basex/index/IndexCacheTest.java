@@ -5,6 +5,7 @@ import static org.junit.Assert.*;
 
 import java.util.*;
 
+import org.basex.util.*;
 import org.junit.*;
 
 /**
@@ -69,6 +70,66 @@ public final class IndexCacheTest {
     assertNull(cache.get(key));
   }
 
+  /** Test for the size limit of the cache. */
+  @Test public void testCapacity() {
+    cache = new IndexCache(64, new CacheStats());
+    for(int i = 0; i < 4000; ++i) cache.add(token("keyCapacity" + i), i, i);
+    assertTrue(cache.size() <= 64);
+    assertTrue(cache.stats().evictions() + cache.size() <= 4000);
+  }
+
+  /** Test for the admission of frequently requested entries. */
+  @Test public void testAdmission() {
+    cache = new IndexCache(16, new CacheStats());
+    for(int i = 0; i < 1000; ++i) {
+      final byte[] key = token("keyAdmission" + i);
+      if(cache.get(key) == null) cache.add(key, i, i);
+    }
+    final byte[] key = token("keyFrequent");
+    for(int i = 0; i < 10; ++i) {
+      if(cache.get(key) == null) cache.add(key, 1, 2L);
+    }
+    assertCacheEntry(key, 1, 2L);
+  }
+
+  /** Test for the cache statistics. */
+  @Test public void testStats() {
+    final byte[] key = token("keyStats");
+    assertNull(cache.get(key));
+    cache.add(key, 1, 2L);
+    assertCacheEntry(key, 1, 2L);
+    assertEquals(1, cache.stats().hits());
+    assertEquals(1, cache.stats().misses());
+  }
+
+  /**
+   * Concurrent lookups and additions.
+   * @throws InterruptedException interrupted exception
+   */
+  @Test public void testConcurrency() throws InterruptedException {
+    cache = new IndexCache(256, new CacheStats());
+    final Thread[] threads = new Thread[8];
+    final boolean[] ok = new boolean[threads.length];
+    for(int t = 0; t < threads.length; t++) {
+      final int th = t;
+      threads[t] = new Thread(() -> {
+        final Random rnd = new Random(th);
+        for(int i = 0; i < 100000; i++) {
+          final int r = rnd.nextInt(1000);
+          final byte[] key = token(r);
+          final IndexEntry entry = cache.get(key);
+          if(entry == null) cache.add(key, r, r);
+          else if(entry.size != r || !eq(entry.key, key)) return;
+        }
+        ok[th] = true;
+      });
+      threads[t].start();
+    }
+    for(final Thread thread : threads) thread.join();
+    for(final boolean o : ok) assertTrue(o);
+    assertTrue(cache.size() <= 256);
+  }
+
   /**
    * Test that new records can be continuously added without hitting
    * {@link OutOfMemoryError}.
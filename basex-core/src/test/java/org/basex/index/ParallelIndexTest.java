@@ -0,0 +1,108 @@
+package org.basex.index;
+
+import static org.junit.Assert.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * Tests for building index structures with multiple threads.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class ParallelIndexTest extends SandboxTest {
+  /** Number of elements in the test document. */
+  private static final int SIZE = 20000;
+  /** Test document. */
+  private static String doc;
+
+  /** Creates the test document. */
+  @BeforeClass public static void init() {
+    final StringBuilder sb = new StringBuilder("<xml>");
+    for(int i = 0; i < SIZE; i++) {
+      sb.append("<a n='c").append(i % 13).append(" d").append(i % 5).append("'>word");
+      sb.append(i % 100);
+      sb.append(" common text").append(i % 7).append("</a>");
+    }
+    doc = sb.append("</xml>").toString();
+  }
+
+  /** Resets the options. */
+  @After public void reset() {
+    context.soptions.set(StaticOptions.INDEXTHREADS, 1);
+    set(MainOptions.SPLITSIZE, 0);
+    set(MainOptions.FTINDEX, false);
+    set(MainOptions.TOKENINDEX, false);
+    execute(new DropDB(NAME));
+  }
+
+  /** Full-text index. */
+  @Test public void fullText() {
+    set(MainOptions.FTINDEX, true);
+    final String query = "string-join(ft:tokens('" + NAME + "') ! (@count || .), ' '), "
+        + "string-join(ft:search('" + NAME + "', 'word42') ! db:node-pre(.), ' '), "
+        + "count(//a[text() contains text 'common text3']), "
+        + "count(//a[text() contains text 'word1 common' ordered])";
+    final String expected = build(1, 0, query);
+
+    assertEquals(expected, build(4, 0, query));
+    assertEquals(expected, build(4, 1, query));
+    assertEquals(expected, build(1, 1, query));
+  }
+
+  /** Value indexes. */
+  @Test public void values() {
+    set(MainOptions.TOKENINDEX, true);
+    final String query = "string-join(db:text('" + NAME + "', 'word42 common text0') ! "
+        + "db:node-pre(.), ' '), "
+        + "string-join(db:attribute('" + NAME + "', 'c5 d0') ! db:node-pre(.), ' '), "
+        + "string-join(db:token('" + NAME + "', 'd3') ! db:node-pre(.), ' '), "
+        + "count(index:texts('" + NAME + "')), count(index:attributes('" + NAME + "'))";
+    final String expected = build(1, 0, query);
+
+    assertEquals(expected, build(4, 0, query));
+    assertEquals(expected, build(4, 1, query));
+    assertEquals(expected, build(1, 1, query));
+
+    // rebuild all value indexes in parallel
+    query("insert node <a n='x'>word42 common text0</a> into /xml");
+    context.soptions.set(StaticOptions.INDEXTHREADS, 4);
+    execute(new Optimize());
+    assertEquals("1", query("count(db:attribute('" + NAME + "', 'x'))"));
+    assertEquals(query("count(//@n ! tokenize(., ' ')[. = 'd3'])"),
+        query("count(db:token('" + NAME + "', 'd3'))"));
+    execute(new OptimizeAll());
+    assertEquals("1", query("count(db:attribute('" + NAME + "', 'x'))"));
+    assertEquals(query("count(//a ! string()[. = 'word42 common text0'])"),
+        query("count(db:text('" + NAME + "', 'word42 common text0'))"));
+  }
+
+  /** Full-text index with no indexed tokens. */
+  @Test public void emptyFullText() {
+    set(MainOptions.FTINDEX, true);
+    set(MainOptions.FTINCLUDE, "unknown");
+    try {
+      assertEquals("0", build(4, 0, "count(ft:tokens('" + NAME + "'))"));
+    } finally {
+      set(MainOptions.FTINCLUDE, "");
+    }
+  }
+
+  /**
+   * Creates the test database and evaluates a query.
+   * @param threads number of threads
+   * @param splitsize split size
+   * @param query query
+   * @return result
+   */
+  private static String build(final int threads, final int splitsize, final String query) {
+    context.soptions.set(StaticOptions.INDEXTHREADS, threads);
+    set(MainOptions.SPLITSIZE, splitsize);
+    execute(new CreateDB(NAME, doc));
+    return query(query);
+  }
+}
@@ -199,6 +199,55 @@ public class DataAccessTest {
     assertEquals(STR, Token.string(da.readBytes(bytes.length)));
   }
 
+  /** Test method for {@link DataAccess#reader(long)}. */
+  @Test public final void testReader() {
+    final DataReader dr = da.reader(0);
+    assertEquals(STR, Token.string(dr.readToken()));
+    assertEquals(BYTE, (byte) dr.read1());
+    assertEquals(LONG, dr.read5());
+    assertEquals(INT, dr.read4());
+    assertEquals(CINT5, dr.readNum());
+    assertEquals(CINT4, dr.readNum());
+    assertEquals(CINT2, dr.readNum());
+    assertEquals(CINT1, dr.readNum());
+    assertEquals(STR, Token.string(dr.cursor(BLOCK_BOUNDARY_POS).readToken()));
+    assertEquals(da.length(), dr.cursor());
+    // cursor of the data access is not changed
+    assertEquals(0L, da.cursor());
+  }
+
+  /**
+   * Concurrent reads of tokens distributed over more blocks than can be buffered.
+   * @throws Exception exception
+   */
+  @Test public final void concurrentReadToken() throws Exception {
+    final byte[] token = Token.token(STR_LONG);
+    final int tokens = 100;
+    final long[] pos = new long[tokens];
+    for(int t = 0; t < tokens; t++) {
+      pos[t] = da.length();
+      da.writeToken(pos[t], Token.concat(Token.token(t), token));
+    }
+    da.flush();
+
+    final Thread[] threads = new Thread[8];
+    final boolean[] ok = new boolean[threads.length];
+    for(int t = 0; t < threads.length; t++) {
+      final int th = t;
+      threads[t] = new Thread(() -> {
+        final Random rnd = new Random(th);
+        for(int i = 0; i < 1000; i++) {
+          final int r = rnd.nextInt(tokens);
+          if(!Token.eq(Token.concat(Token.token(r), token), da.readToken(pos[r]))) return;
+        }
+        ok[th] = true;
+      });
+      threads[t].start();
+    }
+    for(final Thread thread : threads) thread.join();
+    for(final boolean o : ok) assertTrue(o);
+  }
+
   /** Test method for {@link DataAccess#cursor(long)}. */
   @Test public final void testCursorLong() {
     long off = STR_BIN.length + BYTE_BIN.length + LONG_BIN.length +
@@ -0,0 +1,125 @@
+package org.basex.query;
+
+import static org.junit.Assert.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.util.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * Tests for the cache of parsed query plans ({@link PlanCache}).
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class PlanCacheTest extends SandboxTest {
+  /** Database context with enabled plan cache. */
+  private static Context ctx;
+
+  /** Creates the database context. */
+  @BeforeClass public static void start() {
+    Prop.put(StaticOptions.PLANCACHE, "2");
+    ctx = new Context();
+  }
+
+  /** Closes the database context. */
+  @AfterClass public static void stop() {
+    ctx.close();
+    Prop.put(StaticOptions.PLANCACHE, "0");
+  }
+
+  /**
+   * Reuses a plan with different bindings.
+   * @throws Exception exception
+   */
+  @Test public void bindings() throws Exception {
+    final CacheStats stats = ctx.plans.stats();
+    final long hits = stats.hits(), misses = stats.misses();
+    final String query = "declare variable $x external; declare variable $y := $x * 2; $y + 1";
+    for(int i = 0; i < 5; i++) {
+      assertEquals(Integer.toString(i * 2 + 1), eval(query, i));
+    }
+    assertEquals(hits + 4, stats.hits());
+    assertEquals(misses + 1, stats.misses());
+  }
+
+  /**
+   * Reuses plans with local variables, closures and updates.
+   * @throws Exception exception
+   */
+  @Test public void plans() throws Exception {
+    for(int i = 0; i < 3; i++) {
+      assertEquals("1 4 9", eval("string-join(for $i in 1 to 3 "
+          + "let $f := function($x) { $x * $i } return $f($i), ' ')", null));
+      assertEquals("<a><b/></a>", eval("serialize(copy $a := <a/> "
+          + "modify insert node <b/> into $a return $a, map { 'indent': 'no' })", null));
+    }
+  }
+
+  /**
+   * Queries with function declarations or options are not cached.
+   * @throws Exception exception
+   */
+  @Test public void notCached() throws Exception {
+    final long misses = ctx.plans.stats().misses(), hits = ctx.plans.stats().hits();
+    for(int i = 0; i < 2; i++) {
+      assertEquals("1", eval("declare function local:f() { 1 }; local:f()", null));
+      assertEquals("1", eval("declare option db:chop 'false'; 1", null));
+    }
+    assertEquals(misses + 4, ctx.plans.stats().misses());
+    assertEquals(hits, ctx.plans.stats().hits());
+  }
+
+  /**
+   * Drops the least recently used plans.
+   * @throws Exception exception
+   */
+  @Test public void evict() throws Exception {
+    final long evictions = ctx.plans.stats().evictions();
+    for(int i = 0; i < 3; i++) eval(Integer.toString(i), null);
+    assertEquals(2, ctx.plans.size());
+    assertTrue(ctx.plans.stats().evictions() > evictions);
+  }
+
+  /**
+   * Concurrent evaluation of the same plan.
+   * @throws Exception exception
+   */
+  @Test public void concurrent() throws Exception {
+    final String query = "declare variable $x external; sum(1 to $x)";
+    final Thread[] threads = new Thread[8];
+    final boolean[] ok = new boolean[threads.length];
+    for(int t = 0; t < threads.length; t++) {
+      final int th = t;
+      threads[t] = new Thread(() -> {
+        try {
+          for(int i = 1; i < 100; i++) {
+            if(!eval(query, i).equals(Long.toString(i * (i + 1L) / 2))) return;
+          }
+          ok[th] = true;
+        } catch(final Exception ex) {
+          Util.stack(ex);
+        }
+      });
+      threads[t].start();
+    }
+    for(final Thread thread : threads) thread.join();
+    for(final boolean o : ok) assertTrue(o);
+  }
+
+  /**
+   * Evaluates a query.
+   * @param query query
+   * @param value value to be bound to {@code $x} (can be {@code null})
+   * @return result
+   * @throws Exception exception
+   */
+  private static String eval(final String query, final Object value) throws Exception {
+    try(QueryProcessor qp = new QueryProcessor(query, ctx).cachePlans()) {
+      if(value != null) qp.bind("x", value);
+      return qp.value().serialize().toString();
+    }
+  }
+}
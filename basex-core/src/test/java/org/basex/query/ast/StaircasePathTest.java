@@ -0,0 +1,86 @@
+package org.basex.query.ast;
+
+import org.basex.core.cmd.*;
+import org.basex.query.expr.path.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * Tests for the set-at-a-time evaluation of paths ({@link StaircasePath}).
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class StaircasePathTest extends QueryPlanTest {
+  /** Test document. */
+  private static final String DOC = "<a id='1'><b id='2'><c id='3'/><b id='4'><c id='5'>x</c>"
+      + "</b></b><c id='6'><b id='7'><c id='8'/></b></c><b id='9'/></a>";
+
+  /** Creates a database with multiple documents. */
+  @BeforeClass public static void init() {
+    execute(new CreateDB(NAME));
+    execute(new Add("doc1.xml", DOC));
+    execute(new Add("doc2.xml", DOC));
+    execute(new Add("doc3.xml", "<a id='10'/>"));
+  }
+
+  /** Drops the database. */
+  @AfterClass public static void finish() {
+    execute(new DropDB(NAME));
+  }
+
+  /** Descendant axes. */
+  @Test public void descendant() {
+    check("//b/descendant::c");
+    check("//b/descendant::c[text()]");
+    check("//b/descendant-or-self::b");
+    check("//*/descendant-or-self::node()");
+    check("//c/descendant::node()");
+    check("//b/descendant::c/descendant-or-self::*");
+  }
+
+  /** Ancestor axes. */
+  @Test public void ancestor() {
+    check("//c/ancestor::b");
+    check("//c/ancestor::*[@id > 3]");
+    check("//c/ancestor-or-self::*");
+    check("//@id/ancestor::b");
+    check("//@id/ancestor-or-self::node()");
+    check("//text()/ancestor::node()");
+  }
+
+  /** Following and preceding axes. */
+  @Test public void followingPreceding() {
+    check("//c/following::b");
+    check("//b/following::node()");
+    check("//c/preceding::*");
+    check("//b/preceding::c[@id < 6]");
+    check("//c/preceding::node()");
+    check("//c/preceding::b/following::c");
+    check("//@id/following::b");
+    check("//@id/preceding::b");
+  }
+
+  /** Database nodes of different databases, and fragments. */
+  @Test public void mixed() {
+    check("count((db:open('" + NAME + "')//c, <x><y><c/></y></x>//y)/descendant-or-self::c)",
+        9, exists(StaircasePath.class));
+    check("count((db:open('" + NAME + "')//c, document { <a><b><c/></b></a> }//c)/ancestor::*)",
+        12, exists(StaircasePath.class));
+    check("(<a><b><c/></b><b/></a>)//b/descendant::c", "<c/>", exists(StaircasePath.class));
+  }
+
+  /**
+   * Compares the pre values of the result of the specified path with the results of a query
+   * that evaluates the last step for each context node.
+   * @param path path to be evaluated
+   */
+  private static void check(final String path) {
+    final int s = path.lastIndexOf('/');
+    final String root = "db:open('" + NAME + "')";
+    final String query = "string-join((" + root + path + ") ! db:node-pre(.), ' ')";
+    final String expected = query("string-join((" + root + path.substring(0, s) + " ! " +
+        path.substring(s + 1) + ")/. ! db:node-pre(.), ' ')");
+    check(query, expected, exists(StaircasePath.class));
+  }
+}
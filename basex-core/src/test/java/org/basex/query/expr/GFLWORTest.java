@@ -4,11 +4,16 @@ import static org.basex.query.QueryError.*;
 import static org.basex.query.func.Function.*;
 import static org.junit.Assert.*;
 
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.index.*;
 import org.basex.query.ast.*;
 import org.basex.query.expr.gflwor.*;
+import org.basex.query.expr.index.*;
 import org.basex.query.up.expr.*;
 import org.basex.util.*;
 import org.junit.*;
+import org.junit.Test;
 
 /**
  * Test cases for FLWOR expressions.
@@ -343,4 +348,163 @@ public final class GFLWORTest extends QueryPlanTest {
     check("let $x := <x>0</x> let $b := $x/text() return $b + 1", 1, count(Let.class, 1));
     error("let $x := <x>false</x> let $b as xs:boolean := $x/text() return $b", INVTYPE_X_X_X);
   }
+
+  /** Tests the rewriting of equi-joins to hash joins. */
+  @Test public void hashJoin() {
+    check("for $a in (1 to 4) ! <a id='{ . }'/> " +
+        "for $b in (4, 2, 2, 5, 1) ! <b ref='{ . }'/> " +
+        "where $a/@id = $b/@ref " +
+        "return $a/@id || $b/@ref",
+        "11\n22\n22\n44",
+        exists(HashJoin.class), empty(Where.class));
+    // multiple keys: preserve order of bound items
+    check("for $a in (<a>x y</a>, <a>y</a>) " +
+        "for $b in (<b>y</b>, <b>x</b>, <b>z</b>) " +
+        "where tokenize($a, ' ') = $b " +
+        "return $b/string()",
+        "y\nx\ny",
+        exists(HashJoin.class));
+    check("for $a in 1 to 3 for $b in (3, 1.0, 2e0, 1) where $a = $b return $b",
+        "1\n1\n2\n3",
+        exists(HashJoin.class));
+    check("for $a in (1 to 3) ! string() let $c := $a || 'x' " +
+        "for $b in (<b>1x</b>, <b>3x</b>) where $b = $c count $n return $n || $b",
+        "11x\n23x",
+        exists(HashJoin.class));
+
+    // no rewrite: inner sequence depends on outer variable, incomparable types
+    check("for $a in 1 to 3 for $b in $a to 3 where $a = $b return $b",
+        "1\n2\n3",
+        empty(HashJoin.class));
+    check("for $a in (1 to 3) ! <a>{ . }</a> for $b in 1 to 3 where $a = $b return $b",
+        "1\n2\n3",
+        empty(HashJoin.class));
+  }
+
+  /** Tests the choice between hash joins and index access. */
+  @Test public void hashJoinIndex() {
+    final String doc = "<x>{ (1 to 5) ! <a id='{ . }'/>, " +
+        "(1 to 5) ! <b ref='{ . mod 3 }' n='{ . }'/> }</x>";
+    final String query = "for $a in db:open('" + NAME + "')//a " +
+        "for $b in db:open('" + NAME + "')//b " +
+        "where $a/@id = $b/@ref return $a/@id || $b/@n";
+    final String result = "11\n14\n22\n25";
+    try {
+      set(MainOptions.ATTRINDEX, false);
+      execute(new CreateDB(NAME));
+      query("db:add('" + NAME + "', " + doc + ", 'x.xml')");
+      check(query, result, exists(HashJoin.class));
+      execute(new CreateIndex(IndexType.ATTRIBUTE));
+      check(query, result, empty(HashJoin.class), exists(ValueAccess.class));
+    } finally {
+      set(MainOptions.ATTRINDEX, true);
+      execute(new DropDB(NAME));
+    }
+  }
+
+  /** Tests the aggregation of non-grouping variables. */
+  @Test public void groupByAggregate() {
+    check("for $i in 1 to 10 let $j := $i mod 4 group by $k := $i mod 2 " +
+        "return $k || ':' || count($j) || ':' || sum($j) || ':' || avg($j) || ':' || max($j)",
+        "1:5:9:1.8:3\n0:5:6:1.2:2",
+        exists("GroupBy[@aggregate = 'count($j), sum($j), avg($j), max($j)']"));
+    check("for $i in 1 to 10 let $s := if($i > 3) then string($i) else () " +
+        "group by $k := $i mod 3 return string-join(($k, count($s), min($s)), ' ')",
+        "1 3 10\n2 2 5\n0 2 6",
+        exists("GroupBy[@aggregate = 'count($s), min($s)']"));
+    check("for $i in 1 to 4 let $e := () group by $k := $i mod 2 " +
+        "return string-join(($k, count($e), sum($e), sum($e, 'z'), avg($e), min($e)), ' ')",
+        "1 0 0 z\n0 0 0 z",
+        exists("GroupBy[@aggregate]"));
+
+    // errors are raised when the aggregate function is evaluated
+    check("for $i in 1 to 4 let $s := if($i = 2) then 'x' else $i group by $k := $i mod 2 " +
+        "return if($k = 1) then sum($s) else -1",
+        "4\n-1",
+        exists("GroupBy[@aggregate]"));
+    error("for $i in 1 to 4 let $s := if($i = 2) then 'x' else $i group by $k := $i mod 2 " +
+        "return sum($s)", SUM_X_X);
+
+    // values are referenced by other expressions
+    check("for $i in 1 to 4 group by $k := $i mod 2 return count($i) + $i[1]",
+        "3\n4",
+        empty("GroupBy[@aggregate]"));
+    check("for $i in 1 to 4 group by $k := $i mod 2 return count($i[. > 1])",
+        "1\n2",
+        empty("GroupBy[@aggregate]"));
+  }
+
+  /** Tests grouping with a limited number of groups in main memory. */
+  @Test public void groupBySpill() {
+    final String[] queries = {
+      "for $i in 1 to 1000 let $s := string($i) group by $k := $i mod 300 " +
+        "order by $k return $k || ':' || string-join($s, ',')",
+      "for $i in 1 to 1000 " +
+        "let $d := xs:date('2000-01-01') + xs:dayTimeDuration('P' || $i || 'D') " +
+        "group by $k := $i mod 300 order by $k return $k || ':' || count($d) || ':' || max($d)",
+      "for $i in 1 to 1000 let $j := if($i mod 7 = 0) then <a>{ $i }</a> else $i " +
+        "group by $k := string($i mod 300) order by $k return $k || ':' || sum($j) || ':' || " +
+        "string-join($j, ',')"
+    };
+    for(final String query : queries) {
+      final String expected = query(query);
+      try {
+        set(MainOptions.GROUPBUFFER, 10);
+        assertEquals(expected, query(query));
+      } finally {
+        set(MainOptions.GROUPBUFFER, 0);
+      }
+    }
+  }
+
+  /** Tests the parallel evaluation of for clauses. */
+  @Test public void parallel() {
+    final String[] queries = {
+      "for $i in 1 to 10000 return $i * 2",
+      "for $i at $p in reverse(1 to 1000) let $j := $i * $p where $j mod 3 = 0 return $j",
+      "let $x := 3 for $i in 1 to 1000 for $j in 1 to $i mod 3 return $i * $x + $j",
+      "for $i in 1 to 500 return <a>{ $i }</a>",
+      "for $i in (1 to 1000) ! string() return string-join(($i, .), '-')",
+    };
+    for(final String query : queries) {
+      final String expected = query("<x/>/" + "(" + query + ")");
+      // constructed nodes: no parallel evaluation (document order must match result order)
+      check("<x/>/((# basex:parallel #) { " + query + " })", expected,
+          query.contains("<a>") ? empty("Extension[@parallel]") : exists("Extension[@parallel]"));
+    }
+    check("declare function local:f($n) { (# basex:parallel #) { for $i in 1 to $n " +
+        "return sum(local:f($i - 1)) + 1 } }; sum(local:f(8))", 255,
+        exists("Extension[@parallel]"));
+
+    // errors
+    error("(# basex:parallel #) { for $i in 1 to 1000 return " +
+        "if($i = 500) then error() else $i }", FUNERR1);
+
+    // no parallel evaluation
+    check("(# basex:parallel #) { for $i in 1 to 4 order by -$i return $i }", "4\n3\n2\n1",
+        empty("Extension[@parallel]"));
+    check("(# basex:parallel #) { for $i in 1 to 4 return random:integer($i)[. > 10] }", "",
+        empty("Extension[@parallel]"));
+    check("let $r := (# basex:parallel #) { for $i in 1 to 500 return <a>{ $i }</a> } " +
+        "return string-join(($r/.) ! string(), ',') = string-join(1 to 500, ',')", true,
+        empty("Extension[@parallel]"));
+  }
+
+  /** Iterates over items that are requested in batches. */
+  @Test public void batch() {
+    query("let $d := <a>{ (1 to 1000) ! <b>{ . }</b> }</a> "
+        + "return sum(for $b in $d/b[. mod 2 = 0] return xs:integer($b))", 250500);
+    query("count(for $i in (1 to 1000)[. mod 7 = 0] return $i)", 142);
+    query("sum(for $s in (1 to 100) ! (1 to .) return $s)", 171700);
+    query("for $i at $p in (1 to 200)[. > 50] where $p = 150 return $i", 200);
+    query("sum(for $i in ((1 to 100) ! (. * 3))[. mod 2 = 0] return $i)", 7650);
+    query("count(for $a in 1 to 3 for $b in (1 to 100)[. > $a * 30] return $b)", 120);
+    query("for $i allowing empty in (1 to 10)[. > 10] return count($i)", 0);
+    query("head(for $i in (1 to 1000000000)[. > 5] return $i)", 6);
+    // errors are only raised if the failing item is requested
+    query("let $s := 1 to 10 return (for $i in $s[. mod 2 = 1] ! (10 idiv (. - 5)) "
+        + "count $c return $c)[1]", 1);
+    query("head(for $i in (1 to 100)[. < 80 or 1 idiv 0] return $i)", 1);
+    error("sum(for $i in (1 to 100)[. < 80 or 1 idiv 0] return $i)", DIVZERO_X);
+  }
 }
@@ -84,4 +84,33 @@ public final class SimpleMapTest extends QueryPlanTest {
     check("(1 to 2) ! util:replicate('a', 2) ! util:replicate('a', 2)", "a\na\na\na\na\na\na\na",
         exists(SingletonSeq.class) + " and .//@size = 8");
   }
+
+  /** Arithmetic expressions, comparisons and sums on numeric sequences. */
+  @Test public void numeric() {
+    final String ints = "let $x := (1 to 5) ! (. * 2) return ";
+    query(ints + "$x", "2\n4\n6\n8\n10");
+    query(ints + "$x ! (. - 3) ! (12 idiv .)", "-12\n12\n4\n2\n1");
+    query(ints + "$x ! (. div 4)", "0.5\n1\n1.5\n2\n2.5");
+    query(ints + "$x ! (. mod 3)", "2\n1\n0\n2\n1");
+    query(ints + "($x = 4, $x != 2, $x < 2, 3 < $x, $x >= 10.0e0)",
+        "true\ntrue\nfalse\ntrue\ntrue");
+    query(ints + "(sum($x), avg($x))", "30\n6");
+
+    final String dbls = "let $x := (1 to 4) ! (. * 0.5e0) return ";
+    query(dbls + "$x", "0.5\n1\n1.5\n2");
+    query(dbls + "$x ! (. * 2) ! (. mod 3)", "1\n2\n0\n1");
+    query(dbls + "($x = 1, $x > 2, 1.5 >= $x)", "true\nfalse\ntrue");
+    query(dbls + "(sum($x), avg($x))", "5\n1.25");
+    query("let $x := (1 to 2) ! (. * xs:double('NaN')) return ($x = $x, $x != $x)",
+        "false\ntrue");
+    query("let $x := (1 to 2) ! (. * -0e0) return sum($x)", "-0");
+
+    error("(1 to 2) ! (. * 9223372036854775807)", RANGE_X);
+    error("(0 to 1) ! (1 idiv .)", DIVZERO_X);
+    // no bulk evaluation if not all results are requested
+    query("head((1, 0) ! (1 idiv .))", 1);
+    query("let $x := (1 to 2) ! (2 - .) return head($x ! (1 idiv .))", 1);
+    query("let $x := (1 to 2) ! (2 - .) return exists($x ! (1 idiv .))", true);
+    error("sum((1 to 2) ! (. + 9223372036854775806))", RANGE_X);
+  }
 }
@@ -263,6 +263,8 @@ public final class DbModuleTest extends AdvancedQueryTest {
     final Function func = _DB_INFO;
     query("count(" + func.args(NAME) + "//" +
         SIZE.replaceAll("[- ]", "").toLowerCase(Locale.ENGLISH) + ')', 1);
+    query("exists(" + func.args(NAME) + "//tablehits)", true);
+    query("exists(" + func.args(NAME) + "//indexhits)", true);
   }
 
   /** Test method. */
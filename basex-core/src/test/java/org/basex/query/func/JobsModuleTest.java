@@ -6,6 +6,7 @@ import static org.junit.Assert.*;
 
 import java.io.*;
 
+import org.basex.core.jobs.*;
 import org.basex.core.users.*;
 import org.basex.query.*;
 import org.basex.util.*;
@@ -119,6 +120,21 @@ public final class JobsModuleTest extends AdvancedQueryTest {
     query(_JOBS_FINISHED.args(id), true);
   }
 
+  /** Test method. */
+  @Test public void evalTimer() {
+    // scheduled jobs share a single timer
+    final JobTimer timer = context.jobs.timer;
+    final int pending = timer.pending();
+    final String id1 = query(_JOBS_EVAL.args("1", " ()", " map{'start':'PT10S'}"));
+    final String id2 = query(_JOBS_EVAL.args("2", " ()",
+        " map{'start':'PT10S','interval':'PT10S'}"));
+    assertEquals(pending + 2, timer.pending());
+    // cancelled timers are removed
+    query(_JOBS_STOP.args(id1));
+    query(_JOBS_STOP.args(id2));
+    assertEquals(pending, timer.pending());
+  }
+
   /** Test method. */
   @Test public void evalEnd() {
     // scheduled execution
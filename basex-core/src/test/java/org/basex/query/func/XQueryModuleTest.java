@@ -113,6 +113,13 @@ public final class XQueryModuleTest extends AdvancedQueryTest {
     query(func.args(" (true#0, function() { (1 to 10000000)[.=1] })"), "true\n1");
     query(func.args(" ()"), "");
 
+    // nested calls: exceed quota of parallel tasks
+    query("sum(" + func.args(" (1 to 50) ! function() { sum(" +
+        func.args(" (1 to 50) ! function() { 1 }") + ") }") + ')', 2500);
+    // closures
+    query("let $x := 2 return " + func.args(" for $i in 1 to 3 return " +
+        "function() { $i * $x }"), "2\n4\n6");
+
     // errors
     error(func.args(" count#1"), ZEROFUNCS_X_X);
     error(func.args(" 123"), ZEROFUNCS_X_X);
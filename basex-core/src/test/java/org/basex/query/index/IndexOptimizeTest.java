@@ -1,9 +1,11 @@
 package org.basex.query.index;
 
 import static org.basex.query.func.Function.*;
+import static org.junit.Assert.*;
 
 import org.basex.core.*;
 import org.basex.core.cmd.*;
+import org.basex.query.*;
 import org.basex.query.ast.*;
 import org.basex.query.expr.ft.*;
 import org.basex.query.expr.index.*;
@@ -240,6 +242,72 @@ public final class IndexOptimizeTest extends QueryPlanTest {
     check("let $s := 1 return *[if($s) then () else .//text() = 'A']", "", empty());
   }
 
+  /** Chooses between index access and sequential scan, and reorders predicates. */
+  @Test public void costs() {
+    final StringBuilder sb = new StringBuilder("<xml><a><b>x</b></a><y>");
+    for(int i = 0; i < 100; i++) sb.append("<z><c>").append(i).append("</c><d>").
+      append(i % 2).append("</d><e>x</e></z>");
+    execute(new CreateDB(NAME, sb.append("</y></xml>").toString()));
+
+    // few candidates, many index results: scan
+    check("count(/xml/a[b = 'x'])", 1, empty(ValueAccess.class));
+    // selective predicates: index access
+    check("count(/xml/y/z[d = '0'])", 50, exists(ValueAccess.class));
+    check("count(/xml/y/z[c = '5'])", 1, exists(ValueAccess.class));
+    // most selective predicate is evaluated first
+    check("/xml/y/z[e = 'x'][d = '1'][c = '5']/c/text()", 5,
+        exists(Util.className(ValueAccess.class) + "[Str = '5']"),
+        exists("IterStep[@axis = 'parent']/*[1]//IterStep[@test = '*:d']"));
+    // selectivity of ranges is estimated via statistics
+    check("count(/xml/y/z[c >= 10 and c <= 19])", 10, exists(RangeAccess.class));
+    // index results with different parent names
+    check("count(/xml/y/z/e[. = 'x'])", 100, exists(ValueAccess.class));
+  }
+
+  /**
+   * Typed range index.
+   */
+  @Test public void range() throws QueryException {
+    final StringBuilder sb = new StringBuilder("<xml>");
+    for(int i = 0; i < 100; i++) {
+      sb.append("<z d='2018-01-").append(i % 28 + 1 < 10 ? "0" : "").append(i % 28 + 1).
+        append("'><p>").append(i - 50).append(".5</p><t>2018-02-03T").
+        append(i % 24 < 10 ? "0" : "").append(i % 24).append(":00:00Z</t><n>").append(i).
+        append("</n></z>");
+    }
+    try {
+      set(MainOptions.RANGEINCLUDE, "p,t,@d");
+      execute(new CreateDB(NAME, sb.append("</xml>").toString()));
+
+      // numeric ranges of arbitrary values
+      check("count(/xml/z[p < -40])", 11, exists(TypedAccess.class));
+      check("count(/xml/z[p >= 10 and p <= 19.5])", 10, exists(TypedAccess.class));
+      check("count(/xml/z/p[. = 0.5])", 1, exists(TypedAccess.class));
+      // timestamps and dates
+      check("count(/xml/z[t >= xs:dateTime('2018-02-03T20:00:00Z')])", 16,
+          exists(TypedAccess.class));
+      check("count(/xml/z[t = xs:dateTime('2018-02-03T08:00:00+01:00')])", 4,
+          exists(TypedAccess.class));
+      check("count(/xml/z[@d < xs:date('2018-01-03')])", 8, exists(TypedAccess.class));
+      // string representations of typed index accesses
+      try(QueryProcessor qp = new QueryProcessor("/xml/z[@d < xs:date('2018-01-03')]", context)) {
+        qp.compile();
+        final String string = qp.qc.root.toString();
+        assertTrue(string, string.contains("//@d[(. < \"2018-01-03\")]"));
+      }
+      // names that are not included
+      check("count(/xml/z[n < 10])", 10, empty(TypedAccess.class));
+
+      // updates invalidate the index
+      query("delete node /xml/z[p > 0]");
+      check("count(/xml/z[p < 5])", 50, empty(TypedAccess.class));
+      execute(new Optimize());
+      check("count(/xml/z[p < 5])", 50, exists(TypedAccess.class));
+    } finally {
+      set(MainOptions.RANGEINCLUDE, "");
+    }
+  }
+
   /**
    * Creates a test database.
    */
@@ -0,0 +1,79 @@
+package org.basex.query.util;
+
+import static org.junit.Assert.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.query.ast.*;
+import org.basex.query.expr.gflwor.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * Tests for sorting tuples with bounded memory ({@link TupleSort}).
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class TupleSortTest extends QueryPlanTest {
+  /** Resets the options. */
+  @After public void reset() {
+    set(MainOptions.SORTBUFFER, 0);
+  }
+
+  /** Order by clauses. */
+  @Test public void orderBy() {
+    check("for $i in 1 to 1000 order by $i mod 7, $i descending return $i");
+    check("for $i in 1 to 1000 order by string($i) return $i");
+    check("for $i in 1 to 1000 order by ($i mod 3)[. > 0] empty greatest return $i");
+    check("for $i in 1 to 1000 let $d := $i div 7 order by $d mod 1 return $d");
+    check("for $i in 1 to 1000 let $q := xs:QName('x' || $i mod 10) order by $i mod 11 "
+        + "return $q");
+  }
+
+  /** Order by clauses with database nodes. */
+  @Test public void orderByNodes() {
+    execute(new CreateDB(NAME, "<x>{ (1 to 500) ! <a n='{ . mod 13 }'>{ . }</a> }</x>"));
+    try {
+      check("for $a in //a order by $a/@n return $a");
+      check("for $a in //a order by $a/@n descending return string-join(($a/@n, $a), '/')");
+    } finally {
+      execute(new DropDB(NAME));
+    }
+  }
+
+  /** Sort functions. */
+  @Test public void sort() {
+    check("sort((1 to 1000) ! string())");
+    check("sort(1 to 1000, (), function($i) { $i mod 13 })");
+    check("sort((1 to 1000) ! xs:double(. mod 17) ! (. div 3))");
+    check("hof:sort-with((1 to 1000) ! (. * 7 mod 1009), function($a, $b) { $a > $b })");
+  }
+
+  /** Top-k: limited number of sorted tuples. */
+  @Test public void limit() {
+    check("(for $i in 1 to 1000 order by $i mod 13, $i return $i)[position() <= 5]",
+        "13\n26\n39\n52\n65", exists("OrderBy[@max = 5]"));
+    check("head(for $i in 1 to 1000 order by $i descending return $i)",
+        1000, exists("OrderBy[@max = 1]"));
+    check("subsequence(for $i in 1 to 1000 order by -$i return $i, 3, 2)",
+        "998\n997", exists("OrderBy[@max = 4]"));
+    check("(for $i in 1 to 1000 order by $i mod 13 return ($i, $i))[position() <= 5]",
+        "13\n13\n26\n26\n39", empty("OrderBy[@max]"));
+  }
+
+  /**
+   * Compares the result of a query that sorts in main memory with the result of a query that
+   * spills sorted runs to disk.
+   * @param query query
+   */
+  private static void check(final String query) {
+    final String expected = query(query);
+    set(MainOptions.SORTBUFFER, 64);
+    try {
+      assertEquals(expected, query(query));
+    } finally {
+      set(MainOptions.SORTBUFFER, 0);
+    }
+  }
+}
@@ -0,0 +1,87 @@
+package org.basex.server;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+
+import org.basex.*;
+import org.basex.api.client.*;
+import org.basex.core.*;
+import org.basex.util.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * This class tests the processing of client requests with a limited number of worker threads.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class ClientSelectorTest extends SandboxTest {
+  /** Number of clients. */
+  private static final int CLIENTS = 50;
+  /** Server reference. */
+  private static BaseXServer server;
+
+  /**
+   * Starts the server.
+   * @throws IOException I/O exception
+   */
+  @BeforeClass public static void start() throws IOException {
+    Prop.put(StaticOptions.SERVERTHREADS, "2");
+    server = createServer();
+  }
+
+  /**
+   * Stops the server.
+   */
+  @AfterClass public static void stop() {
+    stopServer(server);
+    Prop.put(StaticOptions.SERVERTHREADS, "0");
+  }
+
+  /**
+   * Idle connections must not occupy worker threads.
+   * @throws IOException I/O exception
+   */
+  @Test public void idleClients() throws IOException {
+    final ClientSession[] sessions = new ClientSession[CLIENTS];
+    try {
+      for(int c = 0; c < CLIENTS; c++) sessions[c] = createClient();
+      for(int c = 0; c < CLIENTS; c++) {
+        assertEquals(Integer.toString(c), sessions[c].query(Integer.toString(c)).execute());
+      }
+    } finally {
+      for(final ClientSession session : sessions) {
+        if(session != null) session.close();
+      }
+    }
+  }
+
+  /**
+   * Concurrent requests from multiple clients.
+   * @throws Exception exception
+   */
+  @Test public void concurrentClients() throws Exception {
+    final Thread[] threads = new Thread[CLIENTS];
+    final boolean[] ok = new boolean[CLIENTS];
+    for(int c = 0; c < CLIENTS; c++) {
+      final int cl = c;
+      threads[c] = new Thread(() -> {
+        try(ClientSession session = createClient()) {
+          for(int i = 0; i < 10; i++) {
+            if(!session.execute("xquery " + cl + " + " + i).equals(Integer.toString(cl + i))) {
+              return;
+            }
+          }
+          ok[cl] = true;
+        } catch(final IOException ex) {
+          Util.stack(ex);
+        }
+      });
+      threads[c].start();
+    }
+    for(final Thread thread : threads) thread.join();
+    for(final boolean o : ok) assertTrue(o);
+  }
+}
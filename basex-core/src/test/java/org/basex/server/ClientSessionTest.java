@@ -2,9 +2,13 @@ package org.basex.server;
 
 import static org.junit.Assert.*;
 
+import static org.basex.query.func.Function.*;
+
 import java.io.*;
 
 import org.basex.*;
+import org.basex.api.client.*;
+import org.basex.core.*;
 import org.basex.util.*;
 import org.junit.*;
 
@@ -42,4 +46,65 @@ public class ClientSessionTest extends SessionTest {
       fail(Util.message(ex));
     }
   }
+
+  /**
+   * Retrieves results while the query is still being evaluated.
+   * @throws IOException I/O exception
+   */
+  @Test public void queryStreaming() throws IOException {
+    session.setOutputStream(null);
+    try(Query query = session.query("1, " + _PROF_SLEEP.args(1000) + ", 2")) {
+      final Performance perf = new Performance();
+      assertEquals("1", query.next());
+      assertTrue(perf.ns() < 500000000);
+      assertEquals("2", query.next());
+      assertNull(query.next());
+    }
+  }
+
+  /**
+   * Retrieves buffered results while the next result is still being evaluated.
+   * @throws IOException I/O exception
+   */
+  @Test public void queryStreamingSlow() throws IOException {
+    session.setOutputStream(null);
+    try(Query query = session.query("1, 2, " + _PROF_SLEEP.args(1000) + ", 3")) {
+      final Performance perf = new Performance();
+      assertEquals("1", query.next());
+      assertEquals("2", query.next());
+      assertTrue(perf.ns() < 500000000);
+      assertEquals("3", query.next());
+      assertNull(query.next());
+    }
+  }
+
+  /**
+   * Reports an error that is raised after the first results have been retrieved.
+   * @throws IOException I/O exception
+   */
+  @Test public void queryStreamingError() throws IOException {
+    session.setOutputStream(null);
+    final Query query = session.query("(1,'a')[. eq 1]");
+    assertEquals("1", query.next());
+    assertEquals("4", session.execute("xquery 4"));
+    try {
+      query.next();
+      fail("Error expected.");
+    } catch(final BaseXException ex) {
+      assertNotNull(ex.getMessage());
+    }
+  }
+
+  /**
+   * Retrieves a large number of results.
+   * @throws IOException I/O exception
+   */
+  @Test public void queryLarge() throws IOException {
+    session.setOutputStream(null);
+    try(Query query = session.query("(1 to 1000000) ! string()")) {
+      int c = 0;
+      while(query.more()) assertEquals(Integer.toString(++c), query.next());
+      assertEquals(1000000, c);
+    }
+  }
 }
@@ -591,6 +591,18 @@ public abstract class SessionTest extends SandboxTest {
     for(final Query query : cqs) query.close();
   }
 
+  /** Runs commands while the results of a query are being retrieved.
+   * @throws IOException I/O exception */
+  @Test public void queryInterrupted() throws IOException {
+    try(Query query = session.query("1 to 3")) {
+      assertEqual("1", query.next());
+      assertEqual("4", session.execute("xquery 4"));
+      assertEqual("2", query.next());
+      query.bind("$a", "5");
+      assertEqual("1", query.next());
+    }
+  }
+
   /** Binds maps to external variables via JSON.
    * @throws IOException I/O exception */
   @Test public void queryBindJson() throws IOException {